@@ -38,6 +38,7 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.python.core.Py;
 import org.python.core.PyException;
@@ -72,7 +73,10 @@ public class JythonEvaluable implements Evaluable {
         };
     }
 
-    private final String s_functionName;
+    // numbers the functions defined by each parse, so that equal or colliding sources never share one
+    private static final AtomicLong s_functionCount = new AtomicLong();
+
+    private final PyFunction _function;
 
     private static PythonInterpreter _engine;
 
@@ -108,14 +112,14 @@ public class JythonEvaluable implements Evaluable {
             _engine = new PythonInterpreter();
             logger.debug("Done constructor for PythonInterpreter()");
         }
-        this.s_functionName = String.format("__temp_%d__", Math.abs(s.hashCode()));
+        String functionName = String.format("__temp_%d__", s_functionCount.incrementAndGet());
 
         // indent and create a function out of the code
         String[] lines = s.split("\r\n|\r|\n");
 
         StringBuffer sb = new StringBuffer(1024);
         sb.append("def ");
-        sb.append(s_functionName);
+        sb.append(functionName);
         sb.append("(value, cell, cells, row, rowIndex):");
         for (String line : lines) {
             sb.append("\n  ");
@@ -123,13 +127,16 @@ public class JythonEvaluable implements Evaluable {
         }
 
         _engine.exec(sb.toString());
+        _function = (PyFunction) _engine.get(functionName);
+        // the function is only kept by this evaluable, so that it is released with it
+        _engine.exec("del " + functionName);
     }
 
     @Override
     public Object evaluate(Properties bindings) {
         try {
             // call the temporary PyFunction directly
-            Object result = ((PyFunction) _engine.get(s_functionName)).__call__(
+            Object result = _function.__call__(
                     new PyObject[] {
                             Py.java2py(bindings.get("value")),
                             new JythonHasFieldsWrapper((HasFields) bindings.get("cell"), bindings),
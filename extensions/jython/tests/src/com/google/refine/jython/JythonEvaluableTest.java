@@ -76,4 +76,17 @@ public class JythonEvaluableTest {
         Long value2 = (Long) eval1.evaluate(props);
         Assert.assertEquals(value1, value2);
     }
+
+    @Test
+    public void testSourcesWithCollidingHashesKeepTheirOwnFunction() {
+        String first = "return 'Aa'";
+        String second = "return 'BB'";
+        Assert.assertEquals(second.hashCode(), first.hashCode());
+
+        Evaluable eval1 = new JythonEvaluable(first);
+        Evaluable eval2 = new JythonEvaluable(second);
+        Properties props = new Properties();
+        Assert.assertEquals(eval1.evaluate(props), "Aa");
+        Assert.assertEquals(eval2.evaluate(props), "BB");
+    }
 }
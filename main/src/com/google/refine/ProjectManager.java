@@ -42,7 +42,6 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -53,10 +52,12 @@ import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.refine.browsing.util.FilterCache;
 import com.google.refine.history.HistoryEntryManager;
 import com.google.refine.model.Project;
 import com.google.refine.preference.PreferenceStore;
 import com.google.refine.preference.TopList;
+import com.google.refine.sorting.SortedView;
 import com.google.refine.util.GetProjectIDException;
 import com.google.refine.util.ParsingUtilities;
 
@@ -266,11 +267,13 @@ public abstract class ProjectManager {
         Instant quicksaveDeadline = startTimeOfSave.plus(QUICK_SAVE_MAX_TIME);
 
         synchronized (this) {
-            for (long id : _projectsMetadata.keySet()) {
+            // Only projects held in memory can have unsaved changes, so there is no need to visit (and possibly load)
+            // the metadata of every project in the workspace.
+            for (long id : new ArrayList<>(_projects.keySet())) {
                 ProjectMetadata metadata = getProjectMetadata(id);
                 Project project = _projects.get(id); // don't call getProject() as that will load the project.
 
-                if (project != null) {
+                if (project != null && metadata != null) {
                     // We use after or equals to avoid the case where a newly created project
                     // has the same modified and last save times, resulting in the project not getting
                     // saved at all.
@@ -321,10 +324,10 @@ public abstract class ProjectManager {
      */
     protected void disposeUnmodifiedProjects() {
         synchronized (this) {
-            for (long id : _projectsMetadata.keySet()) {
+            for (long id : new ArrayList<>(_projects.keySet())) {
                 ProjectMetadata metadata = getProjectMetadata(id);
                 Project project = _projects.get(id);
-                if (project != null && !project.getProcessManager().hasPending()
+                if (project != null && metadata != null && !project.getProcessManager().hasPending()
                         && project.getLastSave().isAfter(metadata.getModified())) {
                     _projects.remove(id).dispose();
                 }
@@ -357,14 +360,27 @@ public abstract class ProjectManager {
      * @return
      */
     public ProjectMetadata getProjectMetadata(String name) {
-        for (ProjectMetadata pm : _projectsMetadata.values()) {
-            if (pm.getName().equals(name)) {
-                return pm;
+        for (long id : _projectsMetadata.keySet()) {
+            if (name.equals(getProjectName(id))) {
+                return _projectsMetadata.get(id);
             }
         }
         return null;
     }
 
+    /**
+     * Gets the name of a project. Subclasses which load metadata lazily can override this to answer from cached data
+     * without loading the full metadata of every project.
+     * 
+     * @param id
+     *            the project id
+     * @return the project name, or null if the project has no metadata
+     */
+    protected String getProjectName(long id) {
+        ProjectMetadata metadata = _projectsMetadata.get(id);
+        return metadata == null ? null : metadata.getName();
+    }
+
     /**
      * Tries to find the project id when given a project name Requires that all project metadata exists has been loaded
      * to memory from the data store
@@ -382,10 +398,9 @@ public abstract class ProjectManager {
         Integer count = 0;
         Long id = -1L;
         // TODO: Linear search assumes small number of projects
-        for (Entry<Long, ProjectMetadata> entry : _projectsMetadata.entrySet()) {
-            ProjectMetadata metadata = entry.getValue();
-            if (metadata != null && name.equals(metadata.getName())) {
-                id = entry.getKey();
+        for (long projectId : _projectsMetadata.keySet()) {
+            if (name.equals(getProjectName(projectId))) {
+                id = projectId;
                 count += 1;
             }
         }
@@ -485,6 +500,17 @@ public abstract class ProjectManager {
         return _projectsMetadata;
     }
 
+    /**
+     * Gets the metadata of all projects as shown in the project list. Implementations which load project metadata
+     * lazily may list projects without loading their metadata.
+     *
+     * @return objects serializing to the metadata of each project, by project id
+     */
+    @JsonIgnore
+    public Map<Long, Object> getProjectListing() {
+        return new HashMap<>(getAllProjectMetadata());
+    }
+
     /**
      * Increment usage count for all tags in the list.
      *
@@ -619,6 +645,8 @@ public abstract class ProjectManager {
             _projects.remove(projectID).dispose();
         }
         _projectsMetadata.remove(projectID);
+        FilterCache.getInstance().flush(projectID);
+        SortedView.flush(projectID);
     }
 
     /**
@@ -33,6 +33,8 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.browsing;
 
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
@@ -42,9 +44,13 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import com.google.refine.browsing.facets.Facet;
+import com.google.refine.browsing.facets.FacetConfig;
 import com.google.refine.browsing.util.ConjunctiveFilteredRecords;
 import com.google.refine.browsing.util.ConjunctiveFilteredRows;
+import com.google.refine.browsing.util.FilterCache;
+import com.google.refine.browsing.util.FilterOutcomes;
 import com.google.refine.browsing.util.FilteredRecordsAsFilteredRows;
+import com.google.refine.browsing.util.ParallelScan;
 import com.google.refine.model.Project;
 import com.google.refine.model.Row;
 
@@ -103,6 +109,10 @@ public class Engine {
                     visitor.start(project);
 
                     int c = project.rows.size();
+                    if (ParallelScan.isParallel(visitor, c)) {
+                        acceptAllInParallel(project, (MergeableVisitor) visitor, c);
+                        return;
+                    }
                     for (int rowIndex = 0; rowIndex < c; rowIndex++) {
                         Row row = project.rows.get(rowIndex);
                         if (visitor.visit(project, rowIndex, row)) {
@@ -116,24 +126,52 @@ public class Engine {
         };
     }
 
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    static private void acceptAllInParallel(Project project, MergeableVisitor visitor, int rowCount) {
+        ParallelScan.scan(visitor, rowCount, (fork, from, to) -> {
+            RowVisitor rowVisitor = (RowVisitor) fork;
+            for (int rowIndex = from; rowIndex < to; rowIndex++) {
+                rowVisitor.visit(project, rowIndex, project.rows.get(rowIndex));
+            }
+        });
+    }
+
     @JsonIgnore
     public FilteredRows getAllFilteredRows() {
         return getFilteredRows(null);
     }
 
+    /**
+     * Gets the rows matching all facets but one. The rows matching a facet are taken from the {@link FilterCache} if
+     * they are there, and other facets are evaluated on the rows as they are visited, so that visitors which stop early
+     * don't pay for evaluating them on the whole project.
+     */
     public FilteredRows getFilteredRows(Facet except) {
         if (_config.getMode().equals(Mode.RecordBased)) {
             return new FilteredRecordsAsFilteredRows(getFilteredRecords(except));
         } else if (_config.getMode().equals(Mode.RowBased)) {
+            List<FacetConfig> facetConfigs = _config.getFacetConfigs();
+            FilterCache cache = FilterCache.getInstance();
+            List<RowFilter> evaluated = new ArrayList<>();
             ConjunctiveFilteredRows cfr = new ConjunctiveFilteredRows();
-            for (Facet facet : _facets) {
+            for (int i = 0; i < _facets.size(); i++) {
+                Facet facet = _facets.get(i);
                 if (facet != except) {
                     RowFilter rowFilter = facet.getRowFilter(_project);
                     if (rowFilter != null) {
-                        cfr.add(rowFilter);
+                        BitSet matches = i < facetConfigs.size()
+                                ? cache.get(FilterCache.getKey(_project, MODE_ROW_BASED, facetConfigs.get(i)))
+                                : null;
+                        if (matches != null) {
+                            // cheaper than the other filters, so checked first
+                            cfr.add((project, rowIndex, row) -> matches.get(rowIndex));
+                        } else {
+                            evaluated.add(rowFilter);
+                        }
                     }
                 }
             }
+            evaluated.forEach(cfr::add);
             return cfr;
         }
         throw new InternalError("Unknown mode.");
@@ -164,22 +202,80 @@ public class Engine {
         return getFilteredRecords(null);
     }
 
+    /**
+     * Gets the records matching all facets but one. The records matching a facet are taken from the
+     * {@link FilterCache} if they are there, and other facets are evaluated on the records as they are visited.
+     */
     public FilteredRecords getFilteredRecords(Facet except) {
         if (_config.getMode().equals(Mode.RecordBased)) {
+            List<FacetConfig> facetConfigs = _config.getFacetConfigs();
+            FilterCache cache = FilterCache.getInstance();
+            List<RecordFilter> evaluated = new ArrayList<>();
             ConjunctiveFilteredRecords cfr = new ConjunctiveFilteredRecords();
-            for (Facet facet : _facets) {
+            for (int i = 0; i < _facets.size(); i++) {
+                Facet facet = _facets.get(i);
                 if (facet != except) {
                     RecordFilter recordFilter = facet.getRecordFilter(_project);
                     if (recordFilter != null) {
-                        cfr.add(recordFilter);
+                        BitSet matches = i < facetConfigs.size()
+                                ? cache.get(FilterCache.getKey(_project, MODE_RECORD_BASED, facetConfigs.get(i)))
+                                : null;
+                        if (matches != null) {
+                            cfr.add((project, record) -> matches.get(record.recordIndex));
+                        } else {
+                            evaluated.add(recordFilter);
+                        }
                     }
                 }
             }
+            evaluated.forEach(cfr::add);
             return cfr;
         }
         throw new InternalError("This method should not be called when the engine is not in record mode.");
     }
 
+    /**
+     * Gets the rows or records matched by each facet which has a filter, from the {@link FilterCache} or by evaluating
+     * the filter.
+     *
+     * @param recordBased
+     *            whether to evaluate record filters rather than row filters
+     * @param filterIndices
+     *            filled with the index of each facet's filter in the outcomes, or -1 if it has none
+     */
+    protected FilterOutcomes computeFilterOutcomes(boolean recordBased, int[] filterIndices) {
+        String mode = recordBased ? MODE_RECORD_BASED : MODE_ROW_BASED;
+        List<FacetConfig> facetConfigs = _config.getFacetConfigs();
+        FilterCache cache = FilterCache.getInstance();
+        List<BitSet> matches = new ArrayList<>();
+        for (int i = 0; i < _facets.size(); i++) {
+            Facet facet = _facets.get(i);
+            RowFilter rowFilter = null;
+            RecordFilter recordFilter = null;
+            if (recordBased) {
+                recordFilter = facet.getRecordFilter(_project);
+            } else {
+                rowFilter = facet.getRowFilter(_project);
+            }
+            if (rowFilter == null && recordFilter == null) {
+                filterIndices[i] = -1;
+                continue;
+            }
+
+            String key = i < facetConfigs.size() ? FilterCache.getKey(_project, mode, facetConfigs.get(i)) : null;
+            BitSet facetMatches = cache.get(key);
+            if (facetMatches == null) {
+                facetMatches = recordBased ? FilterOutcomes.evaluate(_project, recordFilter)
+                        : FilterOutcomes.evaluate(_project, rowFilter);
+                cache.put(key, facetMatches);
+            }
+            filterIndices[i] = matches.size();
+            matches.add(facetMatches);
+        }
+        int size = recordBased ? _project.recordModel.getRecordCount() : _project.rows.size();
+        return new FilterOutcomes(size, matches.toArray(new BitSet[0]));
+    }
+
     public void initializeFromConfig(EngineConfig config) {
         _config = config;
         _facets = config.getFacetConfigs().stream()
@@ -187,18 +283,27 @@ public class Engine {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Computes the choices of all facets. Each facet is computed on the rows (or records) matching all other facets.
+     * Rather than evaluating the other facets' filters again for each facet, each filter is evaluated once (or taken
+     * from the {@link FilterCache}) and the matches of the other facets are intersected.
+     */
     public void computeFacets() {
         if (_config.getMode().equals(Mode.RowBased)) {
-            for (Facet facet : _facets) {
-                FilteredRows filteredRows = getFilteredRows(facet);
+            int[] filterIndices = new int[_facets.size()];
+            FilterOutcomes outcomes = computeFilterOutcomes(false, filterIndices);
+            for (int i = 0; i < _facets.size(); i++) {
+                FilteredRows filteredRows = outcomes.getFilteredRows(filterIndices[i]);
 
-                facet.computeChoices(_project, filteredRows);
+                _facets.get(i).computeChoices(_project, filteredRows);
             }
         } else if (_config.getMode().equals(Mode.RecordBased)) {
-            for (Facet facet : _facets) {
-                FilteredRecords filteredRecords = getFilteredRecords(facet);
+            int[] filterIndices = new int[_facets.size()];
+            FilterOutcomes outcomes = computeFilterOutcomes(true, filterIndices);
+            for (int i = 0; i < _facets.size(); i++) {
+                FilteredRecords filteredRecords = outcomes.getFilteredRecords(filterIndices[i]);
 
-                facet.computeChoices(_project, filteredRecords);
+                _facets.get(i).computeChoices(_project, filteredRecords);
             }
         } else {
             throw new InternalError("Unknown mode.");
@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.browsing;
+
+/**
+ * A visitor whose results can be computed separately over consecutive chunks of rows or records and then combined.
+ * {@link RowVisitor}s and {@link RecordVisitor}s implementing it can be run over large projects in parallel, see
+ * {@link com.google.refine.browsing.util.ParallelScan}.
+ * <p>
+ * Forked visitors are visited concurrently, so they must not share mutable state with each other or with the visitor
+ * they were forked from. Their start() and end() methods are not called: the visitor they were forked from is started
+ * before forking and ended after all chunks have been merged into it. A visitor scanned in parallel must not abort the
+ * visit early.
+ *
+ * @param <T>
+ *            the type of the visitor itself
+ */
+public interface MergeableVisitor<T extends MergeableVisitor<T>> {
+
+    /**
+     * @return false if this visitor can't currently be split, in which case the rows or records are visited
+     *         sequentially
+     */
+    default boolean isForkable() {
+        return true;
+    }
+
+    /**
+     * Creates a visitor with the same configuration as this one and no results, to visit one chunk of rows or records.
+     * It may be called from several threads at once.
+     */
+    T fork();
+
+    /**
+     * Adds the results of a forked visitor to those of this visitor. Chunks are merged in order, so the rows or records
+     * visited by the given visitor come after those already accumulated here.
+     *
+     * @param chunk
+     *            a visitor returned by {@link #fork()}
+     */
+    void merge(T chunk);
+}
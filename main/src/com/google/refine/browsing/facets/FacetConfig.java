@@ -27,6 +27,8 @@
 
 package com.google.refine.browsing.facets;
 
+import java.util.List;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.fasterxml.jackson.annotation.JsonSubTypes.Type;
@@ -63,4 +65,15 @@ public interface FacetConfig {
      */
     @JsonIgnore // already included by @JsonTypeInfo
     public String getJsonType();
+
+    /**
+     * The expressions evaluated by the facet to filter rows, which tell whether its matches only depend on the state of
+     * the project and can be cached across requests.
+     * 
+     * @return the expressions, or null if they are not known, in which case the matches are never cached
+     */
+    @JsonIgnore
+    public default List<String> getFilterExpressions() {
+        return null;
+    }
 }
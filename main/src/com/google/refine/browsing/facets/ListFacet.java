@@ -33,6 +33,9 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.browsing.facets;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -53,6 +56,8 @@ import com.google.refine.browsing.filters.AllRowsRecordFilter;
 import com.google.refine.browsing.filters.AnyRowRecordFilter;
 import com.google.refine.browsing.filters.ExpressionEqualRowFilter;
 import com.google.refine.browsing.util.ExpressionNominalValueGrouper;
+import com.google.refine.browsing.util.ExpressionResultCache;
+import com.google.refine.browsing.util.RowSample;
 import com.google.refine.expr.Evaluable;
 import com.google.refine.expr.MetaParser;
 import com.google.refine.expr.ParsingException;
@@ -105,6 +110,11 @@ public class ListFacet implements Facet {
         @JsonProperty("selectError")
         public boolean selectError;
 
+        // If true, choice counts of large projects are estimated from a sample of the rows
+        @JsonProperty("approximate")
+        @JsonInclude(Include.NON_DEFAULT)
+        public boolean approximate;
+
         @JsonProperty("selection")
         public List<DecoratedValueWrapper> getWrappedSelection() {
             return selection.stream()
@@ -130,6 +140,11 @@ public class ListFacet implements Facet {
         public String getJsonType() {
             return "list";
         }
+
+        @Override
+        public List<String> getFilterExpressions() {
+            return Collections.singletonList(expression);
+        }
     }
 
     /**
@@ -165,6 +180,7 @@ public class ListFacet implements Facet {
     protected List<NominalFacetChoice> _choices = new LinkedList<NominalFacetChoice>();
     protected int _blankCount;
     protected int _errorCount;
+    protected RowSample _sample;
 
     public ListFacet() {
     }
@@ -216,6 +232,15 @@ public class ListFacet implements Facet {
         return null;
     }
 
+    /**
+     * @return the rate at which rows were sampled to estimate the counts, or null if they are exact
+     */
+    @JsonProperty("sampleRate")
+    @JsonInclude(Include.NON_NULL)
+    public Double getSampleRate() {
+        return _sample == null || _sample.isComplete() ? null : _sample.getRate();
+    }
+
     @JsonProperty("blankChoice")
     @JsonInclude(Include.NON_NULL)
     public OtherChoice getBlankChoice() {
@@ -295,8 +320,13 @@ public class ListFacet implements Facet {
     @Override
     public void computeChoices(Project project, FilteredRows filteredRows) {
         if (_eval != null && _errorMessage == null) {
-            ExpressionNominalValueGrouper grouper = new ExpressionNominalValueGrouper(_eval, _config.columnName, _cellIndex);
+            ExpressionNominalValueGrouper grouper = new ExpressionNominalValueGrouper(_eval, _config.columnName, _cellIndex,
+                    ExpressionResultCache.getResults(project, _cellIndex, _config.columnName, _config.expression, _eval));
 
+            if (_config.approximate) {
+                _sample = RowSample.forProject(project, false);
+                filteredRows = _sample.of(filteredRows);
+            }
             filteredRows.accept(project, grouper);
 
             postProcessGrouper(grouper);
@@ -306,8 +336,13 @@ public class ListFacet implements Facet {
     @Override
     public void computeChoices(Project project, FilteredRecords filteredRecords) {
         if (_eval != null && _errorMessage == null) {
-            ExpressionNominalValueGrouper grouper = new ExpressionNominalValueGrouper(_eval, _config.columnName, _cellIndex);
+            ExpressionNominalValueGrouper grouper = new ExpressionNominalValueGrouper(_eval, _config.columnName, _cellIndex,
+                    ExpressionResultCache.getResults(project, _cellIndex, _config.columnName, _config.expression, _eval));
 
+            if (_config.approximate) {
+                _sample = RowSample.forProject(project, true);
+                filteredRecords = _sample.of(filteredRecords);
+            }
             filteredRecords.accept(project, grouper);
 
             postProcessGrouper(grouper);
@@ -341,6 +376,36 @@ public class ListFacet implements Facet {
 
         _blankCount = grouper.blankCount;
         _errorCount = grouper.errorCount;
+
+        if (_sample != null && !_sample.isComplete()) {
+            estimateCounts();
+        }
+    }
+
+    /**
+     * Turns the counts over the sample into estimates over all rows, keeping only the most frequent choices, besides
+     * selected ones, when there are too many to show.
+     */
+    protected void estimateCounts() {
+        for (NominalFacetChoice choice : _choices) {
+            choice.errorBound = _sample.errorBound(choice.count);
+            choice.count = _sample.estimate(choice.count);
+        }
+        _blankCount = _sample.estimate(_blankCount);
+        _errorCount = _sample.estimate(_errorCount);
+
+        int limit = getLimit();
+        if (_choices.size() > limit) {
+            List<NominalFacetChoice> choices = new ArrayList<>(_choices);
+            choices.sort(Comparator.comparingInt((NominalFacetChoice c) -> c.count).reversed());
+            int unselected = limit - (int) choices.stream().filter(c -> c.selected).count();
+            _choices.clear();
+            for (NominalFacetChoice choice : choices) {
+                if (choice.selected || unselected-- > 0) {
+                    _choices.add(choice);
+                }
+            }
+        }
     }
 
     protected Object[] createMatches() {
@@ -33,6 +33,8 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.browsing.facets;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import com.google.refine.browsing.DecoratedValue;
@@ -48,6 +50,12 @@ public class NominalFacetChoice {
     public int count;
     @JsonProperty("s")
     public boolean selected;
+    /**
+     * Half-width of a 95% confidence interval around the count, if it is estimated
+     */
+    @JsonProperty("e")
+    @JsonInclude(Include.NON_NULL)
+    public Integer errorBound;
 
     public NominalFacetChoice(DecoratedValue decoratedValue) {
         this.decoratedValue = decoratedValue;
@@ -33,6 +33,9 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.browsing.facets;
 
+import java.util.Collections;
+import java.util.List;
+
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
@@ -51,11 +54,15 @@ import com.google.refine.browsing.util.NumericBinIndex;
 import com.google.refine.browsing.util.NumericBinRecordIndex;
 import com.google.refine.browsing.util.NumericBinRowIndex;
 import com.google.refine.browsing.util.RowEvaluable;
+import com.google.refine.browsing.util.RowSample;
 import com.google.refine.expr.Evaluable;
 import com.google.refine.expr.MetaParser;
 import com.google.refine.expr.ParsingException;
+import com.google.refine.grel.TieredExpression;
+import com.google.refine.grel.ast.ExpressionOptimizer;
 import com.google.refine.model.Column;
 import com.google.refine.model.Project;
+import com.google.refine.model.Row;
 
 public class RangeFacet implements Facet {
 
@@ -87,6 +94,11 @@ public class RangeFacet implements Facet {
         @JsonProperty("selectError")
         protected boolean _selectError;
 
+        // if true, bins of large projects are estimated from a sample of the rows
+        @JsonProperty("approximate")
+        @JsonInclude(Include.NON_DEFAULT)
+        protected boolean _approximate;
+
         @JsonIgnore
         protected boolean _selected; // false if we're certain that all rows will match
         // and there isn't any filtering to do
@@ -125,6 +137,11 @@ public class RangeFacet implements Facet {
         public String getJsonType() {
             return "range";
         }
+
+        @Override
+        public List<String> getFilterExpressions() {
+            return Collections.singletonList(_expression);
+        }
     }
 
     RangeFacetConfig _config = null;
@@ -154,6 +171,11 @@ public class RangeFacet implements Facet {
     @JsonProperty("baseErrorCount")
     protected int _baseErrorCount;
 
+    /*
+     * Rows or records from which counts are estimated, if any
+     */
+    protected RowSample _sample;
+
     @JsonProperty("numericCount")
     protected int _numericCount;
     @JsonProperty("nonNumericCount")
@@ -247,6 +269,15 @@ public class RangeFacet implements Facet {
         return null;
     }
 
+    /**
+     * @return the rate at which rows were sampled to estimate the counts, or null if they are exact
+     */
+    @JsonProperty("sampleRate")
+    @JsonInclude(Include.NON_NULL)
+    public Double getSampleRate() {
+        return _sample == null || _sample.isComplete() ? null : _sample.getRate();
+    }
+
     @JsonProperty(FROM)
     @JsonInclude(Include.NON_NULL)
     public Double getFrom() {
@@ -289,10 +320,20 @@ public class RangeFacet implements Facet {
     @Override
     public RowFilter getRowFilter(Project project) {
         if (_eval != null && _errorMessage == null && _config._selected) {
+            NumericBinIndex index = getBaseBinIndex(project);
             return new ExpressionNumberComparisonRowFilter(
                     getRowEvaluable(project), _config._selectNumeric, _config._selectNonNumeric, _config._selectBlank,
                     _config._selectError) {
 
+                @Override
+                public boolean filterRow(Project project, int rowIndex, Row row) {
+                    if (index != null && index.isRowIndexed(rowIndex)) {
+                        return index.rowMatches(rowIndex, _config._from, _config._to,
+                                _selectNumeric, _selectNonNumeric, _selectBlank, _selectError);
+                    }
+                    return super.filterRow(project, rowIndex, row);
+                }
+
                 @Override
                 protected boolean checkValue(double d) {
                     return d >= _config._from && d < _config._to;
@@ -313,19 +354,17 @@ public class RangeFacet implements Facet {
     public void computeChoices(Project project, FilteredRows filteredRows) {
         if (_eval != null && _errorMessage == null) {
             RowEvaluable rowEvaluable = getRowEvaluable(project);
+            _sample = _config._approximate ? RowSample.forProject(project, false) : null;
 
-            Column column = project.columnModel.getColumnByCellIndex(_cellIndex);
-            String key = "numeric-bin:row-based:" + _config._expression;
-            NumericBinIndex index = (NumericBinIndex) column.getPrecompute(key);
-            if (index == null) {
-                index = new NumericBinRowIndex(project, rowEvaluable);
-                column.setPrecompute(key, index);
-            }
+            NumericBinIndex index = getBaseBinIndex(project, rowEvaluable, "row-based");
 
             retrieveDataFromBaseBinIndex(index);
 
             ExpressionNumericValueBinner binner = new ExpressionNumericValueBinner(rowEvaluable, index);
 
+            if (_sample != null) {
+                filteredRows = _sample.of(filteredRows);
+            }
             filteredRows.accept(project, binner);
             retrieveDataFromBinner(binner);
         }
@@ -335,25 +374,70 @@ public class RangeFacet implements Facet {
     public void computeChoices(Project project, FilteredRecords filteredRecords) {
         if (_eval != null && _errorMessage == null) {
             RowEvaluable rowEvaluable = getRowEvaluable(project);
+            _sample = _config._approximate ? RowSample.forProject(project, true) : null;
 
-            Column column = project.columnModel.getColumnByCellIndex(_cellIndex);
-            String key = "numeric-bin:record-based:" + _config._expression;
-            NumericBinIndex index = (NumericBinIndex) column.getPrecompute(key);
-            if (index == null) {
-                index = new NumericBinRecordIndex(project, rowEvaluable);
-                column.setPrecompute(key, index);
-            }
+            NumericBinIndex index = getBaseBinIndex(project, rowEvaluable, "record-based");
 
             retrieveDataFromBaseBinIndex(index);
 
             ExpressionNumericValueBinner binner = new ExpressionNumericValueBinner(rowEvaluable, index);
 
+            if (_sample != null) {
+                filteredRecords = _sample.of(filteredRecords);
+            }
             filteredRecords.accept(project, binner);
 
             retrieveDataFromBinner(binner);
         }
     }
 
+    /**
+     * Returns the base bins of the facet's expression, computing them if needed. In approximate mode, base bins are
+     * only computed over the sample, unless those over all rows are already available.
+     *
+     * @param mode
+     *            "row-based" or "record-based"
+     */
+    protected NumericBinIndex getBaseBinIndex(Project project, RowEvaluable rowEvaluable, String mode) {
+        boolean recordBased = "record-based".equals(mode);
+        Column column = project.columnModel.getColumnByCellIndex(_cellIndex);
+        String key = "numeric-bin:" + mode + ":" + _config._expression;
+        NumericBinIndex index = (NumericBinIndex) column.getPrecompute(key);
+        if (index == null && _sample != null && !_sample.isComplete()) {
+            key = "numeric-bin-sample:" + mode + ":" + _config._expression;
+            index = (NumericBinIndex) column.getPrecompute(key);
+            if (index == null) {
+                index = recordBased ? new NumericBinRecordIndex(project, rowEvaluable, _sample)
+                        : new NumericBinRowIndex(project, rowEvaluable, _sample);
+                column.setPrecompute(key, index);
+            }
+        } else if (index == null) {
+            index = recordBased ? new NumericBinRecordIndex(project, rowEvaluable)
+                    : new NumericBinRowIndex(project, rowEvaluable);
+            column.setPrecompute(key, index);
+        }
+        return index;
+    }
+
+    /**
+     * Returns the base bins already computed for this facet's expression, in either mode, to filter rows with the
+     * values they store. Those are only up to date if the expression depends on nothing else than the facet's column,
+     * since only changes to that column clear them.
+     *
+     * @return the base bins, or null
+     */
+    protected NumericBinIndex getBaseBinIndex(Project project) {
+        Column column = project.columnModel.getColumnByCellIndex(_cellIndex);
+        if (column == null || !ExpressionOptimizer.dependsOnlyOnCell(TieredExpression.unwrap(_eval))) {
+            return null;
+        }
+        NumericBinIndex index = (NumericBinIndex) column.getPrecompute("numeric-bin:row-based:" + _config._expression);
+        if (index == null) {
+            index = (NumericBinIndex) column.getPrecompute("numeric-bin:record-based:" + _config._expression);
+        }
+        return index;
+    }
+
     protected RowEvaluable getRowEvaluable(Project project) {
         return new ExpressionBasedRowEvaluable(_config._columnName, _cellIndex, _eval);
     }
@@ -369,6 +453,15 @@ public class RangeFacet implements Facet {
         _baseBlankCount = index.getBlankRowCount();
         _baseErrorCount = index.getErrorRowCount();
 
+        RowSample baseSample = index.getSample();
+        if (baseSample != null && !baseSample.isComplete()) {
+            _baseBins = baseSample.estimate(_baseBins);
+            _baseNumericCount = baseSample.estimate(_baseNumericCount);
+            _baseNonNumericCount = baseSample.estimate(_baseNonNumericCount);
+            _baseBlankCount = baseSample.estimate(_baseBlankCount);
+            _baseErrorCount = baseSample.estimate(_baseErrorCount);
+        }
+
         if (_config._selected) {
             _config._from = Math.max(_config._from, _min);
             _config._to = Math.min(_config._to, _max);
@@ -384,5 +477,13 @@ public class RangeFacet implements Facet {
         _nonNumericCount = binner.nonNumericCount;
         _blankCount = binner.blankCount;
         _errorCount = binner.errorCount;
+
+        if (_sample != null && !_sample.isComplete()) {
+            _bins = _sample.estimate(_bins);
+            _numericCount = _sample.estimate(_numericCount);
+            _nonNumericCount = _sample.estimate(_nonNumericCount);
+            _blankCount = _sample.estimate(_blankCount);
+            _errorCount = _sample.estimate(_errorCount);
+        }
     }
 }
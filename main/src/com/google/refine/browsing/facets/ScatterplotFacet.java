@@ -40,6 +40,8 @@ import java.awt.image.BufferedImage;
 import java.awt.image.RenderedImage;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
 
 import javax.imageio.ImageIO;
 
@@ -61,6 +63,7 @@ import com.google.refine.browsing.util.ExpressionBasedRowEvaluable;
 import com.google.refine.browsing.util.NumericBinIndex;
 import com.google.refine.browsing.util.NumericBinRecordIndex;
 import com.google.refine.browsing.util.NumericBinRowIndex;
+import com.google.refine.browsing.util.RowSample;
 import com.google.refine.expr.Evaluable;
 import com.google.refine.expr.MetaParser;
 import com.google.refine.expr.ParsingException;
@@ -126,6 +129,11 @@ public class ScatterplotFacet implements Facet {
         @JsonProperty(TO_Y)
         protected double to_y;
 
+        // if true, only a sample of the rows of large projects is drawn
+        @JsonProperty(APPROXIMATE)
+        @JsonInclude(Include.NON_DEFAULT)
+        protected boolean approximate;
+
         // false if we're certain that all rows will match
         // and there isn't any filtering to do
         protected boolean isSelected() {
@@ -164,6 +172,11 @@ public class ScatterplotFacet implements Facet {
         public String getJsonType() {
             return "scatterplot";
         }
+
+        @Override
+        public List<String> getFilterExpressions() {
+            return Arrays.asList(expression_x, expression_y);
+        }
     }
 
     ScatterplotFacetConfig config;
@@ -185,6 +198,7 @@ public class ScatterplotFacet implements Facet {
     protected AffineTransform t;
 
     protected String image;
+    protected RowSample sample;
 
     public static final String NAME = "name";
     public static final String IMAGE = "image";
@@ -212,6 +226,9 @@ public class ScatterplotFacet implements Facet {
     public static final String FROM_Y = "from_y";
     public static final String ERROR_Y = "error_y";
 
+    public static final String APPROXIMATE = "approximate";
+    public static final String SAMPLE_RATE = "sampleRate";
+
     private static final boolean IMAGE_URI = false;
 
     public static String EMPTY_IMAGE;
@@ -290,6 +307,16 @@ public class ScatterplotFacet implements Facet {
         return null;
     }
 
+    /**
+     * @return the rate at which rows were sampled for drawing the image of the facet, or null if all of them were
+     *         drawn or no image was drawn
+     */
+    @JsonProperty(SAMPLE_RATE)
+    @JsonInclude(Include.NON_NULL)
+    public Double getSampleRate() {
+        return sample == null || sample.isComplete() ? null : sample.getRate();
+    }
+
     @JsonProperty(ERROR_X)
     @JsonInclude(Include.NON_NULL)
     public String getErrorX() {
@@ -431,9 +458,13 @@ public class ScatterplotFacet implements Facet {
 
             if (IMAGE_URI) {
                 if (index_x.isNumeric() && index_y.isNumeric()) {
+                    sample = config.approximate ? RowSample.forProject(project, false) : null;
                     ScatterplotDrawingRowVisitor drawer = new ScatterplotDrawingRowVisitor(
                             columnIndex_x, columnIndex_y, min_x, max_x, min_y, max_y,
                             config.size, config.dim_x, config.dim_y, config.rotation, config.dot, config.getColor());
+                    if (sample != null) {
+                        filteredRows = sample.of(filteredRows);
+                    }
                     filteredRows.accept(project, drawer);
 
                     try {
@@ -461,9 +492,13 @@ public class ScatterplotFacet implements Facet {
 
             if (IMAGE_URI) {
                 if (index_x.isNumeric() && index_y.isNumeric()) {
+                    sample = config.approximate ? RowSample.forProject(project, true) : null;
                     ScatterplotDrawingRowVisitor drawer = new ScatterplotDrawingRowVisitor(
                             columnIndex_x, columnIndex_y, min_x, max_x, min_y, max_y,
                             config.size, config.dim_x, config.dim_y, config.rotation, config.dot, config.getColor());
+                    if (sample != null) {
+                        filteredRecords = sample.of(filteredRecords);
+                    }
                     filteredRecords.accept(project, drawer);
 
                     try {
@@ -33,6 +33,9 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.browsing.facets;
 
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
 import java.util.regex.Pattern;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -43,6 +46,7 @@ import com.google.refine.browsing.RecordFilter;
 import com.google.refine.browsing.RowFilter;
 import com.google.refine.browsing.filters.AnyRowRecordFilter;
 import com.google.refine.browsing.filters.ExpressionStringComparisonRowFilter;
+import com.google.refine.browsing.util.TrigramIndex;
 import com.google.refine.expr.Evaluable;
 import com.google.refine.grel.ast.VariableExpr;
 import com.google.refine.model.Column;
@@ -80,6 +84,11 @@ public class TextSearchFacet implements Facet {
         public String getJsonType() {
             return "text";
         }
+
+        @Override
+        public List<String> getFilterExpressions() {
+            return Collections.emptyList();
+        }
     }
 
     TextSearchFacetConfig _config = new TextSearchFacetConfig();
@@ -158,8 +167,9 @@ public class TextSearchFacet implements Facet {
 
         Evaluable eval = new VariableExpr("value");
 
+        RowFilter filter;
         if ("regex".equals(_config._mode)) {
-            return new ExpressionStringComparisonRowFilter(eval, _config._invert, _config._columnName, _cellIndex) {
+            filter = new ExpressionStringComparisonRowFilter(eval, _config._invert, _config._columnName, _cellIndex) {
 
                 @Override
                 protected boolean checkValue(String s) {
@@ -167,7 +177,7 @@ public class TextSearchFacet implements Facet {
                 };
             };
         } else {
-            return new ExpressionStringComparisonRowFilter(eval, _config._invert, _config._columnName, _cellIndex) {
+            filter = new ExpressionStringComparisonRowFilter(eval, _config._invert, _config._columnName, _cellIndex) {
 
                 @Override
                 protected boolean checkValue(String s) {
@@ -175,6 +185,69 @@ public class TextSearchFacet implements Facet {
                 };
             };
         }
+
+        BitSet candidates = getCandidateRows(project);
+        if (candidates == null) {
+            return filter;
+        }
+        // rows which are not candidates cannot match
+        return (p, rowIndex, row) -> candidates.get(rowIndex) ? filter.filterRow(p, rowIndex, row) : _config._invert;
+    }
+
+    /**
+     * Uses the trigram index of the column, if enabled, to find the rows which may match the query.
+     *
+     * @return the candidate rows, or null if they can't be narrowed down
+     */
+    protected BitSet getCandidateRows(Project project) {
+        Column column = project.columnModel.getColumnByCellIndex(_cellIndex);
+        if (column == null) {
+            return null;
+        }
+
+        String literal;
+        boolean caseSensitive = _config._caseSensitive;
+        if ("regex".equals(_config._mode)) {
+            literal = getLiteralPrefix(_query);
+            if (literal != null && !caseSensitive) {
+                // the pattern only ignores the case of ASCII characters, which only lower-case as expected
+                // if the default locale does
+                if (!literal.chars().allMatch(c -> c < 128) || !"I".toLowerCase().equals("i")) {
+                    return null;
+                }
+                literal = literal.toLowerCase();
+            }
+        } else {
+            literal = _query;
+        }
+        if (literal == null || literal.length() < 3) {
+            return null;
+        }
+
+        TrigramIndex index = TrigramIndex.getIndex(project, column, caseSensitive);
+        return index == null ? null : index.getCandidates(literal);
+    }
+
+    /**
+     * Returns a string which any match of the regular expression must contain, from the literal characters it starts
+     * with. Patterns with alternatives are not analyzed.
+     *
+     * @return the literal, possibly empty, or null if there is none
+     */
+    static String getLiteralPrefix(String regex) {
+        if (regex.indexOf('|') >= 0) {
+            return null;
+        }
+        int start = regex.startsWith("^") ? 1 : 0;
+        int end = start;
+        while (end < regex.length() && ".^$*+?()[]{}\\".indexOf(regex.charAt(end)) < 0) {
+            end++;
+        }
+        if (end < regex.length() && "*?{".indexOf(regex.charAt(end)) >= 0) {
+            // the last character is quantified and may be absent
+            end--;
+        }
+        return end > start ? regex.substring(start, end) : null;
     }
 
     @Override
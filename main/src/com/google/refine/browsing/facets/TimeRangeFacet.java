@@ -33,6 +33,9 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.browsing.facets;
 
+import java.util.Collections;
+import java.util.List;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
@@ -102,6 +105,11 @@ public class TimeRangeFacet implements Facet {
         public String getJsonType() {
             return "timerange";
         }
+
+        @Override
+        public List<String> getFilterExpressions() {
+            return Collections.singletonList(_expression);
+        }
     }
 
     protected TimeRangeFacetConfig _config;
@@ -46,6 +46,13 @@ public class AllRowsRecordFilter implements RecordFilter {
         _rowFilter = rowFilter;
     }
 
+    /**
+     * @return the filter which all rows of a record must pass
+     */
+    public RowFilter getRowFilter() {
+        return _rowFilter;
+    }
+
     @Override
     public boolean filterRecord(Project project, Record record) {
         for (int r = record.fromRowIndex; r < record.toRowIndex; r++) {
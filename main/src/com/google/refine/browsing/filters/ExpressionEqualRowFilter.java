@@ -90,7 +90,7 @@ public class ExpressionEqualRowFilter implements RowFilter {
     public boolean internalFilterRow(Project project, int rowIndex, Row row) {
         Cell cell = _cellIndex < 0 ? null : row.getCell(_cellIndex);
 
-        Properties bindings = ExpressionUtils.createBindings(project);
+        Properties bindings = ExpressionUtils.getBindings(this, project);
         ExpressionUtils.bind(bindings, row, rowIndex, _columnName, cell);
 
         Object value = _evaluable.evaluate(bindings);
@@ -129,7 +129,7 @@ public class ExpressionEqualRowFilter implements RowFilter {
     public boolean internalInvertedFilterRow(Project project, int rowIndex, Row row) {
         Cell cell = _cellIndex < 0 ? null : row.getCell(_cellIndex);
 
-        Properties bindings = ExpressionUtils.createBindings(project);
+        Properties bindings = ExpressionUtils.getBindings(this, project);
         ExpressionUtils.bind(bindings, row, rowIndex, _columnName, cell);
 
         Object value = _evaluable.evaluate(bindings);
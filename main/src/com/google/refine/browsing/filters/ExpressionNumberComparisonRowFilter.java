@@ -73,7 +73,7 @@ abstract public class ExpressionNumberComparisonRowFilter implements RowFilter {
 
     @Override
     public boolean filterRow(Project project, int rowIndex, Row row) {
-        Properties bindings = ExpressionUtils.createBindings(project);
+        Properties bindings = ExpressionUtils.getBindings(this, project);
 
         Object value = _rowEvaluable.eval(project, rowIndex, row, bindings);
         if (value != null) {
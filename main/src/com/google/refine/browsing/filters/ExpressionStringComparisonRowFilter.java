@@ -68,7 +68,7 @@ abstract public class ExpressionStringComparisonRowFilter implements RowFilter {
     public boolean filterRow(Project project, int rowIndex, Row row) {
         Cell cell = _cellIndex < 0 ? null : row.getCell(_cellIndex);
 
-        Properties bindings = ExpressionUtils.createBindings(project);
+        Properties bindings = ExpressionUtils.getBindings(this, project);
         ExpressionUtils.bind(bindings, row, rowIndex, _columnName, cell);
         Boolean invert = _invert;
         Object value = _evaluable.evaluate(bindings);
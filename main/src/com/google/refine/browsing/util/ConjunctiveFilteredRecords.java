@@ -37,8 +37,10 @@ import java.util.LinkedList;
 import java.util.List;
 
 import com.google.refine.browsing.FilteredRecords;
+import com.google.refine.browsing.MergeableVisitor;
 import com.google.refine.browsing.RecordFilter;
 import com.google.refine.browsing.RecordVisitor;
+import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.model.Project;
 import com.google.refine.model.Record;
 
@@ -59,19 +61,42 @@ public class ConjunctiveFilteredRecords implements FilteredRecords {
             visitor.start(project);
 
             int c = project.recordModel.getRecordCount();
-            for (int r = 0; r < c; r++) {
-                Record record = project.recordModel.getRecord(r);
-                if (matchRecord(project, record)) {
-                    if (visitor.visit(project, record)) {
-                        return;
+            if (ParallelScan.isParallel(visitor, c)) {
+                acceptInParallel(project, (MergeableVisitor) visitor, c);
+                return;
+            }
+            ExpressionUtils.runScan(() -> {
+                for (int r = 0; r < c; r++) {
+                    Record record = project.recordModel.getRecord(r);
+                    if (matchRecord(project, record)) {
+                        if (visitor.visit(project, record)) {
+                            return;
+                        }
                     }
                 }
-            }
+            });
         } finally {
             visitor.end(project);
         }
     }
 
+    /**
+     * Visits chunks of records on forks of the visitor. Mergeable visitors never abort, so chunks are visited
+     * completely.
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private void acceptInParallel(Project project, MergeableVisitor visitor, int recordCount) {
+        ParallelScan.scan(visitor, recordCount, (fork, from, to) -> {
+            RecordVisitor recordVisitor = (RecordVisitor) fork;
+            for (int r = from; r < to; r++) {
+                Record record = project.recordModel.getRecord(r);
+                if (matchRecord(project, record)) {
+                    recordVisitor.visit(project, record);
+                }
+            }
+        });
+    }
+
     protected boolean matchRecord(Project project, Record record) {
         for (RecordFilter recordFilter : _recordFilters) {
             if (!recordFilter.filterRecord(project, record)) {
@@ -37,8 +37,10 @@ import java.util.LinkedList;
 import java.util.List;
 
 import com.google.refine.browsing.FilteredRows;
+import com.google.refine.browsing.MergeableVisitor;
 import com.google.refine.browsing.RowFilter;
 import com.google.refine.browsing.RowVisitor;
+import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.model.Project;
 import com.google.refine.model.Row;
 
@@ -60,19 +62,41 @@ public class ConjunctiveFilteredRows implements FilteredRows {
             visitor.start(project);
 
             int c = project.rows.size();
-            for (int rowIndex = 0; rowIndex < c; rowIndex++) {
-                Row row = project.rows.get(rowIndex);
-                if (matchRow(project, rowIndex, row)) {
-                    if (visitRow(project, visitor, rowIndex, row)) {
-                        break;
+            if (ParallelScan.isParallel(visitor, c)) {
+                acceptInParallel(project, (MergeableVisitor) visitor, c);
+                return;
+            }
+            ExpressionUtils.runScan(() -> {
+                for (int rowIndex = 0; rowIndex < c; rowIndex++) {
+                    Row row = project.rows.get(rowIndex);
+                    if (matchRow(project, rowIndex, row)) {
+                        if (visitRow(project, visitor, rowIndex, row)) {
+                            break;
+                        }
                     }
                 }
-            }
+            });
         } finally {
             visitor.end(project);
         }
     }
 
+    /**
+     * Visits chunks of rows on forks of the visitor. Mergeable visitors never abort, so chunks are visited completely.
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private void acceptInParallel(Project project, MergeableVisitor visitor, int rowCount) {
+        ParallelScan.scan(visitor, rowCount, (fork, from, to) -> {
+            RowVisitor rowVisitor = (RowVisitor) fork;
+            for (int rowIndex = from; rowIndex < to; rowIndex++) {
+                Row row = project.rows.get(rowIndex);
+                if (matchRow(project, rowIndex, row)) {
+                    visitRow(project, rowVisitor, rowIndex, row);
+                }
+            }
+        });
+    }
+
     protected boolean visitRow(Project project, RowVisitor visitor, int rowIndex, Row row) {
         return visitor.visit(project, rowIndex, row);
     }
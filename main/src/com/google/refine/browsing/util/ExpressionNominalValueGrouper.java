@@ -41,6 +41,7 @@ import java.util.Map;
 import java.util.Properties;
 
 import com.google.refine.browsing.DecoratedValue;
+import com.google.refine.browsing.MergeableVisitor;
 import com.google.refine.browsing.RecordVisitor;
 import com.google.refine.browsing.RowVisitor;
 import com.google.refine.browsing.facets.NominalFacetChoice;
@@ -55,7 +56,7 @@ import com.google.refine.util.StringUtils;
 /**
  * Visit matched rows or records and group them into facet choices based on the values computed from a given expression.
  */
-public class ExpressionNominalValueGrouper implements RowVisitor, RecordVisitor {
+public class ExpressionNominalValueGrouper implements RowVisitor, RecordVisitor, MergeableVisitor<ExpressionNominalValueGrouper> {
 
     static public class IndexedNominalFacetChoice extends NominalFacetChoice {
 
@@ -73,6 +74,10 @@ public class ExpressionNominalValueGrouper implements RowVisitor, RecordVisitor
     final protected Evaluable _evaluable;
     final protected String _columnName;
     final protected int _cellIndex;
+    /**
+     * Cached results of the expression on all rows, if available
+     */
+    final protected ExpressionResultCache.Results _results;
 
     /*
      * Computed results
@@ -88,9 +93,18 @@ public class ExpressionNominalValueGrouper implements RowVisitor, RecordVisitor
     protected boolean hasError;
 
     public ExpressionNominalValueGrouper(Evaluable evaluable, String columnName, int cellIndex) {
+        this(evaluable, columnName, cellIndex, null);
+    }
+
+    /**
+     * @param results
+     *            the results of the expression on all rows, used instead of evaluating it, or null
+     */
+    public ExpressionNominalValueGrouper(Evaluable evaluable, String columnName, int cellIndex, ExpressionResultCache.Results results) {
         _evaluable = evaluable;
         _columnName = columnName;
         _cellIndex = cellIndex;
+        _results = results;
     }
 
     @Override
@@ -103,6 +117,32 @@ public class ExpressionNominalValueGrouper implements RowVisitor, RecordVisitor
         // nothing to do
     }
 
+    @Override
+    public boolean isForkable() {
+        // subclasses would need to fork into their own class
+        return getClass() == ExpressionNominalValueGrouper.class;
+    }
+
+    @Override
+    public ExpressionNominalValueGrouper fork() {
+        return new ExpressionNominalValueGrouper(_evaluable, _columnName, _cellIndex, _results);
+    }
+
+    @Override
+    public void merge(ExpressionNominalValueGrouper chunk) {
+        for (Map.Entry<Object, IndexedNominalFacetChoice> entry : chunk.choices.entrySet()) {
+            IndexedNominalFacetChoice choice = choices.get(entry.getKey());
+            if (choice == null) {
+                choices.put(entry.getKey(), entry.getValue());
+            } else {
+                choice.count += entry.getValue().count;
+                choice._latestIndex = Math.max(choice._latestIndex, entry.getValue()._latestIndex);
+            }
+        }
+        blankCount += chunk.blankCount;
+        errorCount += chunk.errorCount;
+    }
+
     @Override
     public boolean visit(Project project, int rowIndex, Row row) {
         hasError = false;
@@ -165,6 +205,9 @@ public class ExpressionNominalValueGrouper implements RowVisitor, RecordVisitor
     }
 
     protected Object evalRow(Project project, int rowIndex, Row row, Properties bindings) {
+        if (_results != null && rowIndex < _results.size()) {
+            return _results.get(rowIndex);
+        }
         Cell cell = _cellIndex < 0 ? null : row.getCell(_cellIndex);
 
         ExpressionUtils.bind(bindings, row, rowIndex, _columnName, cell);
@@ -36,6 +36,7 @@ package com.google.refine.browsing.util;
 import java.util.Collection;
 import java.util.Properties;
 
+import com.google.refine.browsing.MergeableVisitor;
 import com.google.refine.browsing.RecordVisitor;
 import com.google.refine.browsing.RowVisitor;
 import com.google.refine.expr.ExpressionUtils;
@@ -46,7 +47,7 @@ import com.google.refine.model.Row;
 /**
  * Visit matched rows or records and slot them into bins based on the numbers computed from a given expression.
  */
-public class ExpressionNumericValueBinner implements RowVisitor, RecordVisitor {
+public class ExpressionNumericValueBinner implements RowVisitor, RecordVisitor, MergeableVisitor<ExpressionNumericValueBinner> {
 
     /*
      * Configuration
@@ -87,6 +88,28 @@ public class ExpressionNumericValueBinner implements RowVisitor, RecordVisitor {
         // nothing to do
     }
 
+    @Override
+    public boolean isForkable() {
+        // subclasses would need to fork into their own class
+        return getClass() == ExpressionNumericValueBinner.class;
+    }
+
+    @Override
+    public ExpressionNumericValueBinner fork() {
+        return new ExpressionNumericValueBinner(_rowEvaluable, _index);
+    }
+
+    @Override
+    public void merge(ExpressionNumericValueBinner chunk) {
+        for (int i = 0; i < bins.length; i++) {
+            bins[i] += chunk.bins[i];
+        }
+        numericCount += chunk.numericCount;
+        nonNumericCount += chunk.nonNumericCount;
+        blankCount += chunk.blankCount;
+        errorCount += chunk.errorCount;
+    }
+
     @Override
     public boolean visit(Project project, int rowIndex, Row row) {
         resetFlags();
@@ -0,0 +1,315 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.browsing.util;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.browsing.MergeableVisitor;
+import com.google.refine.expr.Evaluable;
+import com.google.refine.expr.ExpressionUtils;
+import com.google.refine.expr.MetaParser;
+import com.google.refine.expr.ParsingException;
+import com.google.refine.grel.TieredExpression;
+import com.google.refine.grel.ast.ExpressionOptimizer;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Column;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+
+/**
+ * Caches the result of evaluating an expression on every row of a project, as a precompute of the column the
+ * expression is evaluated on. Like other precomputes, the results are dropped when a change clears the column's
+ * precomputes. Results are also stamped with the current history entry, so that those evaluated while a change
+ * was being applied are not used afterwards.
+ * <p>
+ * Since only changes to that column or to the order of the rows invalidate the results, only GREL expressions which
+ * are functions of the cell and of the row index are cached: see {@link ExpressionOptimizer#dependsOnlyOnCell}.
+ * <p>
+ * To bound the memory they use, the results of a single expression are kept per column, and they are not cached at
+ * all for projects with more rows than the {@link #MAX_ROWS_PREFERENCE} preference.
+ */
+public class ExpressionResultCache {
+
+    final static Logger logger = LoggerFactory.getLogger("ExpressionResultCache");
+
+    /**
+     * Preference key for the maximum number of rows of the projects whose results are cached. Setting it to 0
+     * disables the cache.
+     */
+    public static final String MAX_ROWS_PREFERENCE = "browsing.expressionResultCacheMaxRows";
+
+    static final int DEFAULT_MAX_ROWS = 1000000;
+
+    static final String PRECOMPUTE_KEY = "expression-results";
+
+    static private final AtomicLong s_hits = new AtomicLong();
+    static private final AtomicLong s_misses = new AtomicLong();
+
+    private ExpressionResultCache() {
+    }
+
+    /**
+     * Results of an expression on each row, in a representation that depends on their types.
+     */
+    static public abstract class Results {
+
+        /**
+         * @return the number of rows
+         */
+        public abstract int size();
+
+        /**
+         * @return the result of the expression on the given row
+         */
+        public abstract Object get(int rowIndex);
+
+        /**
+         * Picks the most compact representation for the given results.
+         */
+        static Results of(Object[] values) {
+            boolean allLong = true;
+            boolean allDouble = true;
+            for (Object v : values) {
+                if (v != null) {
+                    allLong &= v.getClass() == Long.class;
+                    allDouble &= v.getClass() == Double.class;
+                }
+            }
+            if (allLong) {
+                return new LongResults(values);
+            } else if (allDouble) {
+                return new DoubleResults(values);
+            } else {
+                return new ObjectResults(values);
+            }
+        }
+    }
+
+    static private class LongResults extends Results {
+
+        final long[] _values;
+        final BitSet _present = new BitSet();
+
+        LongResults(Object[] values) {
+            _values = new long[values.length];
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) {
+                    _values[i] = (Long) values[i];
+                    _present.set(i);
+                }
+            }
+        }
+
+        @Override
+        public int size() {
+            return _values.length;
+        }
+
+        @Override
+        public Object get(int rowIndex) {
+            return _present.get(rowIndex) ? _values[rowIndex] : null;
+        }
+    }
+
+    static private class DoubleResults extends Results {
+
+        final double[] _values;
+        final BitSet _present = new BitSet();
+
+        DoubleResults(Object[] values) {
+            _values = new double[values.length];
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) {
+                    _values[i] = (Double) values[i];
+                    _present.set(i);
+                }
+            }
+        }
+
+        @Override
+        public int size() {
+            return _values.length;
+        }
+
+        @Override
+        public Object get(int rowIndex) {
+            return _present.get(rowIndex) ? _values[rowIndex] : null;
+        }
+    }
+
+    static private class ObjectResults extends Results {
+
+        final Object[] _values;
+
+        ObjectResults(Object[] values) {
+            // share equal strings computed on different rows
+            Map<String, String> strings = new HashMap<>();
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] instanceof String) {
+                    values[i] = strings.computeIfAbsent((String) values[i], s -> s);
+                }
+            }
+            _values = values;
+        }
+
+        @Override
+        public int size() {
+            return _values.length;
+        }
+
+        @Override
+        public Object get(int rowIndex) {
+            return _values[rowIndex];
+        }
+    }
+
+    // the results of an expression, stored as the precompute of its column
+    static private class Entry {
+
+        final String expression;
+        // the history entry the results were evaluated at
+        final long entryID;
+        final Results results;
+
+        Entry(String expression, long entryID, Results results) {
+            this.expression = expression;
+            this.entryID = entryID;
+            this.results = results;
+        }
+    }
+
+    /**
+     * @return true if the results of the expression only depend on the cell it is evaluated on and on its row index
+     */
+    static public boolean isCacheable(String expression) {
+        if (expression == null) {
+            return false;
+        }
+        try {
+            return isCacheable(MetaParser.parse(expression));
+        } catch (ParsingException e) {
+            return false;
+        }
+    }
+
+    static boolean isCacheable(Evaluable evaluable) {
+        return ExpressionOptimizer.dependsOnlyOnCell(TieredExpression.unwrap(evaluable));
+    }
+
+    /**
+     * Gets the results of an expression on all rows, evaluating it if they are not cached.
+     *
+     * @param project
+     *            the project
+     * @param cellIndex
+     *            the cell index of the column the expression is evaluated on
+     * @param columnName
+     *            the name of that column
+     * @param expression
+     *            the source of the expression, including its language prefix if any
+     * @param evaluable
+     *            the parsed expression
+     * @return the results, or null if they can't be cached
+     */
+    static public Results getResults(Project project, int cellIndex, String columnName, String expression,
+            Evaluable evaluable) {
+        Column column = cellIndex < 0 ? null : project.columnModel.getColumnByCellIndex(cellIndex);
+        if (column == null || expression == null || project.rows.size() > getMaxRowsPreference()
+                || !isCacheable(evaluable)) {
+            return null;
+        }
+        // read before evaluating: results computed while a change clears the precomputes are stored after it did
+        long entryID = project.history.getCurrentEntryID();
+        Entry entry = (Entry) column.getPrecompute(PRECOMPUTE_KEY);
+        if (entry != null && entry.expression.equals(expression) && entry.entryID == entryID
+                && entry.results.size() == project.rows.size()) {
+            s_hits.incrementAndGet();
+            return entry.results;
+        }
+        s_misses.incrementAndGet();
+
+        long start = System.currentTimeMillis();
+        Results results = evaluate(project, cellIndex, columnName, evaluable);
+        // replaces the results of any other expression on the column
+        column.setPrecompute(PRECOMPUTE_KEY, new Entry(expression, entryID, results));
+        logger.debug("Evaluated {} on column {} for {} rows in {} ms (hits: {}, misses: {})", expression, columnName,
+                results.size(), System.currentTimeMillis() - start, s_hits.get(), s_misses.get());
+        return results;
+    }
+
+    static Results evaluate(Project project, int cellIndex, String columnName, Evaluable evaluable) {
+        Object[] values = new Object[project.rows.size()];
+        ParallelScan.scan(new Evaluation(), values.length, (chunk, from, to) -> {
+            Properties bindings = ExpressionUtils.createBindings(project);
+            for (int rowIndex = from; rowIndex < to; rowIndex++) {
+                Row row = project.rows.get(rowIndex);
+                Cell cell = row.getCell(cellIndex);
+                ExpressionUtils.bind(bindings, row, rowIndex, columnName, cell);
+                values[rowIndex] = evaluable.evaluate(bindings);
+            }
+        });
+        return Results.of(values);
+    }
+
+    static public long getHitCount() {
+        return s_hits.get();
+    }
+
+    static public long getMissCount() {
+        return s_misses.get();
+    }
+
+    static private long getMaxRowsPreference() {
+        return ProjectManager.singleton == null ? DEFAULT_MAX_ROWS
+                : ProjectManager.singleton.getPreferenceStore().getLong(MAX_ROWS_PREFERENCE, DEFAULT_MAX_ROWS);
+    }
+
+    /**
+     * Placeholder visitor for parallel evaluation: each chunk writes its own range of the result array.
+     */
+    static private class Evaluation implements MergeableVisitor<Evaluation> {
+
+        @Override
+        public Evaluation fork() {
+            return this;
+        }
+
+        @Override
+        public void merge(Evaluation chunk) {
+            // results are written in place
+        }
+    }
+}
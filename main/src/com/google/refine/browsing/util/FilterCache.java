@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.browsing.util;
+
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.browsing.facets.FacetConfig;
+import com.google.refine.expr.MetaParser;
+import com.google.refine.expr.ParsingException;
+import com.google.refine.grel.TieredExpression;
+import com.google.refine.grel.ast.ExpressionOptimizer;
+import com.google.refine.model.Project;
+import com.google.refine.util.ParsingUtilities;
+
+/**
+ * Caches, across requests, the set of rows or records matched by each facet's filter. Entries are keyed by project,
+ * by the last history entry applied to it, and by the facet's configuration, so a changed selection or any change to
+ * the project data leads to a different key. The least recently used entries are evicted beyond a memory budget.
+ * <p>
+ * Only facets whose matches are determined by the state of the project are cached: their expressions must be GREL
+ * ones calling pure functions only. Those reading the clock, random numbers, facet counts or other projects, and
+ * expressions in other languages, are evaluated afresh by each request.
+ */
+public class FilterCache {
+
+    /**
+     * Preference key for the memory budget of the cache, in bytes. Setting it to 0 disables the cache.
+     */
+    public static final String MAX_BYTES_PREFERENCE = "browsing.filterCacheMaxBytes";
+
+    static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    static private final FilterCache s_instance = new FilterCache();
+
+    private final LinkedHashMap<String, BitSet> _entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long _bytes = 0;
+
+    static public FilterCache getInstance() {
+        return s_instance;
+    }
+
+    /**
+     * Builds the cache key of a facet filter in the current state of a project.
+     *
+     * @param mode
+     *            "row-based" or "record-based"
+     * @return the key, or null if the facet's matches can't be cached, its configuration can't be serialized or the
+     *         project has no history
+     */
+    static public String getKey(Project project, String mode, FacetConfig facetConfig) {
+        if (project.history == null || !isCacheable(facetConfig)) {
+            return null;
+        }
+        try {
+            return project.id + ";" + project.history.getCurrentEntryID() + ";" + mode + ";"
+                    + ParsingUtilities.mapper.writeValueAsString(facetConfig);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Tells whether the matches of a facet only depend on the state of the project.
+     */
+    static boolean isCacheable(FacetConfig facetConfig) {
+        List<String> expressions = facetConfig.getFilterExpressions();
+        if (expressions == null) {
+            return false;
+        }
+        for (String expression : expressions) {
+            if (expression == null) {
+                continue;
+            }
+            try {
+                if (!ExpressionOptimizer.isDeterministic(TieredExpression.unwrap(MetaParser.parse(expression)))) {
+                    return false;
+                }
+            } catch (ParsingException e) {
+                // the facet reports the error and has no filter
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the cached matches for the key, which must not be modified, or null
+     */
+    public synchronized BitSet get(String key) {
+        return key == null ? null : _entries.get(key);
+    }
+
+    public synchronized void put(String key, BitSet matches) {
+        long maxBytes = getMaxBytesPreference();
+        long size = sizeOf(matches);
+        if (key == null || size > maxBytes) {
+            return;
+        }
+        BitSet previous = _entries.put(key, matches);
+        if (previous != null) {
+            _bytes -= sizeOf(previous);
+        }
+        _bytes += size;
+        for (Iterator<BitSet> it = _entries.values().iterator(); _bytes > maxBytes && it.hasNext();) {
+            _bytes -= sizeOf(it.next());
+            it.remove();
+        }
+    }
+
+    /**
+     * Removes all entries of a project.
+     */
+    public synchronized void flush(long projectID) {
+        String prefix = projectID + ";";
+        for (Iterator<Map.Entry<String, BitSet>> it = _entries.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<String, BitSet> entry = it.next();
+            if (entry.getKey().startsWith(prefix)) {
+                _bytes -= sizeOf(entry.getValue());
+                it.remove();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        _entries.clear();
+        _bytes = 0;
+    }
+
+    synchronized int size() {
+        return _entries.size();
+    }
+
+    static private long sizeOf(BitSet matches) {
+        return matches.size() / 8 + 64;
+    }
+
+    static private long getMaxBytesPreference() {
+        return ProjectManager.singleton == null ? DEFAULT_MAX_BYTES
+                : ProjectManager.singleton.getPreferenceStore().getLong(MAX_BYTES_PREFERENCE, DEFAULT_MAX_BYTES);
+    }
+}
@@ -0,0 +1,259 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.browsing.util;
+
+import java.util.BitSet;
+import java.util.List;
+
+import com.google.refine.browsing.FilteredRecords;
+import com.google.refine.browsing.FilteredRows;
+import com.google.refine.browsing.MergeableVisitor;
+import com.google.refine.browsing.RecordFilter;
+import com.google.refine.browsing.RecordVisitor;
+import com.google.refine.browsing.RowFilter;
+import com.google.refine.browsing.RowVisitor;
+import com.google.refine.browsing.filters.AllRowsRecordFilter;
+import com.google.refine.browsing.filters.AnyRowRecordFilter;
+import com.google.refine.model.Project;
+import com.google.refine.model.Record;
+
+/**
+ * The rows or records matched by each of a list of filters, as bitmaps. Each filter is evaluated once on every row or
+ * record (or its bitmap is taken from the {@link FilterCache}), and the rows or records matching all filters, or all
+ * filters but one as needed to compute each facet's choices, are then obtained by intersecting bitmaps.
+ */
+public class FilterOutcomes {
+
+    final protected int _size;
+    final protected BitSet[] _matches;
+
+    /**
+     * @param size
+     *            the number of rows or records
+     * @param matches
+     *            for each filter, the indices of the rows or records it matches. They are not modified.
+     */
+    public FilterOutcomes(int size, BitSet[] matches) {
+        _size = size;
+        _matches = matches;
+    }
+
+    /**
+     * Evaluates row filters on all rows of a project.
+     */
+    static public FilterOutcomes ofRows(Project project, List<RowFilter> filters) {
+        BitSet[] matches = new BitSet[filters.size()];
+        for (int f = 0; f < matches.length; f++) {
+            matches[f] = evaluate(project, filters.get(f));
+        }
+        return new FilterOutcomes(project.rows.size(), matches);
+    }
+
+    /**
+     * Evaluates record filters on all records of a project.
+     */
+    static public FilterOutcomes ofRecords(Project project, List<RecordFilter> filters) {
+        BitSet[] matches = new BitSet[filters.size()];
+        for (int f = 0; f < matches.length; f++) {
+            matches[f] = evaluate(project, filters.get(f));
+        }
+        return new FilterOutcomes(project.recordModel.getRecordCount(), matches);
+    }
+
+    /**
+     * @return the indices of the rows matched by the filter
+     */
+    static public BitSet evaluate(Project project, RowFilter filter) {
+        Evaluation evaluation = new Evaluation();
+        ParallelScan.scan(evaluation, project.rows.size(), (chunk, from, to) -> {
+            for (int rowIndex = from; rowIndex < to; rowIndex++) {
+                if (filter.filterRow(project, rowIndex, project.rows.get(rowIndex))) {
+                    chunk.matches.set(rowIndex);
+                }
+            }
+        });
+        return evaluation.matches;
+    }
+
+    /**
+     * @return the indices of the records matched by the filter
+     */
+    static public BitSet evaluate(Project project, RecordFilter filter) {
+        // filters which only combine the outcomes of the rows are evaluated on rows, which split in even chunks, and
+        // mapped to records with the record model's row-to-record index
+        if (filter instanceof AnyRowRecordFilter) {
+            BitSet rows = evaluate(project, ((AnyRowRecordFilter) filter).getRowFilter());
+            return project.recordModel.getMatchingRecords(rows, false);
+        } else if (filter instanceof AllRowsRecordFilter) {
+            BitSet rows = evaluate(project, ((AllRowsRecordFilter) filter).getRowFilter());
+            return project.recordModel.getMatchingRecords(rows, true);
+        }
+
+        Evaluation evaluation = new Evaluation();
+        ParallelScan.scan(evaluation, project.recordModel.getRecordCount(), (chunk, from, to) -> {
+            for (int r = from; r < to; r++) {
+                Record record = project.recordModel.getRecord(r);
+                if (filter.filterRecord(project, record)) {
+                    chunk.matches.set(r);
+                }
+            }
+        });
+        return evaluation.matches;
+    }
+
+    /**
+     * @param excluded
+     *            the index of a filter to ignore, or -1 to require all filters to pass
+     * @return the rows or records matching all filters except the excluded one, or null if there is no filter to
+     *         apply
+     */
+    public BitSet getMatches(int excluded) {
+        BitSet result = null;
+        for (int f = 0; f < _matches.length; f++) {
+            if (f == excluded) {
+                continue;
+            }
+            if (result == null) {
+                result = (BitSet) _matches[f].clone();
+            } else {
+                result.and(_matches[f]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param excluded
+     *            the index of a filter to ignore, or -1 to require all filters to pass
+     * @return the rows matching all filters except the excluded one
+     */
+    public FilteredRows getFilteredRows(int excluded) {
+        return new FilteredRows() {
+
+            @Override
+            public void accept(Project project, RowVisitor visitor) {
+                BitSet matches = getMatches(excluded);
+                try {
+                    visitor.start(project);
+
+                    if (ParallelScan.isParallel(visitor, _size)) {
+                        visitRowsInParallel(project, (MergeableVisitor<?>) visitor, matches);
+                        return;
+                    }
+                    for (int rowIndex = nextMatch(matches, 0); rowIndex < _size; rowIndex = nextMatch(matches, rowIndex + 1)) {
+                        if (visitor.visit(project, rowIndex, project.rows.get(rowIndex))) {
+                            break;
+                        }
+                    }
+                } finally {
+                    visitor.end(project);
+                }
+            }
+        };
+    }
+
+    /**
+     * @param excluded
+     *            the index of a filter to ignore, or -1 to require all filters to pass
+     * @return the records matching all filters except the excluded one
+     */
+    public FilteredRecords getFilteredRecords(int excluded) {
+        return new FilteredRecords() {
+
+            @Override
+            public void accept(Project project, RecordVisitor visitor) {
+                BitSet matches = getMatches(excluded);
+                try {
+                    visitor.start(project);
+
+                    if (ParallelScan.isParallel(visitor, _size)) {
+                        visitRecordsInParallel(project, (MergeableVisitor<?>) visitor, matches);
+                        return;
+                    }
+                    for (int r = nextMatch(matches, 0); r < _size; r = nextMatch(matches, r + 1)) {
+                        if (visitor.visit(project, project.recordModel.getRecord(r))) {
+                            return;
+                        }
+                    }
+                } finally {
+                    visitor.end(project);
+                }
+            }
+        };
+    }
+
+    /**
+     * @return the first index from the given one which is matched, or past the end if there is none. A null set
+     *         matches everything.
+     */
+    private int nextMatch(BitSet matches, int from) {
+        if (matches == null) {
+            return from;
+        }
+        int next = matches.nextSetBit(from);
+        return next < 0 ? _size : next;
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private void visitRowsInParallel(Project project, MergeableVisitor visitor, BitSet matches) {
+        ParallelScan.scan(visitor, _size, (fork, from, to) -> {
+            RowVisitor rowVisitor = (RowVisitor) fork;
+            for (int rowIndex = nextMatch(matches, from); rowIndex < to; rowIndex = nextMatch(matches, rowIndex + 1)) {
+                rowVisitor.visit(project, rowIndex, project.rows.get(rowIndex));
+            }
+        });
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private void visitRecordsInParallel(Project project, MergeableVisitor visitor, BitSet matches) {
+        ParallelScan.scan(visitor, _size, (fork, from, to) -> {
+            RecordVisitor recordVisitor = (RecordVisitor) fork;
+            for (int r = nextMatch(matches, from); r < to; r = nextMatch(matches, r + 1)) {
+                recordVisitor.visit(project, project.recordModel.getRecord(r));
+            }
+        });
+    }
+
+    /**
+     * Collects the matches of one chunk: chunks have their own bitmaps, merged with a bitwise or.
+     */
+    static private class Evaluation implements MergeableVisitor<Evaluation> {
+
+        final BitSet matches = new BitSet();
+
+        @Override
+        public Evaluation fork() {
+            return new Evaluation();
+        }
+
+        @Override
+        public void merge(Evaluation chunk) {
+            matches.or(chunk.matches);
+        }
+    }
+}
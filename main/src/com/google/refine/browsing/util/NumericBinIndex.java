@@ -33,11 +33,13 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.browsing.util;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.List;
 import java.util.Properties;
 
+import com.fasterxml.jackson.databind.node.ArrayNode;
+
+import com.google.refine.browsing.MergeableVisitor;
 import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.model.Project;
 import com.google.refine.model.Row;
@@ -49,9 +51,25 @@ import com.google.refine.model.Row;
  * 
  * This class processes all rows rather than just the filtered rows because it needs to compute the base bins of a
  * numeric range facet, which remain unchanged as the user interacts with the facet.
+ * 
+ * The numeric values of each row are kept, along with the kinds of non-numeric values it has, so that rows can be
+ * matched against a range without evaluating the expression again.
  */
 abstract public class NumericBinIndex {
 
+    /*
+     * Kinds of values found in a row
+     */
+    static final byte NUMERIC = 1;
+    static final byte NON_NUMERIC = 2;
+    static final byte BLANK = 4;
+    static final byte ERROR = 8;
+    /**
+     * The row has values which the index does not represent in the same way as
+     * {@link com.google.refine.browsing.filters.ExpressionNumberComparisonRowFilter}, such as JSON arrays.
+     */
+    static final byte UNINDEXED = 16;
+
     protected int _totalValueCount;
     protected int _numbericValueCount;
     protected double _min;
@@ -64,23 +82,55 @@ abstract public class NumericBinIndex {
     protected int _blankRowCount;
     protected int _errorRowCount;
 
-    protected boolean _hasError = false;
-    protected boolean _hasNonNumeric = false;
-    protected boolean _hasNumeric = false;
-    protected boolean _hasBlank = false;
-
-    abstract protected void iterate(Project project, RowEvaluable rowEvaluable, List<Double> allValues);
+    /*
+     * Values by row: the values of row i are _values[_rowOffsets[i]] to _values[_rowOffsets[i + 1] - 1]. Null if the
+     * scan did not cover each row of the project exactly once.
+     */
+    protected double[] _values;
+    protected int[] _rowOffsets;
+    protected byte[] _rowFlags;
+
+    /**
+     * The rows or records scanned, or null if all of them were
+     */
+    final protected RowSample _sample;
+
+    /**
+     * Evaluates the expression on all rows or records of the project, possibly in parallel through
+     * {@link ParallelScan}.
+     */
+    abstract protected void iterate(Project project, Scan scan);
 
     public NumericBinIndex(Project project, RowEvaluable rowEvaluable) {
-        _min = Double.POSITIVE_INFINITY;
-        _max = Double.NEGATIVE_INFINITY;
-
-        // TODO: An array of doubles would be more memmory efficient - double[] allValues
-        List<Double> allValues = new ArrayList<Double>();
-
-        iterate(project, rowEvaluable, allValues);
+        this(project, rowEvaluable, null);
+    }
 
-        _numbericValueCount = allValues.size();
+    /**
+     * @param sample
+     *            the rows or records to scan, or null to scan all of them. Counts and bins are then those of the
+     *            sample.
+     */
+    public NumericBinIndex(Project project, RowEvaluable rowEvaluable, RowSample sample) {
+        _sample = sample;
+        Scan scan = new Scan(rowEvaluable);
+
+        iterate(project, scan);
+
+        _totalValueCount = scan.totalValueCount;
+        _min = scan.min;
+        _max = scan.max;
+        _numericRowCount = scan.numericRowCount;
+        _nonNumericRowCount = scan.nonNumericRowCount;
+        _blankRowCount = scan.blankRowCount;
+        _errorRowCount = scan.errorRowCount;
+
+        _numbericValueCount = scan.valueCount;
+        _values = Arrays.copyOf(scan.values, scan.valueCount);
+        if (scan.rowCount == project.rows.size()) {
+            _rowOffsets = Arrays.copyOf(scan.rowOffsets, scan.rowCount + 1);
+            _rowOffsets[scan.rowCount] = scan.valueCount;
+            _rowFlags = Arrays.copyOf(scan.rowFlags, scan.rowCount);
+        }
 
         if (_min >= _max) {
             _step = 1;
@@ -120,12 +170,19 @@ abstract public class NumericBinIndex {
         }
 
         _bins = new int[(int) Math.round(binCount)];
-        for (double d : allValues) {
-            int bin = Math.max((int) Math.floor((d - _min) / _step), 0);
+        for (int i = 0; i < _numbericValueCount; i++) {
+            int bin = Math.max((int) Math.floor((_values[i] - _min) / _step), 0);
             _bins[bin]++;
         }
     }
 
+    /**
+     * @return the rows or records which were scanned, or null if all of them were
+     */
+    public RowSample getSample() {
+        return _sample;
+    }
+
     public boolean isNumeric() {
         return _numbericValueCount > _totalValueCount / 2;
     }
@@ -162,108 +219,234 @@ abstract public class NumericBinIndex {
         return _errorRowCount;
     }
 
-    protected void processRow(
-            Project project,
-            RowEvaluable rowEvaluable,
-            List<Double> allValues,
-            int rowIndex,
-            Row row,
-            Properties bindings) {
-        Object value = rowEvaluable.eval(project, rowIndex, row, bindings);
-
-        if (ExpressionUtils.isError(value)) {
-            _hasError = true;
-        } else if (ExpressionUtils.isNonBlankData(value)) {
-            if (value.getClass().isArray()) {
-                Object[] a = (Object[]) value;
-                for (Object v : a) {
-                    _totalValueCount++;
-
-                    if (ExpressionUtils.isError(v)) {
-                        _hasError = true;
-                    } else if (ExpressionUtils.isNonBlankData(v)) {
-                        if (v instanceof Number) {
-                            if (processValue(((Number) v).doubleValue(), allValues)) {
-                                _hasNumeric = true;
+    /**
+     * @return true if the row can be matched with {@link #rowMatches}
+     */
+    public boolean isRowIndexed(int rowIndex) {
+        return _rowFlags != null && rowIndex >= 0 && rowIndex < _rowFlags.length
+                && (_rowFlags[rowIndex] & UNINDEXED) == 0;
+    }
+
+    /**
+     * Checks a row as {@link com.google.refine.browsing.filters.ExpressionNumberComparisonRowFilter} would, from the
+     * values stored in this index.
+     *
+     * @param from
+     *            the lower bound of the range, inclusive
+     * @param to
+     *            the upper bound of the range, exclusive
+     */
+    public boolean rowMatches(int rowIndex, double from, double to,
+            boolean selectNumeric, boolean selectNonNumeric, boolean selectBlank, boolean selectError) {
+        byte flags = _rowFlags[rowIndex];
+        if ((selectError && (flags & ERROR) != 0)
+                || (selectBlank && (flags & BLANK) != 0)
+                || (selectNonNumeric && (flags & NON_NUMERIC) != 0)) {
+            return true;
+        }
+        if (selectNumeric) {
+            for (int i = _rowOffsets[rowIndex]; i < _rowOffsets[rowIndex + 1]; i++) {
+                double d = _values[i];
+                if (d >= from && d < to) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Values and counts accumulated over a range of rows or records. Chunks of a project can be scanned in parallel and
+     * merged in order.
+     */
+    protected static class Scan implements MergeableVisitor<Scan> {
+
+        final protected RowEvaluable _rowEvaluable;
+
+        protected int totalValueCount;
+        protected double min = Double.POSITIVE_INFINITY;
+        protected double max = Double.NEGATIVE_INFINITY;
+        protected double[] values = new double[16];
+        protected int valueCount;
+
+        /*
+         * Offset of the first value and kinds of values of each row processed, in order
+         */
+        protected int[] rowOffsets = new int[16];
+        protected byte[] rowFlags = new byte[16];
+        protected int rowCount;
+
+        protected int numericRowCount;
+        protected int nonNumericRowCount;
+        protected int blankRowCount;
+        protected int errorRowCount;
+
+        /*
+         * Scratch pad variables
+         */
+        protected byte flags;
+        protected boolean hasError = false;
+        protected boolean hasNonNumeric = false;
+        protected boolean hasNumeric = false;
+        protected boolean hasBlank = false;
+
+        protected Scan(RowEvaluable rowEvaluable) {
+            _rowEvaluable = rowEvaluable;
+        }
+
+        @Override
+        public Scan fork() {
+            return new Scan(_rowEvaluable);
+        }
+
+        @Override
+        public void merge(Scan chunk) {
+            totalValueCount += chunk.totalValueCount;
+            min = Math.min(min, chunk.min);
+            max = Math.max(max, chunk.max);
+            ensureRowCapacity(rowCount + chunk.rowCount);
+            for (int i = 0; i < chunk.rowCount; i++) {
+                rowOffsets[rowCount + i] = valueCount + chunk.rowOffsets[i];
+            }
+            System.arraycopy(chunk.rowFlags, 0, rowFlags, rowCount, chunk.rowCount);
+            rowCount += chunk.rowCount;
+            ensureValueCapacity(valueCount + chunk.valueCount);
+            System.arraycopy(chunk.values, 0, values, valueCount, chunk.valueCount);
+            valueCount += chunk.valueCount;
+            numericRowCount += chunk.numericRowCount;
+            nonNumericRowCount += chunk.nonNumericRowCount;
+            blankRowCount += chunk.blankRowCount;
+            errorRowCount += chunk.errorRowCount;
+        }
+
+        protected void processRow(
+                Project project,
+                int rowIndex,
+                Row row,
+                Properties bindings) {
+            Object value = _rowEvaluable.eval(project, rowIndex, row, bindings);
+
+            ensureRowCapacity(rowCount + 1);
+            rowOffsets[rowCount] = valueCount;
+            flags = 0;
+
+            if (ExpressionUtils.isError(value)) {
+                flags |= ERROR;
+            } else if (ExpressionUtils.isNonBlankData(value)) {
+                if (value.getClass().isArray()) {
+                    Object[] a = (Object[]) value;
+                    for (Object v : a) {
+                        totalValueCount++;
+
+                        if (ExpressionUtils.isError(v)) {
+                            flags |= ERROR;
+                        } else if (ExpressionUtils.isNonBlankData(v)) {
+                            if (v instanceof Number) {
+                                if (processValue(((Number) v).doubleValue())) {
+                                    flags |= NUMERIC;
+                                } else {
+                                    flags |= ERROR;
+                                }
                             } else {
-                                _hasError = true;
+                                flags |= NON_NUMERIC;
                             }
                         } else {
-                            _hasNonNumeric = true;
+                            flags |= BLANK;
                         }
-                    } else {
-                        _hasBlank = true;
                     }
-                }
-            } else if (value instanceof Collection<?>) {
-                for (Object v : ExpressionUtils.toObjectCollection(value)) {
-                    _totalValueCount++;
-
-                    if (ExpressionUtils.isError(v)) {
-                        _hasError = true;
-                    } else if (ExpressionUtils.isNonBlankData(v)) {
-                        if (v instanceof Number) {
-                            if (processValue(((Number) v).doubleValue(), allValues)) {
-                                _hasNumeric = true;
+                } else if (value instanceof Collection<?>) {
+                    for (Object v : ExpressionUtils.toObjectCollection(value)) {
+                        totalValueCount++;
+
+                        if (ExpressionUtils.isError(v)) {
+                            flags |= ERROR;
+                        } else if (ExpressionUtils.isNonBlankData(v)) {
+                            if (v instanceof Number) {
+                                if (processValue(((Number) v).doubleValue())) {
+                                    flags |= NUMERIC;
+                                } else {
+                                    flags |= ERROR;
+                                }
                             } else {
-                                _hasError = true;
+                                flags |= NON_NUMERIC;
                             }
                         } else {
-                            _hasNonNumeric = true;
+                            flags |= BLANK;
                         }
-                    } else {
-                        _hasBlank = true;
                     }
-                }
-            } else {
-                _totalValueCount++;
+                } else {
+                    totalValueCount++;
 
-                if (value instanceof Number) {
-                    if (processValue(((Number) value).doubleValue(), allValues)) {
-                        _hasNumeric = true;
+                    if (value instanceof Number) {
+                        if (processValue(((Number) value).doubleValue())) {
+                            flags |= NUMERIC;
+                        } else {
+                            flags |= ERROR;
+                        }
                     } else {
-                        _hasError = true;
+                        flags |= NON_NUMERIC;
+                        if (value instanceof ArrayNode) {
+                            flags |= UNINDEXED;
+                        }
                     }
-                } else {
-                    _hasNonNumeric = true;
                 }
+            } else {
+                flags |= BLANK;
             }
-        } else {
-            _hasBlank = true;
-        }
-    }
 
-    protected void preprocessing() {
-        _hasBlank = false;
-        _hasError = false;
-        _hasNonNumeric = false;
-        _hasNumeric = false;
-    }
+            hasError |= (flags & ERROR) != 0;
+            hasBlank |= (flags & BLANK) != 0;
+            hasNumeric |= (flags & NUMERIC) != 0;
+            hasNonNumeric |= (flags & NON_NUMERIC) != 0;
+            rowFlags[rowCount++] = flags;
+        }
 
-    protected void postprocessing() {
-        if (_hasError) {
-            _errorRowCount++;
+        protected void preprocessing() {
+            hasBlank = false;
+            hasError = false;
+            hasNonNumeric = false;
+            hasNumeric = false;
         }
-        if (_hasBlank) {
-            _blankRowCount++;
+
+        protected void postprocessing() {
+            if (hasError) {
+                errorRowCount++;
+            }
+            if (hasBlank) {
+                blankRowCount++;
+            }
+            if (hasNumeric) {
+                numericRowCount++;
+            }
+            if (hasNonNumeric) {
+                nonNumericRowCount++;
+            }
         }
-        if (_hasNumeric) {
-            _numericRowCount++;
+
+        protected boolean processValue(double v) {
+            if (!Double.isInfinite(v) && !Double.isNaN(v)) {
+                min = Math.min(min, v);
+                max = Math.max(max, v);
+                ensureValueCapacity(valueCount + 1);
+                values[valueCount++] = v;
+                return true;
+            } else {
+                return false;
+            }
         }
-        if (_hasNonNumeric) {
-            _nonNumericRowCount++;
+
+        private void ensureValueCapacity(int capacity) {
+            if (capacity > values.length) {
+                values = Arrays.copyOf(values, Math.max(capacity, values.length * 2));
+            }
         }
-    }
 
-    protected boolean processValue(double v, List<Double> allValues) {
-        if (!Double.isInfinite(v) && !Double.isNaN(v)) {
-            _min = Math.min(_min, v);
-            _max = Math.max(_max, v);
-            allValues.add(v);
-            return true;
-        } else {
-            return false;
+        private void ensureRowCapacity(int capacity) {
+            if (capacity > rowOffsets.length) {
+                int newCapacity = Math.max(capacity, rowOffsets.length * 2);
+                rowOffsets = Arrays.copyOf(rowOffsets, newCapacity);
+                rowFlags = Arrays.copyOf(rowFlags, newCapacity);
+            }
         }
     }
-
 }
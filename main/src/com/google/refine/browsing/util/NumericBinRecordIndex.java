@@ -33,7 +33,6 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.browsing.util;
 
-import java.util.List;
 import java.util.Properties;
 
 import com.google.refine.expr.ExpressionUtils;
@@ -47,26 +46,34 @@ public class NumericBinRecordIndex extends NumericBinIndex {
         super(project, rowEvaluable);
     }
 
-    @Override
-    protected void iterate(
-            Project project, RowEvaluable rowEvaluable, List<Double> allValues) {
+    public NumericBinRecordIndex(Project project, RowEvaluable rowEvaluable, RowSample sample) {
+        super(project, rowEvaluable, sample);
+    }
 
-        Properties bindings = ExpressionUtils.createBindings(project);
+    @Override
+    protected void iterate(Project project, Scan scan) {
         int count = project.recordModel.getRecordCount();
 
-        for (int r = 0; r < count; r++) {
-            Record record = project.recordModel.getRecord(r);
+        ParallelScan.scan(scan, count, (chunk, from, to) -> {
+            Properties bindings = ExpressionUtils.createBindings(project);
 
-            preprocessing();
+            for (int r = from; r < to; r++) {
+                if (_sample != null && !_sample.includes(r)) {
+                    continue;
+                }
+                Record record = project.recordModel.getRecord(r);
 
-            for (int i = record.fromRowIndex; i < record.toRowIndex; i++) {
-                Row row = project.rows.get(i);
+                chunk.preprocessing();
 
-                processRow(project, rowEvaluable, allValues, i, row, bindings);
-            }
+                for (int i = record.fromRowIndex; i < record.toRowIndex; i++) {
+                    Row row = project.rows.get(i);
+
+                    chunk.processRow(project, i, row, bindings);
+                }
 
-            postprocessing();
-        }
+                chunk.postprocessing();
+            }
+        });
     }
 
 }
@@ -33,7 +33,6 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.browsing.util;
 
-import java.util.List;
 import java.util.Properties;
 
 import com.google.refine.expr.ExpressionUtils;
@@ -47,21 +46,28 @@ public class NumericBinRowIndex extends NumericBinIndex {
         super(project, rowEvaluable);
     }
 
-    @Override
-    protected void iterate(
-            Project project, RowEvaluable rowEvaluable, List<Double> allValues) {
+    public NumericBinRowIndex(Project project, RowEvaluable rowEvaluable, RowSample sample) {
+        super(project, rowEvaluable, sample);
+    }
 
-        Properties bindings = ExpressionUtils.createBindings(project);
+    @Override
+    protected void iterate(Project project, Scan scan) {
+        ParallelScan.scan(scan, project.rows.size(), (chunk, from, to) -> {
+            Properties bindings = ExpressionUtils.createBindings(project);
 
-        for (int i = 0; i < project.rows.size(); i++) {
-            Row row = project.rows.get(i);
+            for (int i = from; i < to; i++) {
+                if (_sample != null && !_sample.includes(i)) {
+                    continue;
+                }
+                Row row = project.rows.get(i);
 
-            preprocessing();
+                chunk.preprocessing();
 
-            processRow(project, rowEvaluable, allValues, i, row, bindings);
+                chunk.processRow(project, i, row, bindings);
 
-            postprocessing();
-        }
+                chunk.postprocessing();
+            }
+        });
     }
 
 }
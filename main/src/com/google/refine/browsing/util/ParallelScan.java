@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.browsing.util;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.browsing.MergeableVisitor;
+import com.google.refine.expr.ExpressionUtils;
+
+/**
+ * Splits a scan of rows or records into chunks visited on the common fork/join pool by forks of a
+ * {@link MergeableVisitor}, whose results are merged back in order.
+ * <p>
+ * Expressions and filters are evaluated concurrently in this mode, so it is only used when enabled through the
+ * {@link #MIN_ROWS_PREFERENCE} preference, and only for projects at least that large.
+ */
+public final class ParallelScan {
+
+    /**
+     * Preference key for the minimum number of rows or records for which scans run in parallel. Parallel scanning is
+     * disabled if it is not set or not positive.
+     */
+    public static final String MIN_ROWS_PREFERENCE = "browsing.parallelScanMinRows";
+
+    /**
+     * Number of rows or records below which a chunk is not split further.
+     */
+    static final int MIN_CHUNK_SIZE = 4096;
+
+    /**
+     * Visits the rows or records in a range, on the given visitor.
+     */
+    @FunctionalInterface
+    public interface RangeVisitor<V> {
+
+        void visit(V visitor, int from, int to);
+    }
+
+    private ParallelScan() {
+    }
+
+    /**
+     * @return true if a scan of the given number of rows or records with the given visitor would be split
+     */
+    static public boolean isParallel(Object visitor, int count) {
+        if (!(visitor instanceof MergeableVisitor) || !((MergeableVisitor<?>) visitor).isForkable()) {
+            return false;
+        }
+        int minRows = getMinRowsPreference();
+        return minRows > 0 && count >= minRows && count >= 2 * MIN_CHUNK_SIZE
+                && ForkJoinPool.getCommonPoolParallelism() > 1;
+    }
+
+    /**
+     * Visits the range [0, count) with the given visitor, in parallel if enabled for this visitor and size, or
+     * sequentially otherwise. Does not call start() or end() on the visitor.
+     *
+     * @param visitor
+     *            the visitor, which receives the results of all chunks
+     * @param count
+     *            the number of rows or records to visit
+     * @param rangeVisitor
+     *            visits a range of rows or records on a visitor
+     */
+    static public <V extends MergeableVisitor<V>> void scan(V visitor, int count, RangeVisitor<V> rangeVisitor) {
+        if (!isParallel(visitor, count)) {
+            ExpressionUtils.runScan(() -> rangeVisitor.visit(visitor, 0, count));
+            return;
+        }
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, count / (ForkJoinPool.getCommonPoolParallelism() * 4));
+        V result = ForkJoinPool.commonPool().invoke(new Chunk<>(visitor, rangeVisitor, 0, count, chunkSize));
+        visitor.merge(result);
+    }
+
+    static private int getMinRowsPreference() {
+        return ProjectManager.singleton == null ? 0
+                : ProjectManager.singleton.getPreferenceStore().getInt(MIN_ROWS_PREFERENCE, 0);
+    }
+
+    /**
+     * Visits a range on a fresh fork of the visitor, splitting it in two halves while it is larger than the chunk size.
+     */
+    static private class Chunk<V extends MergeableVisitor<V>> extends RecursiveTask<V> {
+
+        private static final long serialVersionUID = 1L;
+
+        final V _visitor;
+        final RangeVisitor<V> _rangeVisitor;
+        final int _from;
+        final int _to;
+        final int _chunkSize;
+
+        Chunk(V visitor, RangeVisitor<V> rangeVisitor, int from, int to, int chunkSize) {
+            _visitor = visitor;
+            _rangeVisitor = rangeVisitor;
+            _from = from;
+            _to = to;
+            _chunkSize = chunkSize;
+        }
+
+        @Override
+        protected V compute() {
+            if (_to - _from <= _chunkSize) {
+                V fork = _visitor.fork();
+                ExpressionUtils.runScan(() -> _rangeVisitor.visit(fork, _from, _to));
+                return fork;
+            }
+            int middle = (_from + _to) >>> 1;
+            Chunk<V> right = new Chunk<>(_visitor, _rangeVisitor, middle, _to, _chunkSize);
+            right.fork();
+            V left = new Chunk<>(_visitor, _rangeVisitor, _from, middle, _chunkSize).compute();
+            left.merge(right.join());
+            return left;
+        }
+    }
+}
@@ -0,0 +1,252 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.browsing.util;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.browsing.FilteredRecords;
+import com.google.refine.browsing.FilteredRows;
+import com.google.refine.browsing.MergeableVisitor;
+import com.google.refine.browsing.RecordVisitor;
+import com.google.refine.browsing.RowVisitor;
+import com.google.refine.model.Project;
+import com.google.refine.model.Record;
+import com.google.refine.model.Row;
+
+/**
+ * A deterministic sample of the rows or records of a project, used by facets in approximate mode. Each row or record
+ * is included with the same probability, decided by a hash of its index, so the same rows are sampled from one request
+ * to the next and estimates only change when the data or the filters do.
+ * <p>
+ * Estimates are not refined to exact counts afterwards: a facet in approximate mode reports estimates until it is
+ * switched back to exact mode.
+ */
+public class RowSample {
+
+    /**
+     * Preference key for the expected number of rows or records in a sample.
+     */
+    public static final String SAMPLE_SIZE_PREFERENCE = "browsing.approximateSampleSize";
+
+    static final int DEFAULT_SAMPLE_SIZE = 100000;
+
+    /**
+     * Factor for the half-width of a 95% confidence interval.
+     */
+    static final double Z_95 = 1.96;
+
+    final protected double _rate;
+    final protected long _threshold;
+
+    /**
+     * @param rate
+     *            the probability for each row or record to be included, at most 1
+     */
+    public RowSample(double rate) {
+        _rate = Math.min(1, rate);
+        _threshold = (long) (_rate * (1L << 32));
+    }
+
+    /**
+     * @return a sample with the configured expected size, which is complete if the project is not larger
+     */
+    static public RowSample forProject(Project project, boolean recordBased) {
+        int count = recordBased ? project.recordModel.getRecordCount() : project.rows.size();
+        int size = getSampleSizePreference();
+        return new RowSample(count <= size ? 1 : (double) size / count);
+    }
+
+    /**
+     * @return true if all rows or records are included
+     */
+    public boolean isComplete() {
+        return _rate >= 1;
+    }
+
+    public double getRate() {
+        return _rate;
+    }
+
+    public boolean includes(int index) {
+        return isComplete() || (mix(index) & 0xffffffffL) < _threshold;
+    }
+
+    /**
+     * @return the estimated count over all rows or records, given a count over the sample
+     */
+    public int estimate(int sampleCount) {
+        if (isComplete()) {
+            return sampleCount;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, Math.round(sampleCount / _rate));
+    }
+
+    /**
+     * @return the half-width of an approximate 95% confidence interval for {@link #estimate(int)}
+     */
+    public int errorBound(int sampleCount) {
+        if (isComplete()) {
+            return 0;
+        }
+        double deviation = Math.sqrt(Math.max(sampleCount, 1) * (1 - _rate)) / _rate;
+        return (int) Math.min(Integer.MAX_VALUE, Math.ceil(Z_95 * deviation));
+    }
+
+    /**
+     * @return the counts estimated from counts over the sample
+     */
+    public int[] estimate(int[] sampleCounts) {
+        int[] counts = new int[sampleCounts.length];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = estimate(sampleCounts[i]);
+        }
+        return counts;
+    }
+
+    /**
+     * @return the rows of the sample which are matched by the given rows
+     */
+    public FilteredRows of(FilteredRows filteredRows) {
+        if (isComplete()) {
+            return filteredRows;
+        }
+        return (project, visitor) -> filteredRows.accept(project, new SampledRowVisitor(visitor));
+    }
+
+    /**
+     * @return the records of the sample which are matched by the given records
+     */
+    public FilteredRecords of(FilteredRecords filteredRecords) {
+        if (isComplete()) {
+            return filteredRecords;
+        }
+        return (project, visitor) -> filteredRecords.accept(project, new SampledRecordVisitor(visitor));
+    }
+
+    /**
+     * Passes the rows of the sample on to another visitor. It can be scanned in parallel if that visitor can.
+     */
+    protected class SampledRowVisitor implements RowVisitor, MergeableVisitor<SampledRowVisitor> {
+
+        final protected RowVisitor _visitor;
+
+        SampledRowVisitor(RowVisitor visitor) {
+            _visitor = visitor;
+        }
+
+        @Override
+        public void start(Project project) {
+            _visitor.start(project);
+        }
+
+        @Override
+        public boolean visit(Project project, int rowIndex, Row row) {
+            return includes(rowIndex) && _visitor.visit(project, rowIndex, row);
+        }
+
+        @Override
+        public void end(Project project) {
+            _visitor.end(project);
+        }
+
+        @Override
+        public boolean isForkable() {
+            return _visitor instanceof MergeableVisitor && ((MergeableVisitor<?>) _visitor).isForkable();
+        }
+
+        @Override
+        public SampledRowVisitor fork() {
+            return new SampledRowVisitor((RowVisitor) ((MergeableVisitor<?>) _visitor).fork());
+        }
+
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        @Override
+        public void merge(SampledRowVisitor chunk) {
+            ((MergeableVisitor) _visitor).merge((MergeableVisitor) chunk._visitor);
+        }
+    }
+
+    /**
+     * Passes the records of the sample on to another visitor. It can be scanned in parallel if that visitor can.
+     */
+    protected class SampledRecordVisitor implements RecordVisitor, MergeableVisitor<SampledRecordVisitor> {
+
+        final protected RecordVisitor _visitor;
+
+        SampledRecordVisitor(RecordVisitor visitor) {
+            _visitor = visitor;
+        }
+
+        @Override
+        public void start(Project project) {
+            _visitor.start(project);
+        }
+
+        @Override
+        public boolean visit(Project project, Record record) {
+            return includes(record.recordIndex) && _visitor.visit(project, record);
+        }
+
+        @Override
+        public void end(Project project) {
+            _visitor.end(project);
+        }
+
+        @Override
+        public boolean isForkable() {
+            return _visitor instanceof MergeableVisitor && ((MergeableVisitor<?>) _visitor).isForkable();
+        }
+
+        @Override
+        public SampledRecordVisitor fork() {
+            return new SampledRecordVisitor((RecordVisitor) ((MergeableVisitor<?>) _visitor).fork());
+        }
+
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        @Override
+        public void merge(SampledRecordVisitor chunk) {
+            ((MergeableVisitor) _visitor).merge((MergeableVisitor) chunk._visitor);
+        }
+    }
+
+    /**
+     * Finalization step of MurmurHash3, spreading consecutive indices over all 32 bits.
+     */
+    static private int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    static private int getSampleSizePreference() {
+        return ProjectManager.singleton == null ? DEFAULT_SAMPLE_SIZE
+                : ProjectManager.singleton.getPreferenceStore().getInt(SAMPLE_SIZE_PREFERENCE, DEFAULT_SAMPLE_SIZE);
+    }
+}
@@ -33,12 +33,13 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.browsing.util;
 
+import com.google.refine.browsing.MergeableVisitor;
 import com.google.refine.browsing.RecordVisitor;
 import com.google.refine.browsing.RowVisitor;
 import com.google.refine.model.Project;
 import com.google.refine.model.Record;
 
-public class RowVisitorAsRecordVisitor implements RecordVisitor {
+public class RowVisitorAsRecordVisitor implements RecordVisitor, MergeableVisitor<RowVisitorAsRecordVisitor> {
 
     final protected RowVisitor _rowVisitor;
 
@@ -56,6 +57,22 @@ public class RowVisitorAsRecordVisitor implements RecordVisitor {
         _rowVisitor.end(project);
     }
 
+    @Override
+    public boolean isForkable() {
+        return _rowVisitor instanceof MergeableVisitor && ((MergeableVisitor<?>) _rowVisitor).isForkable();
+    }
+
+    @Override
+    public RowVisitorAsRecordVisitor fork() {
+        return new RowVisitorAsRecordVisitor((RowVisitor) ((MergeableVisitor<?>) _rowVisitor).fork());
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    @Override
+    public void merge(RowVisitorAsRecordVisitor chunk) {
+        ((MergeableVisitor) _rowVisitor).merge((MergeableVisitor) chunk._rowVisitor);
+    }
+
     @Override
     public boolean visit(Project project, Record record) {
         for (int r = record.fromRowIndex; r < record.toRowIndex; r++) {
@@ -34,11 +34,11 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.google.refine.browsing.util;
 
 import java.time.OffsetDateTime;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.List;
 import java.util.Properties;
 
+import com.google.refine.browsing.MergeableVisitor;
 import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.model.Project;
 import com.google.refine.model.Row;
@@ -65,11 +65,6 @@ abstract public class TimeBinIndex {
     protected int _blankRowCount;
     protected int _errorRowCount;
 
-    protected boolean _hasError = false;
-    protected boolean _hasNonTime = false;
-    protected boolean _hasTime = false;
-    protected boolean _hasBlank = false;
-
     protected long[] steps = {
             1, // msec
             1000, // sec
@@ -84,17 +79,27 @@ abstract public class TimeBinIndex {
             1000l * 31556952l * 1000l, // millennium
     };
 
-    abstract protected void iterate(Project project, RowEvaluable rowEvaluable, List<Long> allValues);
+    /**
+     * Evaluates the expression on all rows or records of the project, possibly in parallel through
+     * {@link ParallelScan}.
+     */
+    abstract protected void iterate(Project project, Scan scan);
 
     public TimeBinIndex(Project project, RowEvaluable rowEvaluable) {
-        _min = Long.MAX_VALUE;
-        _max = Long.MIN_VALUE;
+        Scan scan = new Scan(rowEvaluable);
 
-        List<Long> allValues = new ArrayList<Long>();
+        iterate(project, scan);
 
-        iterate(project, rowEvaluable, allValues);
+        long[] allValues = scan.values;
+        _totalValueCount = scan.totalValueCount;
+        _min = scan.min;
+        _max = scan.max;
+        _timeRowCount = scan.timeRowCount;
+        _nonTimeRowCount = scan.nonTimeRowCount;
+        _blankRowCount = scan.blankRowCount;
+        _errorRowCount = scan.errorRowCount;
 
-        _timeValueCount = allValues.size();
+        _timeValueCount = scan.valueCount;
 
         if (_min >= _max) {
             _step = 1;
@@ -115,8 +120,8 @@ abstract public class TimeBinIndex {
         }
 
         _bins = new int[(int) (diff / _step) + 1];
-        for (long d : allValues) {
-            int bin = (int) Math.max((d - _min) / _step, 0);
+        for (int i = 0; i < _timeValueCount; i++) {
+            int bin = (int) Math.max((allValues[i] - _min) / _step, 0);
             _bins[bin]++;
         }
     }
@@ -157,94 +162,149 @@ abstract public class TimeBinIndex {
         return _errorRowCount;
     }
 
-    protected void processRow(
-            Project project,
-            RowEvaluable rowEvaluable,
-            List<Long> allValues,
-            int rowIndex,
-            Row row,
-            Properties bindings) {
-        Object value = rowEvaluable.eval(project, rowIndex, row, bindings);
-
-        if (ExpressionUtils.isError(value)) {
-            _hasError = true;
-        } else if (ExpressionUtils.isNonBlankData(value)) {
-            if (value.getClass().isArray()) {
-                Object[] a = (Object[]) value;
-                for (Object v : a) {
-                    _totalValueCount++;
-
-                    if (ExpressionUtils.isError(v)) {
-                        _hasError = true;
-                    } else if (ExpressionUtils.isNonBlankData(v)) {
-                        if (v instanceof OffsetDateTime) {
-                            _hasTime = true;
-                            processValue(((OffsetDateTime) v).toInstant().toEpochMilli(), allValues);
+    /**
+     * Values, as milliseconds since the epoch, and counts accumulated over a range of rows or records. Chunks of a
+     * project can be scanned in parallel and merged in order.
+     */
+    protected static class Scan implements MergeableVisitor<Scan> {
+
+        final protected RowEvaluable _rowEvaluable;
+
+        protected int totalValueCount;
+        protected long min = Long.MAX_VALUE;
+        protected long max = Long.MIN_VALUE;
+        protected long[] values = new long[16];
+        protected int valueCount;
+
+        protected int timeRowCount;
+        protected int nonTimeRowCount;
+        protected int blankRowCount;
+        protected int errorRowCount;
+
+        /*
+         * Scratch pad variables
+         */
+        protected boolean hasError = false;
+        protected boolean hasNonTime = false;
+        protected boolean hasTime = false;
+        protected boolean hasBlank = false;
+
+        protected Scan(RowEvaluable rowEvaluable) {
+            _rowEvaluable = rowEvaluable;
+        }
+
+        @Override
+        public Scan fork() {
+            return new Scan(_rowEvaluable);
+        }
+
+        @Override
+        public void merge(Scan chunk) {
+            totalValueCount += chunk.totalValueCount;
+            min = Math.min(min, chunk.min);
+            max = Math.max(max, chunk.max);
+            ensureCapacity(valueCount + chunk.valueCount);
+            System.arraycopy(chunk.values, 0, values, valueCount, chunk.valueCount);
+            valueCount += chunk.valueCount;
+            timeRowCount += chunk.timeRowCount;
+            nonTimeRowCount += chunk.nonTimeRowCount;
+            blankRowCount += chunk.blankRowCount;
+            errorRowCount += chunk.errorRowCount;
+        }
+
+        protected void processRow(
+                Project project,
+                int rowIndex,
+                Row row,
+                Properties bindings) {
+            Object value = _rowEvaluable.eval(project, rowIndex, row, bindings);
+
+            if (ExpressionUtils.isError(value)) {
+                hasError = true;
+            } else if (ExpressionUtils.isNonBlankData(value)) {
+                if (value.getClass().isArray()) {
+                    Object[] a = (Object[]) value;
+                    for (Object v : a) {
+                        totalValueCount++;
+
+                        if (ExpressionUtils.isError(v)) {
+                            hasError = true;
+                        } else if (ExpressionUtils.isNonBlankData(v)) {
+                            if (v instanceof OffsetDateTime) {
+                                hasTime = true;
+                                processValue(((OffsetDateTime) v).toInstant().toEpochMilli());
+                            } else {
+                                hasNonTime = true;
+                            }
                         } else {
-                            _hasNonTime = true;
+                            hasBlank = true;
                         }
-                    } else {
-                        _hasBlank = true;
                     }
-                }
-            } else if (value instanceof Collection<?>) {
-                for (Object v : ExpressionUtils.toObjectCollection(value)) {
-                    _totalValueCount++;
-
-                    if (ExpressionUtils.isError(v)) {
-                        _hasError = true;
-                    } else if (ExpressionUtils.isNonBlankData(v)) {
-                        if (v instanceof OffsetDateTime) {
-                            _hasTime = true;
-                            processValue(((OffsetDateTime) v).toInstant().toEpochMilli(), allValues);
+                } else if (value instanceof Collection<?>) {
+                    for (Object v : ExpressionUtils.toObjectCollection(value)) {
+                        totalValueCount++;
+
+                        if (ExpressionUtils.isError(v)) {
+                            hasError = true;
+                        } else if (ExpressionUtils.isNonBlankData(v)) {
+                            if (v instanceof OffsetDateTime) {
+                                hasTime = true;
+                                processValue(((OffsetDateTime) v).toInstant().toEpochMilli());
+                            } else {
+                                hasNonTime = true;
+                            }
                         } else {
-                            _hasNonTime = true;
+                            hasBlank = true;
                         }
+                    }
+                } else {
+                    totalValueCount++;
+
+                    if (value instanceof OffsetDateTime) {
+                        hasTime = true;
+                        processValue(((OffsetDateTime) value).toInstant().toEpochMilli());
                     } else {
-                        _hasBlank = true;
+                        hasNonTime = true;
                     }
                 }
             } else {
-                _totalValueCount++;
-
-                if (value instanceof OffsetDateTime) {
-                    _hasTime = true;
-                    processValue(((OffsetDateTime) value).toInstant().toEpochMilli(), allValues);
-                } else {
-                    _hasNonTime = true;
-                }
+                hasBlank = true;
             }
-        } else {
-            _hasBlank = true;
         }
-    }
-
-    protected void preprocessing() {
-        _hasBlank = false;
-        _hasError = false;
-        _hasNonTime = false;
-        _hasTime = false;
-    }
 
-    protected void postprocessing() {
-        if (_hasError) {
-            _errorRowCount++;
-        }
-        if (_hasBlank) {
-            _blankRowCount++;
+        protected void preprocessing() {
+            hasBlank = false;
+            hasError = false;
+            hasNonTime = false;
+            hasTime = false;
         }
-        if (_hasTime) {
-            _timeRowCount++;
+
+        protected void postprocessing() {
+            if (hasError) {
+                errorRowCount++;
+            }
+            if (hasBlank) {
+                blankRowCount++;
+            }
+            if (hasTime) {
+                timeRowCount++;
+            }
+            if (hasNonTime) {
+                nonTimeRowCount++;
+            }
         }
-        if (_hasNonTime) {
-            _nonTimeRowCount++;
+
+        protected void processValue(long v) {
+            min = Math.min(min, v);
+            max = Math.max(max, v);
+            ensureCapacity(valueCount + 1);
+            values[valueCount++] = v;
         }
-    }
 
-    protected void processValue(long v, List<Long> allValues) {
-        _min = Math.min(_min, v);
-        _max = Math.max(_max, v);
-        allValues.add(v);
+        private void ensureCapacity(int capacity) {
+            if (capacity > values.length) {
+                values = Arrays.copyOf(values, Math.max(capacity, values.length * 2));
+            }
+        }
     }
-
 }
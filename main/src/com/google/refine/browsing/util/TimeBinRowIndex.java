@@ -33,7 +33,6 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.browsing.util;
 
-import java.util.List;
 import java.util.Properties;
 
 import com.google.refine.expr.ExpressionUtils;
@@ -47,19 +46,20 @@ public class TimeBinRowIndex extends TimeBinIndex {
     }
 
     @Override
-    protected void iterate(Project project, RowEvaluable rowEvaluable, List<Long> allValues) {
+    protected void iterate(Project project, Scan scan) {
+        ParallelScan.scan(scan, project.rows.size(), (chunk, from, to) -> {
+            Properties bindings = ExpressionUtils.createBindings(project);
 
-        Properties bindings = ExpressionUtils.createBindings(project);
+            for (int i = from; i < to; i++) {
+                Row row = project.rows.get(i);
 
-        for (int i = 0; i < project.rows.size(); i++) {
-            Row row = project.rows.get(i);
+                chunk.preprocessing();
 
-            preprocessing();
+                chunk.processRow(project, i, row, bindings);
 
-            processRow(project, rowEvaluable, allValues, i, row, bindings);
-
-            postprocessing();
-        }
+                chunk.postprocessing();
+            }
+        });
     }
 
 }
@@ -0,0 +1,350 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.browsing.util;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.browsing.MergeableVisitor;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Column;
+import com.google.refine.model.Project;
+
+/**
+ * An inverted index from the trigrams (substrings of three characters) of the cell values of a column to the rows
+ * containing them. It is used to find the rows which may contain a string before checking them, since a row can only
+ * contain a string if it contains all of its trigrams.
+ * <p>
+ * Values are indexed as strings, lower-cased with the default locale unless the index is case-sensitive, the same way
+ * as text search facets compare them. Indexes are stored as column precomputes, so they are built on first use and
+ * discarded when the column changes. Columns whose index would need more memory than the
+ * {@link #MAX_BYTES_PREFERENCE} preference are not indexed.
+ */
+public class TrigramIndex {
+
+    final static Logger logger = LoggerFactory.getLogger("TrigramIndex");
+
+    /**
+     * Preference key for the minimum number of rows of projects for which columns are indexed. Indexing is disabled if
+     * it is not set or not positive.
+     */
+    public static final String MIN_ROWS_PREFERENCE = "browsing.textSearchIndexMinRows";
+
+    /**
+     * Preference key for the maximum memory used to build the index of a column, in bytes.
+     */
+    public static final String MAX_BYTES_PREFERENCE = "browsing.textSearchIndexMaxBytes";
+
+    static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+
+    /**
+     * Memory needed per posting while the index is built: the trigram and the row of each posting, a sorted copy of the
+     * trigram, its position in the distinct trigrams and the row in the built index.
+     */
+    static final int BYTES_PER_POSTING = 2 * Long.BYTES + 3 * Integer.BYTES;
+
+    static final String PRECOMPUTE_KEY = "trigram-index:";
+
+    final protected boolean _caseSensitive;
+    final protected int _rowCount;
+    // the distinct trigrams in increasing order, and the rows containing each of them: those of trigram t are
+    // _rows[_offsets[t]] to _rows[_offsets[t + 1] - 1], in increasing order
+    final protected long[] _trigrams;
+    final protected int[] _offsets;
+    final protected int[] _rows;
+    final protected BitSet _unindexed;
+
+    protected TrigramIndex(Project project, int cellIndex, boolean caseSensitive) {
+        _caseSensitive = caseSensitive;
+        _rowCount = project.rows.size();
+
+        Scan scan = new Scan(project, cellIndex);
+        ParallelScan.scan(scan, _rowCount, (chunk, from, to) -> chunk.visit(from, to));
+        _unindexed = scan.unindexed;
+
+        // chunks are merged in order, so the postings are sorted by row
+        long[] trigrams = Arrays.copyOf(scan.trigrams, scan.size);
+        Arrays.parallelSort(trigrams);
+        int distinct = 0;
+        for (int i = 0; i < trigrams.length; i++) {
+            if (i == 0 || trigrams[i] != trigrams[i - 1]) {
+                trigrams[distinct++] = trigrams[i];
+            }
+        }
+        _trigrams = Arrays.copyOf(trigrams, distinct);
+
+        _offsets = new int[distinct + 1];
+        int[] ids = new int[scan.size];
+        for (int i = 0; i < scan.size; i++) {
+            ids[i] = Arrays.binarySearch(_trigrams, scan.trigrams[i]);
+            _offsets[ids[i] + 1]++;
+        }
+        for (int t = 0; t < distinct; t++) {
+            _offsets[t + 1] += _offsets[t];
+        }
+        _rows = new int[scan.size];
+        int[] next = Arrays.copyOf(_offsets, distinct);
+        for (int i = 0; i < scan.size; i++) {
+            _rows[next[ids[i]]++] = scan.rows[i];
+        }
+    }
+
+    /**
+     * Returns the index of a column, building it if needed.
+     *
+     * @return the index, or null if indexing is disabled for this project or the column is too large to be indexed
+     */
+    static public TrigramIndex getIndex(Project project, Column column, boolean caseSensitive) {
+        int minRows = getMinRowsPreference();
+        if (minRows <= 0 || project.rows.size() < minRows) {
+            return null;
+        }
+        String key = PRECOMPUTE_KEY + (caseSensitive ? "case-sensitive" : "case-insensitive");
+        Object cached = column.getPrecompute(key);
+        if (cached instanceof Skipped && ((Skipped) cached).rowCount == project.rows.size()) {
+            return null;
+        }
+        TrigramIndex index = cached instanceof TrigramIndex ? (TrigramIndex) cached : null;
+        if (index == null || index._rowCount != project.rows.size()) {
+            long bytes = estimatePostings(project, column.getCellIndex()) * BYTES_PER_POSTING;
+            long maxBytes = getMaxBytesPreference();
+            if (bytes > maxBytes) {
+                logger.info("Not indexing column {} for text search: its index would need about {} bytes, above {}",
+                        column.getName(), bytes, maxBytes);
+                column.setPrecompute(key, new Skipped(project.rows.size()));
+                return null;
+            }
+            index = new TrigramIndex(project, column.getCellIndex(), caseSensitive);
+            column.setPrecompute(key, index);
+        }
+        return index;
+    }
+
+    /**
+     * @return an upper bound on the number of postings of the index of a column
+     */
+    static long estimatePostings(Project project, int cellIndex) {
+        long count = 0;
+        for (int i = 0; i < project.rows.size(); i++) {
+            Cell cell = project.rows.get(i).getCell(cellIndex);
+            if (cell != null && isIndexed(cell.value)) {
+                String s = cell.value instanceof String ? (String) cell.value : cell.value.toString();
+                count += Math.max(0, s.length() - 2);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the rows whose value may contain a string.
+     *
+     * @param s
+     *            the string, already lower-cased if the index is not case-sensitive
+     * @return the candidate rows, or null if the string is too short to narrow them down
+     */
+    public BitSet getCandidates(String s) {
+        if (s == null || s.length() < 3) {
+            return null;
+        }
+        int[] lists = new int[s.length() - 2];
+        for (int j = 0; j < lists.length; j++) {
+            int t = Arrays.binarySearch(_trigrams, trigram(s, j));
+            if (t < 0) {
+                return (BitSet) _unindexed.clone();
+            }
+            lists[j] = t;
+        }
+        int shortest = 0;
+        for (int j = 1; j < lists.length; j++) {
+            if (length(lists[j]) < length(lists[shortest])) {
+                shortest = j;
+            }
+        }
+
+        int[] candidates = Arrays.copyOfRange(_rows, _offsets[lists[shortest]], _offsets[lists[shortest] + 1]);
+        int count = candidates.length;
+        for (int j = 0; j < lists.length && count > 0; j++) {
+            if (j != shortest) {
+                count = intersect(candidates, count, _rows, _offsets[lists[j]], _offsets[lists[j] + 1]);
+            }
+        }
+
+        BitSet result = new BitSet(_rowCount);
+        for (int i = 0; i < count; i++) {
+            result.set(candidates[i]);
+        }
+        result.or(_unindexed);
+        return result;
+    }
+
+    public boolean isCaseSensitive() {
+        return _caseSensitive;
+    }
+
+    protected String normalize(Object value) {
+        String s = value instanceof String ? (String) value : value.toString();
+        return _caseSensitive ? s : s.toLowerCase();
+    }
+
+    private int length(int trigram) {
+        return _offsets[trigram + 1] - _offsets[trigram];
+    }
+
+    /**
+     * @return false for values holding several items, which are matched item by item and so are always candidates
+     */
+    static private boolean isIndexed(Object value) {
+        return value != null
+                && !(value.getClass().isArray() || value instanceof Collection<?> || value instanceof ArrayNode);
+    }
+
+    /**
+     * Keeps the first {@code count} rows of {@code rows} which are also in {@code other} between {@code from} and
+     * {@code to}, moving them to the start of {@code rows}.
+     *
+     * @return the number of rows kept
+     */
+    static private int intersect(int[] rows, int count, int[] other, int from, int to) {
+        int kept = 0;
+        int k = from;
+        for (int i = 0; i < count; i++) {
+            int row = rows[i];
+            while (k < to && other[k] < row) {
+                k++;
+            }
+            if (k < to && other[k] == row) {
+                rows[kept++] = row;
+            }
+        }
+        return kept;
+    }
+
+    static private long trigram(String s, int start) {
+        return ((long) s.charAt(start) << 32) | ((long) s.charAt(start + 1) << 16) | s.charAt(start + 2);
+    }
+
+    static private int getMinRowsPreference() {
+        return ProjectManager.singleton == null ? 0
+                : ProjectManager.singleton.getPreferenceStore().getInt(MIN_ROWS_PREFERENCE, 0);
+    }
+
+    static private long getMaxBytesPreference() {
+        return ProjectManager.singleton == null ? DEFAULT_MAX_BYTES
+                : ProjectManager.singleton.getPreferenceStore().getLong(MAX_BYTES_PREFERENCE, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * Marks a column which was too large to be indexed, so that its size is not estimated again by each request.
+     */
+    static private class Skipped {
+
+        final int rowCount;
+
+        Skipped(int rowCount) {
+            this.rowCount = rowCount;
+        }
+    }
+
+    /**
+     * Collects the postings of a range of rows: the distinct trigrams of each row, in increasing order of rows.
+     */
+    private class Scan implements MergeableVisitor<Scan> {
+
+        final Project project;
+        final int cellIndex;
+        long[] trigrams = new long[16];
+        int[] rows = new int[16];
+        int size;
+        final BitSet unindexed = new BitSet();
+
+        Scan(Project project, int cellIndex) {
+            this.project = project;
+            this.cellIndex = cellIndex;
+        }
+
+        void visit(int from, int to) {
+            long[] rowTrigrams = new long[16];
+            for (int i = from; i < to; i++) {
+                Cell cell = project.rows.get(i).getCell(cellIndex);
+                if (cell == null || cell.value == null) {
+                    continue;
+                } else if (!isIndexed(cell.value)) {
+                    unindexed.set(i);
+                    continue;
+                }
+                String s = normalize(cell.value);
+                int count = Math.max(0, s.length() - 2);
+                if (rowTrigrams.length < count) {
+                    rowTrigrams = new long[count];
+                }
+                for (int j = 0; j < count; j++) {
+                    rowTrigrams[j] = trigram(s, j);
+                }
+                Arrays.sort(rowTrigrams, 0, count);
+                for (int j = 0; j < count; j++) {
+                    if (j == 0 || rowTrigrams[j] != rowTrigrams[j - 1]) {
+                        add(rowTrigrams[j], i);
+                    }
+                }
+            }
+        }
+
+        void add(long trigram, int row) {
+            if (size == trigrams.length) {
+                trigrams = Arrays.copyOf(trigrams, size * 2);
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            trigrams[size] = trigram;
+            rows[size++] = row;
+        }
+
+        @Override
+        public Scan fork() {
+            return new Scan(project, cellIndex);
+        }
+
+        @Override
+        public void merge(Scan chunk) {
+            if (size + chunk.size > trigrams.length) {
+                int capacity = Math.max(size + chunk.size, trigrams.length * 2);
+                trigrams = Arrays.copyOf(trigrams, capacity);
+                rows = Arrays.copyOf(rows, capacity);
+            }
+            System.arraycopy(chunk.trigrams, 0, trigrams, size, chunk.size);
+            System.arraycopy(chunk.rows, 0, rows, size, chunk.size);
+            size += chunk.size;
+            unindexed.or(chunk.unindexed);
+        }
+    }
+}
@@ -54,6 +54,7 @@ import org.slf4j.LoggerFactory;
 
 import com.google.refine.browsing.Engine;
 import com.google.refine.browsing.FilteredRows;
+import com.google.refine.browsing.MergeableVisitor;
 import com.google.refine.browsing.RowVisitor;
 import com.google.refine.clustering.ClusteredEntry;
 import com.google.refine.clustering.Clusterer;
@@ -128,7 +129,7 @@ public class BinningClusterer extends Clusterer {
 
     List<Map<String, Integer>> _clusters;
 
-    class BinningRowVisitor implements RowVisitor {
+    class BinningRowVisitor implements RowVisitor, MergeableVisitor<BinningRowVisitor> {
 
         Keyer _keyer;
         Object[] _params;
@@ -157,6 +158,25 @@ public class BinningClusterer extends Clusterer {
             // nothing to do
         }
 
+        @Override
+        public BinningRowVisitor fork() {
+            return new BinningRowVisitor(_keyer, _parameters);
+        }
+
+        @Override
+        public void merge(BinningRowVisitor chunk) {
+            for (Entry<String, Map<String, Integer>> entry : chunk._map.entrySet()) {
+                Map<String, Integer> m = _map.get(entry.getKey());
+                if (m == null) {
+                    _map.put(entry.getKey(), entry.getValue());
+                } else {
+                    for (Entry<String, Integer> count : entry.getValue().entrySet()) {
+                        m.merge(count.getKey(), count.getValue(), Integer::sum);
+                    }
+                }
+            }
+        }
+
         @Override
         public boolean visit(Project project, int rowIndex, Row row) {
             Cell cell = row.getCell(_colindex);
@@ -37,6 +37,7 @@ import java.io.Serializable;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -54,6 +55,7 @@ import org.slf4j.LoggerFactory;
 
 import com.google.refine.browsing.Engine;
 import com.google.refine.browsing.FilteredRows;
+import com.google.refine.browsing.MergeableVisitor;
 import com.google.refine.browsing.RowVisitor;
 import com.google.refine.clustering.ClusteredEntry;
 import com.google.refine.clustering.Clusterer;
@@ -171,13 +173,15 @@ public class kNNClusterer extends Clusterer {
         }
     }
 
-    class BlockingClusteringRowVisitor implements RowVisitor {
+    class BlockingClusteringRowVisitor implements RowVisitor, MergeableVisitor<BlockingClusteringRowVisitor> {
 
         SimilarityDistance _distance;
         double _radius = 1.0d;
         int _blockingNgramSize = 6;
         HashSet<String> _data;
         NGramClusterer _clusterer;
+        // occurrences of each value, in order of first appearance, added to the clusterer at the end of the visit
+        Map<String, Integer> _values = new LinkedHashMap<>();
 
         private class DistanceWrapper extends Distance {
 
@@ -208,7 +212,23 @@ public class kNNClusterer extends Clusterer {
 
         @Override
         public void end(Project project) {
-            // nothing to do
+            for (Entry<String, Integer> entry : _values.entrySet()) {
+                _clusterer.populate(entry.getKey());
+                _counts.merge(entry.getKey(), entry.getValue(), Integer::sum);
+            }
+            _values.clear();
+        }
+
+        @Override
+        public BlockingClusteringRowVisitor fork() {
+            return new BlockingClusteringRowVisitor(_distance, _params);
+        }
+
+        @Override
+        public void merge(BlockingClusteringRowVisitor chunk) {
+            for (Entry<String, Integer> entry : chunk._values.entrySet()) {
+                _values.merge(entry.getKey(), entry.getValue(), Integer::sum);
+            }
         }
 
         @Override
@@ -217,8 +237,7 @@ public class kNNClusterer extends Clusterer {
             if (cell != null && cell.value != null) {
                 Object v = cell.value;
                 String s = (v instanceof String) ? ((String) v) : v.toString().intern();
-                _clusterer.populate(s);
-                count(s);
+                _values.merge(s, 1, Integer::sum);
             }
             return false;
         }
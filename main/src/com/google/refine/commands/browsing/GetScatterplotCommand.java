@@ -54,6 +54,7 @@ import com.google.refine.browsing.FilteredRows;
 import com.google.refine.browsing.facets.ScatterplotDrawingRowVisitor;
 import com.google.refine.browsing.facets.ScatterplotFacet;
 import com.google.refine.browsing.util.NumericBinIndex;
+import com.google.refine.browsing.util.RowSample;
 import com.google.refine.commands.Command;
 import com.google.refine.expr.Evaluable;
 import com.google.refine.expr.MetaParser;
@@ -66,6 +67,11 @@ public class GetScatterplotCommand extends Command {
 
     final static Logger logger = LoggerFactory.getLogger("get-scatterplot_command");
 
+    /**
+     * Response header reporting the rate at which rows were sampled, when only a sample of them was drawn.
+     */
+    public static final String SAMPLE_RATE_HEADER = "X-Sample-Rate";
+
     @Override
     public void doGet(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
@@ -84,13 +90,19 @@ public class GetScatterplotCommand extends Command {
                     request.getParameter("plotter"),
                     PlotterConfig.class);
 
+            // the same sample is used for both layers, so that filtered points are drawn over base points
+            RowSample sample = conf.approximate ? RowSample.forProject(project, false) : new RowSample(1);
+
             response.setHeader("Content-Type", "image/png");
+            if (!sample.isComplete()) {
+                response.setHeader(SAMPLE_RATE_HEADER, Double.toString(sample.getRate()));
+            }
 
             ServletOutputStream sos = null;
 
             try {
                 sos = response.getOutputStream();
-                draw(sos, project, engine, conf);
+                draw(sos, project, engine, conf, sample);
             } finally {
                 sos.close();
             }
@@ -126,6 +138,9 @@ public class GetScatterplotCommand extends Command {
         public String columnName_y = "";
         @JsonProperty(ScatterplotFacet.Y_EXPRESSION)
         public String expression_y = "value";
+        // if true, only a sample of the rows of large projects is drawn
+        @JsonProperty(ScatterplotFacet.APPROXIMATE)
+        public boolean approximate = false;
 
         @JsonProperty(ScatterplotFacet.DIM_X)
         public String getDimX() {
@@ -155,6 +170,14 @@ public class GetScatterplotCommand extends Command {
     }
 
     public void draw(OutputStream output, Project project, Engine engine, PlotterConfig o) throws IOException {
+        draw(output, project, engine, o, o.approximate ? RowSample.forProject(project, false) : new RowSample(1));
+    }
+
+    /**
+     * Draws the rows of the given sample.
+     */
+    public void draw(OutputStream output, Project project, Engine engine, PlotterConfig o, RowSample sample)
+            throws IOException {
 
         double min_x = 0;
         double min_y = 0;
@@ -228,14 +251,14 @@ public class GetScatterplotCommand extends Command {
             if (base_color != null) {
                 drawer.setColor(base_color);
 
-                FilteredRows filteredRows = engine.getAllRows();
+                FilteredRows filteredRows = sample.of(engine.getAllRows());
                 filteredRows.accept(project, drawer);
 
                 drawer.setColor(color);
             }
 
             {
-                FilteredRows filteredRows = engine.getAllFilteredRows();
+                FilteredRows filteredRows = sample.of(engine.getAllFilteredRows());
                 filteredRows.accept(project, drawer);
             }
 
@@ -59,9 +59,12 @@ import com.google.refine.expr.Evaluable;
 import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.expr.HasFields;
 import com.google.refine.expr.MetaParser;
+import com.google.refine.expr.ParsedExpressionCache;
 import com.google.refine.expr.ParsingException;
 import com.google.refine.expr.WrappedCell;
 import com.google.refine.expr.WrappedRow;
+import com.google.refine.grel.TieredExpression;
+import com.google.refine.grel.ast.ExpressionOptimizer;
 import com.google.refine.model.Cell;
 import com.google.refine.model.Project;
 import com.google.refine.model.Row;
@@ -105,6 +108,12 @@ public class PreviewExpressionCommand extends Command {
         @JsonProperty("results")
         @JsonInclude(Include.NON_NULL)
         List<ExpressionValue> results;
+        @JsonProperty("optimizedExpression")
+        @JsonInclude(Include.NON_NULL)
+        String optimizedExpression;
+        @JsonProperty("parseCache")
+        @JsonInclude(Include.NON_NULL)
+        ParsedExpressionCache.Statistics parseCache;
 
         public PreviewResult(String code, String message, String type) {
             this.code = code;
@@ -144,6 +153,7 @@ public class PreviewExpressionCommand extends Command {
             }
 
             boolean repeat = "true".equals(request.getParameter("repeat"));
+            boolean debug = "true".equals(request.getParameter("debug"));
             int repeatCount = 10;
             if (repeat) {
                 String repeatCountString = request.getParameter("repeatCount");
@@ -206,7 +216,14 @@ public class PreviewExpressionCommand extends Command {
                         evaluated.add(new SuccessfulEvaluation(sb.toString()));
                     }
                 }
-                respondJSON(response, new PreviewResult(evaluated));
+                PreviewResult result = new PreviewResult(evaluated);
+                if (debug) {
+                    // the tree the expression is evaluated with, after optimization
+                    Evaluable tree = eval instanceof TieredExpression ? ((TieredExpression) eval).getExpression() : eval;
+                    result.optimizedExpression = ExpressionOptimizer.describe(tree);
+                    result.parseCache = MetaParser.getCacheStatistics();
+                }
+                respondJSON(response, result);
             } catch (ParsingException e) {
                 respondJSON(response, new PreviewResult("error", e.getMessage(), "parser"));
             } catch (Exception e) {
@@ -36,6 +36,7 @@ package com.google.refine.commands.row;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 import javax.servlet.ServletException;
@@ -60,9 +61,8 @@ import com.google.refine.model.Cell;
 import com.google.refine.model.Project;
 import com.google.refine.model.Record;
 import com.google.refine.model.Row;
+import com.google.refine.sorting.SortedView;
 import com.google.refine.sorting.SortingConfig;
-import com.google.refine.sorting.SortingRecordVisitor;
-import com.google.refine.sorting.SortingRowVisitor;
 import com.google.refine.util.ParsingUtilities;
 import com.google.refine.util.Pool;
 
@@ -180,32 +180,34 @@ public class GetRowsCommand extends Command {
             } catch (IOException e) {
             }
 
+            boolean sorted = sortingConfig != null && sortingConfig.getCriteria() != null
+                    && sortingConfig.getCriteria().length > 0;
             if (engine.getMode() == Mode.RowBased) {
                 FilteredRows filteredRows = engine.getAllFilteredRows();
-                RowVisitor visitor = rwv;
-
-                if (sortingConfig != null) {
-                    SortingRowVisitor srv = new SortingRowVisitor(visitor);
-
-                    srv.initializeFromConfig(project, sortingConfig);
-                    if (srv.hasCriteria()) {
-                        visitor = srv;
+                if (sorted) {
+                    MatchCollector matches = new MatchCollector();
+                    filteredRows.accept(project, matches);
+                    int[] page = SortedView.getPage(project, sortingConfig, false, matches.matches, start, limit);
+                    for (int rowIndex : page) {
+                        rwv.internalVisit(project, rowIndex, project.rows.get(rowIndex));
                     }
+                    rwv.total = matches.matches.cardinality();
+                } else {
+                    filteredRows.accept(project, rwv);
                 }
-                filteredRows.accept(project, visitor);
             } else {
                 FilteredRecords filteredRecords = engine.getFilteredRecords();
-                RecordVisitor visitor = rwv;
-
-                if (sortingConfig != null) {
-                    SortingRecordVisitor srv = new SortingRecordVisitor(visitor);
-
-                    srv.initializeFromConfig(project, sortingConfig);
-                    if (srv.hasCriteria()) {
-                        visitor = srv;
+                if (sorted) {
+                    MatchCollector matches = new MatchCollector();
+                    filteredRecords.accept(project, matches);
+                    int[] page = SortedView.getPage(project, sortingConfig, true, matches.matches, start, limit);
+                    for (int recordIndex : page) {
+                        rwv.internalVisit(project, project.recordModel.getRecord(recordIndex));
                     }
+                    rwv.total = matches.matches.cardinality();
+                } else {
+                    filteredRecords.accept(project, rwv);
                 }
-                filteredRecords.accept(project, visitor);
             }
 
             // Pool all the recons occurring in the rows seen
@@ -231,6 +233,36 @@ public class GetRowsCommand extends Command {
         }
     }
 
+    /**
+     * Collects the indices of the rows or records visited.
+     */
+    static protected class MatchCollector implements RowVisitor, RecordVisitor {
+
+        final BitSet matches = new BitSet();
+
+        @Override
+        public void start(Project project) {
+            // nothing to do
+        }
+
+        @Override
+        public void end(Project project) {
+            // nothing to do
+        }
+
+        @Override
+        public boolean visit(Project project, int rowIndex, Row row) {
+            matches.set(rowIndex);
+            return false;
+        }
+
+        @Override
+        public boolean visit(Project project, Record record) {
+            matches.set(record.recordIndex);
+            return false;
+        }
+    }
+
     static protected class RowWritingVisitor implements RowVisitor, RecordVisitor {
 
         final int start;
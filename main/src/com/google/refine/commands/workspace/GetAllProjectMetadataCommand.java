@@ -46,7 +46,6 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonRawValue;
 
 import com.google.refine.ProjectManager;
-import com.google.refine.ProjectMetadata;
 import com.google.refine.commands.Command;
 
 public class GetAllProjectMetadataCommand extends Command {
@@ -54,13 +53,13 @@ public class GetAllProjectMetadataCommand extends Command {
     public static class AllProjectMetadata {
 
         @JsonProperty("projects")
-        protected Map<Long, ProjectMetadata> projects;
+        protected Map<Long, ?> projects;
         @JsonProperty("customMetadataColumns")
         @JsonInclude(Include.NON_NULL)
         @JsonRawValue
         protected String customMetadataColumns;
 
-        protected AllProjectMetadata(Map<Long, ProjectMetadata> map, String json) {
+        protected AllProjectMetadata(Map<Long, ?> map, String json) {
             projects = map;
             customMetadataColumns = json;
         }
@@ -71,6 +70,6 @@ public class GetAllProjectMetadataCommand extends Command {
             throws ServletException, IOException {
 
         String userMeta = (String) ProjectManager.singleton.getPreferenceStore().get("userMetadata");
-        respondJSON(response, new AllProjectMetadata(ProjectManager.singleton.getAllProjectMetadata(), userMeta));
+        respondJSON(response, new AllProjectMetadata(ProjectManager.singleton.getProjectListing(), userMeta));
     }
 }
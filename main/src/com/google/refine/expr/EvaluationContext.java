@@ -0,0 +1,185 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.expr;
+
+import java.util.Properties;
+
+import com.google.refine.model.Cell;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+
+/**
+ * Bindings which hold the variables describing the row being evaluated (value, cell, cells, row, rowIndex, columnName)
+ * and the project in fixed slots rather than in the underlying table. Binding a row only sets a few fields: the
+ * wrappers of the cell and row are created when an expression first reads them, so expressions which only read
+ * {@code value} allocate nothing per row. The same context is meant to be reused for all rows of a scan, from a single
+ * thread.
+ * <p>
+ * Other variables, such as those of {@link Binder}s and controls, are kept in the table. The slots are read and written
+ * through {@link #get(Object)}, {@link #put(Object, Object)}, {@link #remove(Object)} and
+ * {@link #containsKey(Object)}, so code which only knows the bindings as {@link Properties}, such as other expression
+ * languages, keeps working. Variable expressions resolve their slot once with {@link #getSlotIndex(String)}.
+ */
+public class EvaluationContext extends Properties {
+
+    private static final long serialVersionUID = 1L;
+
+    static public final int VALUE = 0;
+    static public final int CELL = 1;
+    static public final int CELLS = 2;
+    static public final int ROW = 3;
+    static public final int ROW_INDEX = 4;
+    static public final int COLUMN_NAME = 5;
+    static public final int PROJECT = 6;
+
+    static private final int SLOT_COUNT = 7;
+
+    /**
+     * Marks the slots of wrappers which have not been created yet.
+     */
+    static private final Object UNWRAPPED = new Object();
+
+    final protected Object[] _slots = new Object[SLOT_COUNT];
+
+    // the row the wrappers are created from
+    protected Project _project;
+    protected Row _row;
+    protected int _rowIndex;
+    protected String _columnName;
+    protected Cell _cell;
+
+    /**
+     * @return the index of the slot holding a variable, or -1 if it is kept in the table
+     */
+    static public int getSlotIndex(String name) {
+        switch (name) {
+            case "value":
+                return VALUE;
+            case "cell":
+                return CELL;
+            case "cells":
+                return CELLS;
+            case "row":
+                return ROW;
+            case "rowIndex":
+                return ROW_INDEX;
+            case "columnName":
+                return COLUMN_NAME;
+            case "project":
+                return PROJECT;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Binds the variables describing a row, like {@link ExpressionUtils#bind}.
+     */
+    public void bind(Row row, int rowIndex, String columnName, Cell cell) {
+        _project = (Project) _slots[PROJECT];
+        _row = row;
+        _rowIndex = rowIndex;
+        _columnName = columnName;
+        _cell = cell;
+
+        _slots[ROW_INDEX] = rowIndex;
+        _slots[ROW] = UNWRAPPED;
+        _slots[CELLS] = UNWRAPPED;
+        if (columnName != null) {
+            _slots[COLUMN_NAME] = columnName;
+        }
+        if (cell == null) {
+            _slots[CELL] = null;
+            _slots[VALUE] = null;
+        } else {
+            _slots[CELL] = UNWRAPPED;
+            _slots[VALUE] = cell.value;
+        }
+    }
+
+    /**
+     * @return the value of a slot, or null if it is not bound
+     */
+    public Object getSlot(int slot) {
+        Object value = _slots[slot];
+        if (value == UNWRAPPED) {
+            value = wrap(slot);
+            _slots[slot] = value;
+        }
+        return value;
+    }
+
+    private Object wrap(int slot) {
+        switch (slot) {
+            case CELL:
+                return new WrappedCell(_project, _columnName, _cell);
+            case CELLS:
+                return new CellTuple(_project, _row);
+            case ROW:
+                return new WrappedRow(_project, _rowIndex, _row);
+            default:
+                throw new IllegalStateException("Slot " + slot + " holds no wrapper");
+        }
+    }
+
+    @Override
+    public Object get(Object key) {
+        int slot = key instanceof String ? getSlotIndex((String) key) : -1;
+        return slot >= 0 ? getSlot(slot) : super.get(key);
+    }
+
+    @Override
+    public Object put(Object key, Object value) {
+        int slot = key instanceof String ? getSlotIndex((String) key) : -1;
+        if (slot < 0) {
+            return super.put(key, value);
+        } else if (value == null) {
+            throw new NullPointerException();
+        }
+        Object old = getSlot(slot);
+        _slots[slot] = value;
+        return old;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        int slot = key instanceof String ? getSlotIndex((String) key) : -1;
+        if (slot < 0) {
+            return super.remove(key);
+        }
+        Object old = getSlot(slot);
+        _slots[slot] = null;
+        return old;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        int slot = key instanceof String ? getSlotIndex((String) key) : -1;
+        return slot >= 0 ? _slots[slot] != null : super.containsKey(key);
+    }
+}
@@ -36,8 +36,10 @@ package com.google.refine.expr;
 import java.io.Serializable;
 import java.time.OffsetDateTime;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 
@@ -52,12 +54,15 @@ public class ExpressionUtils {
 
     static final protected Set<Binder> s_binders = new HashSet<Binder>();
 
+    // the bindings reused during the scan in progress on each thread, by their owners
+    static final private ThreadLocal<Map<Object, Properties>> s_scanBindings = new ThreadLocal<>();
+
     static public void registerBinder(Binder binder) {
         s_binders.add(binder);
     }
 
     static public Properties createBindings(Project project) {
-        Properties bindings = new Properties();
+        Properties bindings = new EvaluationContext();
 
         bindings.put("true", true);
         bindings.put("false", false);
@@ -72,26 +77,67 @@ public class ExpressionUtils {
         return bindings;
     }
 
-    static public void bind(Properties bindings, Row row, int rowIndex, String columnName, Cell cell) {
-        Project project = (Project) bindings.get("project");
-
-        bindings.put("rowIndex", rowIndex);
-        bindings.put("row", new WrappedRow(project, rowIndex, row));
-        bindings.put("cells", new CellTuple(project, row));
+    /**
+     * Runs a scan of rows or records on the current thread, such as a chunk of a parallel scan. During the scan,
+     * {@link #getBindings(Object, Project)} returns the same bindings to each owner, and they are released when the
+     * scan ends. A scan nested in another one, from an expression evaluated by the outer scan, has its own bindings.
+     */
+    static public void runScan(Runnable scan) {
+        Map<Object, Properties> outer = s_scanBindings.get();
+        s_scanBindings.set(new HashMap<>());
+        try {
+            scan.run();
+        } finally {
+            if (outer == null) {
+                s_scanBindings.remove();
+            } else {
+                s_scanBindings.set(outer);
+            }
+        }
+    }
 
-        if (columnName != null) {
-            bindings.put("columnName", columnName);
+    /**
+     * Returns bindings for evaluating expressions on the rows of a project. Within a scan run by
+     * {@link #runScan(Runnable)}, the bindings are created once per owner, such as a row filter, and reused for the
+     * following rows. Outside of a scan, fresh bindings are returned.
+     */
+    static public Properties getBindings(Object owner, Project project) {
+        Map<Object, Properties> scanBindings = s_scanBindings.get();
+        if (scanBindings == null) {
+            return createBindings(project);
         }
+        Properties bindings = scanBindings.get(owner);
+        if (bindings == null || bindings.get("project") != project) {
+            bindings = createBindings(project);
+            scanBindings.put(owner, bindings);
+        }
+        return bindings;
+    }
 
-        if (cell == null) {
-            bindings.remove("cell");
-            bindings.remove("value");
+    static public void bind(Properties bindings, Row row, int rowIndex, String columnName, Cell cell) {
+        if (bindings instanceof EvaluationContext) {
+            ((EvaluationContext) bindings).bind(row, rowIndex, columnName, cell);
         } else {
-            bindings.put("cell", new WrappedCell(project, columnName, cell));
-            if (cell.value == null) {
+            Project project = (Project) bindings.get("project");
+
+            bindings.put("rowIndex", rowIndex);
+            bindings.put("row", new WrappedRow(project, rowIndex, row));
+            bindings.put("cells", new CellTuple(project, row));
+
+            if (columnName != null) {
+                bindings.put("columnName", columnName);
+            }
+
+            if (cell == null) {
+                bindings.remove("cell");
                 bindings.remove("value");
             } else {
-                bindings.put("value", cell.value);
+                bindings.put("cell", new WrappedCell(project, columnName, cell));
+                if (cell.value == null) {
+                    bindings.remove("value");
+                } else {
+                    bindings.put("value", cell.value);
+                }
             }
         }
 
@@ -45,6 +45,8 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import com.google.refine.grel.Parser;
+import com.google.refine.grel.TieredExpression;
+import com.google.refine.grel.ast.ExpressionOptimizer;
 
 abstract public class MetaParser {
 
@@ -66,6 +68,9 @@ abstract public class MetaParser {
 
     static final protected Map<String, LanguageInfo> s_languages = new HashMap<String, LanguageInfo>();
 
+    static final protected ParsedExpressionCache s_cache = new ParsedExpressionCache(
+            ParsedExpressionCache.DEFAULT_MAX_SIZE);
+
     // TODO: We should switch from using the internal compiler class
 //    final static private Var CLOJURE_READ_STRING = RT.var("clojure.core", "read-string");
 //    final static private Var CLOJURE_EVAL = RT.var("clojure.core", "eval");
@@ -136,6 +141,7 @@ abstract public class MetaParser {
      */
     static public void registerLanguageParser(String languagePrefix, String name, LanguageSpecificParser parser, String defaultExpression) {
         s_languages.put(languagePrefix, new LanguageInfo(name, parser, defaultExpression));
+        s_cache.clear();
     }
 
     static public LanguageInfo getLanguageInfo(String languagePrefix) {
@@ -166,16 +172,29 @@ abstract public class MetaParser {
         }
 
         LanguageInfo info = s_languages.get(language.toLowerCase());
-        if (info != null) {
-            return info.parser.parse(s.substring(colon + 1));
+        if (info == null || "grel".equals(language)) {
+            // the syntax tree and its compiled form are shared by all callers
+            String source = info != null ? s.substring(colon + 1) : s;
+            return TieredExpression.share(s_cache.get(s, source, MetaParser::parseGREL));
         } else {
-            return parseGREL(s);
+            return s_cache.get(s, s.substring(colon + 1), info.parser);
         }
     }
 
+    /**
+     * @return the hit rate and parsing time of the cache of parsed expressions
+     */
+    static public ParsedExpressionCache.Statistics getCacheStatistics() {
+        return s_cache.getStatistics();
+    }
+
     static protected Evaluable parseGREL(String s) throws ParsingException {
+        return TieredExpression.wrap(parseGRELTree(s));
+    }
+
+    static protected Evaluable parseGRELTree(String s) throws ParsingException {
         Parser parser = new Parser(s);
 
-        return parser.getExpression();
+        return ExpressionOptimizer.optimize(parser.getExpression());
     }
 }
@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.expr;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+/**
+ * A bounded cache of parsed expressions, keyed by their full text including the language prefix, so that the
+ * expressions of facets, previews and operations are not parsed again on every request. The cached {@link Evaluable}s
+ * are shared between requests and threads, so they must not hold evaluation state.
+ * <p>
+ * Expressions which fail to parse are not cached.
+ */
+public class ParsedExpressionCache {
+
+    static public final int DEFAULT_MAX_SIZE = 1000;
+
+    static public class Statistics {
+
+        @JsonProperty("size")
+        final public long size;
+        @JsonProperty("hits")
+        final public long hits;
+        @JsonProperty("misses")
+        final public long misses;
+        @JsonProperty("hitRate")
+        final public double hitRate;
+        @JsonProperty("parses")
+        final public long parses;
+        @JsonProperty("parseTimeMs")
+        final public double parseTimeMs;
+
+        protected Statistics(long size, CacheStats stats, long parses, long parseTimeNanos) {
+            this.size = size;
+            this.hits = stats.hitCount();
+            this.misses = stats.missCount();
+            this.hitRate = stats.hitRate();
+            this.parses = parses;
+            this.parseTimeMs = parseTimeNanos / 1e6;
+        }
+    }
+
+    final protected Cache<String, Evaluable> _cache;
+    final protected LongAdder _parses = new LongAdder();
+    final protected LongAdder _parseTimeNanos = new LongAdder();
+
+    public ParsedExpressionCache(int maxSize) {
+        _cache = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the cached expression for a key, or parses its source and caches the result. Two threads missing the
+     * same key at the same time may both parse it.
+     *
+     * @param key
+     *            the full text of the expression
+     * @param source
+     *            the text handed to the parser
+     */
+    public Evaluable get(String key, String source, LanguageSpecificParser parser) throws ParsingException {
+        Evaluable eval = _cache.getIfPresent(key);
+        if (eval == null) {
+            long start = System.nanoTime();
+            try {
+                eval = parser.parse(source);
+            } finally {
+                _parses.increment();
+                _parseTimeNanos.add(System.nanoTime() - start);
+            }
+            _cache.put(key, eval);
+        }
+        return eval;
+    }
+
+    public void clear() {
+        _cache.invalidateAll();
+    }
+
+    public Statistics getStatistics() {
+        return new Statistics(_cache.size(), _cache.stats(), _parses.sum(), _parseTimeNanos.sum());
+    }
+}
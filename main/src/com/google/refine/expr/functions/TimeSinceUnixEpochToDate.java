@@ -9,10 +9,10 @@ import java.util.Properties;
 import com.google.refine.expr.EvalError;
 import com.google.refine.grel.ControlFunctionRegistry;
 import com.google.refine.grel.EvalErrorMessage;
-import com.google.refine.grel.Function;
 import com.google.refine.grel.FunctionDescription;
+import com.google.refine.grel.PureFunction;
 
-public class TimeSinceUnixEpochToDate implements Function {
+public class TimeSinceUnixEpochToDate implements PureFunction {
 
     @Override
     public Object call(Properties bindings, Object[] args) {
@@ -55,11 +55,11 @@ import com.google.refine.expr.util.CalendarParser;
 import com.google.refine.expr.util.CalendarParserException;
 import com.google.refine.grel.ControlFunctionRegistry;
 import com.google.refine.grel.EvalErrorMessage;
-import com.google.refine.grel.Function;
 import com.google.refine.grel.FunctionDescription;
+import com.google.refine.grel.PureFunction;
 import com.google.refine.util.ParsingUtilities;
 
-public class ToDate implements Function {
+public class ToDate implements PureFunction {
 
     @Override
     public Object call(Properties bindings, Object[] args) {
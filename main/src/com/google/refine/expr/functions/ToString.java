@@ -41,11 +41,11 @@ import java.util.UnknownFormatConversionException;
 import com.google.refine.expr.EvalError;
 import com.google.refine.grel.ControlFunctionRegistry;
 import com.google.refine.grel.EvalErrorMessage;
-import com.google.refine.grel.Function;
 import com.google.refine.grel.FunctionDescription;
+import com.google.refine.grel.PureFunction;
 import com.google.refine.util.StringUtils;
 
-public class ToString implements Function {
+public class ToString implements PureFunction {
 
     @Override
     public Object call(Properties bindings, Object[] args) {
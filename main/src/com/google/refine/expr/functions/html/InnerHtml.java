@@ -42,10 +42,10 @@ import com.google.refine.expr.functions.Type;
 import com.google.refine.expr.functions.xml.InnerXml;
 import com.google.refine.grel.ControlFunctionRegistry;
 import com.google.refine.grel.EvalErrorMessage;
-import com.google.refine.grel.Function;
 import com.google.refine.grel.FunctionDescription;
+import com.google.refine.grel.PureFunction;
 
-public class InnerHtml implements Function {
+public class InnerHtml implements PureFunction {
 
     @Override
     public Object call(Properties bindings, Object[] args) {
@@ -8,10 +8,10 @@ import com.google.common.io.BaseEncoding;
 import com.google.refine.expr.EvalError;
 import com.google.refine.grel.ControlFunctionRegistry;
 import com.google.refine.grel.EvalErrorMessage;
-import com.google.refine.grel.Function;
 import com.google.refine.grel.FunctionDescription;
+import com.google.refine.grel.PureFunction;
 
-public class Encode implements Function {
+public class Encode implements PureFunction {
 
     /**
      * Encodes a string using a given encoding. Encodings include Base16, Base32Hex, Base32, Base64, and Base64Url.
@@ -13,15 +13,15 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.refine.expr.EvalError;
 import com.google.refine.grel.ControlFunctionRegistry;
 import com.google.refine.grel.EvalErrorMessage;
-import com.google.refine.grel.Function;
 import com.google.refine.grel.FunctionDescription;
+import com.google.refine.grel.PureFunction;
 import com.google.refine.util.ParsingUtilities;
 
 /**
  * Parse a URI string into its components and returns a JSON object with the following keys: scheme, authority, path,
  * query, fragment, host, port.
  */
-public class ParseUri implements Function {
+public class ParseUri implements PureFunction {
 
     @Override
     public Object call(Properties bindings, Object[] args) {
@@ -36,8 +36,8 @@ import com.google.common.base.CharMatcher;
 import com.google.refine.expr.EvalError;
 import com.google.refine.grel.ControlFunctionRegistry;
 import com.google.refine.grel.EvalErrorMessage;
-import com.google.refine.grel.Function;
 import com.google.refine.grel.FunctionDescription;
+import com.google.refine.grel.PureFunction;
 
 /**
  * Implements the logic behind the range function.
@@ -47,7 +47,7 @@ import com.google.refine.grel.FunctionDescription;
  * defaults to the range end and 0 becomes the range start. c is optional and represents the step (increment) for the
  * generated sequence.
  */
-public class Range implements Function {
+public class Range implements PureFunction {
 
     private static final String SEPARATOR = ",";
 
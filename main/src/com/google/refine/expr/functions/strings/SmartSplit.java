@@ -42,10 +42,10 @@ import com.univocity.parsers.csv.CsvParserSettings;
 import com.google.refine.expr.EvalError;
 import com.google.refine.grel.ControlFunctionRegistry;
 import com.google.refine.grel.EvalErrorMessage;
-import com.google.refine.grel.Function;
 import com.google.refine.grel.FunctionDescription;
+import com.google.refine.grel.PureFunction;
 
-public class SmartSplit implements Function {
+public class SmartSplit implements PureFunction {
 
     @Override
     public Object call(Properties bindings, Object[] args) {
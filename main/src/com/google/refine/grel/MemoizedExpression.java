@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.grel;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.expr.Evaluable;
+import com.google.refine.expr.ExpressionUtils;
+import com.google.refine.grel.ast.ExpressionOptimizer;
+
+/**
+ * An expression which only depends on the value of the cell it is evaluated on, evaluated once per distinct value.
+ * Operations which evaluate an expression on every row of a column, where values often repeat, wrap it with
+ * {@link #wrap(Evaluable)}.
+ * <p>
+ * Only immutable results are remembered, and the memo stops growing once it holds a number of values, after which new
+ * values are evaluated every time. An instance is meant to be used by a single scan, from a single thread.
+ */
+public class MemoizedExpression implements Evaluable {
+
+    /**
+     * Preference key for the maximum number of distinct values remembered by a memoized expression. Memoization is
+     * disabled if it is not positive.
+     */
+    public static final String MAX_ENTRIES_PREFERENCE = "expressions.memoMaxEntries";
+
+    final static Logger logger = LoggerFactory.getLogger("memoized-expression");
+
+    static final int DEFAULT_MAX_ENTRIES = 100000;
+
+    // stands for a null result in the memo
+    static private final Object NULL = new Object();
+
+    final protected Evaluable _expression;
+    final protected int _maxEntries;
+    final protected Map<Object, Object> _memo = new HashMap<>();
+    protected int _lookups;
+    protected int _evaluations;
+
+    public MemoizedExpression(Evaluable expression, int maxEntries) {
+        _expression = expression;
+        _maxEntries = maxEntries;
+    }
+
+    /**
+     * Wraps an expression to evaluate it once per distinct value, if it is a GREL expression which only depends on the
+     * value of the cell and memoization is enabled.
+     *
+     * @return the memoized expression, or the expression itself
+     */
+    static public Evaluable wrap(Evaluable expression) {
+        int maxEntries = getMaxEntriesPreference();
+        if (maxEntries <= 0 || !ExpressionOptimizer.dependsOnlyOnValue(TieredExpression.unwrap(expression))) {
+            return expression;
+        }
+        return new MemoizedExpression(expression, maxEntries);
+    }
+
+    @Override
+    public Object evaluate(Properties bindings) {
+        _lookups++;
+        Object value = bindings.get("value");
+        if (!ExpressionUtils.isStorable(value)) {
+            _evaluations++;
+            return _expression.evaluate(bindings);
+        }
+        Object result = _memo.get(value);
+        if (result != null) {
+            return result == NULL ? null : result;
+        }
+        _evaluations++;
+        result = _expression.evaluate(bindings);
+        if (_memo.size() < _maxEntries && ExpressionUtils.isStorable(result)) {
+            _memo.put(value, result == null ? NULL : result);
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of times the expression was asked for a result
+     */
+    public int getLookups() {
+        return _lookups;
+    }
+
+    /**
+     * @return the number of times the underlying expression was actually evaluated
+     */
+    public int getEvaluations() {
+        return _evaluations;
+    }
+
+    /**
+     * Logs how many evaluations the memo saved, once a scan is over.
+     */
+    public void logStatistics(String scan) {
+        if (_lookups > 0) {
+            logger.info("{}: evaluated {} for {} rows ({}% distinct)", scan, _evaluations, _lookups,
+                    _evaluations * 100L / _lookups);
+        }
+    }
+
+    public Evaluable getExpression() {
+        return _expression;
+    }
+
+    @Override
+    public String toString() {
+        return _expression.toString();
+    }
+
+    static private int getMaxEntriesPreference() {
+        return ProjectManager.singleton == null ? DEFAULT_MAX_ENTRIES
+                : ProjectManager.singleton.getPreferenceStore().getInt(MAX_ENTRIES_PREFERENCE, DEFAULT_MAX_ENTRIES);
+    }
+}
@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.grel;
+
+import java.util.Properties;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.expr.Evaluable;
+import com.google.refine.grel.ast.ExpressionCompiler;
+import com.google.refine.grel.ast.LiteralExpr;
+import com.google.refine.grel.ast.VariableExpr;
+
+/**
+ * A GREL expression which is interpreted by walking its syntax tree until it has been evaluated a number of times, and
+ * then compiled with {@link ExpressionCompiler}. Expressions which are only evaluated a few times, such as previews,
+ * are not worth compiling.
+ */
+public class TieredExpression implements Evaluable {
+
+    /**
+     * Preference key for the number of evaluations after which expressions are compiled. Compilation is disabled if it
+     * is not positive, which forces expressions to be interpreted when debugging.
+     */
+    public static final String COMPILE_THRESHOLD_PREFERENCE = "expressions.compileThreshold";
+
+    static final int DEFAULT_COMPILE_THRESHOLD = 1000;
+
+    final protected Evaluable _expression;
+    final protected int _threshold;
+    private volatile Evaluable _compiled;
+    // not synchronized: a lost update only delays compilation
+    private int _evaluations;
+
+    public TieredExpression(Evaluable expression, int threshold) {
+        _expression = expression;
+        _threshold = threshold;
+    }
+
+    /**
+     * Wraps a syntax tree to compile it once it gets evaluated often, unless compilation is disabled or would make no
+     * difference.
+     */
+    static public Evaluable wrap(Evaluable expression) {
+        int threshold = getCompileThresholdPreference();
+        if (threshold <= 0 || expression instanceof LiteralExpr || expression instanceof VariableExpr) {
+            return expression;
+        }
+        return new TieredExpression(expression, threshold);
+    }
+
+    @Override
+    public Object evaluate(Properties bindings) {
+        Evaluable compiled = _compiled;
+        if (compiled != null) {
+            return compiled.evaluate(bindings);
+        }
+        if (++_evaluations >= _threshold) {
+            _compiled = ExpressionCompiler.compile(_expression);
+        }
+        return _expression.evaluate(bindings);
+    }
+
+    /**
+     * Returns an expression to share between callers, such as one kept by the cache of parsed expressions, so that
+     * their evaluations count towards the same compilation and they all use its compiled form. If the compile threshold
+     * has changed since the expression was wrapped, its syntax tree is wrapped again for the current threshold.
+     */
+    static public Evaluable share(Evaluable expression) {
+        if (!(expression instanceof TieredExpression)) {
+            // wrapped while compilation was disabled
+            return wrap(expression);
+        }
+        int threshold = getCompileThresholdPreference();
+        TieredExpression tiered = (TieredExpression) expression;
+        return threshold == tiered._threshold ? tiered : wrap(tiered._expression);
+    }
+
+    /**
+     * @return the syntax tree of the expression
+     */
+    public Evaluable getExpression() {
+        return _expression;
+    }
+
+    /**
+     * @return the syntax tree of an expression which may be wrapped, or the expression itself
+     */
+    static public Evaluable unwrap(Evaluable expression) {
+        return expression instanceof TieredExpression ? ((TieredExpression) expression)._expression : expression;
+    }
+
+    public boolean isCompiled() {
+        return _compiled != null;
+    }
+
+    @Override
+    public String toString() {
+        return _expression.toString();
+    }
+
+    static private int getCompileThresholdPreference() {
+        return ProjectManager.singleton == null ? DEFAULT_COMPILE_THRESHOLD
+                : ProjectManager.singleton.getPreferenceStore().getInt(COMPILE_THRESHOLD_PREFERENCE, DEFAULT_COMPILE_THRESHOLD);
+    }
+}
@@ -0,0 +1,215 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.grel.ast;
+
+import java.util.Properties;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import com.google.refine.expr.EvalError;
+import com.google.refine.expr.Evaluable;
+import com.google.refine.expr.ExpressionUtils;
+import com.google.refine.expr.HasFields;
+import com.google.refine.expr.util.JsonValueConverter;
+import com.google.refine.grel.Control;
+import com.google.refine.grel.Function;
+
+/**
+ * Compiles GREL syntax trees into trees of closures. Each closure does the work of one node with everything which does
+ * not depend on the bindings resolved beforehand: operators are dispatched once rather than by comparing their names on
+ * every evaluation, and function calls are specialized by number of arguments. The compiled expression evaluates to
+ * the same values and errors as the syntax tree it was compiled from.
+ */
+public class ExpressionCompiler {
+
+    /**
+     * @return an evaluable equivalent to the node. Nodes which are not part of GREL syntax trees are returned as they
+     *         are.
+     */
+    static public Evaluable compile(Evaluable node) {
+        if (node instanceof OperatorCallExpr) {
+            return compileOperatorCall((OperatorCallExpr) node);
+        } else if (node instanceof FunctionCallExpr) {
+            return compileFunctionCall((FunctionCallExpr) node);
+        } else if (node instanceof ControlCallExpr) {
+            return compileControlCall((ControlCallExpr) node);
+        } else if (node instanceof FieldAccessorExpr) {
+            return compileFieldAccessor((FieldAccessorExpr) node);
+        }
+        // literals and variables are already as simple as they get
+        return node;
+    }
+
+    static private Evaluable[] compileAll(Evaluable[] nodes) {
+        Evaluable[] compiled = new Evaluable[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            compiled[i] = compile(nodes[i]);
+        }
+        return compiled;
+    }
+
+    static private Evaluable compileOperatorCall(OperatorCallExpr node) {
+        Operator operator = node.getOperator();
+        if (operator == null || node._args.length != 2) {
+            return node;
+        }
+        Evaluable left = compile(node._args[0]);
+        Evaluable right = compile(node._args[1]);
+        return bindings -> {
+            Object l = left.evaluate(bindings);
+            if (ExpressionUtils.isError(l)) {
+                return null;
+            }
+            Object r = right.evaluate(bindings);
+            if (ExpressionUtils.isError(r)) {
+                return null;
+            }
+            return operator.apply(l, r);
+        };
+    }
+
+    static private final Object[] NO_ARGUMENTS = new Object[0];
+
+    static private Evaluable compileFunctionCall(FunctionCallExpr node) {
+        Function function = node._function;
+        Evaluable[] args = compileAll(node._args);
+        // Argument arrays are not reused between calls: functions may keep them (array literals are calls to a function
+        // returning its arguments), and closures are evaluated from several threads during parallel scans.
+        switch (args.length) {
+            case 0:
+                return bindings -> call(function, bindings, NO_ARGUMENTS);
+            case 1: {
+                Evaluable arg0 = args[0];
+                return bindings -> {
+                    Object v0 = arg0.evaluate(bindings);
+                    if (ExpressionUtils.isError(v0)) {
+                        return v0;
+                    }
+                    return call(function, bindings, new Object[] { v0 });
+                };
+            }
+            case 2: {
+                Evaluable arg0 = args[0];
+                Evaluable arg1 = args[1];
+                return bindings -> {
+                    Object v0 = arg0.evaluate(bindings);
+                    if (ExpressionUtils.isError(v0)) {
+                        return v0;
+                    }
+                    Object v1 = arg1.evaluate(bindings);
+                    if (ExpressionUtils.isError(v1)) {
+                        return v1;
+                    }
+                    return call(function, bindings, new Object[] { v0, v1 });
+                };
+            }
+            default:
+                return bindings -> {
+                    Object[] values = new Object[args.length];
+                    for (int i = 0; i < args.length; i++) {
+                        Object v = args[i].evaluate(bindings);
+                        if (ExpressionUtils.isError(v)) {
+                            return v;
+                        }
+                        values[i] = v;
+                    }
+                    return call(function, bindings, values);
+                };
+        }
+    }
+
+    static private Object call(Function function, Properties bindings, Object[] args) {
+        try {
+            return function.call(bindings, args);
+        } catch (Exception e) {
+            return new EvalError(e);
+        }
+    }
+
+    static private Evaluable compileControlCall(ControlCallExpr node) {
+        Control control = node._control;
+        Evaluable[] args = new Evaluable[node._args.length];
+        for (int i = 0; i < args.length; i++) {
+            Evaluable arg = node._args[i];
+            // controls look at the names of the variables they bind, and may print their arguments
+            args[i] = arg instanceof VariableExpr || arg instanceof LiteralExpr ? arg : new CompiledArgument(arg, compile(arg));
+        }
+        return bindings -> {
+            try {
+                return control.call(bindings, args);
+            } catch (Exception e) {
+                return new EvalError(e.toString());
+            }
+        };
+    }
+
+    static private Evaluable compileFieldAccessor(FieldAccessorExpr node) {
+        Evaluable inner = compile(node._inner);
+        String fieldName = node._fieldName;
+        return bindings -> {
+            Object o = inner.evaluate(bindings);
+            if (ExpressionUtils.isError(o)) {
+                return o;
+            } else if (o == null) {
+                return null;
+            } else if (o instanceof HasFields) {
+                return ((HasFields) o).getField(fieldName, bindings);
+            } else if (o instanceof ObjectNode) {
+                JsonNode value = ((ObjectNode) o).get(fieldName);
+                return JsonValueConverter.convert(value);
+            } else {
+                return null;
+            }
+        };
+    }
+
+    /**
+     * A compiled argument of a control, which prints as its syntax tree.
+     */
+    static private class CompiledArgument implements Evaluable {
+
+        final Evaluable _node;
+        final Evaluable _compiled;
+
+        CompiledArgument(Evaluable node, Evaluable compiled) {
+            _node = node;
+            _compiled = compiled;
+        }
+
+        @Override
+        public Object evaluate(Properties bindings) {
+            return _compiled.evaluate(bindings);
+        }
+
+        @Override
+        public String toString() {
+            return _node.toString();
+        }
+    }
+}
@@ -0,0 +1,304 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.grel.ast;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import com.google.refine.expr.Evaluable;
+import com.google.refine.expr.ExpressionUtils;
+import com.google.refine.expr.functions.strings.Match;
+import com.google.refine.grel.Control;
+import com.google.refine.grel.PureFunction;
+import com.google.refine.grel.controls.Filter;
+import com.google.refine.grel.controls.ForEach;
+import com.google.refine.grel.controls.ForEachIndex;
+import com.google.refine.grel.controls.ForNonBlank;
+import com.google.refine.grel.controls.ForRange;
+import com.google.refine.grel.controls.With;
+
+/**
+ * Rewrites the syntax tree produced by the GREL parser into an equivalent tree which is cheaper to evaluate:
+ * <ul>
+ * <li>subexpressions which only involve literals, operators and pure functions are evaluated once, and replaced by
+ * their value if it is an immutable one;</li>
+ * <li>binary operator calls are replaced by {@link BinaryOperatorExpr}s, which do not collect their operands in an
+ * array;</li>
+ * <li>string patterns passed to {@code match} are compiled once.</li>
+ * </ul>
+ * Regular expression literals are already compiled by the parser.
+ */
+public class ExpressionOptimizer {
+
+    // the variable holding the value of the cell, and the constants of the bindings
+    static private final Set<String> VALUE_VARIABLES = Set.of("value", "true", "false", "PI");
+
+    // the variables which only change with the cell or the position of its row
+    static private final Set<String> CELL_VARIABLES = Set.of("value", "cell", "rowIndex", "true", "false", "PI");
+
+    static private final String CONTROLS_PACKAGE = Control.class.getPackage().getName() + ".controls";
+
+    static public Evaluable optimize(Evaluable node) {
+        if (node instanceof OperatorCallExpr) {
+            return optimizeOperatorCall((OperatorCallExpr) node);
+        } else if (node instanceof FunctionCallExpr) {
+            return optimizeFunctionCall((FunctionCallExpr) node);
+        } else if (node instanceof ControlCallExpr) {
+            ControlCallExpr control = (ControlCallExpr) node;
+            return new ControlCallExpr(optimizeAll(control._args), control._control);
+        } else if (node instanceof FieldAccessorExpr) {
+            FieldAccessorExpr accessor = (FieldAccessorExpr) node;
+            return new FieldAccessorExpr(optimize(accessor._inner), accessor._fieldName);
+        }
+        return node;
+    }
+
+    static private Evaluable[] optimizeAll(Evaluable[] nodes) {
+        Evaluable[] optimized = new Evaluable[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            optimized[i] = optimize(nodes[i]);
+        }
+        return optimized;
+    }
+
+    static private Evaluable optimizeOperatorCall(OperatorCallExpr node) {
+        Operator operator = node._operator;
+        Evaluable[] args = optimizeAll(node._args);
+        if (operator == null || args.length != 2) {
+            return new OperatorCallExpr(args, node._op);
+        }
+        Evaluable optimized = new BinaryOperatorExpr(args[0], args[1], operator);
+        return isConstant(args) ? fold(optimized) : optimized;
+    }
+
+    static private Evaluable optimizeFunctionCall(FunctionCallExpr node) {
+        Evaluable[] args = optimizeAll(node._args);
+        if (node._function instanceof Match && args.length == 2) {
+            args[1] = compilePattern(args[1]);
+        }
+        Evaluable optimized = new FunctionCallExpr(args, node._function);
+        return node._function instanceof PureFunction && isConstant(args) ? fold(optimized) : optimized;
+    }
+
+    static private boolean isConstant(Evaluable[] args) {
+        for (Evaluable arg : args) {
+            if (!(arg instanceof LiteralExpr)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Evaluates an expression which does not depend on the bindings.
+     *
+     * @return a literal holding its value, or the expression itself if its value is mutable or unusual
+     */
+    static private Evaluable fold(Evaluable node) {
+        Object value;
+        try {
+            value = node.evaluate(new Properties());
+        } catch (RuntimeException e) {
+            // keep failing at evaluation time
+            return node;
+        }
+        if (value == null || ExpressionUtils.isError(value) || !ExpressionUtils.isStorable(value)) {
+            return node;
+        }
+        return new LiteralExpr(value);
+    }
+
+    static private Evaluable compilePattern(Evaluable arg) {
+        if (arg instanceof LiteralExpr && ((LiteralExpr) arg)._value instanceof String) {
+            try {
+                return new LiteralExpr(Pattern.compile((String) ((LiteralExpr) arg)._value));
+            } catch (PatternSyntaxException e) {
+                // keep reporting the error at evaluation time
+            }
+        }
+        return arg;
+    }
+
+    /**
+     * Tells whether an expression is a function of the value of the cell: it reads no other variable than
+     * {@code value}, the constants of the bindings and the variables bound by built-in controls, and only calls pure
+     * functions. Such an expression evaluates to equal results on cells with equal values.
+     */
+    static public boolean dependsOnlyOnValue(Evaluable node) {
+        return dependsOnlyOn(node, VALUE_VARIABLES);
+    }
+
+    /**
+     * Tells whether an expression is a function of the cell and of the index of its row: like
+     * {@link #dependsOnlyOnValue(Evaluable)}, but it may also read {@code cell} and {@code rowIndex}. Such an
+     * expression evaluates to the same results as long as neither the column nor the order of the rows change.
+     */
+    static public boolean dependsOnlyOnCell(Evaluable node) {
+        return dependsOnlyOn(node, CELL_VARIABLES);
+    }
+
+    static private boolean dependsOnlyOn(Evaluable node, Set<String> variables) {
+        if (node instanceof LiteralExpr) {
+            return true;
+        } else if (node instanceof VariableExpr) {
+            return variables.contains(((VariableExpr) node)._name);
+        } else if (node instanceof FunctionCallExpr) {
+            if (!(((FunctionCallExpr) node)._function instanceof PureFunction)) {
+                return false;
+            }
+        } else if (node instanceof ControlCallExpr) {
+            Control control = ((ControlCallExpr) node)._control;
+            if (!control.getClass().getPackage().getName().equals(CONTROLS_PACKAGE)) {
+                return false;
+            }
+            Evaluable[] args = ((ControlCallExpr) node)._args;
+            int[] positions = getBindingPositions(control);
+            Set<String> scope = new HashSet<>(variables);
+            for (int position : positions) {
+                if (position < args.length && args[position] instanceof VariableExpr) {
+                    scope.add(((VariableExpr) args[position])._name);
+                }
+            }
+            for (int i = 0; i < args.length; i++) {
+                if (positions.length > 0 && Arrays.binarySearch(positions, i) >= 0) {
+                    continue;
+                }
+                // the bound variables are only visible in the arguments evaluated after the binding
+                if (!dependsOnlyOn(args[i], positions.length > 0 && i > positions[0] ? scope : variables)) {
+                    return false;
+                }
+            }
+            return true;
+        } else if (!(node instanceof OperatorCallExpr || node instanceof FieldAccessorExpr)) {
+            return false;
+        }
+        for (Evaluable child : getChildren(node)) {
+            if (!dependsOnlyOn(child, variables)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tells whether an expression evaluates to equal results whenever it is evaluated with equal bindings: it only
+     * calls pure functions and built-in controls. Unlike {@link #dependsOnlyOnValue(Evaluable)}, it may read any
+     * variable, such as the row, the cells or the row index. Expressions which are not GREL syntax trees are never
+     * considered deterministic.
+     */
+    static public boolean isDeterministic(Evaluable node) {
+        if (node instanceof FunctionCallExpr) {
+            if (!(((FunctionCallExpr) node)._function instanceof PureFunction)) {
+                return false;
+            }
+        } else if (node instanceof ControlCallExpr) {
+            if (!((ControlCallExpr) node)._control.getClass().getPackage().getName().equals(CONTROLS_PACKAGE)) {
+                return false;
+            }
+        } else if (!(node instanceof LiteralExpr || node instanceof VariableExpr || node instanceof OperatorCallExpr
+                || node instanceof FieldAccessorExpr)) {
+            return false;
+        }
+        for (Evaluable child : getChildren(node)) {
+            if (!isDeterministic(child)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // positions of the arguments naming the variables bound by the built-in controls
+    static private int[] getBindingPositions(Control control) {
+        if (control instanceof ForEachIndex) {
+            return new int[] { 1, 2 };
+        } else if (control instanceof ForRange) {
+            return new int[] { 3 };
+        } else if (control instanceof ForEach || control instanceof Filter || control instanceof ForNonBlank
+                || control instanceof With) {
+            return new int[] { 1 };
+        }
+        return new int[0];
+    }
+
+    static private Evaluable[] getChildren(Evaluable node) {
+        if (node instanceof OperatorCallExpr) {
+            return ((OperatorCallExpr) node)._args;
+        } else if (node instanceof FunctionCallExpr) {
+            return ((FunctionCallExpr) node)._args;
+        } else if (node instanceof ControlCallExpr) {
+            return ((ControlCallExpr) node)._args;
+        } else if (node instanceof FieldAccessorExpr) {
+            return new Evaluable[] { ((FieldAccessorExpr) node)._inner };
+        }
+        return new Evaluable[0];
+    }
+
+    /**
+     * Describes a syntax tree, one node per line, for debugging.
+     */
+    static public String describe(Evaluable node) {
+        StringBuilder sb = new StringBuilder();
+        describe(node, 0, sb);
+        return sb.toString();
+    }
+
+    static private void describe(Evaluable node, int depth, StringBuilder sb) {
+        for (int i = 0; i < depth; i++) {
+            sb.append("  ");
+        }
+        if (node instanceof LiteralExpr) {
+            Object value = ((LiteralExpr) node)._value;
+            sb.append("literal ").append(node.toString());
+            if (value != null) {
+                sb.append(" (").append(value.getClass().getSimpleName()).append(')');
+            }
+        } else if (node instanceof VariableExpr) {
+            sb.append("variable ").append(((VariableExpr) node)._name);
+        } else if (node instanceof BinaryOperatorExpr) {
+            sb.append("operator ").append(((BinaryOperatorExpr) node)._operator.name());
+        } else if (node instanceof OperatorCallExpr) {
+            sb.append("operator ").append(((OperatorCallExpr) node)._op);
+        } else if (node instanceof FunctionCallExpr) {
+            sb.append("function ").append(((FunctionCallExpr) node)._function.getClass().getSimpleName());
+        } else if (node instanceof ControlCallExpr) {
+            sb.append("control ").append(((ControlCallExpr) node)._control.getClass().getSimpleName());
+        } else if (node instanceof FieldAccessorExpr) {
+            sb.append("field ").append(((FieldAccessorExpr) node)._fieldName);
+        } else {
+            sb.append(node.getClass().getSimpleName());
+        }
+        sb.append('\n');
+        for (Evaluable child : getChildren(node)) {
+            describe(child, depth + 1, sb);
+        }
+    }
+}
@@ -0,0 +1,255 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.grel.ast;
+
+import java.text.Collator;
+
+/**
+ * The binary operators of GREL, applied by {@link OperatorCallExpr}. Each operator applies its own rules to the values
+ * of its operands: integers and other numbers are combined arithmetically, strings are compared with the default
+ * collator and concatenated by "+", other comparable values of compatible classes are compared, and "==" and "!="
+ * fall back to object equality. An operator returns null when its operands don't fit any rule.
+ */
+public enum Operator {
+
+    ADD("+") {
+
+        @Override
+        public Object apply(Object l, Object r) {
+            if (isIntegral(l) && isIntegral(r)) {
+                return ((Number) l).longValue() + ((Number) r).longValue();
+            } else if (l instanceof Number && r instanceof Number) {
+                return ((Number) l).doubleValue() + ((Number) r).doubleValue();
+            } else if (l instanceof String && r instanceof String) {
+                return ((String) l) + ((String) r);
+            } else if (l instanceof String || r instanceof String) {
+                return l.toString() + r.toString();
+            }
+            return null;
+        }
+    },
+
+    SUBTRACT("-") {
+
+        @Override
+        public Object apply(Object l, Object r) {
+            if (isIntegral(l) && isIntegral(r)) {
+                return ((Number) l).longValue() - ((Number) r).longValue();
+            } else if (l instanceof Number && r instanceof Number) {
+                return ((Number) l).doubleValue() - ((Number) r).doubleValue();
+            }
+            return null;
+        }
+    },
+
+    MULTIPLY("*") {
+
+        @Override
+        public Object apply(Object l, Object r) {
+            if (isIntegral(l) && isIntegral(r)) {
+                return ((Number) l).longValue() * ((Number) r).longValue();
+            } else if (l instanceof Number && r instanceof Number) {
+                return ((Number) l).doubleValue() * ((Number) r).doubleValue();
+            }
+            return null;
+        }
+    },
+
+    DIVIDE("/") {
+
+        @Override
+        public Object apply(Object l, Object r) {
+            if (isIntegral(l) && isIntegral(r)) {
+                long n1 = ((Number) l).longValue();
+                long n2 = ((Number) r).longValue();
+                if (n2 == 0 && n1 == 0) {
+                    return Double.NaN;
+                }
+                return n1 / n2;
+            } else if (l instanceof Number && r instanceof Number) {
+                double d1 = ((Number) l).doubleValue();
+                double d2 = ((Number) r).doubleValue();
+                if (d2 == 0 && d1 == 0) {
+                    return Double.NaN;
+                }
+                return d1 / d2;
+            }
+            return null;
+        }
+    },
+
+    MODULO("%") {
+
+        @Override
+        public Object apply(Object l, Object r) {
+            if (isIntegral(l) && isIntegral(r)) {
+                return ((Number) l).longValue() % ((Number) r).longValue();
+            } else if (l instanceof Number && r instanceof Number) {
+                return ((Number) l).doubleValue() % ((Number) r).doubleValue();
+            }
+            return null;
+        }
+    },
+
+    GREATER_THAN(">") {
+
+        @Override
+        public Object apply(Object l, Object r) {
+            if (isIntegral(l) && isIntegral(r)) {
+                return ((Number) l).longValue() > ((Number) r).longValue();
+            } else if (l instanceof Number && r instanceof Number) {
+                return ((Number) l).doubleValue() > ((Number) r).doubleValue();
+            }
+            Integer cmp = compareObjects(l, r);
+            return cmp == null ? null : cmp > 0;
+        }
+    },
+
+    GREATER_OR_EQUAL(">=") {
+
+        @Override
+        public Object apply(Object l, Object r) {
+            if (isIntegral(l) && isIntegral(r)) {
+                return ((Number) l).longValue() >= ((Number) r).longValue();
+            } else if (l instanceof Number && r instanceof Number) {
+                return ((Number) l).doubleValue() >= ((Number) r).doubleValue();
+            }
+            Integer cmp = compareObjects(l, r);
+            return cmp == null ? null : cmp >= 0;
+        }
+    },
+
+    LESS_THAN("<") {
+
+        @Override
+        public Object apply(Object l, Object r) {
+            if (isIntegral(l) && isIntegral(r)) {
+                return ((Number) l).longValue() < ((Number) r).longValue();
+            } else if (l instanceof Number && r instanceof Number) {
+                return ((Number) l).doubleValue() < ((Number) r).doubleValue();
+            }
+            Integer cmp = compareObjects(l, r);
+            return cmp == null ? null : cmp < 0;
+        }
+    },
+
+    LESS_OR_EQUAL("<=") {
+
+        @Override
+        public Object apply(Object l, Object r) {
+            if (isIntegral(l) && isIntegral(r)) {
+                return ((Number) l).longValue() <= ((Number) r).longValue();
+            } else if (l instanceof Number && r instanceof Number) {
+                return ((Number) l).doubleValue() <= ((Number) r).doubleValue();
+            }
+            Integer cmp = compareObjects(l, r);
+            return cmp == null ? null : cmp <= 0;
+        }
+    },
+
+    EQUAL("==") {
+
+        @Override
+        public Object apply(Object l, Object r) {
+            if (isIntegral(l) && isIntegral(r)) {
+                return ((Number) l).longValue() == ((Number) r).longValue();
+            } else if (l instanceof Number && r instanceof Number) {
+                return ((Number) l).doubleValue() == ((Number) r).doubleValue();
+            }
+            Integer cmp = compareObjects(l, r);
+            if (cmp != null) {
+                return cmp == 0;
+            }
+            return l != null ? l.equals(r) : r == null;
+        }
+    },
+
+    NOT_EQUAL("!=") {
+
+        @Override
+        public Object apply(Object l, Object r) {
+            if (isIntegral(l) && isIntegral(r)) {
+                return ((Number) l).longValue() != ((Number) r).longValue();
+            } else if (l instanceof Number && r instanceof Number) {
+                return ((Number) l).doubleValue() != ((Number) r).doubleValue();
+            }
+            Integer cmp = compareObjects(l, r);
+            if (cmp != null) {
+                return cmp != 0;
+            }
+            return l != null ? !l.equals(r) : r != null;
+        }
+    };
+
+    final private String _symbol;
+
+    Operator(String symbol) {
+        _symbol = symbol;
+    }
+
+    public String getSymbol() {
+        return _symbol;
+    }
+
+    /**
+     * @return the operator, or null if there is no operator with this symbol
+     */
+    static public Operator forSymbol(String symbol) {
+        for (Operator operator : values()) {
+            if (operator._symbol.equals(symbol)) {
+                return operator;
+            }
+        }
+        return null;
+    }
+
+    abstract public Object apply(Object left, Object right);
+
+    /**
+     * Compares strings with the default collator, and other comparable values of compatible classes by their natural
+     * order.
+     *
+     * @return the comparison, or null if the values can't be compared
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    static private Integer compareObjects(Object l, Object r) {
+        if (l instanceof String && r instanceof String) {
+            Collator collator = Collator.getInstance();
+            collator.setDecomposition(Collator.CANONICAL_DECOMPOSITION);
+            return collator.compare((String) l, (String) r);
+        } else if (l instanceof Comparable && r instanceof Comparable
+                && (l.getClass().isAssignableFrom(r.getClass()) || r.getClass().isAssignableFrom(l.getClass()))) {
+            return ((Comparable) l).compareTo(r);
+        }
+        return null;
+    }
+
+    static private boolean isIntegral(Object n) {
+        return n instanceof Long || n instanceof Integer;
+    }
+}
@@ -31,45 +31,56 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.grel.ast;
 
-import java.text.Collator;
 import java.util.Properties;
 
 import com.google.refine.expr.Evaluable;
 import com.google.refine.expr.ExpressionUtils;
 
+/**
+ * A call to a GREL operator. The rules applied to the values of the operands are those of {@link Operator}.
+ */
 public class OperatorCallExpr implements Evaluable {
 
-    private final Evaluable[] _args;
-    private final String _op;
+    final protected Evaluable[] _args;
+    final protected String _op;
+    // null if there is no operator with this symbol
+    final protected Operator _operator;
 
     public OperatorCallExpr(Evaluable[] args, String op) {
         _args = args;
         _op = op;
+        _operator = Operator.forSymbol(op);
+    }
+
+    protected OperatorCallExpr(Evaluable[] args, Operator operator) {
+        _args = args;
+        _op = operator.getSymbol();
+        _operator = operator;
     }
 
     @Override
     public Object evaluate(Properties bindings) {
         Object[] evaluatedArgs = evaluateArguments(bindings);
-        if (evaluatedArgs == null) {
+        if (evaluatedArgs == null || _operator == null) {
             return null;
-
         }
 
         if (evaluatedArgs.length == 2) {
-            Object result = handleBinaryOperation(evaluatedArgs[0], evaluatedArgs[1]);
-            if (result != null) {
-                return result;
-            }
-        }
-
-        if ("==".equals(_op)) {
-            return handleEquality(evaluatedArgs[0], evaluatedArgs.length > 1 ? evaluatedArgs[1] : null, true);
-        } else if ("!=".equals(_op)) {
-            return handleEquality(evaluatedArgs[0], evaluatedArgs.length > 1 ? evaluatedArgs[1] : null, false);
+            return _operator.apply(evaluatedArgs[0], evaluatedArgs[1]);
+        } else if (_operator == Operator.EQUAL || _operator == Operator.NOT_EQUAL) {
+            // a missing operand is compared as null
+            return _operator.apply(evaluatedArgs[0], evaluatedArgs.length > 1 ? evaluatedArgs[1] : null);
         }
         return null;
     }
 
+    /**
+     * @return the operator, or null if there is no operator with the symbol of this call
+     */
+    public Operator getOperator() {
+        return _operator;
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
@@ -93,162 +104,4 @@ public class OperatorCallExpr implements Evaluable {
         }
         return args;
     }
-
-    private Object handleBinaryOperation(Object left, Object right) {
-        if (isIntegral(left) && isIntegral(right)) {
-            return handleLongArithmetic(((Number) left).longValue(), ((Number) right).longValue());
-        }
-        if (left instanceof Number && right instanceof Number) {
-            return handleDoubleArithmetic(((Number) left).doubleValue(), ((Number) right).doubleValue());
-        }
-        if (left instanceof String && right instanceof String) {
-            Object result = handleStringComparison((String) left, (String) right);
-            if (result != null) {
-                return result;
-            }
-            if ("+".equals(_op)) {
-                return ((String) left) + ((String) right);
-            }
-        }
-        if ((left instanceof String || right instanceof String) && "+".equals(_op)) {
-            return left.toString() + right.toString();
-        }
-        if (left instanceof Comparable && right instanceof Comparable) {
-            if (compatibleClasses(left, right)) {
-                return handleComparableComparison((Comparable<?>) left, (Comparable<?>) right);
-            }
-        }
-        return null;
-    }
-
-    private Object handleLongArithmetic(long n1, long n2) {
-        switch (_op) {
-            case "+":
-                return n1 + n2;
-            case "-":
-                return n1 - n2;
-            case "*":
-                return n1 * n2;
-            case "/":
-                if (n2 == 0 && n1 == 0) {
-                    return Double.NaN;
-                }
-                return n1 / n2;
-            case "%":
-                return n1 % n2;
-            case ">":
-                return n1 > n2;
-            case ">=":
-                return n1 >= n2;
-            case "<":
-                return n1 < n2;
-            case "<=":
-                return n1 <= n2;
-            case "==":
-                return n1 == n2;
-            case "!=":
-                return n1 != n2;
-            default:
-                return null;
-        }
-    }
-
-    private Object handleDoubleArithmetic(double d1, double d2) {
-        switch (_op) {
-            case "+":
-                return d1 + d2;
-            case "-":
-                return d1 - d2;
-            case "*":
-                return d1 * d2;
-            case "/":
-                if (d2 == 0 && d1 == 0) {
-                    return Double.NaN;
-                }
-                return d1 / d2;
-            case "%":
-                return d1 % d2;
-            case ">":
-                return d1 > d2;
-            case ">=":
-                return d1 >= d2;
-            case "<":
-                return d1 < d2;
-            case "<=":
-                return d1 <= d2;
-            case "==":
-                return d1 == d2;
-            case "!=":
-                return d1 != d2;
-            default:
-                return null;
-        }
-    }
-
-    private Object handleStringComparison(String s1, String s2) {
-        Collator collator = createDefaultCollator();
-
-        switch (_op) {
-            case ">":
-                return collator.compare(s1, s2) > 0;
-            case ">=":
-                return collator.compare(s1, s2) >= 0;
-            case "<":
-                return collator.compare(s1, s2) < 0;
-            case "<=":
-                return collator.compare(s1, s2) <= 0;
-            case "==":
-                return collator.compare(s1, s2) == 0;
-            case "!=":
-                return collator.compare(s1, s2) != 0;
-            default:
-                return null;
-        }
-    }
-
-    @SuppressWarnings({ "unchecked", "rawtypes" })
-    private Object handleComparableComparison(Comparable left, Comparable right) {
-        int cmp = left.compareTo(right);
-        switch (_op) {
-            case ">":
-                return cmp > 0;
-            case ">=":
-                return cmp >= 0;
-            case "<":
-                return cmp < 0;
-            case "<=":
-                return cmp <= 0;
-            case "==":
-                return cmp == 0;
-            case "!=":
-                return cmp != 0;
-            default:
-                return null;
-        }
-    }
-
-    private Object handleEquality(Object left, Object right, boolean isEquality) {
-        if (left != null) {
-            boolean eq = left.equals(right);
-            return isEquality ? eq : !eq;
-        } else {
-            boolean bothNull = (right == null);
-            return isEquality ? bothNull : !bothNull;
-        }
-    }
-
-    private Collator createDefaultCollator() {
-        Collator collator = Collator.getInstance();
-        collator.setDecomposition(Collator.CANONICAL_DECOMPOSITION);
-        return collator;
-    }
-
-    private boolean compatibleClasses(Object left, Object right) {
-        return left.getClass().isAssignableFrom(right.getClass())
-                || right.getClass().isAssignableFrom(left.getClass());
-    }
-
-    private boolean isIntegral(Object n) {
-        return n instanceof Long || n instanceof Integer;
-    }
 }
@@ -36,6 +36,7 @@ package com.google.refine.grel.ast;
 import java.util.Properties;
 
 import com.google.refine.expr.Evaluable;
+import com.google.refine.expr.EvaluationContext;
 
 /**
  * An abstract syntax tree node encapsulating the retrieval of a variable's content.
@@ -43,6 +44,8 @@ import com.google.refine.expr.Evaluable;
 public class VariableExpr implements Evaluable {
 
     final protected String _name;
+    // the slot of the variable in evaluation contexts, or -1
+    final protected int _slot;
 
     public VariableExpr(String name) {
         if (name != null || !name.isEmpty()) {
@@ -50,10 +53,14 @@ public class VariableExpr implements Evaluable {
         } else {
             throw new IllegalArgumentException("Illegal variable name ");
         }
+        _slot = EvaluationContext.getSlotIndex(name);
     }
 
     @Override
     public Object evaluate(Properties bindings) {
+        if (_slot >= 0 && bindings instanceof EvaluationContext) {
+            return ((EvaluationContext) bindings).getSlot(_slot);
+        }
         return bindings.get(_name);
     }
 
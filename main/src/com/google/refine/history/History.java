@@ -33,6 +33,8 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.history;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -46,7 +48,10 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Properties;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.google.refine.ProjectManager;
 import com.google.refine.ProjectMetadata;
@@ -108,17 +113,65 @@ public class History {
         change.save(writer, options);
     }
 
+    /**
+     * Reads a change written by {@link #writeOneBinaryChange(OutputStream, BinaryChange, Pool)}.
+     */
+    static public Change readOneBinaryChange(InputStream in, Pool pool) throws Exception {
+        DataInputStream dis = new DataInputStream(in);
+        /* String version = */ dis.readUTF();
+
+        String className = dis.readUTF();
+        Class<? extends Change> klass = getChangeClass(className);
+
+        Method load = klass.getMethod("loadBinary", DataInputStream.class, Pool.class);
+
+        return (Change) load.invoke(null, dis, pool);
+    }
+
+    static public void writeOneBinaryChange(OutputStream out, BinaryChange change, Pool pool) throws IOException {
+        DataOutputStream dos = new DataOutputStream(out);
+        dos.writeUTF(RefineServlet.VERSION);
+        dos.writeUTF(change.getClass().getName());
+
+        change.saveBinary(dos, pool);
+        dos.flush();
+    }
+
     @SuppressWarnings("unchecked")
     static public Class<? extends Change> getChangeClass(String className) throws ClassNotFoundException {
         return (Class<? extends Change>) RefineServlet.getClass(className);
     }
 
+    final static Logger logger = LoggerFactory.getLogger(History.class);
+
     protected long _projectID;
     @JsonProperty("past")
     protected List<HistoryEntry> _pastEntries; // done changes, can be undone
     @JsonProperty("future")
     protected List<HistoryEntry> _futureEntries; // undone changes, can be redone
 
+    // changes applied or reverted since the project was last written out, oldest first
+    transient protected List<Step> _unsavedSteps = new ArrayList<>();
+
+    /**
+     * A history entry which was applied (done or redone) or reverted (undone), as recorded for incremental saves. A step
+     * without an entry stands for the restoration of a checkpoint, which cannot be recorded incrementally.
+     */
+    static public class Step {
+
+        final public boolean applied;
+        final public HistoryEntry entry;
+
+        public Step(boolean applied, HistoryEntry entry) {
+            this.applied = applied;
+            this.entry = entry;
+        }
+
+        public boolean isCheckpointRestore() {
+            return entry == null;
+        }
+    }
+
     public History(Project project) {
         _projectID = project.id;
         _pastEntries = new ArrayList<HistoryEntry>();
@@ -138,6 +191,13 @@ public class History {
             synchronized (this) {
                 entry.apply(project);
                 _pastEntries.add(entry);
+                _unsavedSteps.add(new Step(true, entry));
+
+                HistoryEntryManager manager = ProjectManager.singleton.getHistoryEntryManager();
+                int checkpointInterval = manager.getCheckpointInterval();
+                if (checkpointInterval > 0 && _pastEntries.size() % checkpointInterval == 0) {
+                    manager.saveCheckpoint(project, entry);
+                }
 
                 setModified();
 
@@ -165,6 +225,14 @@ public class History {
         projectMetadata.updateModified(); // Redundant, but for safety in case setRowCount implementation changes
     }
 
+    /**
+     * @return the id of the last change applied to the project, or 0 if there is none. It identifies the current
+     *         state of the project's data, so it can be used as a cache key.
+     */
+    synchronized public long getCurrentEntryID() {
+        return _pastEntries.isEmpty() ? 0L : _pastEntries.get(_pastEntries.size() - 1).id;
+    }
+
     synchronized public List<HistoryEntry> getLastPastEntries(int count) {
         if (count <= 0) {
             return new LinkedList<HistoryEntry>(_pastEntries);
@@ -173,23 +241,72 @@ public class History {
         }
     }
 
-    synchronized public void undoRedo(long lastDoneEntryID) {
-        if (lastDoneEntryID == 0) {
-            // undo all the way back to the start of the project
-            undo(_pastEntries.size());
-        } else {
-            for (int i = 0; i < _pastEntries.size(); i++) {
-                if (_pastEntries.get(i).id == lastDoneEntryID) {
-                    undo(_pastEntries.size() - i - 1);
-                    return;
+    public void undoRedo(long lastDoneEntryID) {
+        Project project = ProjectManager.singleton.getProject(_projectID);
+        // changes expect the project lock, which must be acquired before the history lock, as in addEntry
+        synchronized (project) {
+            synchronized (this) {
+                if (lastDoneEntryID == 0) {
+                    // undo all the way back to the start of the project
+                    undo(_pastEntries.size());
+                } else {
+                    for (int i = 0; i < _pastEntries.size(); i++) {
+                        if (_pastEntries.get(i).id == lastDoneEntryID) {
+                            restoreCheckpointNear(i + 1);
+                            undo(_pastEntries.size() - i - 1);
+                            return;
+                        }
+                    }
+
+                    for (int i = 0; i < _futureEntries.size(); i++) {
+                        if (_futureEntries.get(i).id == lastDoneEntryID) {
+                            int target = _pastEntries.size() + i + 1;
+                            restoreCheckpointNear(target);
+                            redo(target - _pastEntries.size());
+                            return;
+                        }
+                    }
                 }
             }
+        }
+    }
 
-            for (int i = 0; i < _futureEntries.size(); i++) {
-                if (_futureEntries.get(i).id == lastDoneEntryID) {
-                    redo(i + 1);
+    /**
+     * Restores the checkpoint nearest to the given number of done entries, if that saves replaying more than a
+     * checkpoint interval's worth of entries. The remaining entries are then undone or redone as usual.
+     */
+    protected void restoreCheckpointNear(int target) {
+        HistoryEntryManager manager = ProjectManager.singleton.getHistoryEntryManager();
+        int interval = manager.getCheckpointInterval();
+        int distance = Math.abs(target - _pastEntries.size());
+        if (interval <= 0 || distance <= interval) {
+            return;
+        }
+
+        List<HistoryEntry> entries = new ArrayList<>(_pastEntries);
+        entries.addAll(_futureEntries);
+        // a checkpoint of entry i holds the state with entries 0..i done
+        for (int d = 0; d + interval < distance; d++) {
+            for (int position : d == 0 ? new int[] { target } : new int[] { target - d, target + d }) {
+                if (position <= 0 || position > entries.size() || position == _pastEntries.size()) {
+                    continue;
+                }
+                HistoryEntry entry = entries.get(position - 1);
+                if (!manager.hasCheckpoint(entry)) {
+                    continue;
+                }
+                Project project = ProjectManager.singleton.getProject(_projectID);
+                try {
+                    manager.restoreCheckpoint(project, entry);
+                } catch (Exception e) {
+                    logger.warn("Failed to restore checkpoint of history entry {}, replaying changes instead", entry.id, e);
                     return;
                 }
+                _pastEntries = new ArrayList<>(entries.subList(0, position));
+                _futureEntries = new ArrayList<>(entries.subList(position, entries.size()));
+                _unsavedSteps.add(new Step(true, null));
+                setModified();
+                return;
             }
         }
     }
@@ -241,6 +358,7 @@ public class History {
             HistoryEntry entry = _pastEntries.get(_pastEntries.size() - 1);
 
             entry.revert(project);
+            _unsavedSteps.add(new Step(false, entry));
 
             setModified();
             times--;
@@ -257,6 +375,7 @@ public class History {
             HistoryEntry entry = _futureEntries.get(0);
 
             entry.apply(project);
+            _unsavedSteps.add(new Step(true, entry));
 
             setModified();
             times--;
@@ -266,6 +385,49 @@ public class History {
         }
     }
 
+    /**
+     * @return the steps taken since the last call to {@link #clearUnsavedSteps(int)} with all of them, oldest first
+     */
+    @JsonIgnore
+    synchronized public List<Step> getUnsavedSteps() {
+        return new ArrayList<>(_unsavedSteps);
+    }
+
+    /**
+     * Forgets the given number of oldest unsaved steps, once they have been persisted.
+     */
+    synchronized public void clearUnsavedSteps(int count) {
+        _unsavedSteps.subList(0, Math.min(count, _unsavedSteps.size())).clear();
+    }
+
+    /**
+     * Replays a step read back from a project journal, without touching the change files of the history entries. The
+     * change of the entry must already be set.
+     */
+    synchronized public void replayStep(Project project, Step step) {
+        if (step.isCheckpointRestore()) {
+            throw new IllegalStateException("Checkpoint restores cannot be replayed");
+        }
+        HistoryEntry entry = step.entry;
+        if (step.applied) {
+            entry.getChange().apply(project);
+            if (!_futureEntries.isEmpty() && _futureEntries.get(0).id == entry.id) {
+                _futureEntries.remove(0);
+            } else {
+                // a new entry discarded the future ones, whose change files are already gone
+                _futureEntries.clear();
+            }
+            _pastEntries.add(entry);
+        } else {
+            if (_pastEntries.isEmpty() || _pastEntries.get(_pastEntries.size() - 1).id != entry.id) {
+                throw new IllegalStateException("Journal reverts entry " + entry.id + " which is not the last done one");
+            }
+            entry.getChange().revert(project);
+            _pastEntries.remove(_pastEntries.size() - 1);
+            _futureEntries.add(0, entry);
+        }
+    }
+
     /*
      * NOTE: This method is called from the autosave thread with the Project lock already held, so no other synchronized
      * method here can acquire that lock or a deadlock will result. Be careful of thread synchronization to avoid
@@ -36,6 +36,8 @@ package com.google.refine.history;
 import java.io.Writer;
 import java.util.Properties;
 
+import com.google.refine.model.Project;
+
 public interface HistoryEntryManager {
 
     public void loadChange(HistoryEntry historyEntry);
@@ -45,4 +47,35 @@ public interface HistoryEntryManager {
     public void save(HistoryEntry historyEntry, Writer writer, Properties options);
 
     public void delete(HistoryEntry historyEntry);
+
+    /**
+     * @return the number of history entries between two checkpoints of the full state of a project, or 0 if this
+     *         manager does not keep checkpoints
+     */
+    default public int getCheckpointInterval() {
+        return 0;
+    }
+
+    /**
+     * Records the state of the project as it is right after the given entry was applied. Called with the project
+     * locked, so implementations should capture and write the state later, on another thread, and may skip it if
+     * another entry has been applied or undone by then.
+     */
+    default public void saveCheckpoint(Project project, HistoryEntry historyEntry) {
+    }
+
+    /**
+     * @return true if a checkpoint of the state of the project right after the given entry is available
+     */
+    default public boolean hasCheckpoint(HistoryEntry historyEntry) {
+        return false;
+    }
+
+    /**
+     * Replaces the rows, column model and overlay models of the project with those recorded by the checkpoint of the
+     * given entry.
+     */
+    default public void restoreCheckpoint(Project project, HistoryEntry historyEntry) throws Exception {
+        throw new UnsupportedOperationException("No checkpoint for history entry " + historyEntry.id);
+    }
 }
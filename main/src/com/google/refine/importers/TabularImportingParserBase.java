@@ -180,7 +180,7 @@ abstract public class TabularImportingParserBase extends ImportingParserBase {
 
                             Object value = cells.get(c);
                             if (value instanceof Cell) {
-                                row.setCell(column.getCellIndex(), (Cell) value);
+                                row.setCell(column.getCellIndex(), project.valueDictionary.intern(column.getCellIndex(), (Cell) value));
                                 rowHasData = true;
                             } else if (ExpressionUtils.isNonBlankData(value)) {
                                 Serializable storedValue;
@@ -194,6 +194,7 @@ abstract public class TabularImportingParserBase extends ImportingParserBase {
                                     storedValue = ExpressionUtils.wrapStorable(value);
                                 }
 
+                                storedValue = project.valueDictionary.intern(column.getCellIndex(), storedValue);
                                 row.setCell(column.getCellIndex(), new Cell(storedValue, null));
                                 rowHasData = true;
                             } else if (!storeBlankCellsAsNulls) {
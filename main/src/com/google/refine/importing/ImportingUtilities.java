@@ -1133,6 +1133,7 @@ public class ImportingUtilities {
         if (!job.canceled) {
             if (exceptions.size() == 0) {
                 project.update(); // update all internal models, indexes, caches, etc.
+                logger.info("Value dictionary of project {}: {}", project.id, project.valueDictionary.describe(project.columnModel));
 
                 ProjectManager.singleton.registerProject(project, pm);
 
@@ -0,0 +1,618 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.IntFunction;
+
+import com.google.refine.expr.EvalError;
+import com.google.refine.model.Cell;
+import com.google.refine.model.CellValueDictionary;
+import com.google.refine.model.Recon;
+import com.google.refine.model.Row;
+import com.google.refine.util.OrderedBatchDecoder;
+import com.google.refine.util.Pool;
+
+/**
+ * Binary, column-oriented encoding of the rows of a project, stored as the {@link #ENTRY_NAME} entry of a project's
+ * data.zip next to the (row-less) data.txt header.
+ * <p>
+ * The rows are split into length-prefixed groups of {@link #ROW_GROUP_SIZE} rows, which are decoded in parallel when
+ * loading. Within a group, rows are stored one column (cell index) at a time. Each column is made of a bitmap of the
+ * rows which have a cell at that index, a type tag for each of those cells and one value vector per type: strings and
+ * error messages are dictionary-encoded per column, numbers, booleans and dates are stored as primitives. Recon objects
+ * are referred to by an index into a table of recon ids written after each group, which are resolved against the
+ * project's {@link Pool} when loading.
+ * <p>
+ * Values of types that this format does not know about fall back on the JSON serialization of their cell, so that
+ * anything the legacy format could store is preserved.
+ */
+public class ColumnarRowFormat {
+
+    public static final String ENTRY_NAME = "rows.bin";
+
+    static final int MAGIC = 0x4F52434F; // "ORCO"
+    static final int VERSION = 1;
+
+    static final byte TAG_NULL = 0;
+    static final byte TAG_STRING = 1;
+    static final byte TAG_LONG = 2;
+    static final byte TAG_INTEGER = 3;
+    static final byte TAG_DOUBLE = 4;
+    static final byte TAG_BOOLEAN = 5;
+    static final byte TAG_DATE = 6;
+    static final byte TAG_LOCAL_DATE = 7;
+    static final byte TAG_ERROR = 8;
+    static final byte TAG_JSON = 9;
+
+    /**
+     * Number of rows per row group. Rows are encoded column by column within each group, so that readers only need to
+     * hold one group in memory at a time.
+     */
+    static final int ROW_GROUP_SIZE = 65536;
+
+    private ColumnarRowFormat() {
+    }
+
+    /**
+     * Writes the rows to the stream. The stream is flushed but not closed. Every recon referenced by a cell is added to
+     * the pool, which must therefore be saved after this method returns.
+     * <p>
+     * Each row is read from the list once, so that lists which decode their rows on access (such as
+     * {@link MappedRowStore}) only hold one row group in memory at a time.
+     */
+    public static void save(List<Row> rows, OutputStream out, Pool pool) throws IOException {
+        DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+
+        int rowCount = rows.size();
+        dos.writeInt(MAGIC);
+        dos.writeInt(VERSION);
+        dos.writeInt(rowCount);
+
+        ByteArrayOutputStream group = new ByteArrayOutputStream();
+        Row[] groupRows = new Row[Math.min(rowCount, ROW_GROUP_SIZE)];
+        for (int start = 0; start < rowCount; start += ROW_GROUP_SIZE) {
+            int groupSize = Math.min(rowCount - start, ROW_GROUP_SIZE);
+            for (int r = 0; r < groupSize; r++) {
+                groupRows[r] = rows.get(start + r);
+            }
+            // recon table of the group, filled while its columns are written
+            Map<Long, Integer> reconIndices = new HashMap<>();
+            List<Long> reconIds = new ArrayList<>();
+
+            ReconIndexer reconIndexer = recon -> reconIndices.computeIfAbsent(recon.id, id -> {
+                reconIds.add(id);
+                pool.pool(recon);
+                return reconIds.size() - 1;
+            });
+
+            group.reset();
+            writeGroup(new DataOutputStream(group), groupRows, groupSize, reconIndexer);
+            // length-prefixed, so that readers can hand whole groups over to other threads
+            dos.writeInt(group.size());
+            group.writeTo(dos);
+            writeVarInt(dos, reconIds.size());
+            for (long id : reconIds) {
+                dos.writeLong(id);
+            }
+        }
+        Arrays.fill(groupRows, null);
+        dos.flush();
+    }
+
+    private static void writeGroup(DataOutputStream dos, Row[] rows, int rowCount, ReconIndexer reconIndexer)
+            throws IOException {
+        int columnCount = 0;
+        for (int r = 0; r < rowCount; r++) {
+            columnCount = Math.max(columnCount, rows[r].cells.size());
+        }
+        writeVarInt(dos, rowCount);
+        writeVarInt(dos, columnCount);
+
+        long[] flagged = new long[bitmapLength(rowCount)];
+        long[] starred = new long[bitmapLength(rowCount)];
+        for (int r = 0; r < rowCount; r++) {
+            Row row = rows[r];
+            if (row.flagged) {
+                setBit(flagged, r);
+            }
+            if (row.starred) {
+                setBit(starred, r);
+            }
+        }
+        writeBitmap(dos, flagged);
+        writeBitmap(dos, starred);
+        for (int r = 0; r < rowCount; r++) {
+            writeVarInt(dos, rows[r].cells.size());
+        }
+
+        for (int c = 0; c < columnCount; c++) {
+            int cellIndex = c;
+            writeColumn(dos, rowCount, r -> rows[r].getCell(cellIndex), reconIndexer);
+        }
+    }
+
+    /**
+     * Assigns recons their index in a recon table.
+     */
+    private interface ReconIndexer {
+
+        int indexOf(Recon recon);
+    }
+
+    /**
+     * Writes a standalone vector of cells, which may contain nulls, in the same encoding as a column of a row group,
+     * preceded by its own recon table. Every recon referenced by a cell is added to the pool.
+     */
+    public static void writeCells(DataOutputStream dos, Cell[] cells, Pool pool) throws IOException {
+        Map<Long, Integer> reconIndices = new HashMap<>();
+        List<Long> reconIds = new ArrayList<>();
+        for (Cell cell : cells) {
+            if (cell != null && cell.recon != null && !reconIndices.containsKey(cell.recon.id)) {
+                reconIndices.put(cell.recon.id, reconIds.size());
+                reconIds.add(cell.recon.id);
+                pool.pool(cell.recon);
+            }
+        }
+        writeVarInt(dos, cells.length);
+        writeVarInt(dos, reconIds.size());
+        for (long id : reconIds) {
+            dos.writeLong(id);
+        }
+        writeColumn(dos, cells.length, i -> cells[i], recon -> reconIndices.get(recon.id));
+    }
+
+    /**
+     * Reads a vector of cells written by {@link #writeCells(DataOutputStream, Cell[], Pool)}.
+     */
+    public static Cell[] readCells(DataInputStream dis, Pool pool) throws IOException {
+        Cell[] cells = new Cell[readVarInt(dis)];
+        Recon[] recons = new Recon[readVarInt(dis)];
+        for (int i = 0; i < recons.length; i++) {
+            recons[i] = pool.getRecon(Long.toString(dis.readLong()));
+        }
+        readColumn(dis, cells.length, (i, cell) -> cells[i] = cell, recons, pool, null, 0);
+        return cells;
+    }
+
+    private static void writeColumn(DataOutputStream dos, int rowCount, IntFunction<Cell> cellAt,
+            ReconIndexer reconIndexer) throws IOException {
+        long[] present = new long[bitmapLength(rowCount)];
+        int presentCount = 0;
+        for (int r = 0; r < rowCount; r++) {
+            if (cellAt.apply(r) != null) {
+                setBit(present, r);
+                presentCount++;
+            }
+        }
+
+        Dictionary dictionary = new Dictionary();
+        byte[] tags = new byte[presentCount];
+        ByteArrayOutputStream stringBytes = new ByteArrayOutputStream();
+        ByteArrayOutputStream numberBytes = new ByteArrayOutputStream();
+        ByteArrayOutputStream reconBytes = new ByteArrayOutputStream();
+        DataOutputStream strings = new DataOutputStream(stringBytes);
+        DataOutputStream numbers = new DataOutputStream(numberBytes);
+        DataOutputStream recons = new DataOutputStream(reconBytes);
+        long[] hasRecon = new long[bitmapLength(presentCount)];
+
+        int i = 0;
+        for (int r = 0; r < rowCount; r++) {
+            Cell cell = cellAt.apply(r);
+            if (cell == null) {
+                continue;
+            }
+            Serializable value = cell.value;
+            byte tag = tagOf(value);
+            switch (tag) {
+                case TAG_STRING:
+                    writeVarInt(strings, dictionary.encode((String) value));
+                    break;
+                case TAG_LONG:
+                    numbers.writeLong((Long) value);
+                    break;
+                case TAG_INTEGER:
+                    numbers.writeInt((Integer) value);
+                    break;
+                case TAG_DOUBLE:
+                    numbers.writeDouble((Double) value);
+                    break;
+                case TAG_BOOLEAN:
+                    numbers.writeBoolean((Boolean) value);
+                    break;
+                case TAG_DATE: {
+                    OffsetDateTime date = (OffsetDateTime) value;
+                    numbers.writeLong(date.toEpochSecond());
+                    numbers.writeInt(date.getNano());
+                    numbers.writeInt(date.getOffset().getTotalSeconds());
+                    break;
+                }
+                case TAG_LOCAL_DATE: {
+                    LocalDateTime date = (LocalDateTime) value;
+                    numbers.writeLong(date.toEpochSecond(ZoneOffset.UTC));
+                    numbers.writeInt(date.getNano());
+                    break;
+                }
+                case TAG_ERROR:
+                    writeVarInt(strings, dictionary.encode(((EvalError) value).message));
+                    break;
+                case TAG_JSON:
+                    writeVarInt(strings, dictionary.encode(toJson(value)));
+                    break;
+                default:
+                    break;
+            }
+            tags[i] = tag;
+            if (cell.recon != null) {
+                setBit(hasRecon, i);
+                writeVarInt(recons, reconIndexer.indexOf(cell.recon));
+            }
+            i++;
+        }
+
+        writeBitmap(dos, present);
+        writeVarInt(dos, dictionary.values.size());
+        for (String s : dictionary.values) {
+            writeString(dos, s);
+        }
+        dos.write(tags);
+        writeBlock(dos, stringBytes);
+        writeBlock(dos, numberBytes);
+        writeBitmap(dos, hasRecon);
+        writeBlock(dos, reconBytes);
+    }
+
+    /**
+     * Reads rows previously written by {@link #save(List, OutputStream, Pool)}. Recons are looked up in the pool, which
+     * must have been loaded beforehand.
+     */
+    public static List<Row> load(InputStream in, Pool pool) throws IOException {
+        List<Row> rows = new ArrayList<>();
+        load(in, pool, rows, null);
+        return rows;
+    }
+
+    /**
+     * Reads rows previously written by {@link #save(List, OutputStream, Pool)}, appending them to the given list one
+     * row group at a time.
+     *
+     * @param dictionary
+     *            the dictionary to intern string values in, or null
+     */
+    public static void load(InputStream in, Pool pool, List<Row> rows, CellValueDictionary dictionary) throws IOException {
+        DataInputStream dis = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+
+        if (dis.readInt() != MAGIC) {
+            throw new IOException("Not a columnar row file");
+        }
+        int version = dis.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported columnar row file version " + version);
+        }
+        int rowCount = dis.readInt();
+
+        // this thread reads (and inflates) the stream, row groups are decoded on worker threads
+        OrderedBatchDecoder<Row> decoder = new OrderedBatchDecoder<>(rows);
+        try {
+            for (int groups = (rowCount + ROW_GROUP_SIZE - 1) / ROW_GROUP_SIZE; groups > 0; groups--) {
+                byte[] group = new byte[dis.readInt()];
+                dis.readFully(group);
+                Recon[] recons = readReconTable(dis, pool);
+                decoder.submit(() -> readGroup(new DataInputStream(new ByteArrayInputStream(group)), recons, pool, dictionary));
+            }
+            decoder.finish();
+        } catch (IOException | RuntimeException e) {
+            decoder.cancel();
+            throw e;
+        }
+    }
+
+    private static Recon[] readReconTable(DataInputStream dis, Pool pool) throws IOException {
+        Recon[] recons = new Recon[readVarInt(dis)];
+        for (int i = 0; i < recons.length; i++) {
+            recons[i] = pool.getRecon(Long.toString(dis.readLong()));
+        }
+        return recons;
+    }
+
+    /**
+     * Reads the number of rows of a stream written by {@link #save(List, OutputStream, Pool)} from its header.
+     */
+    public static int readRowCount(InputStream in) throws IOException {
+        DataInputStream dis = new DataInputStream(in);
+        if (dis.readInt() != MAGIC) {
+            throw new IOException("Not a columnar row file");
+        }
+        dis.readInt();
+        return dis.readInt();
+    }
+
+    private static List<Row> readGroup(DataInputStream dis, Recon[] recons, Pool pool, CellValueDictionary dictionary)
+            throws IOException {
+        int rowCount = readVarInt(dis);
+        int columnCount = readVarInt(dis);
+        long[] flagged = readBitmap(dis);
+        long[] starred = readBitmap(dis);
+        Cell[][] cells = new Cell[rowCount][];
+        for (int r = 0; r < rowCount; r++) {
+            cells[r] = new Cell[readVarInt(dis)];
+        }
+
+        for (int c = 0; c < columnCount; c++) {
+            int cellIndex = c;
+            readColumn(dis, rowCount, (r, cell) -> cells[r][cellIndex] = cell, recons, pool, dictionary, cellIndex);
+        }
+
+        List<Row> rows = new ArrayList<>(rowCount);
+        for (int r = 0; r < rowCount; r++) {
+            Row row = new Row(cells[r].length);
+            row.flagged = getBit(flagged, r);
+            row.starred = getBit(starred, r);
+            for (Cell cell : cells[r]) {
+                row.cells.add(cell);
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * Receives the decoded cells of a column.
+     */
+    private interface CellSink {
+
+        void accept(int row, Cell cell);
+    }
+
+    private static void readColumn(DataInputStream dis, int rowCount, CellSink sink, Recon[] recons, Pool pool,
+            CellValueDictionary valueDictionary, int cellIndex) throws IOException {
+        long[] present = readBitmap(dis);
+        String[] dictionary = new String[readVarInt(dis)];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = readString(dis);
+        }
+        int presentCount = 0;
+        for (long word : present) {
+            presentCount += Long.bitCount(word);
+        }
+        byte[] tags = new byte[presentCount];
+        dis.readFully(tags);
+        DataInputStream strings = readBlock(dis);
+        DataInputStream numbers = readBlock(dis);
+        long[] hasRecon = readBitmap(dis);
+        DataInputStream reconIds = readBlock(dis);
+
+        int i = 0;
+        for (int r = 0; r < rowCount; r++) {
+            if (!getBit(present, r)) {
+                continue;
+            }
+            Serializable value;
+            switch (tags[i]) {
+                case TAG_NULL:
+                    value = null;
+                    break;
+                case TAG_STRING:
+                    value = dictionary[readVarInt(strings)];
+                    if (valueDictionary != null) {
+                        value = valueDictionary.intern(cellIndex, value);
+                    }
+                    break;
+                case TAG_LONG:
+                    value = numbers.readLong();
+                    break;
+                case TAG_INTEGER:
+                    value = numbers.readInt();
+                    break;
+                case TAG_DOUBLE:
+                    value = numbers.readDouble();
+                    break;
+                case TAG_BOOLEAN:
+                    value = numbers.readBoolean();
+                    break;
+                case TAG_DATE: {
+                    long seconds = numbers.readLong();
+                    int nanos = numbers.readInt();
+                    ZoneOffset offset = ZoneOffset.ofTotalSeconds(numbers.readInt());
+                    value = OffsetDateTime.ofInstant(Instant.ofEpochSecond(seconds, nanos), offset);
+                    break;
+                }
+                case TAG_LOCAL_DATE: {
+                    long seconds = numbers.readLong();
+                    value = LocalDateTime.ofEpochSecond(seconds, numbers.readInt(), ZoneOffset.UTC);
+                    break;
+                }
+                case TAG_ERROR:
+                    value = new EvalError(dictionary[readVarInt(strings)]);
+                    break;
+                case TAG_JSON:
+                    value = fromJson(dictionary[readVarInt(strings)], pool);
+                    break;
+                default:
+                    throw new IOException("Unknown cell type tag " + tags[i]);
+            }
+            Recon recon = getBit(hasRecon, i) ? recons[readVarInt(reconIds)] : null;
+            sink.accept(r, new Cell(value, recon));
+            i++;
+        }
+    }
+
+    /**
+     * Returns the type tag under which a cell value is stored.
+     */
+    static byte tagOf(Serializable value) {
+        if (value == null) {
+            return TAG_NULL;
+        } else if (value instanceof String) {
+            return TAG_STRING;
+        } else if (value instanceof Long) {
+            return TAG_LONG;
+        } else if (value instanceof Integer) {
+            return TAG_INTEGER;
+        } else if (value instanceof Double) {
+            return TAG_DOUBLE;
+        } else if (value instanceof Boolean) {
+            return TAG_BOOLEAN;
+        } else if (value instanceof OffsetDateTime) {
+            return TAG_DATE;
+        } else if (value instanceof LocalDateTime) {
+            return TAG_LOCAL_DATE;
+        } else if (value instanceof EvalError) {
+            return TAG_ERROR;
+        } else {
+            return TAG_JSON;
+        }
+    }
+
+    /**
+     * Serializes a value of a type without a dedicated tag, as the JSON of a recon-less cell holding it.
+     */
+    static String toJson(Serializable value) {
+        StringWriter writer = new StringWriter();
+        new Cell(value, null).save(writer, new Properties());
+        return writer.toString();
+    }
+
+    static Serializable fromJson(String json, Pool pool) throws IOException {
+        try {
+            return Cell.loadStreaming(json, pool).value;
+        } catch (Exception e) {
+            throw new IOException("Failed to decode cell value", e);
+        }
+    }
+
+    /**
+     * Per-column string dictionary, assigning consecutive ids in order of first occurrence.
+     */
+    private static class Dictionary {
+
+        final Map<String, Integer> ids = new HashMap<>();
+        final List<String> values = new ArrayList<>();
+
+        int encode(String s) {
+            Integer id = ids.get(s);
+            if (id == null) {
+                id = values.size();
+                ids.put(s, id);
+                values.add(s);
+            }
+            return id;
+        }
+    }
+
+    static int bitmapLength(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    static void setBit(long[] bitmap, int i) {
+        bitmap[i >>> 6] |= 1L << (i & 63);
+    }
+
+    static boolean getBit(long[] bitmap, int i) {
+        return (bitmap[i >>> 6] & (1L << (i & 63))) != 0;
+    }
+
+    private static void writeBitmap(DataOutputStream dos, long[] bitmap) throws IOException {
+        writeVarInt(dos, bitmap.length);
+        for (long word : bitmap) {
+            dos.writeLong(word);
+        }
+    }
+
+    private static long[] readBitmap(DataInputStream dis) throws IOException {
+        long[] bitmap = new long[readVarInt(dis)];
+        for (int i = 0; i < bitmap.length; i++) {
+            bitmap[i] = dis.readLong();
+        }
+        return bitmap;
+    }
+
+    private static void writeBlock(DataOutputStream dos, ByteArrayOutputStream block) throws IOException {
+        writeVarInt(dos, block.size());
+        block.writeTo(dos);
+    }
+
+    private static DataInputStream readBlock(DataInputStream dis) throws IOException {
+        byte[] bytes = new byte[readVarInt(dis)];
+        dis.readFully(bytes);
+        return new DataInputStream(new ByteArrayInputStream(bytes));
+    }
+
+    public static void writeString(DataOutputStream dos, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(dos, bytes.length);
+        dos.write(bytes);
+    }
+
+    public static String readString(DataInputStream dis) throws IOException {
+        byte[] bytes = new byte[readVarInt(dis)];
+        dis.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static void writeVarInt(DataOutputStream dos, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            dos.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        dos.writeByte(value);
+    }
+
+    public static int readVarInt(DataInputStream dis) throws IOException {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = dis.readByte();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
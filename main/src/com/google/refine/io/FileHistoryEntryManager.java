@@ -33,20 +33,37 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.io;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 import java.util.zip.ZipOutputStream;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import com.google.refine.ProjectManager;
+import com.google.refine.history.BinaryChange;
+import com.google.refine.history.Change;
 import com.google.refine.history.History;
 import com.google.refine.history.HistoryEntry;
 import com.google.refine.history.HistoryEntryManager;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+import com.google.refine.model.RowList;
 import com.google.refine.util.ParsingUtilities;
 import com.google.refine.util.Pool;
 
@@ -54,12 +71,47 @@ public class FileHistoryEntryManager implements HistoryEntryManager {
 
     public static final String HISTORY_DIR = "history";
 
+    /**
+     * Zip entry holding changes which implement {@link BinaryChange}, in place of the textual change.txt.
+     */
+    public static final String BINARY_CHANGE_ENTRY = "change.bin";
+
+    /**
+     * Preference key for the number of history entries between two checkpoints of the full state of a project, which
+     * let undo and redo jump over many entries without replaying each of them. 0 disables checkpoints.
+     */
+    public static final String CHECKPOINT_INTERVAL_PREFERENCE = "history.checkpointInterval";
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 25;
+
+    /**
+     * Preference key for the disk space (in bytes) that the checkpoints of a project may take up. The oldest
+     * checkpoints are deleted when it is exceeded.
+     */
+    public static final String CHECKPOINT_DISK_BUDGET_PREFERENCE = "history.checkpointDiskBudget";
+    public static final long DEFAULT_CHECKPOINT_DISK_BUDGET = 1L << 30;
+
+    static final String CHECKPOINT_SUFFIX = ".checkpoint.zip";
+    static final String CHECKPOINT_STATE_ENTRY = "state.txt";
+
+    final static Logger logger = LoggerFactory.getLogger("file_history_entry_manager");
+
+    // checkpoints are captured and written out on this thread, not by the requests applying changes
+    static private final ExecutorService checkpointWriter = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "history-checkpoint-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     @Override
     public void delete(HistoryEntry historyEntry) {
         File file = getChangeFile(historyEntry);
         if (file.exists()) {
             file.delete();
         }
+        File checkpoint = getCheckpointFile(historyEntry);
+        if (checkpoint.exists()) {
+            checkpoint.delete();
+        }
     }
 
     @Override
@@ -96,8 +148,14 @@ public class FileHistoryEntryManager implements HistoryEntryManager {
                         zipFile.getInputStream(poolEntry)));
             } // else, it's a legacy project file
 
-            historyEntry.setChange(History.readOneChange(
-                    zipFile.getInputStream(zipFile.getEntry("change.txt")), pool));
+            ZipEntry binaryEntry = zipFile.getEntry(BINARY_CHANGE_ENTRY);
+            if (binaryEntry != null) {
+                historyEntry.setChange(History.readOneBinaryChange(
+                        new BufferedInputStream(zipFile.getInputStream(binaryEntry), 1 << 16), pool));
+            } else {
+                historyEntry.setChange(History.readOneChange(
+                        zipFile.getInputStream(zipFile.getEntry("change.txt")), pool));
+            }
         } finally {
             zipFile.close();
         }
@@ -116,9 +174,18 @@ public class FileHistoryEntryManager implements HistoryEntryManager {
         try {
             Pool pool = new Pool();
 
-            out.putNextEntry(new ZipEntry("change.txt"));
+            Change change = historyEntry.getChange();
+            if (change instanceof BinaryChange) {
+                out.putNextEntry(new ZipEntry(BINARY_CHANGE_ENTRY));
+            } else {
+                out.putNextEntry(new ZipEntry("change.txt"));
+            }
             try {
-                History.writeOneChange(out, historyEntry.getChange(), pool);
+                if (change instanceof BinaryChange) {
+                    History.writeOneBinaryChange(new BufferedOutputStream(out, 1 << 16), (BinaryChange) change, pool);
+                } else {
+                    History.writeOneChange(out, change, pool);
+                }
             } catch (Exception e) {
                 e.printStackTrace();
             } finally {
@@ -136,6 +203,128 @@ public class FileHistoryEntryManager implements HistoryEntryManager {
         }
     }
 
+    @Override
+    public int getCheckpointInterval() {
+        return (int) ProjectUtilities.getLongPreference(CHECKPOINT_INTERVAL_PREFERENCE, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    @Override
+    public void saveCheckpoint(Project project, HistoryEntry historyEntry) {
+        // the request applying the change only queues the checkpoint
+        checkpointWriter.submit(() -> writeCheckpoint(project, historyEntry));
+    }
+
+    protected void writeCheckpoint(Project project, HistoryEntry historyEntry) {
+        long start = System.currentTimeMillis();
+        ByteArrayOutputStream state = new ByteArrayOutputStream();
+        ProjectSnapshot snapshot;
+        synchronized (project) {
+            if (project.history.getCurrentEntryID() != historyEntry.id) {
+                logger.debug("Skipping checkpoint of history entry {}, which is no longer the current one", historyEntry.id);
+                return;
+            }
+            try {
+                // rows are only copied if changes modify them before they are written
+                snapshot = ProjectSnapshot.tryCapture(project);
+                if (snapshot == null) {
+                    logger.debug("Skipping checkpoint of history entry {} while the project is being saved", historyEntry.id);
+                    return;
+                }
+            } catch (IOException e) {
+                logger.warn("Failed to capture checkpoint of history entry {}", historyEntry.id, e);
+                return;
+            }
+            try {
+                project.saveStateToOutputStream(state, snapshot.pool);
+            } catch (IOException | RuntimeException e) {
+                snapshot.close();
+                logger.warn("Failed to capture checkpoint of history entry {}", historyEntry.id, e);
+                return;
+            }
+        }
+
+        File file = getCheckpointFile(historyEntry);
+        File tempFile = new File(file.getParentFile(), file.getName() + ".temp");
+        try {
+            writeCheckpoint(tempFile, state.toByteArray(), snapshot.rows, snapshot.pool);
+            tempFile.renameTo(file);
+            logger.info("Wrote checkpoint of history entry {} of project {} ({} KB, {} ms)",
+                    historyEntry.id, historyEntry.projectID, file.length() / 1024, System.currentTimeMillis() - start);
+        } catch (IOException e) {
+            logger.warn("Failed to write checkpoint of history entry {}", historyEntry.id, e);
+            tempFile.delete();
+        } finally {
+            snapshot.close();
+        }
+        enforceCheckpointDiskBudget(file.getParentFile());
+    }
+
+    protected void writeCheckpoint(File file, byte[] state, List<Row> rows, Pool pool) throws IOException {
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file))) {
+            out.putNextEntry(new ZipEntry(CHECKPOINT_STATE_ENTRY));
+            out.write(state);
+            out.closeEntry();
+
+            out.putNextEntry(new ZipEntry(ColumnarRowFormat.ENTRY_NAME));
+            ColumnarRowFormat.save(rows, out, pool);
+            out.closeEntry();
+
+            out.putNextEntry(new ZipEntry("pool.txt"));
+            pool.save(out);
+            out.closeEntry();
+        }
+    }
+
+    /**
+     * Deletes the oldest checkpoints in the directory until they fit in the disk budget.
+     */
+    protected void enforceCheckpointDiskBudget(File historyDir) {
+        File[] checkpoints = historyDir.listFiles((dir, name) -> name.endsWith(CHECKPOINT_SUFFIX));
+        if (checkpoints == null) {
+            return;
+        }
+        long budget = ProjectUtilities.getLongPreference(CHECKPOINT_DISK_BUDGET_PREFERENCE, DEFAULT_CHECKPOINT_DISK_BUDGET);
+        long total = 0;
+        for (File checkpoint : checkpoints) {
+            total += checkpoint.length();
+        }
+        Arrays.sort(checkpoints, Comparator.comparingLong(File::lastModified));
+        for (int i = 0; i < checkpoints.length && total > budget; i++) {
+            total -= checkpoints[i].length();
+            checkpoints[i].delete();
+        }
+    }
+
+    @Override
+    public boolean hasCheckpoint(HistoryEntry historyEntry) {
+        return getCheckpointFile(historyEntry).exists();
+    }
+
+    @Override
+    public void restoreCheckpoint(Project project, HistoryEntry historyEntry) throws Exception {
+        File file = getCheckpointFile(historyEntry);
+        long start = System.currentTimeMillis();
+        try (ZipFile zipFile = new ZipFile(file)) {
+            Pool pool = new Pool();
+            pool.load(new InputStreamReader(zipFile.getInputStream(zipFile.getEntry("pool.txt")), StandardCharsets.UTF_8));
+
+            synchronized (project) {
+                // nothing is replaced unless the whole checkpoint can be read, so that a corrupt one leaves the
+                // project as it was for the changes to be replayed instead
+                RowList rows = new RowList();
+                ColumnarRowFormat.load(zipFile.getInputStream(zipFile.getEntry(ColumnarRowFormat.ENTRY_NAME)), pool,
+                        rows, project.valueDictionary);
+                project.restoreState(zipFile.getInputStream(zipFile.getEntry(CHECKPOINT_STATE_ENTRY)), rows);
+            }
+        }
+        logger.info("Restored checkpoint of history entry {} of project {} in {} ms",
+                historyEntry.id, project.id, System.currentTimeMillis() - start);
+    }
+
+    protected File getCheckpointFile(HistoryEntry historyEntry) {
+        return new File(getHistoryDir(historyEntry), historyEntry.id + CHECKPOINT_SUFFIX);
+    }
+
     protected File getChangeFile(HistoryEntry historyEntry) {
         return new File(getHistoryDir(historyEntry), historyEntry.id + ".change.zip");
     }
@@ -33,18 +33,34 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.io;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
@@ -53,7 +69,6 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
 import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
-import org.apache.poi.util.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -79,18 +94,62 @@ public class FileProjectManager extends ProjectManager {
 
     final static Logger logger = LoggerFactory.getLogger("FileProjectManager");
 
+    /**
+     * Preference key for the gzip compression level of exported projects, from 0 (store) to 9 (best), or -1 for the
+     * default level.
+     */
+    public static final String EXPORT_GZIP_LEVEL_PREFERENCE = "projects.exportGzipLevel";
+
+    /**
+     * PAX extended header listing the CRC-32 checksum of each file of an exported project archive, which is checked
+     * when the archive is imported. It is attached to a last entry for the project directory itself ("./"), so that
+     * importers which do not know about it, including those of older versions, merely create a directory which
+     * already exists.
+     */
+    static final String CHECKSUMS_PAX_HEADER = "OPENREFINE.checksums";
+    static final String CHECKSUMS_ENTRY_NAME = "./";
+
+    static final int STREAM_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Project metadata, loaded on first access for projects found in the {@link WorkspaceIndex}. This is the same map
+     * as {@link #_projectsMetadata}.
+     */
+    private final LazyProjectMetadataMap _lazyMetadata;
+
+    /**
+     * Index entries read at start-up, only used while the workspace is being loaded.
+     */
+    private Map<Long, WorkspaceIndex.Entry> _workspaceIndex = Collections.emptyMap();
+
+    /**
+     * Set when the workspace index was missing or out of date for some project, so that it gets rewritten on the next
+     * workspace save.
+     */
+    private boolean _workspaceIndexStale = false;
+
+    private int _metadataFilesRead = 0;
+    private long _metadataReadMillis = 0;
+
     static public synchronized void initialize(File dir) {
         if (singleton != null) {
             logger.warn("Overwriting singleton already set: " + singleton);
         }
         logger.info("Using workspace directory: {}", dir.getAbsolutePath());
+        long start = System.currentTimeMillis();
         singleton = new FileProjectManager(dir);
+        long loaded = System.currentTimeMillis();
         // This needs our singleton set, thus the unconventional control flow
         ((FileProjectManager) singleton).recover();
+        long recovered = System.currentTimeMillis();
+        logger.info("Workspace ready in {} ms (loading {} ms, recovery scan {} ms)",
+                recovered - start, loaded - start, recovered - loaded);
     }
 
     protected FileProjectManager(File dir) {
         super();
+        _lazyMetadata = new LazyProjectMetadataMap(this::loadDeferredMetadata);
+        _projectsMetadata = _lazyMetadata;
         _workspaceDir = dir;
         if (!_workspaceDir.exists() && !_workspaceDir.mkdirs()) {
             logger.error("Failed to create directory : " + _workspaceDir);
@@ -162,19 +221,36 @@ public class FileProjectManager extends ProjectManager {
         File destDir = this.getProjectDir(projectID);
         destDir.mkdirs();
 
+        long start = System.currentTimeMillis();
+        long bytes;
         if (gziped) {
-            GZIPInputStream gis = new GZIPInputStream(inputStream);
-            untar(destDir, gis);
+            GZIPInputStream gis = new GZIPInputStream(inputStream, STREAM_BUFFER_SIZE);
+            bytes = untar(destDir, gis);
         } else {
-            untar(destDir, inputStream);
+            bytes = untar(destDir, inputStream);
         }
+        long elapsed = Math.max(1, System.currentTimeMillis() - start);
+        logger.info("Imported project {} ({} KB) in {} ms ({} KB/sec)", projectID, bytes / 1024, elapsed, bytes / elapsed);
     }
 
-    protected void untar(File destDir, InputStream inputStream) throws IOException {
+    /**
+     * Extracts a project archive into the given directory, checking the checksums of its files if the archive lists
+     * them.
+     *
+     * @return the number of bytes extracted
+     */
+    protected long untar(File destDir, InputStream inputStream) throws IOException {
         TarArchiveInputStream tin = new TarArchiveInputStream(inputStream);
         TarArchiveEntry tarEntry = null;
+        Map<String, Long> checksums = new HashMap<>();
+        long bytes = 0;
 
         while ((tarEntry = tin.getNextTarEntry()) != null) {
+            String checksumList = tarEntry.getExtraPaxHeader(CHECKSUMS_PAX_HEADER);
+            if (checksumList != null) {
+                verifyChecksums(new StringReader(checksumList), checksums);
+            }
+
             File destEntry = new File(destDir, tarEntry.getName());
             if (!destEntry.toPath().normalize().startsWith(destDir.toPath().normalize())) {
                 throw new IllegalArgumentException("Zip archives with files escaping their root directory are not allowed.");
@@ -188,34 +264,81 @@ public class FileProjectManager extends ProjectManager {
             if (tarEntry.isDirectory()) {
                 destEntry.mkdirs();
             } else {
-                FileOutputStream fout = new FileOutputStream(destEntry);
-                try {
-                    IOUtils.copy(tin, fout);
-                } finally {
-                    fout.close();
+                CRC32 crc = new CRC32();
+                ReadableByteChannel source = new ChecksumChannel(Channels.newChannel(tin), crc);
+                try (FileChannel target = FileChannel.open(destEntry.toPath(),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    long size = tarEntry.getSize();
+                    long position = 0;
+                    while (position < size) {
+                        long count = target.transferFrom(source, position, size - position);
+                        if (count <= 0) {
+                            break;
+                        }
+                        position += count;
+                    }
+                    bytes += position;
                 }
+                checksums.put(tarEntry.getName(), crc.getValue());
             }
         }
 
         tin.close();
+        return bytes;
+    }
+
+    private static void verifyChecksums(Reader in, Map<String, Long> checksums) throws IOException {
+        BufferedReader reader = new BufferedReader(in);
+        String line;
+        while ((line = reader.readLine()) != null && !line.isEmpty()) {
+            int space = line.indexOf(' ');
+            String name = line.substring(space + 1);
+            Long actual = checksums.get(name);
+            if (actual == null || actual != Long.parseLong(line.substring(0, space), 16)) {
+                throw new IOException("Checksum mismatch for " + name + " in project archive");
+            }
+        }
     }
 
     @Override
     public void exportProject(long projectId, TarArchiveOutputStream tos) throws IOException {
         File dir = this.getProjectDir(projectId);
-        this.tarDir("", dir, tos);
+        long start = System.currentTimeMillis();
+        Map<String, Long> checksums = new LinkedHashMap<>();
+        long bytes = this.tarDir("", dir, tos, checksums);
+
+        StringBuilder sb = new StringBuilder();
+        for (Entry<String, Long> checksum : checksums.entrySet()) {
+            sb.append(String.format("%08x %s\n", checksum.getValue(), checksum.getKey()));
+        }
+        TarArchiveEntry entry = new TarArchiveEntry(CHECKSUMS_ENTRY_NAME);
+        entry.setMode(TarArchiveEntry.DEFAULT_DIR_MODE);
+        entry.addPaxHeader(CHECKSUMS_PAX_HEADER, sb.toString());
+        tos.putArchiveEntry(entry);
+        tos.closeArchiveEntry();
+
+        long elapsed = Math.max(1, System.currentTimeMillis() - start);
+        logger.info("Exported project {} ({} files, {} KB) in {} ms ({} KB/sec)",
+                projectId, checksums.size(), bytes / 1024, elapsed, bytes / elapsed);
     }
 
-    protected void tarDir(String relative, File dir, TarArchiveOutputStream tos) throws IOException {
+    /**
+     * Adds the files of a project directory to the archive, recording their checksums. History checkpoints are left
+     * out, as they can be rebuilt.
+     *
+     * @return the number of bytes archived
+     */
+    protected long tarDir(String relative, File dir, TarArchiveOutputStream tos, Map<String, Long> checksums) throws IOException {
         File[] files = dir.listFiles();
-        if (files == null) return;
+        if (files == null) return 0;
+        long bytes = 0;
         for (File file : files) {
             if (file == null) continue;
-            if (!file.isHidden()) {
+            if (!file.isHidden() && !file.getName().endsWith(FileHistoryEntryManager.CHECKPOINT_SUFFIX)) {
                 String path = relative + file.getName();
 
                 if (file.isDirectory()) {
-                    tarDir(path + File.separator, file, tos);
+                    bytes += tarDir(path + File.separator, file, tos, checksums);
                 } else {
                     TarArchiveEntry entry = new TarArchiveEntry(path);
 
@@ -225,13 +348,80 @@ public class FileProjectManager extends ProjectManager {
 
                     tos.putArchiveEntry(entry);
 
-                    // TODO: replace with Files.copy(file.toPath(), tos);
-                    copyFile(file, tos);
+                    CRC32 crc = new CRC32();
+                    WritableByteChannel target = new ChecksumChannel(Channels.newChannel(tos), crc);
+                    try (FileChannel source = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                        long size = source.size();
+                        long position = 0;
+                        while (position < size) {
+                            long count = source.transferTo(position, size - position, target);
+                            if (count <= 0) {
+                                break;
+                            }
+                            position += count;
+                        }
+                        bytes += size;
+                    }
+                    checksums.put(path, crc.getValue());
 
                     tos.closeArchiveEntry();
                 }
             }
         }
+        return bytes;
+    }
+
+    /**
+     * Channel updating a checksum with the bytes passed through it.
+     */
+    private static class ChecksumChannel implements ReadableByteChannel, WritableByteChannel {
+
+        private final ReadableByteChannel source;
+        private final WritableByteChannel target;
+        private final CRC32 crc;
+
+        ChecksumChannel(ReadableByteChannel source, CRC32 crc) {
+            this.source = source;
+            this.target = null;
+            this.crc = crc;
+        }
+
+        ChecksumChannel(WritableByteChannel target, CRC32 crc) {
+            this.source = null;
+            this.target = target;
+            this.crc = crc;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            int start = dst.position();
+            int count = source.read(dst);
+            if (count > 0) {
+                ByteBuffer read = dst.duplicate();
+                read.position(start).limit(start + count);
+                crc.update(read);
+            }
+            return count;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            ByteBuffer written = src.duplicate();
+            int count = target.write(src);
+            written.limit(written.position() + count);
+            crc.update(written);
+            return count;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return source != null ? source.isOpen() : target.isOpen();
+        }
+
+        @Override
+        public void close() {
+            // the underlying streams are owned by the caller
+        }
     }
 
     /**
@@ -278,7 +468,8 @@ public class FileProjectManager extends ProjectManager {
     protected void saveWorkspace() {
         synchronized (this) {
             List<Long> modified = getModifiedProjectIds();
-            boolean saveNeeded = (modified.size() > 0) || _preferenceStore.isDirty() || projectRemoved;
+            boolean saveNeeded = (modified.size() > 0) || _preferenceStore.isDirty() || projectRemoved
+                    || _workspaceIndexStale;
             if (!saveNeeded) {
                 logger.info("Skipping unnecessary workspace save");
                 return;
@@ -304,10 +495,43 @@ public class FileProjectManager extends ProjectManager {
                 logger.error("Failed to rename new temp workspace file to {}", file.getAbsolutePath());
             }
             projectRemoved = false;
+            saveWorkspaceIndex();
             logger.info("Saved workspace");
         }
     }
 
+    /**
+     * Writes the {@link WorkspaceIndex}, from the metadata loaded so far and the index entries of the projects whose
+     * metadata hasn't been needed. Must be called after the modified metadata has been saved, as entries record the
+     * modification time of the metadata files.
+     */
+    private void saveWorkspaceIndex() {
+        List<WorkspaceIndex.Entry> entries = new ArrayList<>();
+        for (Entry<Long, ProjectMetadata> e : _lazyMetadata.getLoaded().entrySet()) {
+            ProjectMetadata metadata = e.getValue();
+            File metadataFile = new File(new File(_workspaceDir, e.getKey() + PROJECT_DIR_SUFFIX), ProjectMetadata.DEFAULT_FILE_NAME);
+            if (metadata != null && metadata.getName() != null && metadataFile.exists()) {
+                try {
+                    entries.add(new WorkspaceIndex.Entry(e.getKey(), metadata, metadataFile));
+                } catch (IOException ex) {
+                    logger.warn("Failed to index metadata of project {}", e.getKey(), ex);
+                }
+            }
+        }
+        for (long id : _lazyMetadata.keySet()) {
+            WorkspaceIndex.Entry deferred = _lazyMetadata.getDeferred(id);
+            if (deferred != null) {
+                entries.add(deferred);
+            }
+        }
+        try {
+            WorkspaceIndex.save(_workspaceDir, entries);
+            _workspaceIndexStale = false;
+        } catch (IOException e) {
+            logger.warn("Failed to save workspace index", e);
+        }
+    }
+
     private File saveWorkspaceToTempFile() {
         File tempFile = new File(_workspaceDir, WORKSPACE_TEMP_JSON);
         try {
@@ -323,7 +547,8 @@ public class FileProjectManager extends ProjectManager {
     }
 
     protected List<Long> getModifiedProjectIds() {
-        List<Long> modified = _projectsMetadata.entrySet().stream()
+        // metadata which hasn't been loaded can't have been modified
+        List<Long> modified = _lazyMetadata.getLoaded().entrySet().stream()
                 .filter(e -> {
                     ProjectMetadata metadata = e.getValue();
                     if (metadata == null) {
@@ -407,15 +632,26 @@ public class FileProjectManager extends ProjectManager {
         _projectsMetadata.clear();
 
         if (file.exists() || file.canRead()) {
+            long start = System.currentTimeMillis();
+            _workspaceIndex = WorkspaceIndex.load(_workspaceDir);
+            _workspaceIndexStale = false;
+            _metadataFilesRead = 0;
+            _metadataReadMillis = 0;
+            long indexRead = System.currentTimeMillis();
             try {
                 ParsingUtilities.mapper.readerForUpdating(this).readValue(file);
 
                 // TODO: This seems odd. Why is this here?
                 LocaleUtils.setLocale((String) this.getPreferenceStore().get("userLang"));
 
+                logger.info("Loaded workspace in {} ms (index {} ms): {} projects from index, {} metadata files read in {} ms",
+                        System.currentTimeMillis() - start, indexRead - start, _lazyMetadata.getDeferredCount(),
+                        _metadataFilesRead, _metadataReadMillis);
                 return true;
             } catch (IOException e) {
                 logger.warn("Failed to load workspace", e);
+            } finally {
+                _workspaceIndex = Collections.emptyMap();
             }
         }
         return false;
@@ -461,7 +697,17 @@ public class FileProjectManager extends ProjectManager {
     }
 
     public static void gzipTarToOutputStream(Project project, OutputStream os) throws IOException {
-        GZIPOutputStream gos = new GZIPOutputStream(os);
+        int level = (int) ProjectUtilities.getLongPreference(EXPORT_GZIP_LEVEL_PREFERENCE, Deflater.DEFAULT_COMPRESSION);
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            level = Deflater.DEFAULT_COMPRESSION;
+        }
+        int gzipLevel = level;
+        GZIPOutputStream gos = new GZIPOutputStream(os, STREAM_BUFFER_SIZE) {
+
+            {
+                def.setLevel(gzipLevel);
+            }
+        };
         TarArchiveOutputStream tos = new TarArchiveOutputStream(gos);
         try {
             ProjectManager.singleton.exportProject(project.id, tos);
@@ -485,7 +731,21 @@ public class FileProjectManager extends ProjectManager {
                 logger.error("Missing project directory for project {}", id);
                 continue;
             }
+
+            WorkspaceIndex.Entry entry = _workspaceIndex.get(id);
+            if (entry != null && entry.isCurrent(projectDir)) {
+                _lazyMetadata.defer(entry);
+                if (entry.getTags() != null) {
+                    addProjectTags(entry.getTags());
+                }
+                continue;
+            }
+            _workspaceIndexStale = true;
+
+            long start = System.currentTimeMillis();
             ProjectMetadata metadata = ProjectMetadataUtilities.load(projectDir);
+            _metadataFilesRead++;
+            _metadataReadMillis += System.currentTimeMillis() - start;
 
             mergeEmptyUserMetadata(metadata);
 
@@ -497,6 +757,50 @@ public class FileProjectManager extends ProjectManager {
         }
     }
 
+    /**
+     * Loads the metadata of a project registered from the workspace index, the first time it is accessed.
+     */
+    private ProjectMetadata loadDeferredMetadata(long id) {
+        File projectDir = getProjectDir(id, false);
+        if (projectDir == null) {
+            return null;
+        }
+        ProjectMetadata metadata = ProjectMetadataUtilities.load(projectDir);
+        mergeEmptyUserMetadata(metadata);
+        return metadata;
+    }
+
+    @Override
+    protected String getProjectName(long id) {
+        WorkspaceIndex.Entry entry = _lazyMetadata.getDeferred(id);
+        return entry != null ? entry.getName() : super.getProjectName(id);
+    }
+
+    @JsonIgnore
+    @Override
+    public Map<Long, ProjectMetadata> getAllProjectMetadata() {
+        _lazyMetadata.loadAll();
+        return super.getAllProjectMetadata();
+    }
+
+    /**
+     * Lists the projects whose metadata hasn't been loaded from their index entries, without reading their metadata
+     * files.
+     */
+    @JsonIgnore
+    @Override
+    public Map<Long, Object> getProjectListing() {
+        for (Project project : _projects.values()) {
+            mergeEmptyUserMetadata(project.getMetadata());
+        }
+        Map<Long, Object> listing = new HashMap<>();
+        for (long id : _lazyMetadata.keySet()) {
+            WorkspaceIndex.Entry deferred = _lazyMetadata.getDeferred(id);
+            listing.put(id, deferred != null ? deferred.getListing() : _lazyMetadata.get(id));
+        }
+        return listing;
+    }
+
     @JsonProperty("preferences")
     protected void setPreferences(PreferenceStore preferences) {
         if (preferences != null) {
@@ -0,0 +1,252 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.io;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.LongFunction;
+
+import com.google.refine.ProjectMetadata;
+
+/**
+ * Map of project metadata where projects known from the {@link WorkspaceIndex} are only registered at start-up, and
+ * their full metadata is loaded the first time it is looked up. Key-only operations ({@link #containsKey},
+ * {@link #keySet()}, {@link #size()}) never load anything.
+ */
+class LazyProjectMetadataMap extends AbstractMap<Long, ProjectMetadata> {
+
+    private final Map<Long, ProjectMetadata> _loaded = new HashMap<>();
+    private final Map<Long, WorkspaceIndex.Entry> _deferred = new HashMap<>();
+    private final LongFunction<ProjectMetadata> _loader;
+
+    LazyProjectMetadataMap(LongFunction<ProjectMetadata> loader) {
+        _loader = loader;
+    }
+
+    /**
+     * Registers a project whose metadata will be loaded on first access.
+     */
+    synchronized void defer(WorkspaceIndex.Entry entry) {
+        _loaded.remove(entry.id);
+        _deferred.put(entry.id, entry);
+    }
+
+    /**
+     * @return the index entry of a project whose metadata hasn't been loaded yet, or null
+     */
+    synchronized WorkspaceIndex.Entry getDeferred(long id) {
+        return _deferred.get(id);
+    }
+
+    synchronized int getDeferredCount() {
+        return _deferred.size();
+    }
+
+    /**
+     * @return a snapshot of the metadata loaded so far
+     */
+    synchronized Map<Long, ProjectMetadata> getLoaded() {
+        return Collections.unmodifiableMap(new HashMap<>(_loaded));
+    }
+
+    /**
+     * Loads the metadata of all deferred projects, reading the files in parallel.
+     */
+    void loadAll() {
+        List<Long> ids;
+        synchronized (this) {
+            ids = new ArrayList<>(_deferred.keySet());
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        Map<Long, ProjectMetadata> read = ids.parallelStream()
+                .collect(HashMap::new, (m, id) -> m.put(id, _loader.apply(id)), Map::putAll);
+        synchronized (this) {
+            for (Map.Entry<Long, ProjectMetadata> e : read.entrySet()) {
+                // skip projects removed or replaced in the meantime
+                if (_deferred.remove(e.getKey()) != null) {
+                    _loaded.put(e.getKey(), e.getValue());
+                }
+            }
+        }
+    }
+
+    @Override
+    public ProjectMetadata get(Object key) {
+        synchronized (this) {
+            ProjectMetadata metadata = _loaded.get(key);
+            if (metadata != null || !_deferred.containsKey(key)) {
+                return metadata;
+            }
+        }
+        // read without holding the lock, so that other lookups don't wait for the disk
+        long id = (Long) key;
+        ProjectMetadata metadata = _loader.apply(id);
+        synchronized (this) {
+            if (_deferred.remove(id) != null) {
+                _loaded.put(id, metadata);
+                return metadata;
+            }
+            // loaded by another thread, replaced or removed in the meantime
+            return _loaded.get(id);
+        }
+    }
+
+    @Override
+    public synchronized boolean containsKey(Object key) {
+        return _loaded.containsKey(key) || _deferred.containsKey(key);
+    }
+
+    @Override
+    public synchronized ProjectMetadata put(Long key, ProjectMetadata value) {
+        _deferred.remove(key);
+        return _loaded.put(key, value);
+    }
+
+    /**
+     * Removes a project. The metadata of a deferred project is not loaded just to be returned, so null is returned for
+     * it.
+     */
+    @Override
+    public synchronized ProjectMetadata remove(Object key) {
+        _deferred.remove(key);
+        return _loaded.remove(key);
+    }
+
+    @Override
+    public synchronized void clear() {
+        _loaded.clear();
+        _deferred.clear();
+    }
+
+    @Override
+    public synchronized int size() {
+        return _loaded.size() + _deferred.size();
+    }
+
+    private synchronized List<Long> keySnapshot() {
+        List<Long> keys = new ArrayList<>(size());
+        keys.addAll(_loaded.keySet());
+        keys.addAll(_deferred.keySet());
+        return keys;
+    }
+
+    @Override
+    public Set<Map.Entry<Long, ProjectMetadata>> entrySet() {
+        return new AbstractSet<Map.Entry<Long, ProjectMetadata>>() {
+
+            @Override
+            public Iterator<Map.Entry<Long, ProjectMetadata>> iterator() {
+                Iterator<Long> ids = keySnapshot().iterator();
+                return new Iterator<Map.Entry<Long, ProjectMetadata>>() {
+
+                    Long current;
+
+                    @Override
+                    public boolean hasNext() {
+                        return ids.hasNext();
+                    }
+
+                    @Override
+                    public Map.Entry<Long, ProjectMetadata> next() {
+                        if (!ids.hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        current = ids.next();
+                        return new LazyEntry(current);
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (current == null) {
+                            throw new IllegalStateException();
+                        }
+                        LazyProjectMetadataMap.this.remove(current);
+                        current = null;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return LazyProjectMetadataMap.this.size();
+            }
+        };
+    }
+
+    /**
+     * Map entry which only loads the metadata when its value is requested.
+     */
+    private class LazyEntry implements Map.Entry<Long, ProjectMetadata> {
+
+        private final Long _id;
+
+        LazyEntry(Long id) {
+            _id = id;
+        }
+
+        @Override
+        public Long getKey() {
+            return _id;
+        }
+
+        @Override
+        public ProjectMetadata getValue() {
+            return get(_id);
+        }
+
+        @Override
+        public ProjectMetadata setValue(ProjectMetadata value) {
+            return put(_id, value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> other = (Map.Entry<?, ?>) o;
+            return _id.equals(other.getKey()) && Objects.equals(getValue(), other.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return _id.hashCode() ^ Objects.hashCode(getValue());
+        }
+    }
+}
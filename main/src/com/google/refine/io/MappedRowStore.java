@@ -0,0 +1,811 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.refine.expr.EvalError;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Recon;
+import com.google.refine.model.Row;
+import com.google.refine.util.Pool;
+
+/**
+ * List of rows kept off the Java heap, in a memory-mapped spill file, so that projects larger than the heap can be
+ * opened. Each row is stored as a compact binary record and only materialized into a {@link Row} object when it is
+ * accessed; a bounded, least-recently-used cache keeps the rows being worked on alive so that they keep their identity.
+ * <p>
+ * Rows are mutable, and changes modify them in place: a cached row which has been modified is written back to the spill
+ * file when it is evicted from the cache. Rows materialized by the store notify it when they are about to be modified,
+ * so that a row evicted while its caller still held it (for instance by a parallel scan reading other rows) is cached
+ * again rather than losing its modification. This only holds until the row's record is replaced or moved, by setting,
+ * adding or removing rows, clearing the store or compacting it, after which modifying the row no longer affects the
+ * store. Rows added to the store by callers are only tracked while they are cached.
+ * <p>
+ * Records superseded by newer versions of their row are reclaimed by compacting the spill file once they take up more
+ * space than the live ones. Recon objects are kept on the heap, shared between the rows referring to them, and the
+ * table of recons is rebuilt when compacting so that it only holds the recons of live records.
+ * <p>
+ * The store can be read from several threads at once: the cache is split into stripes of row indices, each with its own
+ * lock, so that parallel scans only contend when materializing rows of the same stripe. Structural changes exclude all
+ * readers.
+ */
+public class MappedRowStore extends AbstractList<Row> implements RandomAccess, Closeable {
+
+    final static Logger logger = LoggerFactory.getLogger("mapped_row_store");
+
+    static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private static final byte ABSENT = (byte) 0xFF;
+    private static final int RECON_FLAG = 0x40;
+    private static final int FLAGGED = 1;
+    private static final int STARRED = 2;
+
+    private static final int MAX_STRIPES = 16;
+
+    private final int cacheSize;
+    private final int segmentSize;
+    /**
+     * Structural changes (adding, removing or clearing rows, compaction) take the write lock, row accesses the read
+     * lock.
+     */
+    private final ReentrantReadWriteLock structure = new ReentrantReadWriteLock();
+    /**
+     * The least-recently-used caches of materialized rows, one per stripe of row indices. A stripe's lock also guards the
+     * addresses and lengths of its rows' records.
+     */
+    private final Stripe[] stripes;
+    /**
+     * Guards appending records to the spill file and the recon table.
+     */
+    private final Object spillLock = new Object();
+    private final Map<Integer, Recon> recons = new ConcurrentHashMap<>();
+    private final Map<Recon, Integer> reconIndices = new IdentityHashMap<>();
+    private final Pool pool = new Pool();
+    private final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+    private final DataOutputStream record = new DataOutputStream(recordBytes);
+
+    private volatile Spill spill;
+    private long[] addresses = new long[16];
+    private int[] lengths = new int[16];
+    private volatile int size;
+    private long garbage;
+    // incremented whenever records move, so that rows materialized before stop notifying the store
+    private volatile int epoch;
+
+    /**
+     * @param cacheSize
+     *            the maximum number of materialized rows kept in memory
+     */
+    public MappedRowStore(int cacheSize) throws IOException {
+        this(cacheSize, DEFAULT_SEGMENT_SIZE);
+    }
+
+    MappedRowStore(int cacheSize, int segmentSize) throws IOException {
+        this.cacheSize = Math.max(1, cacheSize);
+        this.segmentSize = segmentSize;
+        this.spill = new Spill(segmentSize);
+        int stripeCount = Integer.highestOneBit(Math.min(MAX_STRIPES, this.cacheSize));
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe((this.cacheSize + stripeCount - 1) / stripeCount);
+        }
+    }
+
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of recons in the recon table, for tests
+     */
+    int getReconCount() {
+        return recons.size();
+    }
+
+    @Override
+    public Row get(int index) {
+        structure.readLock().lock();
+        try {
+            checkIndex(index, size);
+            Stripe stripe = stripeOf(index);
+            synchronized (stripe) {
+                return get(stripe, index);
+            }
+        } finally {
+            structure.readLock().unlock();
+        }
+    }
+
+    // with the stripe's lock held
+    private Row get(Stripe stripe, int index) {
+        CachedRow cached = stripe.get(index);
+        if (cached != null) {
+            return cached.row;
+        }
+        StoredRow row = decode(spill, addresses[index], recons);
+        row.attach(index);
+        stripe.put(index, new CachedRow(row));
+        return row;
+    }
+
+    @Override
+    public Row set(int index, Row row) {
+        Row previous;
+        structure.readLock().lock();
+        try {
+            checkIndex(index, size);
+            Stripe stripe = stripeOf(index);
+            synchronized (stripe) {
+                previous = get(stripe, index);
+                stripe.remove(index);
+                write(index, row);
+                stripe.put(index, new CachedRow(row));
+            }
+        } finally {
+            structure.readLock().unlock();
+        }
+        compactIfNeeded();
+        return previous;
+    }
+
+    @Override
+    public void add(int index, Row row) {
+        structure.writeLock().lock();
+        try {
+            checkIndex(index, size + 1);
+            if (index < size) {
+                // cache keys are positions, which are about to shift
+                flushAndClearCache();
+            }
+            if (size == addresses.length) {
+                addresses = Arrays.copyOf(addresses, size * 2);
+                lengths = Arrays.copyOf(lengths, size * 2);
+            }
+            System.arraycopy(addresses, index, addresses, index + 1, size - index);
+            System.arraycopy(lengths, index, lengths, index + 1, size - index);
+            size++;
+            lengths[index] = 0;
+            write(index, row);
+            Stripe stripe = stripeOf(index);
+            synchronized (stripe) {
+                stripe.put(index, new CachedRow(row));
+            }
+            modCount++;
+        } finally {
+            structure.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Row remove(int index) {
+        Row previous;
+        structure.writeLock().lock();
+        try {
+            checkIndex(index, size);
+            Stripe stripe = stripeOf(index);
+            synchronized (stripe) {
+                previous = get(stripe, index);
+            }
+            flushAndClearCache();
+            synchronized (spillLock) {
+                garbage += lengths[index];
+            }
+            System.arraycopy(addresses, index + 1, addresses, index, size - index - 1);
+            System.arraycopy(lengths, index + 1, lengths, index, size - index - 1);
+            size--;
+            modCount++;
+        } finally {
+            structure.writeLock().unlock();
+        }
+        compactIfNeeded();
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        structure.writeLock().lock();
+        try {
+            clearCache();
+            size = 0;
+            Spill old = spill;
+            try {
+                spill = new Spill(segmentSize);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            synchronized (spillLock) {
+                garbage = 0;
+            }
+            old.retire();
+            modCount++;
+        } finally {
+            structure.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the cached rows which have been modified since they were materialized back to the spill file.
+     */
+    public void flush() {
+        structure.readLock().lock();
+        try {
+            for (Stripe stripe : stripes) {
+                synchronized (stripe) {
+                    for (Map.Entry<Integer, CachedRow> entry : stripe.entrySet()) {
+                        if (entry.getValue().isDirty()) {
+                            write(entry.getKey(), entry.getValue().row);
+                            entry.setValue(new CachedRow(entry.getValue().row));
+                        }
+                    }
+                }
+            }
+        } finally {
+            structure.readLock().unlock();
+        }
+    }
+
+    /**
+     * Releases the spill file. The store must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        structure.writeLock().lock();
+        try {
+            clearCache();
+            size = 0;
+            spill.retire();
+        } finally {
+            structure.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Captures the current rows, without materializing them: modified rows are written to the spill file and the
+     * addresses of the rows' records are copied. Records are never overwritten, and the spill file is neither compacted
+     * nor released until the snapshot is closed, so the snapshot can be read from another thread while the store keeps
+     * being modified.
+     */
+    public Snapshot snapshot() {
+        structure.writeLock().lock();
+        try {
+            flush();
+            spill.pins++;
+            return new Snapshot(spill, Arrays.copyOf(addresses, size));
+        } finally {
+            structure.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The rows of a store at the time {@link MappedRowStore#snapshot()} was called. Each access decodes a new row.
+     */
+    public class Snapshot extends AbstractList<Row> implements RandomAccess, Closeable {
+
+        private final Spill snapshotSpill;
+        private final long[] snapshotAddresses;
+        private boolean closed;
+
+        private Snapshot(Spill spill, long[] addresses) {
+            this.snapshotSpill = spill;
+            this.snapshotAddresses = addresses;
+        }
+
+        @Override
+        public Row get(int index) {
+            checkIndex(index, snapshotAddresses.length);
+            return decode(snapshotSpill, snapshotAddresses[index], recons);
+        }
+
+        @Override
+        public int size() {
+            return snapshotAddresses.length;
+        }
+
+        @Override
+        public void close() {
+            structure.writeLock().lock();
+            try {
+                if (!closed) {
+                    closed = true;
+                    snapshotSpill.release();
+                }
+            } finally {
+                structure.writeLock().unlock();
+            }
+        }
+    }
+
+    private Stripe stripeOf(int index) {
+        return stripes[index & (stripes.length - 1)];
+    }
+
+    // with the write lock held
+    private void flushAndClearCache() {
+        flush();
+        clearCache();
+    }
+
+    private void clearCache() {
+        epoch++;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    // with the lock of the row's stripe, or the write lock, held
+    private void write(int index, Row row) {
+        long address;
+        int length;
+        try {
+            synchronized (spillLock) {
+                recordBytes.reset();
+                encode(row);
+                garbage += lengths[index];
+                length = recordBytes.size();
+                address = spill.append(recordBytes.toByteArray());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        addresses[index] = address;
+        lengths[index] = length;
+        if (row instanceof StoredRow && ((StoredRow) row).store() == this) {
+            ((StoredRow) row).address = address;
+            ((StoredRow) row).attach(index);
+        }
+    }
+
+    /**
+     * Caches a row materialized by the store again when it is about to be modified after having been evicted, unless
+     * its record has been replaced or moved since.
+     */
+    private void rowModified(StoredRow row) {
+        structure.readLock().lock();
+        try {
+            int index = row.index;
+            if (row.epoch != epoch || index >= size) {
+                return;
+            }
+            Stripe stripe = stripeOf(index);
+            synchronized (stripe) {
+                CachedRow cached = stripe.get(index);
+                if (cached != null && (cached.row == row || cached.isDirty())) {
+                    return;
+                }
+                if (addresses[index] == row.address) {
+                    // replaces any unmodified copy materialized since, with the state from before the modification
+                    stripe.put(index, new CachedRow(row));
+                }
+            }
+        } finally {
+            structure.readLock().unlock();
+        }
+    }
+
+    private void compactIfNeeded() {
+        synchronized (spillLock) {
+            if (garbage <= segmentSize || garbage <= spill.written - garbage) {
+                return;
+            }
+        }
+        structure.writeLock().lock();
+        try {
+            synchronized (spillLock) {
+                // records read by snapshots must stay where they are
+                if (garbage <= segmentSize || garbage <= spill.written - garbage || spill.pins > 0) {
+                    return;
+                }
+                // records are re-encoded rather than copied, to rebuild the recon table with the live recons only
+                Map<Integer, Recon> liveRecons = new HashMap<>(recons);
+                recons.clear();
+                reconIndices.clear();
+                Spill compacted = new Spill(segmentSize);
+                for (int i = 0; i < size; i++) {
+                    recordBytes.reset();
+                    encode(decode(spill, addresses[i], liveRecons));
+                    lengths[i] = recordBytes.size();
+                    addresses[i] = compacted.append(recordBytes.toByteArray());
+                }
+                spill.close();
+                spill = compacted;
+                garbage = 0;
+                // rows evicted before stop notifying the store, cached ones keep being tracked
+                epoch++;
+                for (Stripe stripe : stripes) {
+                    synchronized (stripe) {
+                        for (Map.Entry<Integer, CachedRow> entry : stripe.entrySet()) {
+                            if (entry.getValue().row instanceof StoredRow) {
+                                StoredRow row = (StoredRow) entry.getValue().row;
+                                row.address = addresses[entry.getKey()];
+                                row.attach(entry.getKey());
+                            }
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            structure.writeLock().unlock();
+        }
+    }
+
+    private void encode(Row row) throws IOException {
+        record.writeByte((row.flagged ? FLAGGED : 0) | (row.starred ? STARRED : 0));
+        ColumnarRowFormat.writeVarInt(record, row.cells.size());
+        for (Cell cell : row.cells) {
+            if (cell == null) {
+                record.writeByte(ABSENT);
+                continue;
+            }
+            Serializable value = cell.value;
+            byte tag = ColumnarRowFormat.tagOf(value);
+            record.writeByte(cell.recon != null ? tag | RECON_FLAG : tag);
+            switch (tag) {
+                case ColumnarRowFormat.TAG_STRING:
+                    ColumnarRowFormat.writeString(record, (String) value);
+                    break;
+                case ColumnarRowFormat.TAG_LONG:
+                    record.writeLong((Long) value);
+                    break;
+                case ColumnarRowFormat.TAG_INTEGER:
+                    record.writeInt((Integer) value);
+                    break;
+                case ColumnarRowFormat.TAG_DOUBLE:
+                    record.writeDouble((Double) value);
+                    break;
+                case ColumnarRowFormat.TAG_BOOLEAN:
+                    record.writeBoolean((Boolean) value);
+                    break;
+                case ColumnarRowFormat.TAG_DATE: {
+                    OffsetDateTime date = (OffsetDateTime) value;
+                    record.writeLong(date.toEpochSecond());
+                    record.writeInt(date.getNano());
+                    record.writeInt(date.getOffset().getTotalSeconds());
+                    break;
+                }
+                case ColumnarRowFormat.TAG_LOCAL_DATE: {
+                    LocalDateTime date = (LocalDateTime) value;
+                    record.writeLong(date.toEpochSecond(ZoneOffset.UTC));
+                    record.writeInt(date.getNano());
+                    break;
+                }
+                case ColumnarRowFormat.TAG_ERROR:
+                    ColumnarRowFormat.writeString(record, ((EvalError) value).message);
+                    break;
+                case ColumnarRowFormat.TAG_JSON:
+                    ColumnarRowFormat.writeString(record, ColumnarRowFormat.toJson(value));
+                    break;
+                default:
+                    break;
+            }
+            if (cell.recon != null) {
+                Integer reconIndex = reconIndices.get(cell.recon);
+                if (reconIndex == null) {
+                    reconIndex = reconIndices.size();
+                    reconIndices.put(cell.recon, reconIndex);
+                    recons.put(reconIndex, cell.recon);
+                }
+                ColumnarRowFormat.writeVarInt(record, reconIndex);
+            }
+        }
+    }
+
+    private StoredRow decode(Spill spill, long address, Map<Integer, Recon> recons) {
+        ByteBuffer in = spill.read(address);
+        int flags = in.get();
+        int cellCount = readVarInt(in);
+        StoredRow row = new StoredRow(cellCount, address);
+        row.flagged = (flags & FLAGGED) != 0;
+        row.starred = (flags & STARRED) != 0;
+        for (int c = 0; c < cellCount; c++) {
+            byte tag = in.get();
+            if (tag == ABSENT) {
+                row.cells.add(null);
+                continue;
+            }
+            Serializable value;
+            switch (tag & ~RECON_FLAG) {
+                case ColumnarRowFormat.TAG_NULL:
+                    value = null;
+                    break;
+                case ColumnarRowFormat.TAG_STRING:
+                    value = readString(in);
+                    break;
+                case ColumnarRowFormat.TAG_LONG:
+                    value = in.getLong();
+                    break;
+                case ColumnarRowFormat.TAG_INTEGER:
+                    value = in.getInt();
+                    break;
+                case ColumnarRowFormat.TAG_DOUBLE:
+                    value = in.getDouble();
+                    break;
+                case ColumnarRowFormat.TAG_BOOLEAN:
+                    value = in.get() != 0;
+                    break;
+                case ColumnarRowFormat.TAG_DATE: {
+                    long seconds = in.getLong();
+                    int nanos = in.getInt();
+                    ZoneOffset offset = ZoneOffset.ofTotalSeconds(in.getInt());
+                    value = OffsetDateTime.ofInstant(Instant.ofEpochSecond(seconds, nanos), offset);
+                    break;
+                }
+                case ColumnarRowFormat.TAG_LOCAL_DATE: {
+                    long seconds = in.getLong();
+                    value = LocalDateTime.ofEpochSecond(seconds, in.getInt(), ZoneOffset.UTC);
+                    break;
+                }
+                case ColumnarRowFormat.TAG_ERROR:
+                    value = new EvalError(readString(in));
+                    break;
+                case ColumnarRowFormat.TAG_JSON:
+                    try {
+                        value = ColumnarRowFormat.fromJson(readString(in), pool);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown cell type tag " + tag + " in row store");
+            }
+            Recon recon = (tag & RECON_FLAG) != 0 ? recons.get(readVarInt(in)) : null;
+            row.cells.add(new Cell(value, recon));
+        }
+        return row;
+    }
+
+    private static int readVarInt(ByteBuffer in) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[readVarInt(in)];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + bound);
+        }
+    }
+
+    /**
+     * A row materialized by the store, which notifies it before being modified once it has been attached to its index.
+     */
+    private class StoredRow extends Row {
+
+        int index;
+        long address;
+        int epoch;
+        boolean attached;
+
+        StoredRow(int cellCount, long address) {
+            super(cellCount);
+            this.address = address;
+        }
+
+        MappedRowStore store() {
+            return MappedRowStore.this;
+        }
+
+        // with the lock of the row's stripe, or the write lock, held
+        void attach(int index) {
+            this.index = index;
+            this.epoch = MappedRowStore.this.epoch;
+            this.attached = true;
+        }
+
+        @Override
+        protected void beforeModification() {
+            // rows being decoded are not known to anyone yet
+            if (attached) {
+                rowModified(this);
+                super.beforeModification();
+            }
+        }
+    }
+
+    /**
+     * Least-recently-used cache of the materialized rows of a stripe, which writes modified rows back to the spill file
+     * when evicting them. Accessed with its own lock held.
+     */
+    private class Stripe extends LinkedHashMap<Integer, CachedRow> {
+
+        private static final long serialVersionUID = 1L;
+
+        final int capacity;
+
+        Stripe(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, CachedRow> eldest) {
+            if (size() > capacity) {
+                if (eldest.getValue().isDirty()) {
+                    write(eldest.getKey(), eldest.getValue().row);
+                }
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * A materialized row, together with the state it had when it was materialized or last written, so that modified
+     * rows can be told apart from the others without re-encoding them.
+     */
+    private static class CachedRow {
+
+        final Row row;
+        final Cell[] cells;
+        final boolean flagged;
+        final boolean starred;
+
+        CachedRow(Row row) {
+            this.row = row;
+            this.cells = row.cells.toArray(new Cell[0]);
+            this.flagged = row.flagged;
+            this.starred = row.starred;
+        }
+
+        boolean isDirty() {
+            if (row.flagged != flagged || row.starred != starred || row.cells.size() != cells.length) {
+                return true;
+            }
+            for (int i = 0; i < cells.length; i++) {
+                if (row.cells.get(i) != cells[i]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Temporary file holding row records, mapped in segments which records never straddle.
+     */
+    private static class Spill {
+
+        final File file;
+        final FileChannel channel;
+        final int segmentSize;
+        // read without locking
+        final List<MappedByteBuffer> segments = new CopyOnWriteArrayList<>();
+        long mapped;
+        long written;
+        // open snapshots reading this file, and whether the store stopped using it (with the store's write lock held)
+        int pins;
+        boolean retired;
+
+        Spill(int segmentSize) throws IOException {
+            this.segmentSize = segmentSize;
+            file = File.createTempFile("openrefine-rows-", ".bin");
+            file.deleteOnExit();
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+
+        /**
+         * @return the address of the record: the index of its segment in the high 32 bits and its position within that
+         *         segment in the low 32 bits
+         */
+        long append(byte[] bytes) throws IOException {
+            MappedByteBuffer segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+            if (segment == null || segment.remaining() < bytes.length) {
+                int capacity = Math.max(segmentSize, bytes.length);
+                segment = channel.map(FileChannel.MapMode.READ_WRITE, mapped, capacity);
+                mapped += capacity;
+                segments.add(segment);
+            }
+            long address = ((long) (segments.size() - 1) << 32) | segment.position();
+            segment.put(bytes);
+            written += bytes.length;
+            return address;
+        }
+
+        ByteBuffer read(long address) {
+            ByteBuffer buffer = segments.get((int) (address >>> 32)).duplicate();
+            buffer.position((int) address);
+            return buffer;
+        }
+
+        void retire() {
+            retired = true;
+            if (pins == 0) {
+                close();
+            }
+        }
+
+        void release() {
+            pins--;
+            if (retired && pins == 0) {
+                close();
+            }
+        }
+
+        void close() {
+            segments.clear();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close row store {}", file.getAbsolutePath(), e);
+            }
+            if (!file.delete()) {
+                logger.debug("Row store {} will be deleted on exit", file.getAbsolutePath());
+            }
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.refine.history.History;
+import com.google.refine.history.HistoryEntry;
+import com.google.refine.model.Project;
+import com.google.refine.util.ParsingUtilities;
+import com.google.refine.util.Pool;
+
+/**
+ * Append-only log of the history steps taken on a project since its last full snapshot (data.zip). Each record holds
+ * the history entry metadata together with its serialized change, so that the journal can be replayed on top of the
+ * snapshot without relying on the change files of the history directory (which are deleted when entries are discarded).
+ * <p>
+ * The journal header stores the token of the snapshot it applies to: a journal left over from an older snapshot (for
+ * instance after a crash between writing a new snapshot and deleting the journal) is ignored.
+ */
+public class ProjectJournal {
+
+    final static Logger logger = LoggerFactory.getLogger("project_journal");
+
+    public static final String JOURNAL_FILE = "data.journal";
+
+    static final int MAGIC = 0x4F524A4C; // "ORJL"
+    static final int VERSION = 1;
+
+    private ProjectJournal() {
+    }
+
+    /**
+     * Appends the steps to the journal of the given project directory, creating it if needed, and forces them to disk.
+     *
+     * @param snapshotToken
+     *            the token of the snapshot the journal applies to
+     * @return the size of the journal after the append
+     */
+    public static long append(File dir, long snapshotToken, List<History.Step> steps) throws IOException {
+        File file = new File(dir, JOURNAL_FILE);
+        boolean exists = file.exists() && file.length() > 0;
+        if (exists && readToken(file) != snapshotToken) {
+            throw new IOException("Journal " + file + " does not belong to the current snapshot");
+        }
+        try (FileOutputStream fos = new FileOutputStream(file, true)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos));
+            if (!exists) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(snapshotToken);
+            }
+            for (History.Step step : steps) {
+                writeStep(out, step);
+            }
+            out.flush();
+            fos.getChannel().force(true);
+        }
+        return file.length();
+    }
+
+    private static void writeStep(DataOutputStream out, History.Step step) throws IOException {
+        Pool pool = new Pool();
+        StringWriter entry = new StringWriter();
+        ParsingUtilities.saveWriter.writeValue(entry, step.entry);
+        StringWriter change = new StringWriter();
+        History.writeOneChange(change, step.entry.getChange(), pool);
+        StringWriter poolWriter = new StringWriter();
+        pool.save(poolWriter);
+
+        out.writeBoolean(step.applied);
+        writeBytes(out, entry.toString());
+        writeBytes(out, poolWriter.toString());
+        writeBytes(out, change.toString());
+    }
+
+    /**
+     * Replays the journal of the given directory, if any, on top of a project freshly loaded from the snapshot with the
+     * given token. A truncated last record (from an interrupted append) is skipped.
+     *
+     * @return the number of steps replayed
+     */
+    public static int replay(File dir, long snapshotToken, Project project) throws IOException {
+        File file = new File(dir, JOURNAL_FILE);
+        if (!file.exists() || file.length() == 0) {
+            return 0;
+        }
+        int count = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a project journal: " + file);
+            }
+            int version = in.readInt();
+            if (version > VERSION) {
+                throw new IOException("Unsupported project journal version " + version);
+            }
+            if (in.readLong() != snapshotToken) {
+                logger.warn("Ignoring stale journal for project {}", project.id);
+                return 0;
+            }
+            while (true) {
+                History.Step step;
+                try {
+                    step = readStep(in, project);
+                } catch (EOFException e) {
+                    break;
+                }
+                project.history.replayStep(project, step);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static History.Step readStep(DataInputStream in, Project project) throws IOException {
+        boolean applied = in.readBoolean();
+        String entryJson;
+        byte[] poolBytes;
+        byte[] changeBytes;
+        try {
+            entryJson = new String(readBytes(in), StandardCharsets.UTF_8);
+            poolBytes = readBytes(in);
+            changeBytes = readBytes(in);
+        } catch (EOFException e) {
+            logger.warn("Skipping truncated record at the end of the journal of project {}", project.id);
+            throw e;
+        }
+
+        HistoryEntry entry = HistoryEntry.load(project, entryJson);
+        Pool pool = new Pool();
+        pool.load(new InputStreamReader(new ByteArrayInputStream(poolBytes), StandardCharsets.UTF_8));
+        try {
+            entry.setChange(History.readOneChange(new ByteArrayInputStream(changeBytes), pool));
+        } catch (Exception e) {
+            throw new IOException("Failed to read change of history entry " + entry.id + " from journal", e);
+        }
+        return new History.Step(applied, entry);
+    }
+
+    static long readToken(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            in.readInt();
+            in.readInt();
+            return in.readLong();
+        }
+    }
+
+    public static void delete(File dir) {
+        File file = new File(dir, JOURNAL_FILE);
+        if (file.exists() && !file.delete()) {
+            logger.warn("Failed to delete journal {}", file.getAbsolutePath());
+        }
+    }
+
+    private static void writeBytes(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
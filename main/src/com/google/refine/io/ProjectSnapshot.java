@@ -0,0 +1,231 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+import com.google.refine.model.RowList;
+import com.google.refine.util.Pool;
+
+/**
+ * Consistent copy of the state of a project, captured while the project is locked so that it can be serialized and
+ * written to disk afterwards without holding the lock.
+ * <p>
+ * The header (column model, history, overlay models) is serialized right away, as it is small. Rows are not copied when
+ * capturing: the project's row list is frozen (see {@link RowList#freeze()} and {@link MappedRowStore#snapshot()}), and
+ * rows kept on the heap, which changes modify in place, are only copied when a change first modifies them before they
+ * have been written (see {@link Row.ModificationListener}). A change modifying a row while it is being written waits
+ * for the current group of rows to be written.
+ * <p>
+ * The {@link #rows} must be read in order, at most {@link ColumnarRowFormat#ROW_GROUP_SIZE} at a time, and the snapshot
+ * closed once written. Only one snapshot of a project is open at a time.
+ */
+class ProjectSnapshot implements Closeable, Row.ModificationListener {
+
+    static private final Set<Long> s_open = new HashSet<>();
+
+    final long projectId;
+    final Instant time;
+    final Pool pool = new Pool();
+    final byte[] header;
+    final List<Row> rows;
+    final int stepCount;
+    final long captureMillis;
+
+    private final Project project;
+    private final List<Row> frozenRows;
+    private final int generation;
+    // copies of rows modified since the capture, before they were written
+    private final Map<Row, Row> originals = new IdentityHashMap<>();
+    // rows being written, which changes must not modify yet
+    private final Map<Row, Boolean> writing = new IdentityHashMap<>();
+    private int writingEnd;
+    private boolean closed;
+
+    private ProjectSnapshot(Project project) throws IOException {
+        long start = System.currentTimeMillis();
+        this.project = project;
+        projectId = project.id;
+        time = Instant.now();
+        stepCount = project.history.getUnsavedSteps().size();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        project.saveHeaderToOutputStream(out, pool);
+        header = out.toByteArray();
+
+        if (project.rows instanceof MappedRowStore) {
+            // records are never modified in place, there is nothing to watch
+            frozenRows = ((MappedRowStore) project.rows).snapshot();
+            generation = 0;
+            rows = frozenRows;
+        } else {
+            frozenRows = project.rows instanceof RowList ? ((RowList) project.rows).freeze() : new ArrayList<>(project.rows);
+            generation = Row.newGeneration();
+            Row.addModificationListener(this);
+            rows = new Rows();
+        }
+        captureMillis = System.currentTimeMillis() - start;
+    }
+
+    /**
+     * Captures a snapshot unless another one of the same project is open, for writers which can skip a capture rather
+     * than wait for a save to finish.
+     *
+     * @return the snapshot, or null if another snapshot of the project is open
+     */
+    static ProjectSnapshot tryCapture(Project project) throws IOException {
+        synchronized (s_open) {
+            if (!s_open.add(project.id)) {
+                return null;
+            }
+        }
+        return open(project);
+    }
+
+    static ProjectSnapshot capture(Project project) throws IOException {
+        // rows are marked with the generation of the snapshot writing them, which is only sound for one at a time
+        synchronized (s_open) {
+            while (s_open.contains(project.id)) {
+                try {
+                    s_open.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for the previous save of project " + project.id, e);
+                }
+            }
+            s_open.add(project.id);
+        }
+        return open(project);
+    }
+
+    static private ProjectSnapshot open(Project project) throws IOException {
+        try {
+            synchronized (project) {
+                return new ProjectSnapshot(project);
+            }
+        } catch (IOException | RuntimeException e) {
+            release(project.id);
+            throw e;
+        }
+    }
+
+    @Override
+    public void beforeModification(Row row) {
+        // changes hold the lock of the project they modify
+        if (!Thread.holdsLock(project)) {
+            return;
+        }
+        boolean interrupted = false;
+        synchronized (this) {
+            while (writing.containsKey(row)) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (!closed && row.getGeneration() < generation) {
+                originals.put(row, row.dup());
+                row.setGeneration(generation);
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    synchronized private Row getRow(int index) {
+        if (index >= writingEnd) {
+            // the previous group has been written
+            writing.clear();
+            notifyAll();
+            writingEnd = (index / ColumnarRowFormat.ROW_GROUP_SIZE + 1) * ColumnarRowFormat.ROW_GROUP_SIZE;
+        }
+        Row row = frozenRows.get(index);
+        Row original = originals.remove(row);
+        if (original != null) {
+            return original;
+        }
+        // later modifications need no copy
+        row.setGeneration(generation);
+        writing.put(row, Boolean.TRUE);
+        return row;
+    }
+
+    @Override
+    public void close() {
+        if (frozenRows instanceof MappedRowStore.Snapshot) {
+            ((MappedRowStore.Snapshot) frozenRows).close();
+        } else {
+            Row.removeModificationListener(this);
+            synchronized (this) {
+                closed = true;
+                originals.clear();
+                writing.clear();
+                notifyAll();
+            }
+        }
+        release(projectId);
+    }
+
+    static private void release(long projectId) {
+        synchronized (s_open) {
+            s_open.remove(projectId);
+            s_open.notifyAll();
+        }
+    }
+
+    /**
+     * The rows as they were when the snapshot was captured.
+     */
+    private class Rows extends AbstractList<Row> implements RandomAccess {
+
+        @Override
+        public Row get(int index) {
+            return getRow(index);
+        }
+
+        @Override
+        public int size() {
+            return frozenRows.size();
+        }
+    }
+}
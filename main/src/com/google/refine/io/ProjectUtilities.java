@@ -36,6 +36,17 @@ package com.google.refine.io;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 import java.util.zip.ZipOutputStream;
@@ -44,7 +55,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.refine.ProjectManager;
+import com.google.refine.history.History;
+import com.google.refine.model.CellValueDictionary;
 import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+import com.google.refine.model.RowList;
 import com.google.refine.util.Pool;
 
 public class ProjectUtilities {
@@ -54,60 +69,290 @@ public class ProjectUtilities {
     public static final String DATA_TEMP_ZIP = "data.temp.zip";
     public static final String DATA_OLD_ZIP = "data.old.zip";
 
-    synchronized public static void save(Project project) throws IOException {
-        synchronized (project) {
-            long id = project.id;
-            File dir = ((FileProjectManager) ProjectManager.singleton).getProjectDir(id);
+    /**
+     * Preference key selecting how project rows are stored: {@link #FORMAT_COLUMNAR} (the default) or
+     * {@link #FORMAT_JSON}, the legacy layout with one JSON line per row in data.txt. Both are always readable;
+     * projects in the legacy format are upgraded the first time they are saved with the columnar format selected.
+     */
+    public static final String STORAGE_FORMAT_PREFERENCE = "projects.storageFormat";
+    public static final String FORMAT_COLUMNAR = "columnar";
+    public static final String FORMAT_JSON = "json";
 
-            File tempFile = new File(dir, DATA_TEMP_ZIP);
-            try {
-                saveToFile(project, tempFile);
-            } catch (IOException e) {
-                logger.warn("Failed to save project {}", id, e);
-                try {
-                    tempFile.delete();
-                } catch (Exception e2) {
-                    // just ignore - file probably was never created.
-                }
-                throw e;
+    /**
+     * Preference key enabling incremental saves (true by default): when a project already has a full snapshot on disk,
+     * only the history steps taken since then are appended to its {@link ProjectJournal}.
+     */
+    public static final String INCREMENTAL_SAVE_PREFERENCE = "projects.incrementalSave";
+
+    /**
+     * Preference key for the journal size (in bytes) above which the project is compacted into a new full snapshot in
+     * the background.
+     */
+    public static final String JOURNAL_COMPACTION_SIZE_PREFERENCE = "projects.journalCompactionSize";
+    public static final long DEFAULT_JOURNAL_COMPACTION_SIZE = 64L * 1024 * 1024;
+
+    /**
+     * Preference key for the number of rows above which a project's rows are kept in a memory-mapped
+     * {@link MappedRowStore} rather than on the heap when it is loaded. Negative (the default) to always keep rows on
+     * the heap.
+     */
+    public static final String MAPPED_ROW_STORE_THRESHOLD_PREFERENCE = "projects.mappedRowStoreThreshold";
+
+    /**
+     * Preference key for the number of rows a {@link MappedRowStore} keeps materialized in memory.
+     */
+    public static final String MAPPED_ROW_STORE_CACHE_SIZE_PREFERENCE = "projects.mappedRowStoreCacheSize";
+    public static final int DEFAULT_MAPPED_ROW_STORE_CACHE_SIZE = 10000;
+
+    static final String SNAPSHOT_COMMENT_PREFIX = "snapshot=";
+    static final Random snapshotTokens = new Random();
+
+    static private final Set<Long> pendingCompactions = ConcurrentHashMap.newKeySet();
+
+    static private volatile Thread saverThread;
+    static private final ExecutorService saver = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "project-saver");
+        thread.setDaemon(true);
+        saverThread = thread;
+        return thread;
+    });
+
+    /**
+     * Saves the project, incrementally if possible. The state of the project is captured while it is locked, then
+     * serialized and written by the saver thread while the project remains available to other operations. Returns once
+     * the project is on disk.
+     */
+    public static void save(Project project) throws IOException {
+        runOnSaver(project, () -> {
+            saveNow(project, isIncrementalSaveEnabled());
+            return null;
+        });
+    }
+
+    /**
+     * Writes a new full snapshot of the project, replacing its data.zip and discarding its journal.
+     */
+    public static void saveFully(Project project) throws IOException {
+        runOnSaver(project, () -> {
+            saveNow(project, false);
+            return null;
+        });
+    }
+
+    private static void runOnSaver(Project project, Callable<Void> task) throws IOException {
+        if (Thread.currentThread() == saverThread || Thread.holdsLock(project)) {
+            // the saver would wait for the lock held by the caller
+            call(task);
+            return;
+        }
+        Future<Void> future = saver.submit(task);
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
             }
+            throw new IOException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while saving project " + project.id, e);
+        }
+    }
 
-            File file = new File(dir, DATA_ZIP);
-            File oldFile = new File(dir, DATA_OLD_ZIP);
+    private static void call(Callable<Void> task) throws IOException {
+        try {
+            task.call();
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
 
-            if (file.exists()) {
-                file.renameTo(oldFile);
+    private static void saveNow(Project project, boolean incremental) throws IOException {
+        File dir = ((FileProjectManager) ProjectManager.singleton).getProjectDir(project.id);
+        if (incremental && saveIncrementally(project, dir)) {
+            return;
+        }
+        writeSnapshot(project, ProjectSnapshot.capture(project), dir);
+    }
+
+    synchronized private static void writeSnapshot(Project project, ProjectSnapshot snapshot, File dir) throws IOException {
+        long id = project.id;
+        long start = System.currentTimeMillis();
+
+        File tempFile = new File(dir, DATA_TEMP_ZIP);
+        try {
+            saveToFile(snapshot, tempFile, getStorageFormat());
+        } catch (IOException e) {
+            logger.warn("Failed to save project {}", id, e);
+            try {
+                tempFile.delete();
+            } catch (Exception e2) {
+                // just ignore - file probably was never created.
             }
+            throw e;
+        }
+
+        File file = new File(dir, DATA_ZIP);
+        File oldFile = new File(dir, DATA_OLD_ZIP);
+
+        if (file.exists()) {
+            file.renameTo(oldFile);
+        }
+
+        tempFile.renameTo(file);
+        if (oldFile.exists()) {
+            oldFile.delete();
+        }
+        // the journal is tied to the previous snapshot's token, so it would be ignored anyway
+        ProjectJournal.delete(dir);
+        project.history.clearUnsavedSteps(snapshot.stepCount);
+
+        // changes made while writing are newer than the snapshot and still need saving
+        project.setLastSave(snapshot.time);
+
+        logger.info("Saved project '{}' (snapshot {} ms, write {} ms)",
+                id, snapshot.captureMillis, System.currentTimeMillis() - start);
+    }
 
-            tempFile.renameTo(file);
-            if (oldFile.exists()) {
-                oldFile.delete();
+    /**
+     * Appends the history steps taken since the last save to the project's journal, if it has a full snapshot to apply
+     * them to.
+     *
+     * @return false if a full save is needed instead
+     */
+    private static boolean saveIncrementally(Project project, File dir) {
+        long start = System.currentTimeMillis();
+        List<History.Step> steps;
+        Instant time;
+        synchronized (project) {
+            steps = project.history.getUnsavedSteps();
+            time = Instant.now();
+        }
+        for (History.Step step : steps) {
+            if (step.isCheckpointRestore()) {
+                return false;
             }
+        }
+        return appendToJournal(project, dir, steps, time, System.currentTimeMillis() - start);
+    }
+
+    synchronized private static boolean appendToJournal(Project project, File dir, List<History.Step> steps, Instant time,
+            long captureMillis) {
+        File file = new File(dir, DATA_ZIP);
+        long token = file.exists() ? readSnapshotToken(file) : 0;
+        if (token == 0) {
+            return false;
+        }
+
+        long start = System.currentTimeMillis();
+        long journalSize;
+        try {
+            journalSize = steps.isEmpty() ? 0 : ProjectJournal.append(dir, token, steps);
+        } catch (IOException e) {
+            logger.warn("Failed to append to the journal of project {}, saving it in full", project.id, e);
+            return false;
+        }
+        project.history.clearUnsavedSteps(steps.size());
+        project.setLastSave(time);
+        logger.info("Saved {} step(s) of project '{}' to its journal (snapshot {} ms, write {} ms)",
+                steps.size(), project.id, captureMillis, System.currentTimeMillis() - start);
+
+        if (journalSize > getJournalCompactionSize()) {
+            scheduleCompaction(project);
+        }
+        return true;
+    }
 
-            project.setLastSave();
+    private static void scheduleCompaction(Project project) {
+        if (!pendingCompactions.add(project.id)) {
+            return;
+        }
+        saver.submit(() -> {
+            try {
+                logger.info("Compacting journal of project '{}'", project.id);
+                saveNow(project, false);
+            } catch (IOException e) {
+                logger.warn("Failed to compact journal of project {}", project.id, e);
+            } finally {
+                pendingCompactions.remove(project.id);
+            }
+        });
+    }
 
-            logger.info("Saved project '{}'", id);
+    /**
+     * @return the token identifying the snapshot stored in the given data file, or 0 if it has none (legacy file)
+     */
+    static long readSnapshotToken(File file) {
+        try (ZipFile zipFile = new ZipFile(file)) {
+            String comment = zipFile.getComment();
+            if (comment != null && comment.startsWith(SNAPSHOT_COMMENT_PREFIX)) {
+                return Long.parseLong(comment.substring(SNAPSHOT_COMMENT_PREFIX.length()));
+            }
+        } catch (IOException | NumberFormatException e) {
+            logger.warn("Failed to read snapshot token of {}", file, e);
         }
+        return 0;
     }
 
     protected static void saveToFile(Project project, File file) throws IOException {
-        ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file));
+        saveToFile(project, file, getStorageFormat());
+    }
+
+    protected static void saveToFile(Project project, File file, String format) throws IOException {
+        saveToFile(ProjectSnapshot.capture(project), file, format);
+    }
+
+    private static void saveToFile(ProjectSnapshot snapshot, File file, String format) throws IOException {
         try {
-            Pool pool = new Pool();
+            writeToFile(snapshot, file, format);
+        } finally {
+            // lets changes modify the rows without copying them
+            snapshot.close();
+        }
+    }
+
+    private static void writeToFile(ProjectSnapshot snapshot, File file, String format) throws IOException {
+        boolean columnar = FORMAT_COLUMNAR.equals(format);
+        FileOutputStream fos = new FileOutputStream(file);
+        ZipOutputStream out = new ZipOutputStream(fos);
+        try {
+            Pool pool = snapshot.pool;
+            long token;
+            do {
+                token = snapshotTokens.nextLong();
+            } while (token == 0);
+            out.setComment(SNAPSHOT_COMMENT_PREFIX + token);
 
             out.putNextEntry(new ZipEntry("data.txt"));
             try {
-                project.saveToOutputStream(out, pool);
+                out.write(snapshot.header);
+                Project.saveRowsToOutputStream(out, pool, columnar ? null : snapshot.rows);
             } finally {
                 out.closeEntry();
             }
 
+            if (columnar) {
+                out.putNextEntry(new ZipEntry(ColumnarRowFormat.ENTRY_NAME));
+                try {
+                    ColumnarRowFormat.save(snapshot.rows, out, pool);
+                } finally {
+                    out.closeEntry();
+                }
+            }
+
             out.putNextEntry(new ZipEntry("pool.txt"));
             try {
                 pool.save(out);
             } finally {
                 out.closeEntry();
             }
+            out.finish();
+            fos.getChannel().force(true);
         } finally {
             out.close();
         }
@@ -139,12 +384,106 @@ public class ProjectUtilities {
                 pool.load(zipFile.getInputStream(poolEntry));
             } // else, it's a legacy project file
 
-            return Project.loadFromInputStream(
-                    zipFile.getInputStream(zipFile.getEntry("data.txt")),
-                    id,
-                    pool);
+            List<Row> rows = null;
+            CellValueDictionary dictionary = new CellValueDictionary();
+            ZipEntry rowsEntry = zipFile.getEntry(ColumnarRowFormat.ENTRY_NAME);
+            if (rowsEntry != null) {
+                long start = System.currentTimeMillis();
+                rows = loadRows(zipFile, rowsEntry, pool, dictionary, id);
+                long elapsed = Math.max(1, System.currentTimeMillis() - start);
+                logger.info("Decoded {} rows of project {} in {} ms ({} rows/sec, {} KB/sec)",
+                        rows.size(), id, elapsed, rows.size() * 1000L / elapsed, rowsEntry.getSize() / elapsed);
+            } else if (FORMAT_COLUMNAR.equals(getStorageFormat())) {
+                logger.info("Project {} uses the legacy row format, it will be converted on its next save", id);
+            }
+
+            Project project;
+            try {
+                project = Project.loadFromInputStream(
+                        zipFile.getInputStream(zipFile.getEntry("data.txt")),
+                        id,
+                        pool,
+                        rows);
+            } catch (IOException | RuntimeException e) {
+                if (rows instanceof MappedRowStore) {
+                    ((MappedRowStore) rows).close();
+                }
+                throw e;
+            }
+            if (rows != null) {
+                project.valueDictionary = dictionary;
+            }
+            logger.info("Value dictionary of project {}: {}", id, project.valueDictionary.describe(project.columnModel));
+
+            long token = readSnapshotToken(file);
+            if (token != 0) {
+                int replayed = ProjectJournal.replay(file.getParentFile(), token, project);
+                if (replayed > 0) {
+                    project.update();
+                    logger.info("Replayed {} journaled step(s) of project {}", replayed, id);
+                }
+            }
+            return project;
         } finally {
             zipFile.close();
         }
     }
+
+    private static List<Row> loadRows(ZipFile zipFile, ZipEntry rowsEntry, Pool pool, CellValueDictionary dictionary, long id)
+            throws IOException {
+        long threshold = getLongPreference(MAPPED_ROW_STORE_THRESHOLD_PREFERENCE, -1);
+        if (threshold < 0) {
+            return loadRows(zipFile, rowsEntry, pool, dictionary);
+        }
+        int rowCount;
+        try (InputStream in = zipFile.getInputStream(rowsEntry)) {
+            rowCount = ColumnarRowFormat.readRowCount(in);
+        }
+        if (rowCount <= threshold) {
+            return loadRows(zipFile, rowsEntry, pool, dictionary);
+        }
+
+        int cacheSize = (int) getLongPreference(MAPPED_ROW_STORE_CACHE_SIZE_PREFERENCE, DEFAULT_MAPPED_ROW_STORE_CACHE_SIZE);
+        MappedRowStore store = new MappedRowStore(cacheSize);
+        try {
+            // rows are materialized afresh on each access, so interning their values would not save anything
+            ColumnarRowFormat.load(zipFile.getInputStream(rowsEntry), pool, store, null);
+        } catch (IOException | RuntimeException e) {
+            store.close();
+            throw e;
+        }
+        logger.info("Keeping the {} rows of project {} in a memory-mapped row store", rowCount, id);
+        return store;
+    }
+
+    private static List<Row> loadRows(ZipFile zipFile, ZipEntry rowsEntry, Pool pool, CellValueDictionary dictionary)
+            throws IOException {
+        List<Row> rows = new RowList();
+        ColumnarRowFormat.load(zipFile.getInputStream(rowsEntry), pool, rows, dictionary);
+        return rows;
+    }
+
+    static boolean isIncrementalSaveEnabled() {
+        return ProjectManager.singleton == null
+                || ProjectManager.singleton.getPreferenceStore().getBoolean(INCREMENTAL_SAVE_PREFERENCE, true);
+    }
+
+    static long getJournalCompactionSize() {
+        return getLongPreference(JOURNAL_COMPACTION_SIZE_PREFERENCE, DEFAULT_JOURNAL_COMPACTION_SIZE);
+    }
+
+    static long getLongPreference(String key, long defaultValue) {
+        return ProjectManager.singleton == null ? defaultValue
+                : ProjectManager.singleton.getPreferenceStore().getLong(key, defaultValue);
+    }
+
+    static String getStorageFormat() {
+        if (ProjectManager.singleton != null) {
+            Object format = ProjectManager.singleton.getPreferenceStore().get(STORAGE_FORMAT_PREFERENCE);
+            if (FORMAT_JSON.equals(format)) {
+                return FORMAT_JSON;
+            }
+        }
+        return FORMAT_COLUMNAR;
+    }
 }
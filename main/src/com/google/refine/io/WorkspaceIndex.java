@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.io;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.refine.ProjectMetadata;
+import com.google.refine.util.ParsingUtilities;
+
+/**
+ * A compact summary of the projects of a workspace, saved next to workspace.json so that the workspace can start, and
+ * list its projects, without reading the metadata file of every project. Each entry holds the name and tags of a
+ * project and its metadata as shown in the project list.
+ * <p>
+ * Each entry records the modification time of the project's metadata file when the entry was written. An entry is
+ * only trusted if that file has not been touched since; otherwise the metadata is loaded from disk as before.
+ */
+public final class WorkspaceIndex {
+
+    public static final String FILE_NAME = "workspace.index.json";
+    static final String TEMP_FILE_NAME = "workspace.index.temp.json";
+
+    final static Logger logger = LoggerFactory.getLogger("WorkspaceIndex");
+
+    private WorkspaceIndex() {
+    }
+
+    public static class Entry {
+
+        @JsonProperty("id")
+        long id;
+        @JsonProperty("name")
+        String name;
+        @JsonProperty("tags")
+        String[] tags;
+        // the metadata as serialized for the project list, without the fields only saved to disk
+        @JsonProperty("listing")
+        ObjectNode listing;
+        @JsonProperty("metadataModified")
+        long metadataModified;
+
+        // for deserialization
+        Entry() {
+        }
+
+        Entry(long id, ProjectMetadata metadata, File metadataFile) throws IOException {
+            this.id = id;
+            this.name = metadata.getName();
+            this.tags = metadata.getTags();
+            this.listing = (ObjectNode) ParsingUtilities.mapper.readTree(ParsingUtilities.defaultWriter.writeValueAsBytes(metadata));
+            this.metadataModified = metadataFile.lastModified();
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String[] getTags() {
+            return tags;
+        }
+
+        /**
+         * @return the metadata of the project as serialized for the project list
+         */
+        public ObjectNode getListing() {
+            return listing;
+        }
+
+        /**
+         * @return true if the metadata file in the given project directory is the one this entry was built from
+         */
+        boolean isCurrent(File projectDir) {
+            File metadataFile = new File(projectDir, ProjectMetadata.DEFAULT_FILE_NAME);
+            // entries written before listings were indexed are rebuilt
+            return listing != null && metadataModified != 0L && metadataFile.lastModified() == metadataModified;
+        }
+
+        @Override
+        public String toString() {
+            return "WorkspaceIndex.Entry[" + id + ", " + name + ", " + Arrays.toString(tags) + "]";
+        }
+    }
+
+    /**
+     * Reads the index of a workspace.
+     *
+     * @return the entries by project id, empty if the index is missing or can't be read
+     */
+    static Map<Long, Entry> load(File workspaceDir) {
+        Map<Long, Entry> entries = new HashMap<>();
+        File file = new File(workspaceDir, FILE_NAME);
+        if (!file.exists()) {
+            return entries;
+        }
+        try {
+            Entry[] read = ParsingUtilities.mapper.readValue(file, new TypeReference<Entry[]>() {
+            });
+            for (Entry entry : read) {
+                if (entry != null && entry.name != null) {
+                    entries.put(entry.id, entry);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to read workspace index {}, project metadata will be loaded from disk", file, e);
+            entries.clear();
+        }
+        return entries;
+    }
+
+    /**
+     * Writes the index of a workspace, to a temporary file first which is then renamed.
+     */
+    static void save(File workspaceDir, Collection<Entry> entries) throws IOException {
+        File tempFile = new File(workspaceDir, TEMP_FILE_NAME);
+        try (OutputStream stream = new FileOutputStream(tempFile)) {
+            ParsingUtilities.mapper.writeValue(stream, entries);
+        }
+        File file = new File(workspaceDir, FILE_NAME);
+        if (file.exists() && !file.delete()) {
+            logger.warn("Failed to delete previous workspace index {}", file.getAbsolutePath());
+        }
+        if (!tempFile.renameTo(file)) {
+            throw new IOException("Failed to rename workspace index to " + file.getAbsolutePath());
+        }
+    }
+}
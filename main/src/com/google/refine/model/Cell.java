@@ -167,8 +167,9 @@ public class Cell implements HasFields {
     static public Cell loadStreaming(String s, Pool pool) throws Exception {
         InjectableValues injectableValues = new InjectableValues.Std()
                 .addValue("pool", pool);
-        return ParsingUtilities.mapper.setInjectableValues(injectableValues)
-                .readValue(s, Cell.class);
+        return ParsingUtilities.mapper.readerFor(Cell.class)
+                .with(injectableValues)
+                .readValue(s);
     }
 
     @JsonCreator
@@ -0,0 +1,226 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.refine.ProjectManager;
+
+/**
+ * Per-project dictionary of the string cell values of each column, so that equal strings share a single instance
+ * instead of one copy per cell. Values are interned when rows are imported or loaded and when changes create new cells.
+ * <p>
+ * A column whose values are mostly distinct gains nothing from the dictionary, so its dictionary is dropped once the
+ * ratio of distinct values to interned values exceeds {@link #MAX_DISTINCT_RATIO_PREFERENCE} (0.5 by default), and
+ * its values are no longer interned. The dictionary can be turned off altogether with {@link #ENABLED_PREFERENCE}.
+ * The dictionaries of removed columns are released when the project is updated.
+ * <p>
+ * Thread-safe, so that rows can be interned by parallel decoders.
+ */
+public class CellValueDictionary {
+
+    public static final String ENABLED_PREFERENCE = "projects.valueDictionary";
+    public static final String MAX_DISTINCT_RATIO_PREFERENCE = "projects.valueDictionaryMaxDistinctRatio";
+    static final double DEFAULT_MAX_DISTINCT_RATIO = 0.5;
+
+    /**
+     * Number of values a column must have interned before its cardinality is judged.
+     */
+    static final int MIN_SAMPLE = 1000;
+
+    /**
+     * Approximate heap footprint of a String beyond its characters (object header, fields and array header).
+     */
+    static final int STRING_OVERHEAD = 40;
+
+    private final boolean enabled;
+    private final double maxDistinctRatio;
+    private final Map<Integer, ColumnDictionary> columns = new ConcurrentHashMap<>();
+
+    public CellValueDictionary() {
+        this(getEnabledPreference(), getMaxDistinctRatioPreference());
+    }
+
+    public CellValueDictionary(boolean enabled, double maxDistinctRatio) {
+        this.enabled = enabled;
+        this.maxDistinctRatio = maxDistinctRatio;
+    }
+
+    /**
+     * Returns the shared instance equal to the given value if it is a string, or the value itself.
+     */
+    public Serializable intern(int cellIndex, Serializable value) {
+        if (!enabled || !(value instanceof String)) {
+            return value;
+        }
+        return columns.computeIfAbsent(cellIndex, i -> new ColumnDictionary()).intern((String) value);
+    }
+
+    /**
+     * Returns a cell equivalent to the given one whose value is the shared instance, which is the given cell itself if
+     * its value already was.
+     */
+    public Cell intern(int cellIndex, Cell cell) {
+        if (cell == null) {
+            return null;
+        }
+        Serializable value = intern(cellIndex, cell.value);
+        return value == cell.value ? cell : new Cell(value, cell.recon);
+    }
+
+    /**
+     * Interns the values of all the cells of a row, in place.
+     */
+    public void internRow(Row row) {
+        if (!enabled) {
+            return;
+        }
+        for (int i = 0; i < row.cells.size(); i++) {
+            Cell cell = row.cells.get(i);
+            Cell interned = intern(i, cell);
+            if (interned != cell) {
+                row.cells.set(i, interned);
+            }
+        }
+    }
+
+    /**
+     * Releases the dictionaries of the columns which are no longer in the given model, such as removed columns. They
+     * are created anew if the columns come back, for instance when their removal is undone.
+     */
+    public void releaseRemovedColumns(ColumnModel columnModel) {
+        if (columns.isEmpty()) {
+            return;
+        }
+        Set<Integer> cellIndices = new HashSet<>();
+        for (Column column : columnModel.columns) {
+            cellIndices.add(column.getCellIndex());
+        }
+        columns.keySet().retainAll(cellIndices);
+    }
+
+    /**
+     * Stops interning the values of the given column and releases its dictionary.
+     */
+    public void disable(int cellIndex) {
+        columns.computeIfAbsent(cellIndex, i -> new ColumnDictionary()).disable();
+    }
+
+    public boolean isEnabled(int cellIndex) {
+        if (!enabled) {
+            return false;
+        }
+        ColumnDictionary column = columns.get(cellIndex);
+        return column == null || !column.disabled;
+    }
+
+    /**
+     * @return the number of distinct values held for the column
+     */
+    public int getDistinctCount(int cellIndex) {
+        ColumnDictionary column = columns.get(cellIndex);
+        return column == null ? 0 : column.values.size();
+    }
+
+    /**
+     * @return an estimate of the heap saved in the column by sharing values, in bytes
+     */
+    public long getSavedBytes(int cellIndex) {
+        ColumnDictionary column = columns.get(cellIndex);
+        return column == null ? 0 : column.savedBytes.sum();
+    }
+
+    /**
+     * Describes the memory saved in each column of the given model, for logging.
+     */
+    public String describe(ColumnModel columnModel) {
+        long total = 0;
+        List<String> details = new ArrayList<>();
+        for (Column column : columnModel.columns) {
+            ColumnDictionary dictionary = columns.get(column.getCellIndex());
+            if (dictionary == null) {
+                continue;
+            }
+            long saved = dictionary.savedBytes.sum();
+            total += saved;
+            if (dictionary.disabled) {
+                details.add(column.getName() + " (disabled, high cardinality)");
+            } else {
+                details.add(column.getName() + " ~" + (saved / 1024) + " KB over " + dictionary.values.size() + " distinct values");
+            }
+        }
+        return "~" + (total / 1024) + " KB saved" + (details.isEmpty() ? "" : ": " + String.join(", ", details));
+    }
+
+    private class ColumnDictionary {
+
+        final Map<String, String> values = new ConcurrentHashMap<>();
+        final LongAdder interned = new LongAdder();
+        final LongAdder savedBytes = new LongAdder();
+        volatile boolean disabled;
+
+        String intern(String value) {
+            if (disabled) {
+                return value;
+            }
+            interned.increment();
+            String shared = values.putIfAbsent(value, value);
+            if (shared != null) {
+                savedBytes.add(STRING_OVERHEAD + value.length());
+                return shared;
+            }
+            long count = interned.sum();
+            if (count >= MIN_SAMPLE && values.size() > count * maxDistinctRatio) {
+                disable();
+            }
+            return value;
+        }
+
+        void disable() {
+            disabled = true;
+            values.clear();
+        }
+    }
+
+    static private boolean getEnabledPreference() {
+        return ProjectManager.singleton == null ? true
+                : ProjectManager.singleton.getPreferenceStore().getBoolean(ENABLED_PREFERENCE, true);
+    }
+
+    static private double getMaxDistinctRatioPreference() {
+        return ProjectManager.singleton == null ? DEFAULT_MAX_DISTINCT_RATIO
+                : ProjectManager.singleton.getPreferenceStore().getDouble(MAX_DISTINCT_RATIO_PREFERENCE, DEFAULT_MAX_DISTINCT_RATIO);
+    }
+}
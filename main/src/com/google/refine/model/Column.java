@@ -35,7 +35,7 @@ package com.google.refine.model;
 
 import java.io.IOException;
 import java.io.Writer;
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.Map;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
@@ -139,10 +139,17 @@ public class Column {
     }
 
     public void setPrecompute(String key, Object value) {
-        if (_precomputes == null) {
-            _precomputes = new HashMap<String, Object>();
+        synchronized (this) {
+            if (_precomputes == null) {
+                // precomputes can be read and written by concurrent requests
+                _precomputes = new ConcurrentHashMap<String, Object>();
+            }
+        }
+        if (value == null) {
+            _precomputes.remove(key);
+        } else {
+            _precomputes.put(key, value);
         }
-        _precomputes.put(key, value);
     }
 
     public void save(Writer writer) {
@@ -33,6 +33,7 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.model;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -58,6 +59,7 @@ import com.google.refine.ProjectMetadata;
 import com.google.refine.RefineServlet;
 import com.google.refine.history.History;
 import com.google.refine.process.ProcessManager;
+import com.google.refine.util.OrderedBatchDecoder;
 import com.google.refine.util.ParsingUtilities;
 import com.google.refine.util.Pool;
 
@@ -66,17 +68,23 @@ public class Project {
     final static protected Map<String, Class<? extends OverlayModel>> s_overlayModelClasses = new HashMap<String, Class<? extends OverlayModel>>();
 
     final public long id;
-    final public List<Row> rows = new ArrayList<>();
+    final public List<Row> rows;
     final public ColumnModel columnModel = new ColumnModel();
     final public RecordModel recordModel = new RecordModel();
     final public Map<String, OverlayModel> overlayModels = new HashMap<String, OverlayModel>();
     final public History history;
 
     transient public ProcessManager processManager = new ProcessManager();
-    transient private Instant _lastSave = Instant.now();
+    transient public CellValueDictionary valueDictionary = new CellValueDictionary();
+    transient private volatile Instant _lastSave = Instant.now();
 
     final static Logger logger = LoggerFactory.getLogger(Project.class);
 
+    /**
+     * Number of row lines decoded together by a worker thread when loading a project.
+     */
+    static final int ROW_BATCH_SIZE = 1024;
+
     static public long generateID() {
         return System.currentTimeMillis() + Math.round(Math.random() * 1000000000000L);
     }
@@ -95,10 +103,58 @@ public class Project {
      *            long ID to be assigned the new project
      */
     protected Project(long id) {
+        this(id, new RowList());
+    }
+
+    /**
+     * Create a project with the given ID, backed by the given list of rows.
+     *
+     * @param id
+     *            long ID to be assigned the new project
+     * @param rows
+     *            the list the project reads and stores its rows in
+     */
+    protected Project(long id, List<Row> rows) {
         this.id = id;
+        this.rows = rows;
         this.history = new History(this);
     }
 
+    /**
+     * Reads the given number of row lines, decoding them in batches on worker threads while this thread keeps reading
+     * (and inflating) the input. Rows are appended in their original order.
+     */
+    static private void loadRows(LineNumberReader reader, int count, Pool pool, List<Row> rows, CellValueDictionary dictionary)
+            throws IOException {
+        OrderedBatchDecoder<Row> decoder = new OrderedBatchDecoder<>(rows);
+        try {
+            for (int read = 0; read < count;) {
+                List<String> lines = new ArrayList<>(Math.min(ROW_BATCH_SIZE, count - read));
+                String line;
+                while (read < count && lines.size() < ROW_BATCH_SIZE && (line = reader.readLine()) != null) {
+                    lines.add(line);
+                    read++;
+                }
+                if (lines.isEmpty()) {
+                    break;
+                }
+                decoder.submit(() -> {
+                    List<Row> batch = new ArrayList<>(lines.size());
+                    for (String l : lines) {
+                        Row row = Row.load(l, pool);
+                        dictionary.internRow(row);
+                        batch.add(row);
+                    }
+                    return batch;
+                });
+            }
+            decoder.finish();
+        } catch (IOException | RuntimeException e) {
+            decoder.cancel();
+            throw e;
+        }
+    }
+
     static public void registerOverlayModel(String modelName, Class<? extends OverlayModel> klass) {
         s_overlayModelClasses.put(modelName, klass);
     }
@@ -115,6 +171,13 @@ public class Project {
             }
         }
         ProjectManager.singleton.getLookupCacheManager().flushLookupsInvolvingProject(this.id);
+        if (rows instanceof Closeable) {
+            try {
+                ((Closeable) rows).close();
+            } catch (IOException e) {
+                logger.warn("Error releasing the row storage of project " + id, e);
+            }
+        }
         // The rest of the project should get garbage collected when we return.
     }
 
@@ -129,11 +192,40 @@ public class Project {
         this._lastSave = Instant.now();
     }
 
+    /**
+     * Sets the lastSave time to the time at which the saved state of the project was captured
+     */
+    public void setLastSave(Instant time) {
+        this._lastSave = time;
+    }
+
     public ProjectMetadata getMetadata() {
         return ProjectManager.singleton.getProjectMetadata(id);
     }
 
     public void saveToOutputStream(OutputStream out, Pool pool) throws IOException {
+        saveToOutputStream(out, pool, true);
+    }
+
+    /**
+     * Saves the project header (column model, history, overlay models) and optionally its rows.
+     *
+     * @param includeRows
+     *            false if the rows are stored separately, in which case a {@code rowStore} marker is written instead of
+     *            the rows and the rows must be supplied back when loading.
+     */
+    public void saveToOutputStream(OutputStream out, Pool pool, boolean includeRows) throws IOException {
+        saveHeaderToOutputStream(out, pool);
+        saveRowsToOutputStream(out, pool, includeRows ? rows : null);
+    }
+
+    /**
+     * Saves the project header (column model, history, overlay models), which must be followed by
+     * {@link #saveRowsToOutputStream(OutputStream, Pool, List)} to form a complete project file. Splitting the two lets
+     * a consistent header be written while the project is locked and the (possibly large) rows be written from a copy
+     * afterwards.
+     */
+    public void saveHeaderToOutputStream(OutputStream out, Pool pool) throws IOException {
         for (OverlayModel overlayModel : overlayModels.values()) {
             try {
                 overlayModel.onBeforeSave(this);
@@ -144,11 +236,7 @@ public class Project {
 
         Writer writer = new OutputStreamWriter(out, "UTF-8");
         try {
-            Properties options = new Properties();
-            options.setProperty("mode", "save");
-            options.put("pool", pool);
-
-            saveToWriter(writer, options);
+            saveHeaderToWriter(writer, saveOptions(pool));
         } finally {
             writer.flush();
         }
@@ -162,7 +250,30 @@ public class Project {
         }
     }
 
-    protected void saveToWriter(Writer writer, Properties options) throws IOException {
+    /**
+     * Saves the rows section of a project file.
+     *
+     * @param rows
+     *            the rows to write, or null if the rows are stored separately, in which case a {@code rowStore} marker
+     *            is written instead and the rows must be supplied back when loading.
+     */
+    static public void saveRowsToOutputStream(OutputStream out, Pool pool, List<Row> rows) throws IOException {
+        Writer writer = new OutputStreamWriter(out, "UTF-8");
+        try {
+            saveRowsToWriter(writer, rows, saveOptions(pool));
+        } finally {
+            writer.flush();
+        }
+    }
+
+    static private Properties saveOptions(Pool pool) {
+        Properties options = new Properties();
+        options.setProperty("mode", "save");
+        options.put("pool", pool);
+        return options;
+    }
+
+    protected void saveHeaderToWriter(Writer writer, Properties options) throws IOException {
         writer.write(RefineServlet.VERSION);
         writer.write('\n');
 
@@ -171,6 +282,10 @@ public class Project {
         writer.write("history=\n");
         history.save(writer, options);
 
+        saveOverlayModelsToWriter(writer);
+    }
+
+    protected void saveOverlayModelsToWriter(Writer writer) throws IOException {
         for (String modelName : overlayModels.keySet()) {
             writer.write("overlayModel:");
             writer.write(modelName);
@@ -179,6 +294,76 @@ public class Project {
             ParsingUtilities.saveWriter.writeValue(writer, overlayModels.get(modelName));
             writer.write('\n');
         }
+    }
+
+    /**
+     * Saves the column model and overlay models which, together with the rows, make up the state recorded by a history
+     * checkpoint. The caller must hold the project lock.
+     */
+    public void saveStateToOutputStream(OutputStream out, Pool pool) throws IOException {
+        Writer writer = new OutputStreamWriter(out, "UTF-8");
+        try {
+            writer.write("columnModel=\n");
+            columnModel.save(writer, saveOptions(pool));
+            saveOverlayModelsToWriter(writer);
+        } finally {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Replaces the rows, the column model and the overlay models with the given rows and the models saved by
+     * {@link #saveStateToOutputStream(OutputStream, Pool)}. The models are read before anything is replaced, so the
+     * project is left unchanged if they can't be. The rows are replaced in place, so that they stay in the same row
+     * store. The caller must hold the project lock.
+     */
+    public void restoreState(InputStream in, List<Row> newRows) throws IOException {
+        LineNumberReader reader = new LineNumberReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        ColumnModel newColumnModel = new ColumnModel();
+        Map<String, OverlayModel> newOverlayModels = new HashMap<>();
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            int equal = line.indexOf('=');
+            String field = line.substring(0, equal);
+            String value = line.substring(equal + 1);
+
+            if ("columnModel".equals(field)) {
+                newColumnModel.load(reader);
+            } else if (field.startsWith("overlayModel:")) {
+                String modelName = field.substring("overlayModel:".length());
+                if (s_overlayModelClasses.containsKey(modelName)) {
+                    try {
+                        newOverlayModels.put(modelName, ParsingUtilities.mapper.readValue(value, s_overlayModelClasses.get(modelName)));
+                    } catch (IOException e) {
+                        logger.error("Failed to load overlay model " + modelName);
+                    }
+                }
+            }
+        }
+
+        rows.clear();
+        rows.addAll(newRows);
+        synchronized (columnModel) {
+            columnModel.columns.clear();
+            columnModel.columns.addAll(newColumnModel.columns);
+            columnModel.columnGroups.clear();
+            columnModel.columnGroups.addAll(newColumnModel.columnGroups);
+            columnModel.setMaxCellIndex(newColumnModel.getMaxCellIndex());
+            columnModel.setKeyColumnIndex(newColumnModel.getKeyColumnIndex());
+        }
+        overlayModels.clear();
+        overlayModels.putAll(newOverlayModels);
+
+        ProjectManager.singleton.getLookupCacheManager().flushLookupsInvolvingProject(id);
+        update();
+    }
+
+    static protected void saveRowsToWriter(Writer writer, List<Row> rows, Properties options) throws IOException {
+        if (rows == null) {
+            writer.write("rowStore=external\n");
+            return;
+        }
 
         writer.write("rowCount=");
         writer.write(Integer.toString(rows.size()));
@@ -190,19 +375,31 @@ public class Project {
     }
 
     static public Project loadFromInputStream(InputStream is, long id, Pool pool) throws IOException {
-        return loadFromReader(new LineNumberReader(new InputStreamReader(is, StandardCharsets.UTF_8)), id, pool);
+        return loadFromInputStream(is, id, pool, null);
+    }
+
+    /**
+     * Loads a project whose rows may have been stored outside of the main data stream.
+     *
+     * @param externalRows
+     *            the rows to use if the stream contains a {@code rowStore} marker instead of inline rows, or null. The
+     *            list is adopted as the storage of the project's rows.
+     */
+    static public Project loadFromInputStream(InputStream is, long id, Pool pool, List<Row> externalRows) throws IOException {
+        return loadFromReader(new LineNumberReader(new InputStreamReader(is, StandardCharsets.UTF_8)), id, pool, externalRows);
     }
 
     static private Project loadFromReader(
             LineNumberReader reader,
             long id,
-            Pool pool) throws IOException {
+            Pool pool,
+            List<Row> externalRows) throws IOException {
         long start = System.currentTimeMillis();
 
         // version of Refine which wrote the file
         /* String version = */ reader.readLine();
 
-        Project project = new Project(id);
+        Project project = externalRows != null ? new Project(id, externalRows) : new Project(id);
         int maxCellCount = 0;
 
         ObjectMapper mapper = ParsingUtilities.mapper.copy();
@@ -227,13 +424,16 @@ public class Project {
             } else if ("rowCount".equals(field)) {
                 int count = Integer.parseInt(value);
 
-                for (int i = 0; i < count; i++) {
-                    line = reader.readLine();
-                    if (line != null) {
-                        Row row = Row.load(line, pool);
-                        project.rows.add(row);
-                        maxCellCount = Math.max(maxCellCount, row.cells.size());
-                    }
+                loadRows(reader, count, pool, project.rows, project.valueDictionary);
+                for (Row row : project.rows) {
+                    maxCellCount = Math.max(maxCellCount, row.cells.size());
+                }
+            } else if ("rowStore".equals(field)) {
+                if (externalRows == null) {
+                    throw new IOException("Project " + id + " stores its rows in '" + value + "' but none were supplied");
+                }
+                for (Row row : externalRows) {
+                    maxCellCount = Math.max(maxCellCount, row.cells.size());
                 }
             } else if (field.startsWith("overlayModel:")) {
                 String modelName = field.substring("overlayModel:".length());
@@ -253,8 +453,10 @@ public class Project {
 
         project.columnModel.setMaxCellIndex(maxCellCount - 1);
 
+        long elapsed = Math.max(1, System.currentTimeMillis() - start);
         logger.info(
-                "Loaded project {} from disk in {} sec(s)", id, Long.toString((System.currentTimeMillis() - start) / 1000));
+                "Loaded project {} from disk in {} ms ({} rows, {} rows/sec)",
+                id, elapsed, project.rows.size(), project.rows.size() * 1000L / elapsed);
 
         project.update();
 
@@ -263,6 +465,7 @@ public class Project {
 
     public void update() {
         columnModel.update();
+        valueDictionary.releaseRemovedColumns(columnModel);
         recordModel.update(this);
         // Old projects may have a row count of 0, but we don't want the act of filling this in to change modified time.
         if (getMetadata() != null) {
@@ -35,6 +35,7 @@ package com.google.refine.model;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
@@ -78,37 +79,111 @@ public class RecordModel {
         }
     }
 
-    protected List<RowDependency> _rowDependencies;
-    protected List<Record> _records;
+    /**
+     * The index of the first row of each record, followed by the number of rows.
+     */
+    protected int[] _recordStarts;
+    /**
+     * The index of the record containing each row.
+     */
+    protected int[] _rowRecords;
+    /**
+     * The cells each row depends on, or null for rows which start a record.
+     */
+    protected CellDependency[][] _cellDependencies;
 
     public RowDependency getRowDependency(int rowIndex) {
-        return _rowDependencies != null && rowIndex >= 0 && rowIndex < _rowDependencies.size() ? _rowDependencies.get(rowIndex) : null;
+        if (_rowRecords == null || rowIndex < 0 || rowIndex >= _rowRecords.length) {
+            return null;
+        }
+        RowDependency rowDependency = new RowDependency();
+        CellDependency[] cellDependencies = _cellDependencies[rowIndex];
+        if (cellDependencies != null) {
+            rowDependency.recordIndex = -1;
+            rowDependency.cellDependencies = cellDependencies;
+            rowDependency.contextRows = new ArrayList<Integer>();
+            for (CellDependency cd : cellDependencies) {
+                if (cd != null) {
+                    rowDependency.contextRows.add(cd.rowIndex);
+                }
+            }
+            Collections.sort(rowDependency.contextRows);
+        } else {
+            rowDependency.recordIndex = _rowRecords[rowIndex];
+        }
+        return rowDependency;
     }
 
     @JsonIgnore
     public int getRecordCount() {
-        return _records.size();
+        return _recordStarts == null ? 0 : _recordStarts.length - 1;
     }
 
     public Record getRecord(int recordIndex) {
-        return _records != null && recordIndex >= 0 && recordIndex < _records.size() ? _records.get(recordIndex) : null;
+        return recordIndex >= 0 && recordIndex < getRecordCount()
+                ? new Record(_recordStarts[recordIndex], _recordStarts[recordIndex + 1], recordIndex)
+                : null;
     }
 
     public Record getRecordOfRow(int rowIndex) {
-        RowDependency rd = getRowDependency(rowIndex);
-        if (rd != null) {
-            if (rd.recordIndex < 0) {
-                rd = getRowDependency(rd.contextRows.get(0));
+        return getRecord(getRecordIndexOfRow(rowIndex));
+    }
+
+    /**
+     * @return the index of the record containing the row, or -1 if there is no such row
+     */
+    public int getRecordIndexOfRow(int rowIndex) {
+        return _rowRecords != null && rowIndex >= 0 && rowIndex < _rowRecords.length ? _rowRecords[rowIndex] : -1;
+    }
+
+    /**
+     * @return the index of the first row of the record
+     */
+    public int getRecordStart(int recordIndex) {
+        return _recordStarts[recordIndex];
+    }
+
+    /**
+     * @return the index of the row following the last row of the record
+     */
+    public int getRecordEnd(int recordIndex) {
+        return _recordStarts[recordIndex + 1];
+    }
+
+    /**
+     * Maps matching rows to the records containing them.
+     *
+     * @param rows
+     *            the indices of matching rows
+     * @param allRows
+     *            whether all rows of a record must match for the record to match, rather than any row
+     * @return the indices of matching records
+     */
+    public BitSet getMatchingRecords(BitSet rows, boolean allRows) {
+        BitSet records = new BitSet(getRecordCount());
+        if (allRows) {
+            for (int r = 0; r < getRecordCount(); r++) {
+                int start = _recordStarts[r];
+                int end = _recordStarts[r + 1];
+                int nonMatching = rows.nextClearBit(start);
+                if (nonMatching >= end) {
+                    records.set(r);
+                }
+            }
+        } else {
+            for (int rowIndex = rows.nextSetBit(0); rowIndex >= 0 && rowIndex < _rowRecords.length; rowIndex = rows.nextSetBit(rowIndex + 1)) {
+                int r = _rowRecords[rowIndex];
+                records.set(r);
+                // the other rows of the record make no difference
+                rowIndex = _recordStarts[r + 1] - 1;
             }
-            return getRecord(rd.recordIndex);
         }
-        return null;
+        return records;
     }
 
     @JsonProperty("hasRecords")
     public boolean hasRecords() {
-        return _records != null && _rowDependencies != null &&
-                _records.size() < _rowDependencies.size();
+        return _recordStarts != null && getRecordCount() < _rowRecords.length;
     }
 
     static protected class KeyedGroup {
@@ -140,9 +215,11 @@ public class RecordModel {
                 lastNonBlankRowsByGroup[i] = -1;
             }
 
-            _rowDependencies = new ArrayList<RowDependency>(rowCount);
+            int[] rowRecords = new int[rowCount];
+            CellDependency[][] cellDependencies = new CellDependency[rowCount][];
+            int[] recordStarts = new int[rowCount + 1];
 
-            int recordIndex = 0;
+            int recordCount = 0;
             for (int r = 0; r < rowCount; r++) {
                 Row row = rows.get(r);
                 RowDependency rowDependency = new RowDependency();
@@ -171,38 +248,18 @@ public class RecordModel {
                 }
 
                 if (rowDependency.cellDependencies != null && rowDependency.cellDependencies.length > 0) {
-                    rowDependency.recordIndex = -1;
-                    rowDependency.contextRows = new ArrayList<Integer>();
-                    for (CellDependency cd : rowDependency.cellDependencies) {
-                        if (cd != null) {
-                            rowDependency.contextRows.add(cd.rowIndex);
-                        }
-                    }
-                    Collections.sort(rowDependency.contextRows);
+                    // dependent rows belong to the record of the rows they depend on, which is the current one
+                    cellDependencies[r] = rowDependency.cellDependencies;
                 } else {
-                    rowDependency.recordIndex = recordIndex++;
+                    recordStarts[recordCount++] = r;
                 }
-
-                _rowDependencies.add(rowDependency);
+                rowRecords[r] = recordCount - 1;
             }
+            recordStarts[recordCount] = rowCount;
 
-            _records = new ArrayList<Record>(recordIndex);
-            if (recordIndex > 0) {
-                recordIndex = 0;
-
-                int recordRowIndex = 0;
-                for (int r = 1; r < rowCount; r++) {
-                    RowDependency rd = _rowDependencies.get(r);
-                    if (rd.recordIndex >= 0) {
-                        _records.add(new Record(recordRowIndex, r, recordIndex++));
-
-                        recordIndex = rd.recordIndex;
-                        recordRowIndex = r;
-                    }
-                }
-
-                _records.add(new Record(recordRowIndex, rowCount, recordIndex++));
-            }
+            _recordStarts = Arrays.copyOf(recordStarts, recordCount + 1);
+            _rowRecords = rowRecords;
+            _cellDependencies = cellDependencies;
         }
     }
 
@@ -36,8 +36,14 @@ package com.google.refine.model;
 import java.io.IOException;
 import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Properties;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
@@ -59,10 +65,26 @@ public class Row implements HasFields {
     public boolean flagged;
     public boolean starred;
     final public List<Cell> cells;
+    // generation of row listeners this row was created in or last marked with
+    private int generation = s_generation;
 
     private static final String FLAGGED = "flagged";
     private static final String STARRED = "starred";
 
+    /**
+     * Notified before a row is modified in place (its cells changed through {@link #setCell(int, Cell)} or its cell
+     * list, or its flag or star changed through {@link #setFlagged(boolean)} and {@link #setStarred(boolean)}), on the
+     * thread modifying it. This lets copies of the state of a project keep the rows as they were, by copying rows only
+     * when they are first modified.
+     */
+    public interface ModificationListener {
+
+        void beforeModification(Row row);
+    }
+
+    static private volatile ModificationListener[] s_listeners = new ModificationListener[0];
+    static private volatile int s_generation;
+
     /**
      * Construct a new Row.
      * 
@@ -70,11 +92,11 @@ public class Row implements HasFields {
      *            number of cells to give row initially (can be extended later)
      */
     public Row(int cellCount) {
-        cells = new ArrayList<Cell>(cellCount);
+        cells = new CellList(this, cellCount);
     }
 
     protected Row(List<Cell> cells, boolean flagged, boolean starred) {
-        this.cells = cells;
+        this.cells = new CellList(this, cells);
         this.flagged = flagged;
         this.starred = starred;
     }
@@ -86,11 +108,45 @@ public class Row implements HasFields {
      * @return the duplicated row
      */
     public Row dup() {
-        Row row = new Row(cells.size());
-        row.flagged = flagged;
-        row.starred = starred;
-        row.cells.addAll(cells);
-        return row;
+        return new Row(cells, flagged, starred);
+    }
+
+    static public synchronized void addModificationListener(ModificationListener listener) {
+        ModificationListener[] listeners = Arrays.copyOf(s_listeners, s_listeners.length + 1);
+        listeners[listeners.length - 1] = listener;
+        s_listeners = listeners;
+    }
+
+    static public synchronized void removeModificationListener(ModificationListener listener) {
+        List<ModificationListener> listeners = new ArrayList<>(Arrays.asList(s_listeners));
+        listeners.remove(listener);
+        s_listeners = listeners.toArray(new ModificationListener[0]);
+    }
+
+    /**
+     * Starts a new generation of rows. Rows remember the generation they were created in, and listeners can mark rows
+     * with their own generation, so that they can tell the rows which existed when they started listening, and which
+     * they have not handled yet, from the others.
+     *
+     * @return the new generation
+     */
+    static public synchronized int newGeneration() {
+        return ++s_generation;
+    }
+
+    @JsonIgnore
+    public int getGeneration() {
+        return generation;
+    }
+
+    public void setGeneration(int generation) {
+        this.generation = generation;
+    }
+
+    protected void beforeModification() {
+        for (ModificationListener listener : s_listeners) {
+            listener.beforeModification(this);
+        }
     }
 
     @Override
@@ -169,11 +225,21 @@ public class Row implements HasFields {
         return flagged;
     }
 
+    public void setFlagged(boolean flagged) {
+        beforeModification();
+        this.flagged = flagged;
+    }
+
     @JsonProperty(STARRED)
     public boolean isStarred() {
         return starred;
     }
 
+    public void setStarred(boolean starred) {
+        beforeModification();
+        this.starred = starred;
+    }
+
     @JsonProperty("cells")
     public List<Cell> getCells() {
         return cells;
@@ -221,8 +287,119 @@ public class Row implements HasFields {
     static public Row loadStreaming(String s, Pool pool) throws IOException {
         InjectableValues injectableValues = new InjectableValues.Std()
                 .addValue("pool", pool);
-        return ParsingUtilities.mapper.setInjectableValues(injectableValues)
-                .readValue(s, Row.class);
+        return ParsingUtilities.mapper.readerFor(Row.class)
+                .with(injectableValues)
+                .readValue(s);
+    }
+
+    /**
+     * The cells of a row, which notify the row's modification listeners before being modified.
+     */
+    static private class CellList extends ArrayList<Cell> {
+
+        private static final long serialVersionUID = 1L;
+
+        final private Row row;
+
+        CellList(Row row, int capacity) {
+            super(capacity);
+            this.row = row;
+        }
+
+        CellList(Row row, Collection<Cell> cells) {
+            super(cells);
+            this.row = row;
+        }
+
+        @Override
+        public Cell set(int index, Cell cell) {
+            row.beforeModification();
+            return super.set(index, cell);
+        }
+
+        @Override
+        public boolean add(Cell cell) {
+            row.beforeModification();
+            return super.add(cell);
+        }
+
+        @Override
+        public void add(int index, Cell cell) {
+            row.beforeModification();
+            super.add(index, cell);
+        }
+
+        @Override
+        public boolean addAll(Collection<? extends Cell> cells) {
+            row.beforeModification();
+            return super.addAll(cells);
+        }
+
+        @Override
+        public boolean addAll(int index, Collection<? extends Cell> cells) {
+            row.beforeModification();
+            return super.addAll(index, cells);
+        }
+
+        @Override
+        public Cell remove(int index) {
+            row.beforeModification();
+            return super.remove(index);
+        }
+
+        @Override
+        public boolean remove(Object cell) {
+            row.beforeModification();
+            return super.remove(cell);
+        }
+
+        @Override
+        public boolean removeAll(Collection<?> cells) {
+            row.beforeModification();
+            return super.removeAll(cells);
+        }
+
+        @Override
+        public boolean retainAll(Collection<?> cells) {
+            row.beforeModification();
+            return super.retainAll(cells);
+        }
+
+        @Override
+        public boolean removeIf(Predicate<? super Cell> filter) {
+            row.beforeModification();
+            return super.removeIf(filter);
+        }
+
+        @Override
+        public void replaceAll(UnaryOperator<Cell> operator) {
+            row.beforeModification();
+            super.replaceAll(operator);
+        }
+
+        @Override
+        public void sort(Comparator<? super Cell> comparator) {
+            row.beforeModification();
+            super.sort(comparator);
+        }
+
+        @Override
+        public void clear() {
+            row.beforeModification();
+            super.clear();
+        }
+
+        @Override
+        protected void removeRange(int fromIndex, int toIndex) {
+            row.beforeModification();
+            super.removeRange(fromIndex, toIndex);
+        }
+
+        @Override
+        public List<Cell> subList(int fromIndex, int toIndex) {
+            // views would modify the cells without notifying
+            return Collections.unmodifiableList(super.subList(fromIndex, toIndex));
+        }
     }
 
     @Override
@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * The list of rows of a project kept on the heap, which can be frozen cheaply: {@link #freeze()} returns a view of the
+ * rows as they currently are, which shares its array with the list until the list is next modified, and only then is
+ * the array copied. Appending rows does not copy it, as the frozen view does not see past its own size.
+ * <p>
+ * Like {@link java.util.ArrayList}, it is not synchronized. Frozen views may be read from any thread.
+ */
+public class RowList extends AbstractList<Row> implements RandomAccess {
+
+    private Row[] elements;
+    private int size;
+    // whether a frozen view shares the array
+    private boolean shared;
+
+    public RowList() {
+        elements = new Row[16];
+    }
+
+    public RowList(Collection<Row> rows) {
+        elements = rows.toArray(new Row[Math.max(16, rows.size())]);
+        size = rows.size();
+    }
+
+    /**
+     * @return an unmodifiable view of the current rows, which later changes to the list do not affect
+     */
+    public List<Row> freeze() {
+        shared = true;
+        return Collections.unmodifiableList(Arrays.asList(elements).subList(0, size));
+    }
+
+    @Override
+    public Row get(int index) {
+        checkIndex(index, size);
+        return elements[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Row set(int index, Row row) {
+        checkIndex(index, size);
+        unshare();
+        Row previous = elements[index];
+        elements[index] = row;
+        return previous;
+    }
+
+    @Override
+    public void add(int index, Row row) {
+        checkIndex(index, size + 1);
+        if (index < size) {
+            unshare();
+        }
+        ensureCapacity(size + 1);
+        System.arraycopy(elements, index, elements, index + 1, size - index);
+        elements[index] = row;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Row> rows) {
+        Object[] added = rows.toArray();
+        ensureCapacity(size + added.length);
+        System.arraycopy(added, 0, elements, size, added.length);
+        size += added.length;
+        modCount++;
+        return added.length > 0;
+    }
+
+    @Override
+    public Row remove(int index) {
+        checkIndex(index, size);
+        unshare();
+        Row previous = elements[index];
+        System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+        elements[--size] = null;
+        modCount++;
+        return previous;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        unshare();
+        System.arraycopy(elements, toIndex, elements, fromIndex, size - toIndex);
+        Arrays.fill(elements, size - (toIndex - fromIndex), size, null);
+        size -= toIndex - fromIndex;
+        modCount++;
+    }
+
+    @Override
+    public void clear() {
+        if (shared) {
+            elements = new Row[16];
+            shared = false;
+        } else {
+            Arrays.fill(elements, 0, size, null);
+        }
+        size = 0;
+        modCount++;
+    }
+
+    private void unshare() {
+        if (shared) {
+            elements = elements.clone();
+            shared = false;
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > elements.length) {
+            // the frozen view keeps the old array
+            elements = Arrays.copyOf(elements, Math.max(capacity, elements.length * 2));
+            shared = false;
+        }
+    }
+
+    private static void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + bound);
+        }
+    }
+}
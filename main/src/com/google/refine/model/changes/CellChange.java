@@ -50,7 +50,9 @@ public class CellChange implements Change {
     final public int row;
     final public int cellIndex;
     final public Cell oldCell;
-    final public Cell newCell;
+    // replaced by its interned equivalent when first applied, so that the change and the row share it
+    public Cell newCell;
+    private boolean interned;
 
     public CellChange(int row, int cellIndex, Cell oldCell, Cell newCell) {
         this.row = row;
@@ -61,6 +63,10 @@ public class CellChange implements Change {
 
     @Override
     public void apply(Project project) {
+        if (!interned) {
+            newCell = project.valueDictionary.intern(cellIndex, newCell);
+            interned = true;
+        }
         project.rows.get(row).setCell(cellIndex, newCell);
 
         Column column = project.columnModel.getColumnByCellIndex(cellIndex);
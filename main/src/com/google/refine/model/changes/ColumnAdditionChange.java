@@ -42,6 +42,7 @@ import java.util.List;
 import java.util.Properties;
 
 import com.google.refine.history.Change;
+import com.google.refine.model.Cell;
 import com.google.refine.model.Column;
 import com.google.refine.model.ColumnGroup;
 import com.google.refine.model.Project;
@@ -97,7 +98,14 @@ public class ColumnAdditionChange extends ColumnChange {
             Column column = new Column(_newCellIndex, _columnName);
             project.columnModel.columns.add(_columnIndex, column);
             try {
-                for (CellAtRow cell : _newCells) {
+                for (int i = 0; i < _newCells.length; i++) {
+                    CellAtRow cell = _newCells[i];
+                    Cell interned = project.valueDictionary.intern(_newCellIndex, cell.cell);
+                    if (interned != cell.cell) {
+                        // kept so that redoing the change shares the same cells
+                        cell = new CellAtRow(cell.row, interned);
+                        _newCells[i] = cell;
+                    }
                     project.rows.get(cell.row).setCell(_newCellIndex, cell.cell);
                 }
             } catch (Exception e) {
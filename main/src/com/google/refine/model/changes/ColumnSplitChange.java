@@ -146,7 +146,8 @@ public class ColumnSplitChange implements Change {
                     for (int c = 0; c < tuple.size(); c++) {
                         Serializable value = tuple.get(c);
                         if (value != null) {
-                            newRow.setCell(_firstNewCellIndex + c, new Cell(value, null));
+                            int newCellIndex = _firstNewCellIndex + c;
+                            newRow.setCell(newCellIndex, new Cell(project.valueDictionary.intern(newCellIndex, value), null));
                         }
                     }
 
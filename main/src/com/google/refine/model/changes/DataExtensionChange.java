@@ -238,6 +238,8 @@ public class DataExtensionChange implements Change {
                 }
             }
 
+            project.columnModel.clearPrecomputes();
+
             project.update();
         }
     }
@@ -288,6 +290,8 @@ public class DataExtensionChange implements Change {
                 project.columnModel.columns.remove(_columnInsertIndex);
             }
 
+            project.columnModel.clearPrecomputes();
+
             project.update();
         }
     }
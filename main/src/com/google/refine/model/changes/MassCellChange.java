@@ -33,6 +33,8 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.model.changes;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.LineNumberReader;
 import java.io.Writer;
@@ -40,47 +42,110 @@ import java.util.List;
 import java.util.Properties;
 
 import com.google.refine.ProjectManager;
+import com.google.refine.history.BinaryChange;
 import com.google.refine.history.Change;
+import com.google.refine.io.ColumnarRowFormat;
+import com.google.refine.model.Cell;
 import com.google.refine.model.Column;
 import com.google.refine.model.Project;
 import com.google.refine.model.Row;
 import com.google.refine.util.Pool;
 
-public class MassCellChange implements Change {
-
-    final protected CellChange[] _cellChanges;
+/**
+ * Changes the values of many cells at once. The cell changes are held in parallel arrays rather than as
+ * {@link CellChange} objects, with a single cell index when they all fall in the same column, which is the common
+ * case. The old and new cells are shared with the rows, so the change costs little more than its row indices.
+ */
+public class MassCellChange implements BinaryChange {
+
+    final protected int[] _rows;
+    final protected int[] _cellIndices; // null if all changes share _commonCellIndex
+    final protected int _commonCellIndex;
+    final protected Cell[] _oldCells;
+    final protected Cell[] _newCells;
     final protected String _commonColumnName;
     final protected boolean _updateRowContextDependencies;
+    // whether the new cells have been replaced by their interned equivalents, which is done once
+    protected boolean _interned;
 
     public MassCellChange(
-            CellChange[] cellChanges,
+            int[] rows,
+            int cellIndex,
+            Cell[] oldCells,
+            Cell[] newCells,
             String commonColumnName,
             boolean updateRowContextDependencies) {
+        this(rows, null, cellIndex, oldCells, newCells, commonColumnName, updateRowContextDependencies);
+    }
 
-        _cellChanges = cellChanges;
+    protected MassCellChange(
+            int[] rows,
+            int[] cellIndices,
+            int commonCellIndex,
+            Cell[] oldCells,
+            Cell[] newCells,
+            String commonColumnName,
+            boolean updateRowContextDependencies) {
+        _rows = rows;
+        _cellIndices = cellIndices;
+        _commonCellIndex = commonCellIndex;
+        _oldCells = oldCells;
+        _newCells = newCells;
         _commonColumnName = commonColumnName;
         _updateRowContextDependencies = updateRowContextDependencies;
     }
 
     public MassCellChange(
-            List<CellChange> cellChanges,
+            CellChange[] cellChanges,
             String commonColumnName,
             boolean updateRowContextDependencies) {
 
-        _cellChanges = new CellChange[cellChanges.size()];
-        _commonColumnName = commonColumnName;
-        cellChanges.toArray(_cellChanges);
+        int count = cellChanges.length;
+        _rows = new int[count];
+        _oldCells = new Cell[count];
+        _newCells = new Cell[count];
+
+        int commonCellIndex = count > 0 ? cellChanges[0].cellIndex : -1;
+        int[] cellIndices = null;
+        for (int i = 0; i < count; i++) {
+            CellChange cellChange = cellChanges[i];
+            _rows[i] = cellChange.row;
+            _oldCells[i] = cellChange.oldCell;
+            _newCells[i] = cellChange.newCell;
+            if (cellIndices == null && cellChange.cellIndex != commonCellIndex) {
+                cellIndices = new int[count];
+                for (int j = 0; j < i; j++) {
+                    cellIndices[j] = commonCellIndex;
+                }
+            }
+            if (cellIndices != null) {
+                cellIndices[i] = cellChange.cellIndex;
+            }
+        }
+        _cellIndices = cellIndices;
+        _commonCellIndex = cellIndices == null ? commonCellIndex : -1;
 
+        _commonColumnName = commonColumnName;
         _updateRowContextDependencies = updateRowContextDependencies;
     }
 
+    public MassCellChange(
+            List<CellChange> cellChanges,
+            String commonColumnName,
+            boolean updateRowContextDependencies) {
+        this(cellChanges.toArray(new CellChange[cellChanges.size()]), commonColumnName, updateRowContextDependencies);
+    }
+
     public MassCellChange(CellChange cellChange, String commonColumnName, boolean updateRowContextDependencies) {
-        _cellChanges = new CellChange[1];
-        _cellChanges[0] = cellChange;
+        this(new CellChange[] { cellChange }, commonColumnName, updateRowContextDependencies);
+    }
 
-        _commonColumnName = commonColumnName;
+    public int getCellChangeCount() {
+        return _rows.length;
+    }
 
-        _updateRowContextDependencies = updateRowContextDependencies;
+    protected int getCellIndex(int i) {
+        return _cellIndices == null ? _commonCellIndex : _cellIndices[i];
     }
 
     @Override
@@ -88,9 +153,14 @@ public class MassCellChange implements Change {
         synchronized (project) {
             List<Row> rows = project.rows;
 
-            for (CellChange cellChange : _cellChanges) {
-                rows.get(cellChange.row).setCell(cellChange.cellIndex, cellChange.newCell);
+            for (int i = 0; i < _rows.length; i++) {
+                int cellIndex = getCellIndex(i);
+                if (!_interned) {
+                    _newCells[i] = project.valueDictionary.intern(cellIndex, _newCells[i]);
+                }
+                rows.get(_rows[i]).setCell(cellIndex, _newCells[i]);
             }
+            _interned = true;
 
             if (_commonColumnName != null) {
                 Column column = project.columnModel.getColumnByName(_commonColumnName);
@@ -109,8 +179,8 @@ public class MassCellChange implements Change {
         synchronized (project) {
             List<Row> rows = project.rows;
 
-            for (CellChange cellChange : _cellChanges) {
-                rows.get(cellChange.row).setCell(cellChange.cellIndex, cellChange.oldCell);
+            for (int i = 0; i < _rows.length; i++) {
+                rows.get(_rows[i]).setCell(getCellIndex(i), _oldCells[i]);
             }
 
             if (_commonColumnName != null) {
@@ -135,13 +205,17 @@ public class MassCellChange implements Change {
         writer.write("updateRowContextDependencies=");
         writer.write(Boolean.toString(_updateRowContextDependencies));
         writer.write('\n');
+        writeCellChanges(writer, options);
+        writer.write("/ec/\n"); // end of change marker
+    }
+
+    protected void writeCellChanges(Writer writer, Properties options) throws IOException {
         writer.write("cellChangeCount=");
-        writer.write(Integer.toString(_cellChanges.length));
+        writer.write(Integer.toString(_rows.length));
         writer.write('\n');
-        for (CellChange c : _cellChanges) {
-            c.save(writer, options);
+        for (int i = 0; i < _rows.length; i++) {
+            new CellChange(_rows[i], getCellIndex(i), _oldCells[i], _newCells[i]).save(writer, options);
         }
-        writer.write("/ec/\n"); // end of change marker
     }
 
     static public Change load(LineNumberReader reader, Pool pool) throws Exception {
@@ -172,4 +246,77 @@ public class MassCellChange implements Change {
 
         return change;
     }
+
+    @Override
+    public void saveBinary(DataOutputStream out, Pool pool) throws IOException {
+        writeNullableString(out, _commonColumnName);
+        out.writeBoolean(_updateRowContextDependencies);
+        writeCellChanges(out, pool);
+    }
+
+    static public Change loadBinary(DataInputStream in, Pool pool) throws Exception {
+        String commonColumnName = readNullableString(in);
+        boolean updateRowContextDependencies = in.readBoolean();
+        return readCellChanges(in, pool, commonColumnName, updateRowContextDependencies);
+    }
+
+    /**
+     * Writes the row indices as deltas, the cell indices and then the old and new cells as two column blocks.
+     */
+    protected void writeCellChanges(DataOutputStream out, Pool pool) throws IOException {
+        ColumnarRowFormat.writeVarInt(out, _rows.length);
+        int previous = 0;
+        for (int row : _rows) {
+            // zigzag-encoded, as rows are usually but not necessarily in ascending order
+            int delta = row - previous;
+            ColumnarRowFormat.writeVarInt(out, (delta << 1) ^ (delta >> 31));
+            previous = row;
+        }
+        out.writeBoolean(_cellIndices == null);
+        if (_cellIndices == null) {
+            out.writeInt(_commonCellIndex);
+        } else {
+            for (int cellIndex : _cellIndices) {
+                ColumnarRowFormat.writeVarInt(out, cellIndex);
+            }
+        }
+        ColumnarRowFormat.writeCells(out, _oldCells, pool);
+        ColumnarRowFormat.writeCells(out, _newCells, pool);
+    }
+
+    static protected MassCellChange readCellChanges(DataInputStream in, Pool pool, String commonColumnName,
+            boolean updateRowContextDependencies) throws IOException {
+        int[] rows = new int[ColumnarRowFormat.readVarInt(in)];
+        int previous = 0;
+        for (int i = 0; i < rows.length; i++) {
+            int zigzag = ColumnarRowFormat.readVarInt(in);
+            previous += (zigzag >>> 1) ^ -(zigzag & 1);
+            rows[i] = previous;
+        }
+        int commonCellIndex = -1;
+        int[] cellIndices = null;
+        if (in.readBoolean()) {
+            commonCellIndex = in.readInt();
+        } else {
+            cellIndices = new int[rows.length];
+            for (int i = 0; i < rows.length; i++) {
+                cellIndices[i] = ColumnarRowFormat.readVarInt(in);
+            }
+        }
+        Cell[] oldCells = ColumnarRowFormat.readCells(in, pool);
+        Cell[] newCells = ColumnarRowFormat.readCells(in, pool);
+        return new MassCellChange(rows, cellIndices, commonCellIndex, oldCells, newCells, commonColumnName,
+                updateRowContextDependencies);
+    }
+
+    static protected void writeNullableString(DataOutputStream out, String s) throws IOException {
+        out.writeBoolean(s != null);
+        if (s != null) {
+            ColumnarRowFormat.writeString(out, s);
+        }
+    }
+
+    static protected String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? ColumnarRowFormat.readString(in) : null;
+    }
 }
@@ -33,31 +33,68 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.model.changes;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.LineNumberReader;
 import java.io.Writer;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Properties;
 
 import com.google.refine.ProjectManager;
+import com.google.refine.history.BinaryChange;
 import com.google.refine.history.Change;
+import com.google.refine.io.ColumnarRowFormat;
 import com.google.refine.model.Cell;
+import com.google.refine.model.Column;
 import com.google.refine.model.Project;
 import com.google.refine.model.Recon;
 import com.google.refine.model.Row;
 import com.google.refine.util.ParsingUtilities;
 import com.google.refine.util.Pool;
 
-public class MassReconChange implements Change {
+public class MassReconChange implements BinaryChange {
 
-    final protected Map<Long, Recon> _newRecons;
-    final protected Map<Long, Recon> _oldRecons;
+    final protected ReconTable _newRecons;
+    final protected ReconTable _oldRecons;
+
+    /**
+     * Recons keyed by id, stored as a sorted array of ids and a parallel array of recons rather than a map of boxed
+     * keys.
+     */
+    static protected class ReconTable {
+
+        final long[] ids;
+        final Recon[] recons;
+
+        ReconTable(Map<Long, Recon> map) {
+            ids = new long[map.size()];
+            int i = 0;
+            for (long id : map.keySet()) {
+                ids[i++] = id;
+            }
+            Arrays.sort(ids);
+            recons = new Recon[ids.length];
+            for (i = 0; i < ids.length; i++) {
+                recons[i] = map.get(ids[i]);
+            }
+        }
+
+        /**
+         * @return the recon with the given id, or null if there is none
+         */
+        Recon get(long id) {
+            int i = Arrays.binarySearch(ids, id);
+            return i >= 0 ? recons[i] : null;
+        }
+    }
 
     public MassReconChange(Map<Long, Recon> newRecons, Map<Long, Recon> oldRecons) {
-        _newRecons = newRecons;
-        _oldRecons = oldRecons;
+        _newRecons = new ReconTable(newRecons);
+        _oldRecons = new ReconTable(oldRecons);
     }
 
     @Override
@@ -70,25 +107,28 @@ public class MassReconChange implements Change {
         switchRecons(project, _oldRecons);
     }
 
-    protected void switchRecons(Project project, Map<Long, Recon> reconMap) {
+    protected void switchRecons(Project project, ReconTable reconTable) {
         synchronized (project) {
             HashSet<String> flushedColumn = new HashSet<String>();
             for (Row row : project.rows) {
                 for (int c = 0; c < row.cells.size(); c++) {
                     Cell cell = row.cells.get(c);
                     if (cell != null && cell.recon != null) {
-                        Recon recon = cell.recon;
+                        Recon recon = reconTable.get(cell.recon.id);
 
-                        if (reconMap.containsKey(recon.id)) {
+                        if (recon != null) {
                             // skip the flushing if already done
-                            String columnName = project.columnModel.getColumnByCellIndex(c).getName();
+                            Column column = project.columnModel.getColumnByCellIndex(c);
+                            String columnName = column.getName();
                             if (!flushedColumn.contains(columnName)) {
                                 ProjectManager.singleton.getLookupCacheManager().flushLookupsInvolvingProjectColumn(project.id,
                                         columnName);
+                                // precomputes include results of expressions on the recons
+                                column.clearPrecomputes();
                                 flushedColumn.add(columnName);
                             }
 
-                            row.setCell(c, new Cell(cell.value, reconMap.get(recon.id)));
+                            row.setCell(c, new Cell(cell.value, recon));
                         }
                     }
                 }
@@ -103,11 +143,11 @@ public class MassReconChange implements Change {
         writer.write("/ec/\n"); // end of change marker
     }
 
-    protected void writeRecons(Writer writer, Properties options, Map<Long, Recon> recons, String key) throws IOException {
+    protected void writeRecons(Writer writer, Properties options, ReconTable recons, String key) throws IOException {
         writer.write(key + "=");
-        writer.write(Integer.toString(recons.size()));
+        writer.write(Integer.toString(recons.recons.length));
         writer.write('\n');
-        for (Recon recon : recons.values()) {
+        for (Recon recon : recons.recons) {
             Pool pool = (Pool) options.get("pool");
             pool.poolReconCandidates(recon);
 
@@ -148,4 +188,37 @@ public class MassReconChange implements Change {
             recons.put(recon.id, recon);
         }
     }
+
+    @Override
+    public void saveBinary(DataOutputStream out, Pool pool) throws IOException {
+        writeRecons(out, pool, _oldRecons);
+        writeRecons(out, pool, _newRecons);
+    }
+
+    static public Change loadBinary(DataInputStream in, Pool pool) throws Exception {
+        Map<Long, Recon> oldRecons = new HashMap<Long, Recon>();
+        Map<Long, Recon> newRecons = new HashMap<Long, Recon>();
+        loadRecons(in, oldRecons);
+        loadRecons(in, newRecons);
+
+        return new MassReconChange(newRecons, oldRecons);
+    }
+
+    protected void writeRecons(DataOutputStream out, Pool pool, ReconTable recons) throws IOException {
+        ColumnarRowFormat.writeVarInt(out, recons.recons.length);
+        for (Recon recon : recons.recons) {
+            pool.poolReconCandidates(recon);
+            ColumnarRowFormat.writeString(out, ParsingUtilities.saveWriter.writeValueAsString(recon));
+        }
+    }
+
+    static protected void loadRecons(DataInputStream in, Map<Long, Recon> recons) throws Exception {
+        int count = ColumnarRowFormat.readVarInt(in);
+
+        for (int i = 0; i < count; i++) {
+            Recon recon = Recon.loadStreaming(ColumnarRowFormat.readString(in));
+
+            recons.put(recon.id, recon);
+        }
+    }
 }
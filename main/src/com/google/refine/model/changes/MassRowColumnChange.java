@@ -84,6 +84,8 @@ public class MassRowColumnChange implements Change {
 
             ProjectManager.singleton.getLookupCacheManager().flushLookupsInvolvingProject(project.id);
 
+            project.columnModel.clearPrecomputes();
+
             project.update();
         }
     }
@@ -102,6 +104,8 @@ public class MassRowColumnChange implements Change {
 
             ProjectManager.singleton.getLookupCacheManager().flushLookupsInvolvingProject(project.id);
 
+            project.columnModel.clearPrecomputes();
+
             project.update();
         }
     }
@@ -37,8 +37,11 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.model.changes;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.LineNumberReader;
+import java.io.StringWriter;
 import java.io.Writer;
 import java.util.List;
 import java.util.Properties;
@@ -93,6 +96,17 @@ public class ReconChange extends MassCellChange {
         _newReconStats = newReconStats;
     }
 
+    protected ReconChange(
+            MassCellChange cellChanges,
+            ReconConfig newReconConfig,
+            ReconStats newReconStats // can be null
+    ) {
+        super(cellChanges._rows, cellChanges._cellIndices, cellChanges._commonCellIndex, cellChanges._oldCells,
+                cellChanges._newCells, cellChanges._commonColumnName, false);
+        _newReconConfig = newReconConfig;
+        _newReconStats = newReconStats;
+    }
+
     @Override
     public void apply(Project project) {
         synchronized (project) {
@@ -210,4 +224,46 @@ public class ReconChange extends MassCellChange {
 
         return change;
     }
+
+    @Override
+    public void saveBinary(DataOutputStream out, Pool pool) throws IOException {
+        writeNullableString(out, _newReconConfig != null ? toJson(_newReconConfig) : null);
+        writeNullableString(out, _newReconStats != null ? toJson(_newReconStats) : null);
+        writeNullableString(out, _oldReconConfig != null ? toJson(_oldReconConfig) : null);
+        writeNullableString(out, _oldReconStats != null ? toJson(_oldReconStats) : null);
+
+        super.saveBinary(out, pool);
+    }
+
+    static public Change loadBinary(DataInputStream in, Pool pool) throws Exception {
+        String newReconConfig = readNullableString(in);
+        String newReconStats = readNullableString(in);
+        String oldReconConfig = readNullableString(in);
+        String oldReconStats = readNullableString(in);
+
+        String commonColumnName = readNullableString(in);
+        in.readBoolean(); // updateRowContextDependencies, always false
+        MassCellChange cellChanges = readCellChanges(in, pool, commonColumnName, false);
+
+        ReconChange change = new ReconChange(cellChanges,
+                newReconConfig != null ? ReconConfig.reconstruct(newReconConfig) : null,
+                newReconStats != null ? ParsingUtilities.mapper.readValue(newReconStats, ReconStats.class) : null);
+
+        change._oldReconConfig = oldReconConfig != null ? ReconConfig.reconstruct(oldReconConfig) : null;
+        change._oldReconStats = oldReconStats != null ? ParsingUtilities.mapper.readValue(oldReconStats, ReconStats.class) : null;
+
+        return change;
+    }
+
+    static private String toJson(ReconConfig config) {
+        StringWriter writer = new StringWriter();
+        config.save(writer);
+        return writer.toString();
+    }
+
+    static private String toJson(ReconStats stats) {
+        StringWriter writer = new StringWriter();
+        stats.save(writer);
+        return writer.toString();
+    }
 }
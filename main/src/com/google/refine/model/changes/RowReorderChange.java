@@ -65,6 +65,7 @@ public class RowReorderChange implements Change {
 
             project.rows.clear();
             project.rows.addAll(newRows);
+            project.columnModel.clearPrecomputes();
             project.update();
         }
     }
@@ -89,6 +90,7 @@ public class RowReorderChange implements Change {
 
             project.rows.clear();
             project.rows.addAll(oldRows);
+            project.columnModel.clearPrecomputes();
             project.update();
         }
     }
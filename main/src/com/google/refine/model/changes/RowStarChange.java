@@ -60,14 +60,14 @@ public class RowStarChange implements Change {
         if (oldStarred == null) {
             oldStarred = row.starred;
         }
-        row.starred = newStarred;
+        row.setStarred(newStarred);
     }
 
     @Override
     public void revert(Project project) {
         Row row = project.rows.get(rowIndex);
 
-        row.starred = oldStarred;
+        row.setStarred(oldStarred);
     }
 
     @Override
@@ -46,6 +46,7 @@ import com.google.refine.expr.Evaluable;
 import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.expr.MetaParser;
 import com.google.refine.expr.WrappedCell;
+import com.google.refine.grel.MemoizedExpression;
 import com.google.refine.model.Cell;
 import com.google.refine.model.Column;
 import com.google.refine.model.Project;
@@ -117,7 +118,7 @@ public class TextTransformOperation extends EngineDependentMassCellOperation {
     protected RowVisitor createRowVisitor(Project project, List<CellChange> cellChanges, long historyEntryID) throws Exception {
         Column column = project.columnModel.getColumnByName(_columnName);
 
-        Evaluable eval = MetaParser.parse(_expression);
+        Evaluable eval = MemoizedExpression.wrap(MetaParser.parse(_expression));
         Properties bindings = ExpressionUtils.createBindings(project);
 
         return new RowVisitor() {
@@ -142,7 +143,9 @@ public class TextTransformOperation extends EngineDependentMassCellOperation {
 
             @Override
             public void end(Project project) {
-                // nothing to do
+                if (eval instanceof MemoizedExpression) {
+                    ((MemoizedExpression) eval).logStatistics("Text transform on column " + _columnName);
+                }
             }
 
             @Override
@@ -49,6 +49,7 @@ import com.google.refine.expr.Evaluable;
 import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.expr.MetaParser;
 import com.google.refine.expr.WrappedCell;
+import com.google.refine.grel.MemoizedExpression;
 import com.google.refine.history.Change;
 import com.google.refine.history.HistoryEntry;
 import com.google.refine.model.Cell;
@@ -150,7 +151,7 @@ public class ColumnAdditionOperation extends EngineDependentOperation {
     protected RowVisitor createRowVisitor(Project project, List<CellAtRow> cellsAtRows) throws Exception {
         Column column = project.columnModel.getColumnByName(_baseColumnName);
 
-        Evaluable eval = MetaParser.parse(_expression);
+        Evaluable eval = MemoizedExpression.wrap(MetaParser.parse(_expression));
         Properties bindings = ExpressionUtils.createBindings(project);
 
         return new RowVisitor() {
@@ -175,7 +176,9 @@ public class ColumnAdditionOperation extends EngineDependentOperation {
 
             @Override
             public void end(Project project) {
-                // nothing to do
+                if (eval instanceof MemoizedExpression) {
+                    ((MemoizedExpression) eval).logStatistics("Column addition " + _newColumnName);
+                }
             }
 
             @Override
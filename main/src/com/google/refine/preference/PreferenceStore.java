@@ -68,6 +68,62 @@ public class PreferenceStore {
         return _prefs.get(key);
     }
 
+    /**
+     * @return the preference as an int, parsing it if it was stored as a string, or the default value if it is not
+     *         set or not a number
+     */
+    public int getInt(String key, int defaultValue) {
+        Number value = getNumber(key);
+        return value == null ? defaultValue : value.intValue();
+    }
+
+    /**
+     * @return the preference as a long, parsing it if it was stored as a string, or the default value if it is not
+     *         set or not a number
+     */
+    public long getLong(String key, long defaultValue) {
+        Number value = getNumber(key);
+        return value == null ? defaultValue : value.longValue();
+    }
+
+    /**
+     * @return the preference as a double, parsing it if it was stored as a string, or the default value if it is not
+     *         set or not a number
+     */
+    public double getDouble(String key, double defaultValue) {
+        Number value = getNumber(key);
+        return value == null ? defaultValue : value.doubleValue();
+    }
+
+    /**
+     * @return false if the preference is set to false (or "false"), true if it is set to anything else, or the default
+     *         value if it is not set
+     */
+    public boolean getBoolean(String key, boolean defaultValue) {
+        Object value = _prefs.get(key);
+        return value == null ? defaultValue : !"false".equals(value.toString());
+    }
+
+    private Number getNumber(String key) {
+        Object value = _prefs.get(key);
+        if (value instanceof Number) {
+            return (Number) value;
+        } else if (value != null) {
+            // integers are parsed as such, to keep the precision of large longs
+            try {
+                return Long.parseLong(value.toString());
+            } catch (NumberFormatException e) {
+                // not an integer
+            }
+            try {
+                return Double.parseDouble(value.toString());
+            } catch (NumberFormatException e) {
+                // ignore
+            }
+        }
+        return null;
+    }
+
     @JsonIgnore
     public Set<String> getKeys() {
         return _prefs.keySet();
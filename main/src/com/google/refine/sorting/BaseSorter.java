@@ -33,84 +33,26 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.sorting;
 
-import java.util.List;
-
-import com.google.refine.expr.EvalError;
 import com.google.refine.model.Project;
 import com.google.refine.sorting.Criterion.KeyMaker;
 
+/**
+ * Sorts rows or records by a list of criteria. The keys of each criterion are stored by position in a
+ * {@link KeyColumn}, and positions are then sorted by comparing keys one criterion after the other.
+ */
 abstract public class BaseSorter {
 
     protected Criterion[] _criteria;
     protected KeyMaker[] _keyMakers;
-    protected ComparatorWrapper[] _comparatorWrappers;
-    protected List<Object[]> _keys;
-
-    public class ComparatorWrapper {
-
-        final public int criterionIndex;
-        final protected int multiplier;
-
-        public ComparatorWrapper(int criterionIndex) {
-            this.criterionIndex = criterionIndex;
-            this.multiplier = _criteria[criterionIndex].reverse ? -1 : 1;
-        }
-
-        public Object getKey(Project project, Object o, int index) {
-            while (index >= _keys.size()) {
-                _keys.add(null);
-            }
-
-            Object[] keys = _keys.get(index);
-            if (keys == null) {
-                keys = makeKeys(project, o, index);
-                _keys.set(index, keys);
-            }
-            return keys[criterionIndex];
-        }
-
-        public int compare(Project project, Object o1, int i1, Object o2, int i2) {
-            Criterion c = _criteria[criterionIndex];
-            Object key1 = getKey(project, o1, i1);
-            Object key2 = getKey(project, o2, i2);
-
-            if (key1 == null) {
-                if (key2 == null) {
-                    return 0;
-                } else if (key2 instanceof EvalError) {
-                    return c.blankPosition - c.errorPosition;
-                } else {
-                    return c.blankPosition;
-                }
-            } else if (key1 instanceof EvalError) {
-                if (key2 == null) {
-                    return c.errorPosition - c.blankPosition;
-                } else if (key2 instanceof EvalError) {
-                    return 0;
-                } else {
-                    return c.errorPosition;
-                }
-            } else {
-                if (key2 == null) {
-                    return -c.blankPosition;
-                } else if (key2 instanceof EvalError) {
-                    return -c.errorPosition;
-                } else {
-                    return _keyMakers[criterionIndex].compareKeys(key1, key2) * multiplier;
-                }
-            }
-        }
-    }
+    protected KeyColumn[] _keyColumns;
 
     public void initializeFromConfig(Project project, SortingConfig config) {
         _criteria = config.getCriteria();
         int count = _criteria.length;
         _keyMakers = new KeyMaker[count];
-        _comparatorWrappers = new ComparatorWrapper[count];
 
         for (int i = 0; i < count; i++) {
             _keyMakers[i] = _criteria[i].createKeyMaker();
-            _comparatorWrappers[i] = new ComparatorWrapper(i);
         }
     }
 
@@ -121,19 +63,40 @@ abstract public class BaseSorter {
     abstract protected Object makeKey(
             Project project, KeyMaker keyMaker, Criterion c, Object o, int index);
 
-    protected Object[] makeKeys(Project project, Object o, int index) {
-        Object[] keys = new Object[_keyMakers.length];
-        for (int i = 0; i < keys.length; i++) {
-            keys[i] = makeKey(project, _keyMakers[i], _criteria[i], o, index);
+    /**
+     * Creates empty key columns.
+     *
+     * @param capacity
+     *            the expected number of rows or records to sort
+     */
+    protected void initializeKeys(int capacity) {
+        _keyColumns = new KeyColumn[_keyMakers.length];
+        for (int i = 0; i < _keyColumns.length; i++) {
+            _keyColumns[i] = _keyMakers[i].createKeyColumn(capacity);
         }
-        return keys;
     }
 
-    protected int compare(Project project, Object o1, int i1, Object o2, int i2) {
+    /**
+     * Computes the keys of a row or record and stores them at the given position.
+     */
+    protected void setKeys(Project project, Object o, int index, int position) {
+        for (int i = 0; i < _keyColumns.length; i++) {
+            _keyColumns[i].set(position, makeKey(project, _keyMakers[i], _criteria[i], o, index));
+        }
+    }
+
+    protected int compare(int position1, int position2) {
         int c = 0;
-        for (int i = 0; c == 0 && i < _comparatorWrappers.length; i++) {
-            c = _comparatorWrappers[i].compare(project, o1, i1, o2, i2);
+        for (int i = 0; c == 0 && i < _keyColumns.length; i++) {
+            c = _keyColumns[i].compare(position1, position2);
         }
         return c;
     }
+
+    /**
+     * @return the positions [0, count) in the order of their keys, equal keys keeping their order
+     */
+    protected int[] sortPositions(int count) {
+        return IndexSorter.sortRange(count, this::compare);
+    }
 }
@@ -138,6 +138,16 @@ abstract public class Criterion {
 
         abstract public int compareKeys(Object key1, Object key2);
 
+        /**
+         * Creates a column to store the keys made by this key maker for sorting.
+         *
+         * @param capacity
+         *            the expected number of keys
+         */
+        public KeyColumn createKeyColumn(int capacity) {
+            return new KeyColumn.Objects(Criterion.this, this, capacity);
+        }
+
         abstract protected Object makeKey(Object value);
     }
 
@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.sorting;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Stable sort of an array of ints, typically positions of rows or records, by a comparator on primitive ints. Large
+ * arrays are sorted in parallel on the common fork/join pool, so the comparator must be safe to call concurrently.
+ */
+public final class IndexSorter {
+
+    @FunctionalInterface
+    public interface IndexComparator {
+
+        int compare(int index1, int index2);
+    }
+
+    /**
+     * Size of the ranges which are not split between tasks.
+     */
+    static final int PARALLEL_THRESHOLD = 8192;
+
+    /**
+     * Size of the ranges which are sorted by insertion.
+     */
+    static final int INSERTION_THRESHOLD = 16;
+
+    private IndexSorter() {
+    }
+
+    /**
+     * @return the array [0, count) sorted by the comparator
+     */
+    static public int[] sortRange(int count, IndexComparator comparator) {
+        int[] indices = new int[count];
+        for (int i = 0; i < count; i++) {
+            indices[i] = i;
+        }
+        sort(indices, comparator);
+        return indices;
+    }
+
+    /**
+     * Sorts the array in place. Equal elements keep their relative order.
+     */
+    static public void sort(int[] indices, IndexComparator comparator) {
+        int[] buffer = indices.clone();
+        if (indices.length >= 2 * PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1) {
+            ForkJoinPool.commonPool().invoke(new SortTask(buffer, indices, 0, indices.length, comparator));
+        } else {
+            mergeSort(buffer, indices, 0, indices.length, comparator);
+        }
+    }
+
+    /**
+     * Sorts dest[from, to) using src as a buffer, both ranges holding the same elements initially.
+     */
+    static void mergeSort(int[] src, int[] dest, int from, int to, IndexComparator comparator) {
+        if (to - from < INSERTION_THRESHOLD) {
+            insertionSort(dest, from, to, comparator);
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        mergeSort(dest, src, from, middle, comparator);
+        mergeSort(dest, src, middle, to, comparator);
+        merge(src, dest, from, middle, to, comparator);
+    }
+
+    static private void insertionSort(int[] a, int from, int to, IndexComparator comparator) {
+        for (int i = from + 1; i < to; i++) {
+            int v = a[i];
+            int j = i - 1;
+            while (j >= from && comparator.compare(a[j], v) > 0) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = v;
+        }
+    }
+
+    /**
+     * Merges the sorted ranges src[from, middle) and src[middle, to) into dest[from, to).
+     */
+    static private void merge(int[] src, int[] dest, int from, int middle, int to, IndexComparator comparator) {
+        if (comparator.compare(src[middle - 1], src[middle]) <= 0) {
+            System.arraycopy(src, from, dest, from, to - from);
+            return;
+        }
+        for (int i = from, p = from, q = middle; i < to; i++) {
+            if (q >= to || (p < middle && comparator.compare(src[p], src[q]) <= 0)) {
+                dest[i] = src[p++];
+            } else {
+                dest[i] = src[q++];
+            }
+        }
+    }
+
+    static private class SortTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        final int[] _src;
+        final int[] _dest;
+        final int _from;
+        final int _to;
+        final IndexComparator _comparator;
+
+        SortTask(int[] src, int[] dest, int from, int to, IndexComparator comparator) {
+            _src = src;
+            _dest = dest;
+            _from = from;
+            _to = to;
+            _comparator = comparator;
+        }
+
+        @Override
+        protected void compute() {
+            if (_to - _from <= PARALLEL_THRESHOLD) {
+                mergeSort(_src, _dest, _from, _to, _comparator);
+                return;
+            }
+            int middle = (_from + _to) >>> 1;
+            invokeAll(new SortTask(_dest, _src, _from, middle, _comparator),
+                    new SortTask(_dest, _src, middle, _to, _comparator));
+            merge(_src, _dest, _from, middle, _to, _comparator);
+        }
+    }
+}
@@ -0,0 +1,253 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.sorting;
+
+import java.text.CollationKey;
+import java.time.Instant;
+import java.util.Arrays;
+
+import com.google.refine.expr.EvalError;
+import com.google.refine.sorting.Criterion.KeyMaker;
+
+/**
+ * The sort keys of one criterion for a sequence of rows or records, stored by position in primitive arrays where the
+ * key type allows it. Blanks and errors are ordered according to the criterion, independently of its reverse flag.
+ */
+abstract public class KeyColumn {
+
+    static final byte VALUE = 0;
+    static final byte BLANK = 1;
+    static final byte ERROR = 2;
+
+    final protected int _blankPosition;
+    final protected int _errorPosition;
+    final protected int _multiplier;
+    protected byte[] _kinds;
+
+    protected KeyColumn(Criterion criterion, int capacity) {
+        _blankPosition = criterion.blankPosition;
+        _errorPosition = criterion.errorPosition;
+        _multiplier = criterion.reverse ? -1 : 1;
+        _kinds = new byte[capacity];
+    }
+
+    /**
+     * Stores the key of the row or record at the given position, growing the column if needed.
+     *
+     * @param key
+     *            the key made by the criterion's {@link KeyMaker}: null for blanks, an {@link EvalError} for errors
+     */
+    public void set(int position, Object key) {
+        if (position >= _kinds.length) {
+            int capacity = Math.max(position + 1, _kinds.length * 2);
+            _kinds = Arrays.copyOf(_kinds, capacity);
+            grow(capacity);
+        }
+        if (key == null) {
+            _kinds[position] = BLANK;
+        } else if (key instanceof EvalError) {
+            _kinds[position] = ERROR;
+        } else {
+            _kinds[position] = VALUE;
+            setValue(position, key);
+        }
+    }
+
+    public int compare(int position1, int position2) {
+        byte kind1 = _kinds[position1];
+        byte kind2 = _kinds[position2];
+        if (kind1 == VALUE && kind2 == VALUE) {
+            return compareValues(position1, position2) * _multiplier;
+        } else if (kind1 == kind2) {
+            return 0;
+        } else if (kind1 == BLANK) {
+            return kind2 == ERROR ? _blankPosition - _errorPosition : _blankPosition;
+        } else if (kind1 == ERROR) {
+            return kind2 == BLANK ? _errorPosition - _blankPosition : _errorPosition;
+        } else {
+            return kind2 == BLANK ? -_blankPosition : -_errorPosition;
+        }
+    }
+
+    abstract protected void grow(int capacity);
+
+    abstract protected void setValue(int position, Object key);
+
+    abstract protected int compareValues(int position1, int position2);
+
+    /**
+     * Keys compared by the key maker, for criteria without a primitive representation.
+     */
+    static public class Objects extends KeyColumn {
+
+        final protected KeyMaker _keyMaker;
+        protected Object[] _values;
+
+        public Objects(Criterion criterion, KeyMaker keyMaker, int capacity) {
+            super(criterion, capacity);
+            _keyMaker = keyMaker;
+            _values = new Object[capacity];
+        }
+
+        @Override
+        protected void grow(int capacity) {
+            _values = Arrays.copyOf(_values, capacity);
+        }
+
+        @Override
+        protected void setValue(int position, Object key) {
+            _values[position] = key;
+        }
+
+        @Override
+        protected int compareValues(int position1, int position2) {
+            return _keyMaker.compareKeys(_values[position1], _values[position2]);
+        }
+    }
+
+    /**
+     * Numeric keys, compared as doubles.
+     */
+    static public class Doubles extends KeyColumn {
+
+        protected double[] _values;
+
+        public Doubles(Criterion criterion, int capacity) {
+            super(criterion, capacity);
+            _values = new double[capacity];
+        }
+
+        @Override
+        protected void grow(int capacity) {
+            _values = Arrays.copyOf(_values, capacity);
+        }
+
+        @Override
+        protected void setValue(int position, Object key) {
+            _values[position] = ((Number) key).doubleValue();
+        }
+
+        @Override
+        protected int compareValues(int position1, int position2) {
+            double d1 = _values[position1];
+            double d2 = _values[position2];
+            return d1 < d2 ? -1 : (d1 > d2 ? 1 : 0);
+        }
+    }
+
+    /**
+     * Boolean keys, false before true.
+     */
+    static public class Booleans extends KeyColumn {
+
+        protected boolean[] _values;
+
+        public Booleans(Criterion criterion, int capacity) {
+            super(criterion, capacity);
+            _values = new boolean[capacity];
+        }
+
+        @Override
+        protected void grow(int capacity) {
+            _values = Arrays.copyOf(_values, capacity);
+        }
+
+        @Override
+        protected void setValue(int position, Object key) {
+            _values[position] = (Boolean) key;
+        }
+
+        @Override
+        protected int compareValues(int position1, int position2) {
+            return Boolean.compare(_values[position1], _values[position2]);
+        }
+    }
+
+    /**
+     * {@link Instant} keys, stored as seconds and nanoseconds since the epoch.
+     */
+    static public class Instants extends KeyColumn {
+
+        protected long[] _seconds;
+        protected int[] _nanos;
+
+        public Instants(Criterion criterion, int capacity) {
+            super(criterion, capacity);
+            _seconds = new long[capacity];
+            _nanos = new int[capacity];
+        }
+
+        @Override
+        protected void grow(int capacity) {
+            _seconds = Arrays.copyOf(_seconds, capacity);
+            _nanos = Arrays.copyOf(_nanos, capacity);
+        }
+
+        @Override
+        protected void setValue(int position, Object key) {
+            Instant instant = (Instant) key;
+            _seconds[position] = instant.getEpochSecond();
+            _nanos[position] = instant.getNano();
+        }
+
+        @Override
+        protected int compareValues(int position1, int position2) {
+            int c = Long.compare(_seconds[position1], _seconds[position2]);
+            return c != 0 ? c : Integer.compare(_nanos[position1], _nanos[position2]);
+        }
+    }
+
+    /**
+     * {@link CollationKey} keys, stored as their byte representation, which orders them when compared as unsigned
+     * bytes.
+     */
+    static public class CollationKeys extends KeyColumn {
+
+        protected byte[][] _values;
+
+        public CollationKeys(Criterion criterion, int capacity) {
+            super(criterion, capacity);
+            _values = new byte[capacity][];
+        }
+
+        @Override
+        protected void grow(int capacity) {
+            _values = Arrays.copyOf(_values, capacity);
+        }
+
+        @Override
+        protected void setValue(int position, Object key) {
+            _values[position] = ((CollationKey) key).toByteArray();
+        }
+
+        @Override
+        protected int compareValues(int position1, int position2) {
+            return Arrays.compareUnsigned(_values[position1], _values[position2]);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.sorting;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import com.google.refine.model.Project;
+import com.google.refine.util.ParsingUtilities;
+
+/**
+ * A sorted order of all the rows or records of a project, which can answer pages of any filtered subset without
+ * sorting again. Orders are cached per project, per last history entry applied and per sorting configuration. The
+ * first request for a given order only selects the rows it needs with a bounded heap: the full order is only built if
+ * another page is requested for the same sorting.
+ */
+public class SortedView {
+
+    static final int MAX_CACHED_VIEWS = 8;
+
+    /**
+     * Cached orders, by key. A null value records that a page was already requested for that key, without the full
+     * order being built yet.
+     */
+    static private final LinkedHashMap<String, SortedView> s_views = new LinkedHashMap<>(16, 0.75f, true);
+
+    protected final int[] _order;
+
+    protected SortedView(int[] order) {
+        _order = order;
+    }
+
+    /**
+     * Returns the indices of a page of matching rows or records, in sorted order.
+     *
+     * @param matches
+     *            the indices of the rows (or records) to consider
+     * @param recordBased
+     *            whether the indices refer to records rather than rows
+     * @return the indices of the matching rows or records in sorted order, from position {@code start} and at most
+     *         {@code limit} of them
+     */
+    static public int[] getPage(Project project, SortingConfig config, boolean recordBased,
+            BitSet matches, int start, int limit) {
+        int count = matches.cardinality();
+        int end = (int) Math.min((long) start + limit, count);
+        if (start >= end) {
+            return new int[0];
+        }
+
+        String key = getKey(project, config, recordBased);
+        SortedView view;
+        boolean seen;
+        synchronized (s_views) {
+            view = key == null ? null : s_views.get(key);
+            seen = key != null && s_views.containsKey(key);
+        }
+
+        if (view == null) {
+            if (!seen && end < count / 2) {
+                remember(key, null);
+                return Arrays.copyOfRange(selectFirst(project, config, recordBased, matches, end), start, end);
+            }
+            view = build(project, config, recordBased);
+            remember(key, view);
+        }
+        return view.getPage(matches, start, end);
+    }
+
+    protected int[] getPage(BitSet matches, int start, int end) {
+        int[] page = new int[end - start];
+        int seen = 0;
+        for (int i = 0; i < _order.length && seen < end; i++) {
+            int index = _order[i];
+            if (matches.get(index)) {
+                if (seen >= start) {
+                    page[seen - start] = index;
+                }
+                seen++;
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Sorts all the rows or records of the project.
+     */
+    static protected SortedView build(Project project, SortingConfig config, boolean recordBased) {
+        BaseSorter sorter = createSorter(project, config, recordBased);
+        int count = recordBased ? project.recordModel.getRecordCount() : project.rows.size();
+        sorter.initializeKeys(count);
+        for (int i = 0; i < count; i++) {
+            sorter.setKeys(project, get(project, recordBased, i), i, i);
+        }
+        return new SortedView(sorter.sortPositions(count));
+    }
+
+    /**
+     * Selects the first {@code k} matching rows or records in sorted order, keeping only {@code k} candidates at a
+     * time.
+     */
+    static protected int[] selectFirst(Project project, SortingConfig config, boolean recordBased,
+            BitSet matches, int k) {
+        BaseSorter sorter = createSorter(project, config, recordBased);
+        int count = matches.cardinality();
+        int[] indices = new int[count];
+        sorter.initializeKeys(count);
+        int position = 0;
+        for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+            sorter.setKeys(project, get(project, recordBased, i), i, position);
+            indices[position++] = i;
+        }
+
+        // positions follow the order of indices, so comparing them breaks ties as a stable sort would
+        PriorityQueue<Integer> heap = new PriorityQueue<>(k + 1, (p1, p2) -> {
+            int c = sorter.compare(p2, p1);
+            return c != 0 ? c : Integer.compare(p2, p1);
+        });
+        for (int p = 0; p < count; p++) {
+            heap.add(p);
+            if (heap.size() > k) {
+                heap.poll();
+            }
+        }
+
+        int[] first = new int[heap.size()];
+        for (int i = first.length - 1; i >= 0; i--) {
+            first[i] = indices[heap.poll()];
+        }
+        return first;
+    }
+
+    static private BaseSorter createSorter(Project project, SortingConfig config, boolean recordBased) {
+        BaseSorter sorter = recordBased ? new SortingRecordVisitor(null) : new SortingRowVisitor(null);
+        sorter.initializeFromConfig(project, config);
+        return sorter;
+    }
+
+    static private Object get(Project project, boolean recordBased, int index) {
+        return recordBased ? project.recordModel.getRecord(index) : project.rows.get(index);
+    }
+
+    /**
+     * Removes all the cached orders of a project.
+     */
+    static public void flush(long projectID) {
+        String prefix = projectID + ";";
+        synchronized (s_views) {
+            for (Iterator<Map.Entry<String, SortedView>> it = s_views.entrySet().iterator(); it.hasNext();) {
+                if (it.next().getKey().startsWith(prefix)) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    static public void clear() {
+        synchronized (s_views) {
+            s_views.clear();
+        }
+    }
+
+    static boolean isCached(Project project, SortingConfig config, boolean recordBased) {
+        String key = getKey(project, config, recordBased);
+        synchronized (s_views) {
+            return key != null && s_views.get(key) != null;
+        }
+    }
+
+    static private void remember(String key, SortedView view) {
+        if (key == null) {
+            return;
+        }
+        synchronized (s_views) {
+            s_views.put(key, view);
+            for (Iterator<String> it = s_views.keySet().iterator(); s_views.size() > MAX_CACHED_VIEWS && it.hasNext();) {
+                it.next();
+                it.remove();
+            }
+        }
+    }
+
+    static private String getKey(Project project, SortingConfig config, boolean recordBased) {
+        if (project.history == null) {
+            return null;
+        }
+        try {
+            return project.id + ";" + project.history.getCurrentEntryID() + ";" + (recordBased ? "record" : "row") + ";"
+                    + ParsingUtilities.mapper.writeValueAsString(config);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+}
@@ -34,8 +34,6 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.google.refine.sorting;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 
 import com.google.refine.browsing.RecordVisitor;
@@ -56,30 +54,18 @@ public class SortingRecordVisitor extends BaseSorter implements RecordVisitor {
     public void start(Project project) {
         int count = project.recordModel.getRecordCount();
         _records = new ArrayList<Record>(count);
-        _keys = new ArrayList<Object[]>(count);
+        initializeKeys(count);
     }
 
     @Override
     public void end(Project project) {
         _visitor.start(project);
 
-        Collections.sort(_records, new Comparator<Record>() {
+        int[] order = sortPositions(_records.size());
+        _keyColumns = null;
 
-            Project project;
-
-            Comparator<Record> init(Project project) {
-                this.project = project;
-                return this;
-            }
-
-            @Override
-            public int compare(Record o1, Record o2) {
-                return SortingRecordVisitor.this.compare(project, o1, o1.recordIndex, o2, o2.recordIndex);
-            }
-        }.init(project));
-
-        for (Record record : _records) {
-            _visitor.visit(project, record);
+        for (int position : order) {
+            _visitor.visit(project, _records.get(position));
         }
 
         _visitor.end(project);
@@ -87,6 +73,7 @@ public class SortingRecordVisitor extends BaseSorter implements RecordVisitor {
 
     @Override
     public boolean visit(Project project, Record record) {
+        setKeys(project, record, record.recordIndex, _records.size());
         _records.add(record);
         return false;
     }
@@ -34,8 +34,6 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.google.refine.sorting;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 
 import com.google.refine.browsing.RowVisitor;
@@ -67,29 +65,18 @@ public class SortingRowVisitor extends BaseSorter implements RowVisitor {
     public void start(Project project) {
         int count = project.rows.size();
         _indexedRows = new ArrayList<IndexedRow>(count);
-        _keys = new ArrayList<Object[]>(count);
+        initializeKeys(count);
     }
 
     @Override
     public void end(Project project) {
         _visitor.start(project);
 
-        Collections.sort(_indexedRows, new Comparator<IndexedRow>() {
+        int[] order = sortPositions(_indexedRows.size());
+        _keyColumns = null;
 
-            Project project;
-
-            Comparator<IndexedRow> init(Project project) {
-                this.project = project;
-                return this;
-            }
-
-            @Override
-            public int compare(IndexedRow o1, IndexedRow o2) {
-                return SortingRowVisitor.this.compare(project, o1.row, o1.index, o2.row, o2.index);
-            }
-        }.init(project));
-
-        for (IndexedRow indexedRow : _indexedRows) {
+        for (int position : order) {
+            IndexedRow indexedRow = _indexedRows.get(position);
             _visitor.visit(project, indexedRow.index, indexedRow.row);
         }
 
@@ -98,6 +85,7 @@ public class SortingRowVisitor extends BaseSorter implements RowVisitor {
 
     @Override
     public boolean visit(Project project, int rowIndex, Row row) {
+        setKeys(project, row, rowIndex, _indexedRows.size());
         _indexedRows.add(new IndexedRow(rowIndex, row));
         return false;
     }
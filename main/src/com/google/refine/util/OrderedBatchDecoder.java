@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.util;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decodes batches of items on a shared pool of worker threads while the caller keeps reading the input, delivering the
+ * decoded items to the target collection in the order their batches were submitted. The number of batches in flight is
+ * bounded so that a fast reader does not buffer the whole input in memory.
+ */
+public class OrderedBatchDecoder<T> {
+
+    static final int THREADS = Runtime.getRuntime().availableProcessors();
+
+    static private final ExecutorService workers = Executors.newFixedThreadPool(THREADS, new DaemonThreadFactory());
+
+    private final Collection<T> target;
+    private final int maxPending;
+    private final Deque<Future<List<T>>> pending = new ArrayDeque<>();
+
+    public OrderedBatchDecoder(Collection<T> target) {
+        this.target = target;
+        this.maxPending = THREADS * 2;
+    }
+
+    /**
+     * Schedules the decoding of a batch. Blocks while too many batches are in flight, delivering the oldest ones.
+     */
+    public void submit(Callable<List<T>> batch) throws IOException {
+        if (THREADS == 1) {
+            deliver(batch);
+            return;
+        }
+        pending.add(workers.submit(batch));
+        while (pending.size() > maxPending) {
+            deliverOldest();
+        }
+    }
+
+    /**
+     * Waits for all submitted batches and delivers them.
+     */
+    public void finish() throws IOException {
+        while (!pending.isEmpty()) {
+            deliverOldest();
+        }
+    }
+
+    /**
+     * Cancels the batches still in flight, after a failure of the reader.
+     */
+    public void cancel() {
+        for (Future<List<T>> future : pending) {
+            future.cancel(true);
+        }
+        pending.clear();
+    }
+
+    private void deliver(Callable<List<T>> batch) throws IOException {
+        try {
+            target.addAll(batch.call());
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    private void deliverOldest() throws IOException {
+        Future<List<T>> future = pending.poll();
+        try {
+            target.addAll(future.get());
+        } catch (ExecutionException e) {
+            cancel();
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        } catch (InterruptedException e) {
+            cancel();
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while decoding", e);
+        }
+    }
+
+    static private class DaemonThreadFactory implements ThreadFactory {
+
+        final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "batch-decoder-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
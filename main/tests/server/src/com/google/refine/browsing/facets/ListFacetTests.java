@@ -27,11 +27,17 @@
 
 package com.google.refine.browsing.facets;
 
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.JsonMappingException;
@@ -39,9 +45,11 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.testng.annotations.Test;
 
+import com.google.refine.ProjectManager;
 import com.google.refine.RefineTest;
 import com.google.refine.browsing.Engine;
 import com.google.refine.browsing.facets.ListFacet.ListFacetConfig;
+import com.google.refine.browsing.util.RowSample;
 import com.google.refine.model.Project;
 import com.google.refine.util.ParsingUtilities;
 import com.google.refine.util.TestUtils;
@@ -160,4 +168,39 @@ public class ListFacetTests extends RefineTest {
 
         TestUtils.assertEqualsAsJson(actual.toString(), selectedEmptyChoiceFacet);
     }
+
+    @Test
+    public void estimateChoicesFromSample() {
+        Serializable[][] rows = new Serializable[1000][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = new Serializable[] { i % 4 == 3 ? "b" : "a" };
+        }
+        Project project = createProject(new String[] { "Column A" }, rows);
+        Engine engine = new Engine(project);
+
+        ListFacetConfig facetConfig = new ListFacetConfig();
+        facetConfig.name = "facet A";
+        facetConfig.columnName = "Column A";
+        facetConfig.expression = "value";
+        facetConfig.approximate = true;
+
+        ProjectManager.singleton.getPreferenceStore().put(RowSample.SAMPLE_SIZE_PREFERENCE, 50);
+        try {
+            ListFacet facet = (ListFacet) facetConfig.apply(project);
+            facet.computeChoices(project, engine.getAllFilteredRows());
+
+            assertEquals(facet.getSampleRate().doubleValue(), 0.05);
+            Map<String, NominalFacetChoice> choices = new HashMap<>();
+            for (NominalFacetChoice choice : facet.getChoices()) {
+                choices.put((String) choice.decoratedValue.value, choice);
+            }
+            // 44 rows are sampled, of which 34 are "a"
+            assertEquals(choices.get("a").count, 680);
+            assertEquals(choices.get("b").count, 200);
+            assertNotNull(choices.get("a").errorBound);
+            assertTrue(Math.abs(choices.get("a").count - 750) <= choices.get("a").errorBound);
+        } finally {
+            ProjectManager.singleton.getPreferenceStore().put(RowSample.SAMPLE_SIZE_PREFERENCE, null);
+        }
+    }
 }
@@ -27,6 +27,11 @@
 
 package com.google.refine.browsing.facets;
 
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
 import java.io.IOException;
 import java.io.Serializable;
 
@@ -36,8 +41,12 @@ import org.testng.annotations.Test;
 
 import com.google.refine.RefineTest;
 import com.google.refine.browsing.Engine;
+import com.google.refine.browsing.RowFilter;
 import com.google.refine.browsing.facets.RangeFacet.RangeFacetConfig;
+import com.google.refine.browsing.util.NumericBinIndex;
+import com.google.refine.model.Cell;
 import com.google.refine.model.Project;
+import com.google.refine.model.changes.CellChange;
 import com.google.refine.util.ParsingUtilities;
 import com.google.refine.util.TestUtils;
 
@@ -98,4 +107,59 @@ public class RangeFacetTests extends RefineTest {
         facet.computeChoices(project, engine.getAllFilteredRows());
         TestUtils.isSerializedTo(facet, facetJson);
     }
+
+    @Test
+    public void filterRowsFromBaseBinIndex() throws IOException {
+        Project project = createProject(
+                new String[] { "my column" },
+                new Serializable[][] {
+                        { 89.2 },
+                        { -45.9 },
+                        { "blah" },
+                        { 0.4 },
+                        { null }
+                });
+        Engine engine = new Engine(project);
+        RangeFacetConfig config = ParsingUtilities.mapper.readValue(
+                configJson.replace("\"selectNonNumeric\": true", "\"selectNonNumeric\": false"), RangeFacetConfig.class);
+        RangeFacet facet = config.apply(project);
+        RowFilter unindexed = facet.getRowFilter(project);
+        facet.computeChoices(project, engine.getAllFilteredRows());
+
+        NumericBinIndex index = facet.getBaseBinIndex(project);
+        assertNotNull(index);
+        RowFilter indexed = facet.getRowFilter(project);
+        boolean[] expected = { true, false, false, true, true };
+        for (int i = 0; i < project.rows.size(); i++) {
+            assertTrue(index.isRowIndexed(i));
+            assertEquals(indexed.filterRow(project, i, project.rows.get(i)), expected[i]);
+            assertEquals(unindexed.filterRow(project, i, project.rows.get(i)), expected[i]);
+        }
+    }
+
+    @Test
+    public void filterRowsWithExpressionOfOtherColumn() throws IOException {
+        Project project = createProject(
+                new String[] { "my column", "other" },
+                new Serializable[][] {
+                        { "a", 10 },
+                        { "b", 200 },
+                        { "c", 30 }
+                });
+        Engine engine = new Engine(project);
+        RangeFacetConfig config = ParsingUtilities.mapper.readValue(
+                configJson.replace("\"expression\": \"value\"", "\"expression\": \"cells['other'].value\""),
+                RangeFacetConfig.class);
+        RangeFacet facet = config.apply(project);
+        facet.computeChoices(project, engine.getAllFilteredRows());
+        // the stored bins would not be cleared by edits of the other column
+        assertNull(facet.getBaseBinIndex(project));
+
+        Cell oldCell = project.rows.get(1).getCell(1);
+        new CellChange(1, 1, oldCell, new Cell(20, null)).apply(project);
+        RowFilter filter = facet.getRowFilter(project);
+        for (int i = 0; i < project.rows.size(); i++) {
+            assertTrue(filter.filterRow(project, i, project.rows.get(i)));
+        }
+    }
 }
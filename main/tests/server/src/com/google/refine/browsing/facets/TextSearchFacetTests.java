@@ -44,9 +44,11 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.BeforeTest;
 import org.testng.annotations.Test;
 
+import com.google.refine.ProjectManager;
 import com.google.refine.RefineTest;
 import com.google.refine.browsing.RowFilter;
 import com.google.refine.browsing.facets.TextSearchFacet.TextSearchFacetConfig;
+import com.google.refine.browsing.util.TrigramIndex;
 import com.google.refine.model.ModelException;
 import com.google.refine.model.Project;
 import com.google.refine.util.ParsingUtilities;
@@ -207,4 +209,55 @@ public class TextSearchFacetTests extends RefineTest {
         TextSearchFacet facet = config.apply(project);
         TestUtils.isSerializedTo(facet, sensitiveFacetJson);
     }
+
+    @Test
+    public void testLiteralPrefix() {
+        Assert.assertEquals(TextSearchFacet.getLiteralPrefix("abc"), "abc");
+        Assert.assertEquals(TextSearchFacet.getLiteralPrefix("^abc.*"), "abc");
+        Assert.assertEquals(TextSearchFacet.getLiteralPrefix("abcd?"), "abc");
+        Assert.assertEquals(TextSearchFacet.getLiteralPrefix("abc\\d+"), "abc");
+        Assert.assertNull(TextSearchFacet.getLiteralPrefix("a|bcd"));
+        Assert.assertNull(TextSearchFacet.getLiteralPrefix(".abc"));
+    }
+
+    @Test
+    public void testIndexedFilters() throws Exception {
+        project = createProject("TextSearchFacetIndex",
+                new String[] { "Value" },
+                new Serializable[][] {
+                        { "abcd" },
+                        { "xabcy" },
+                        { "ABC" },
+                        { "ab" },
+                        { null },
+                        { 1234 }
+                });
+        String[] filters = {
+                "{\"columnName\":\"Value\",\"mode\":\"text\",\"caseSensitive\":false,\"invert\":false,\"query\":\"ABC\"}",
+                "{\"columnName\":\"Value\",\"mode\":\"text\",\"caseSensitive\":true,\"invert\":false,\"query\":\"abc\"}",
+                "{\"columnName\":\"Value\",\"mode\":\"text\",\"caseSensitive\":false,\"invert\":true,\"query\":\"abc\"}",
+                "{\"columnName\":\"Value\",\"mode\":\"text\",\"caseSensitive\":false,\"invert\":false,\"query\":\"234\"}",
+                "{\"columnName\":\"Value\",\"mode\":\"regex\",\"caseSensitive\":true,\"invert\":false,\"query\":\"abc.\"}",
+                "{\"columnName\":\"Value\",\"mode\":\"regex\",\"caseSensitive\":false,\"invert\":false,\"query\":\"^abc\"}"
+        };
+
+        for (String filter : filters) {
+            configureFilter(filter);
+            boolean[] expected = new boolean[project.rows.size()];
+            for (int i = 0; i < expected.length; i++) {
+                expected[i] = rowfilter.filterRow(project, i, project.rows.get(i));
+            }
+
+            ProjectManager.singleton.getPreferenceStore().put(TrigramIndex.MIN_ROWS_PREFERENCE, 1);
+            try {
+                configureFilter(filter);
+                Assert.assertNotNull(textfilter.getCandidateRows(project), filter);
+                for (int i = 0; i < expected.length; i++) {
+                    Assert.assertEquals(rowfilter.filterRow(project, i, project.rows.get(i)), expected[i], filter);
+                }
+            } finally {
+                ProjectManager.singleton.getPreferenceStore().put(TrigramIndex.MIN_ROWS_PREFERENCE, null);
+            }
+        }
+    }
 }
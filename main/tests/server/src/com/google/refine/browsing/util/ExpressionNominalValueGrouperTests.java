@@ -43,6 +43,7 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.BeforeTest;
 import org.testng.annotations.Test;
 
+import com.google.refine.ProjectManager;
 import com.google.refine.RefineTest;
 import com.google.refine.expr.Evaluable;
 import com.google.refine.expr.MetaParser;
@@ -205,4 +206,32 @@ public class ExpressionNominalValueGrouperTests extends RefineTest {
         Assert.assertTrue(grouper.choices.containsKey(integerStringValue));
         Assert.assertEquals(grouper.choices.get(integerStringValue).count, 2);
     }
+
+    @Test
+    public void expressionNominalValueGrouperParallelScan() throws Exception {
+        int rowCount = 3 * ParallelScan.MIN_CHUNK_SIZE;
+        for (int i = 0; i < rowCount; i++) {
+            Row row = new Row(1);
+            row.setCell(0, i % 10 == 0 ? null : new Cell("v" + (i % 7), null));
+            project.rows.add(row);
+        }
+        eval = MetaParser.parse("value");
+
+        ExpressionNominalValueGrouper sequential = new ExpressionNominalValueGrouper(eval, columnName, cellIndex);
+        new ConjunctiveFilteredRows().accept(project, sequential);
+
+        ProjectManager.singleton.getPreferenceStore().put(ParallelScan.MIN_ROWS_PREFERENCE, 1);
+        try {
+            grouper = new ExpressionNominalValueGrouper(eval, columnName, cellIndex);
+            new ConjunctiveFilteredRows().accept(project, grouper);
+        } finally {
+            ProjectManager.singleton.getPreferenceStore().put(ParallelScan.MIN_ROWS_PREFERENCE, null);
+        }
+
+        Assert.assertEquals(grouper.blankCount, sequential.blankCount);
+        Assert.assertEquals(grouper.choices.size(), 7);
+        for (Object key : sequential.choices.keySet()) {
+            Assert.assertEquals(grouper.choices.get(key).count, sequential.choices.get(key).count);
+        }
+    }
 }
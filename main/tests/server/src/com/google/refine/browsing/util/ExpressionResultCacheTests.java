@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.browsing.util;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.Serializable;
+import java.util.Collections;
+
+import org.testng.annotations.Test;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.RefineTest;
+import com.google.refine.expr.Evaluable;
+import com.google.refine.expr.MetaParser;
+import com.google.refine.history.HistoryEntry;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Project;
+import com.google.refine.model.Recon;
+import com.google.refine.model.changes.CellChange;
+import com.google.refine.model.changes.MassReconChange;
+
+public class ExpressionResultCacheTests extends RefineTest {
+
+    @Test
+    public void testResultsAreCachedUntilColumnChanges() throws Exception {
+        Project project = createProject(
+                new String[] { "a", "b" },
+                new Serializable[][] {
+                        { 1L, "x" },
+                        { null, "y" },
+                        { 3L, "z" }
+                });
+        Evaluable eval = MetaParser.parse("value");
+
+        long misses = ExpressionResultCache.getMissCount();
+        ExpressionResultCache.Results results = ExpressionResultCache.getResults(project, 0, "a", "value", eval);
+        assertEquals(results.size(), 3);
+        assertEquals(results.get(0), 1L);
+        assertNull(results.get(1));
+        assertEquals(results.get(2), 3L);
+        assertEquals(ExpressionResultCache.getMissCount(), misses + 1);
+
+        long hits = ExpressionResultCache.getHitCount();
+        assertSame(ExpressionResultCache.getResults(project, 0, "a", "value", eval), results);
+        assertEquals(ExpressionResultCache.getHitCount(), hits + 1);
+
+        new CellChange(0, 0, project.rows.get(0).getCell(0), new Cell(10L, null)).apply(project);
+        results = ExpressionResultCache.getResults(project, 0, "a", "value", eval);
+        assertEquals(results.get(0), 10L);
+        assertEquals(ExpressionResultCache.getMissCount(), misses + 2);
+    }
+
+    @Test
+    public void testExpressionsDependingOnOtherDataAreNotCached() throws Exception {
+        assertTrue(ExpressionResultCache.isCacheable("value.toLowercase()"));
+        assertTrue(ExpressionResultCache.isCacheable("rowIndex + cell.value"));
+        assertTrue(ExpressionResultCache.isCacheable("value.replace('now', 'row')"));
+        assertTrue(ExpressionResultCache.isCacheable("forEach(value.split(','), v, v.trim())"));
+        assertFalse(ExpressionResultCache.isCacheable("cells['b'].value"));
+        assertFalse(ExpressionResultCache.isCacheable("row.starred"));
+        assertFalse(ExpressionResultCache.isCacheable("now()"));
+        assertFalse(ExpressionResultCache.isCacheable("value + random()"));
+        assertFalse(ExpressionResultCache.isCacheable("value.("));
+    }
+
+    @Test
+    public void testOnlyTheLatestExpressionIsCachedPerColumn() throws Exception {
+        Project project = createProject(
+                new String[] { "a" },
+                new Serializable[][] {
+                        { "x" },
+                        { "y" }
+                });
+        Evaluable upper = MetaParser.parse("value.toUppercase()");
+        Evaluable length = MetaParser.parse("value.length()");
+
+        ExpressionResultCache.Results results = ExpressionResultCache.getResults(project, 0, "a", "value.toUppercase()",
+                upper);
+        assertEquals(results.get(1), "Y");
+        assertEquals(ExpressionResultCache.getResults(project, 0, "a", "value.length()", length).get(1), 1L);
+
+        long misses = ExpressionResultCache.getMissCount();
+        assertEquals(ExpressionResultCache.getResults(project, 0, "a", "value.toUppercase()", upper).get(1), "Y");
+        assertEquals(ExpressionResultCache.getMissCount(), misses + 1);
+    }
+
+    @Test
+    public void testResultsOfLargeProjectsAreNotCached() throws Exception {
+        Project project = createProject(
+                new String[] { "a" },
+                new Serializable[][] {
+                        { "x" },
+                        { "y" }
+                });
+        Evaluable eval = MetaParser.parse("value");
+        ProjectManager.singleton.getPreferenceStore().put(ExpressionResultCache.MAX_ROWS_PREFERENCE, 1);
+        try {
+            assertNull(ExpressionResultCache.getResults(project, 0, "a", "value", eval));
+        } finally {
+            ProjectManager.singleton.getPreferenceStore().put(ExpressionResultCache.MAX_ROWS_PREFERENCE, null);
+        }
+        assertNotNull(ExpressionResultCache.getResults(project, 0, "a", "value", eval));
+    }
+
+    @Test
+    public void testResultsOfEarlierHistoryEntriesAreNotUsed() throws Exception {
+        Project project = createProject(
+                new String[] { "a", "b" },
+                new Serializable[][] {
+                        { "x", "y" }
+                });
+        Evaluable eval = MetaParser.parse("value");
+        ExpressionResultCache.getResults(project, 0, "a", "value", eval);
+
+        // a change to another column leaves the precomputes of column a, but the results are stamped with the entry
+        CellChange change = new CellChange(0, 1, project.rows.get(0).getCell(1), new Cell("z", null));
+        project.history.addEntry(new HistoryEntry(HistoryEntry.allocateID(), project, "Edit cell", null, change));
+        long misses = ExpressionResultCache.getMissCount();
+        ExpressionResultCache.getResults(project, 0, "a", "value", eval);
+        assertEquals(ExpressionResultCache.getMissCount(), misses + 1);
+    }
+
+    @Test
+    public void testResultsOnReconsAreDroppedByReconChanges() throws Exception {
+        Project project = createProject(
+                new String[] { "a" },
+                new Serializable[][] {
+                        { "x" }
+                });
+        Recon recon = new Recon(0L, "http://example.com/", "http://example.com/");
+        project.rows.get(0).setCell(0, new Cell("x", recon));
+        Evaluable eval = MetaParser.parse("cell.recon.judgment");
+        assertEquals(ExpressionResultCache.getResults(project, 0, "a", "cell.recon.judgment", eval).get(0), "none");
+
+        Recon matched = recon.dup();
+        matched.judgment = Recon.Judgment.Matched;
+        new MassReconChange(Collections.singletonMap(recon.id, matched), Collections.singletonMap(recon.id, recon))
+                .apply(project);
+        assertEquals(ExpressionResultCache.getResults(project, 0, "a", "cell.recon.judgment", eval).get(0), "matched");
+    }
+}
@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.browsing.util;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.RefineTest;
+import com.google.refine.browsing.Engine;
+import com.google.refine.browsing.EngineConfig;
+import com.google.refine.browsing.RowVisitor;
+import com.google.refine.browsing.facets.FacetConfig;
+import com.google.refine.browsing.facets.ListFacet.ListFacetConfig;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+import com.google.refine.util.ParsingUtilities;
+
+public class FilterCacheTests extends RefineTest {
+
+    @AfterMethod
+    public void tearDown() {
+        FilterCache.getInstance().clear();
+        ProjectManager.singleton.getPreferenceStore().put(FilterCache.MAX_BYTES_PREFERENCE, null);
+    }
+
+    @Test
+    public void testKeyDependsOnFacetConfig() throws Exception {
+        Project project = createProject(new String[] { "a" }, new Serializable[][] { { "x" } });
+        FacetConfig x = listFacetConfig("x");
+        FacetConfig y = listFacetConfig("y");
+
+        String key = FilterCache.getKey(project, Engine.MODE_ROW_BASED, x);
+        assertEquals(FilterCache.getKey(project, Engine.MODE_ROW_BASED, listFacetConfig("x")), key);
+        assertNotEquals(FilterCache.getKey(project, Engine.MODE_ROW_BASED, y), key);
+        assertNotEquals(FilterCache.getKey(project, Engine.MODE_RECORD_BASED, x), key);
+    }
+
+    @Test
+    public void testEvictionAndFlush() {
+        FilterCache cache = FilterCache.getInstance();
+        BitSet matches = new BitSet(1024);
+        matches.set(3);
+        cache.put("1;0;a", matches);
+        cache.put("2;0;a", new BitSet(1024));
+        assertSame(cache.get("1;0;a"), matches);
+
+        cache.flush(1L);
+        assertNull(cache.get("1;0;a"));
+        assertEquals(cache.size(), 1);
+
+        // room for a single entry
+        ProjectManager.singleton.getPreferenceStore().put(FilterCache.MAX_BYTES_PREFERENCE, 300);
+        cache.put("3;0;a", new BitSet(1024));
+        assertNull(cache.get("2;0;a"));
+        assertEquals(cache.size(), 1);
+    }
+
+    @Test
+    public void testFacetsWhichAreNotDeterministicAreNotCached() throws Exception {
+        Project project = createProject(new String[] { "a" }, new Serializable[][] { { "x" } });
+
+        assertNotNull(FilterCache.getKey(project, Engine.MODE_ROW_BASED, listFacetConfig("x", "rowIndex + value")));
+        assertNotNull(FilterCache.getKey(project, Engine.MODE_ROW_BASED, listFacetConfig("x", "value.match(/(n.)w/)[0]")));
+        assertNull(FilterCache.getKey(project, Engine.MODE_ROW_BASED, listFacetConfig("x", "random()")));
+        assertNull(FilterCache.getKey(project, Engine.MODE_ROW_BASED, listFacetConfig("x", "now().toString()")));
+        assertNull(FilterCache.getKey(project, Engine.MODE_ROW_BASED, listFacetConfig("x", "facetCount(value, 'value', 'a')")));
+        assertNull(FilterCache.getKey(project, Engine.MODE_ROW_BASED, listFacetConfig("x", "value +")));
+    }
+
+    @Test
+    public void testFilteredRowsOnlyUseCachedMatches() throws Exception {
+        Project project = createProject(new String[] { "a" }, new Serializable[][] { { "x" }, { "y" }, { "x" } });
+        Engine engine = new Engine(project);
+        engine.initializeFromConfig(EngineConfig.reconstruct("{\"mode\":\"row-based\",\"facets\":["
+                + ParsingUtilities.mapper.writeValueAsString(listFacetConfig("x")) + "]}"));
+
+        // visitors stopping early don't evaluate the facet on the whole project, nor fill the cache
+        List<Integer> visited = new ArrayList<>();
+        engine.getAllFilteredRows().accept(project, new RowVisitor() {
+
+            @Override
+            public void start(Project project) {
+            }
+
+            @Override
+            public boolean visit(Project project, int rowIndex, Row row) {
+                visited.add(rowIndex);
+                return true;
+            }
+
+            @Override
+            public void end(Project project) {
+            }
+        });
+        assertEquals(visited, Arrays.asList(0));
+        assertEquals(FilterCache.getInstance().size(), 0);
+
+        // computing the facets reuses each facet's matches, which are cached
+        engine.computeFacets();
+        assertEquals(FilterCache.getInstance().size(), 1);
+        visited.clear();
+        engine.getAllFilteredRows().accept(project, new RowVisitor() {
+
+            @Override
+            public void start(Project project) {
+            }
+
+            @Override
+            public boolean visit(Project project, int rowIndex, Row row) {
+                visited.add(rowIndex);
+                return false;
+            }
+
+            @Override
+            public void end(Project project) {
+            }
+        });
+        assertEquals(visited, Arrays.asList(0, 2));
+    }
+
+    private static FacetConfig listFacetConfig(String selected) throws Exception {
+        return listFacetConfig(selected, "value");
+    }
+
+    private static FacetConfig listFacetConfig(String selected, String expression) throws Exception {
+        return ParsingUtilities.mapper.readValue("{\"type\":\"list\",\"name\":\"a\",\"columnName\":\"a\","
+                + "\"expression\":" + ParsingUtilities.mapper.writeValueAsString(expression)
+                + ",\"omitBlank\":false,\"omitError\":false,"
+                + "\"selection\":[{\"v\":{\"v\":\"" + selected + "\",\"l\":\"" + selected + "\"}}],"
+                + "\"selectBlank\":false,\"selectError\":false,\"invert\":false}", ListFacetConfig.class);
+    }
+}
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.browsing.util;
+
+import static org.testng.Assert.assertEquals;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.browsing.RowFilter;
+import com.google.refine.browsing.RowVisitor;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+
+public class FilterOutcomesTests extends RefineTest {
+
+    @Test
+    public void testRowsMatchingAllFiltersButOne() {
+        Project project = createProject(
+                new String[] { "a", "b" },
+                new Serializable[][] {
+                        { "x", "x" },
+                        { "x", "y" },
+                        { "y", "x" },
+                        { "y", "y" }
+                });
+        AtomicInteger evaluations = new AtomicInteger();
+        RowFilter filterA = (p, rowIndex, row) -> {
+            evaluations.incrementAndGet();
+            return "x".equals(row.getCellValue(0));
+        };
+        RowFilter filterB = (p, rowIndex, row) -> {
+            evaluations.incrementAndGet();
+            return "x".equals(row.getCellValue(1));
+        };
+
+        FilterOutcomes outcomes = FilterOutcomes.ofRows(project, Arrays.asList(filterA, filterB));
+
+        // each filter is evaluated once per row, and never again when visiting
+        assertEquals(evaluations.get(), 8);
+        assertEquals(visitedRows(project, outcomes, -1), Arrays.asList(0));
+        assertEquals(visitedRows(project, outcomes, 0), Arrays.asList(0, 2));
+        assertEquals(visitedRows(project, outcomes, 1), Arrays.asList(0, 1));
+        assertEquals(evaluations.get(), 8);
+    }
+
+    private static List<Integer> visitedRows(Project project, FilterOutcomes outcomes, int excluded) {
+        List<Integer> visited = new ArrayList<>();
+        outcomes.getFilteredRows(excluded).accept(project, new RowVisitor() {
+
+            @Override
+            public void start(Project project) {
+            }
+
+            @Override
+            public boolean visit(Project project, int rowIndex, Row row) {
+                visited.add(rowIndex);
+                return false;
+            }
+
+            @Override
+            public void end(Project project) {
+            }
+        });
+        return visited;
+    }
+}
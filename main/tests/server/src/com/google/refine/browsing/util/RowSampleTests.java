@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.browsing.util;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.google.refine.browsing.FilteredRows;
+import com.google.refine.browsing.MergeableVisitor;
+import com.google.refine.browsing.RowVisitor;
+import com.google.refine.expr.MetaParser;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+
+public class RowSampleTests {
+
+    @Test
+    public void completeSample() {
+        RowSample sample = new RowSample(1.5);
+        assertTrue(sample.isComplete());
+        assertTrue(sample.includes(12345));
+        assertEquals(sample.estimate(42), 42);
+        assertEquals(sample.errorBound(42), 0);
+
+        FilteredRows rows = (project, visitor) -> {
+        };
+        assertSame(sample.of(rows), rows);
+    }
+
+    @Test
+    public void partialSample() {
+        RowSample sample = new RowSample(0.1);
+        assertFalse(sample.isComplete());
+
+        int included = 0;
+        for (int i = 0; i < 100000; i++) {
+            if (sample.includes(i)) {
+                included++;
+            }
+            assertEquals(sample.includes(i), sample.includes(i));
+        }
+        assertTrue(included > 9000 && included < 11000);
+
+        assertEquals(sample.estimate(10), 100);
+        assertEquals(sample.estimate(new int[] { 0, 3 }), new int[] { 0, 30 });
+        assertTrue(sample.errorBound(10) > 0);
+    }
+
+    @Test
+    public void sampledVisitorsRemainMergeable() throws Exception {
+        RowSample sample = new RowSample(0.1);
+        List<RowVisitor> visitors = new ArrayList<>();
+        FilteredRows rows = (project, visitor) -> visitors.add(visitor);
+
+        sample.of(rows).accept(null, new ExpressionNominalValueGrouper(MetaParser.parse("value"), "a", 0));
+        assertTrue(visitors.get(0) instanceof MergeableVisitor);
+        assertTrue(((MergeableVisitor<?>) visitors.get(0)).isForkable());
+        assertTrue(((MergeableVisitor<?>) visitors.get(0)).fork() instanceof MergeableVisitor);
+
+        sample.of(rows).accept(null, new RowVisitor() {
+
+            @Override
+            public void start(Project project) {
+            }
+
+            @Override
+            public boolean visit(Project project, int rowIndex, Row row) {
+                return false;
+            }
+
+            @Override
+            public void end(Project project) {
+            }
+        });
+        assertFalse(((MergeableVisitor<?>) visitors.get(1)).isForkable());
+    }
+}
@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.browsing.util;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+import java.io.Serializable;
+import java.util.BitSet;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.RefineTest;
+import com.google.refine.model.Column;
+import com.google.refine.model.Project;
+
+public class TrigramIndexTests extends RefineTest {
+
+    @BeforeMethod
+    public void setUp() {
+        ProjectManager.singleton.getPreferenceStore().put(TrigramIndex.MIN_ROWS_PREFERENCE, 1);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        ProjectManager.singleton.getPreferenceStore().put(TrigramIndex.MIN_ROWS_PREFERENCE, null);
+        ProjectManager.singleton.getPreferenceStore().put(TrigramIndex.MAX_BYTES_PREFERENCE, null);
+        ProjectManager.singleton.getPreferenceStore().put(ParallelScan.MIN_ROWS_PREFERENCE, null);
+    }
+
+    @Test
+    public void testCandidatesContainAllTrigrams() throws Exception {
+        Project project = createProject(
+                new String[] { "a" },
+                new Serializable[][] {
+                        { "abcabc" },
+                        { "xbcd" },
+                        { "Abcd" },
+                        { null },
+                        { 1234 }
+                });
+        Column column = project.columnModel.getColumnByName("a");
+        TrigramIndex index = TrigramIndex.getIndex(project, column, false);
+
+        assertEquals(index.getCandidates("abcd"), bitSet(2));
+        assertEquals(index.getCandidates("bcd"), bitSet(1, 2));
+        assertEquals(index.getCandidates("abc"), bitSet(0, 2));
+        assertEquals(index.getCandidates("234"), bitSet(4));
+        assertEquals(index.getCandidates("zzz"), new BitSet());
+        assertNull(index.getCandidates("ab"));
+    }
+
+    @Test
+    public void testParallelBuildMatchesSequentialBuild() throws Exception {
+        Serializable[][] rows = new Serializable[3 * ParallelScan.MIN_CHUNK_SIZE][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = new Serializable[] { "v" + (i % 1000) };
+        }
+        Project project = createProject(new String[] { "a" }, rows);
+        TrigramIndex sequential = new TrigramIndex(project, 0, false);
+
+        ProjectManager.singleton.getPreferenceStore().put(ParallelScan.MIN_ROWS_PREFERENCE, 1);
+        TrigramIndex parallel = new TrigramIndex(project, 0, false);
+
+        for (String s : new String[] { "v12", "123", "999", "v99" }) {
+            assertEquals(parallel.getCandidates(s), sequential.getCandidates(s), s);
+        }
+    }
+
+    @Test
+    public void testLargeColumnsAreNotIndexed() throws Exception {
+        Project project = createProject(
+                new String[] { "a" },
+                new Serializable[][] {
+                        { "abcdef" },
+                        { "ghijkl" }
+                });
+        Column column = project.columnModel.getColumnByName("a");
+        assertEquals(TrigramIndex.estimatePostings(project, 0), 8);
+
+        ProjectManager.singleton.getPreferenceStore().put(TrigramIndex.MAX_BYTES_PREFERENCE,
+                8 * TrigramIndex.BYTES_PER_POSTING - 1);
+        assertNull(TrigramIndex.getIndex(project, column, true));
+
+        column.clearPrecomputes();
+        ProjectManager.singleton.getPreferenceStore().put(TrigramIndex.MAX_BYTES_PREFERENCE,
+                8 * TrigramIndex.BYTES_PER_POSTING);
+        assertNotNull(TrigramIndex.getIndex(project, column, true));
+    }
+
+    static private BitSet bitSet(int... rows) {
+        BitSet bitSet = new BitSet();
+        for (int row : rows) {
+            bitSet.set(row);
+        }
+        return bitSet;
+    }
+}
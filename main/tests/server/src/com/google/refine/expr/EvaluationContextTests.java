@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.expr;
+
+import java.io.Serializable;
+import java.util.Properties;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+
+public class EvaluationContextTests extends RefineTest {
+
+    @Test
+    public void testBindRows() throws ParsingException {
+        Project project = createProject(
+                new String[] { "a", "b" },
+                new Serializable[][] {
+                        { "x", "1" },
+                        { null, "2" }
+                });
+        Properties bindings = ExpressionUtils.createBindings(project);
+        Assert.assertTrue(bindings instanceof EvaluationContext);
+
+        Row row = project.rows.get(0);
+        ExpressionUtils.bind(bindings, row, 0, "a", row.getCell(0));
+        Assert.assertEquals(bindings.get("value"), "x");
+        Assert.assertEquals(bindings.get("rowIndex"), 0);
+        Assert.assertEquals(bindings.get("columnName"), "a");
+        Assert.assertSame(bindings.get("project"), project);
+        WrappedCell cell = (WrappedCell) bindings.get("cell");
+        Assert.assertSame(cell.cell, row.getCell(0));
+        Assert.assertSame(bindings.get("cell"), cell);
+        Assert.assertEquals(MetaParser.parse("grel:cells.b.value + row.index").evaluate(bindings), "10");
+
+        row = project.rows.get(1);
+        ExpressionUtils.bind(bindings, row, 1, "a", row.getCell(0));
+        Assert.assertNull(bindings.get("value"));
+        Assert.assertNull(bindings.get("cell"));
+        Assert.assertFalse(bindings.containsKey("value"));
+        Assert.assertEquals(bindings.get("rowIndex"), 1);
+        Assert.assertEquals(((WrappedRow) bindings.get("row")).rowIndex, 1);
+    }
+
+    @Test
+    public void testOverrideSlots() throws ParsingException {
+        Project project = createProject(
+                new String[] { "a" },
+                new Serializable[][] {
+                        { "x" }
+                });
+        Properties bindings = ExpressionUtils.createBindings(project);
+        Row row = project.rows.get(0);
+        ExpressionUtils.bind(bindings, row, 0, "a", row.getCell(0));
+
+        Assert.assertEquals(MetaParser.parse("grel:with('y', value, value + '!')").evaluate(bindings), "y!");
+        Assert.assertEquals(bindings.get("value"), "x");
+
+        Assert.assertEquals(bindings.put("value", "z"), "x");
+        Assert.assertEquals(MetaParser.parse("grel:value").evaluate(bindings), "z");
+        Assert.assertEquals(bindings.remove("value"), "z");
+        Assert.assertNull(MetaParser.parse("grel:value").evaluate(bindings));
+
+        bindings.put("other", 3);
+        Assert.assertEquals(bindings.get("other"), 3);
+    }
+}
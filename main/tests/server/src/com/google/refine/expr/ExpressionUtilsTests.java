@@ -33,12 +33,18 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.expr;
 
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
 import org.slf4j.LoggerFactory;
 import org.testng.Assert;
 import org.testng.annotations.BeforeTest;
 import org.testng.annotations.Test;
 
 import com.google.refine.RefineTest;
+import com.google.refine.model.Project;
 
 public class ExpressionUtilsTests extends RefineTest {
 
@@ -69,4 +75,26 @@ public class ExpressionUtilsTests extends RefineTest {
         Assert.assertFalse(ExpressionUtils.sameValue(1, 1.0));
         Assert.assertFalse(ExpressionUtils.sameValue(true, false));
     }
+
+    @Test
+    public void testBindingsAreOnlyReusedWithinAScan() {
+        Project project = createProject(new String[] { "a" }, new Serializable[][] { { "x" } });
+        Object owner = new Object();
+
+        Assert.assertNotSame(ExpressionUtils.getBindings(owner, project), ExpressionUtils.getBindings(owner, project));
+
+        List<Properties> bindings = new ArrayList<>();
+        ExpressionUtils.runScan(() -> {
+            bindings.add(ExpressionUtils.getBindings(owner, project));
+            bindings.add(ExpressionUtils.getBindings(owner, project));
+            ExpressionUtils.runScan(() -> bindings.add(ExpressionUtils.getBindings(owner, project)));
+            bindings.add(ExpressionUtils.getBindings(owner, project));
+        });
+        Assert.assertSame(bindings.get(1), bindings.get(0));
+        Assert.assertNotSame(bindings.get(2), bindings.get(0));
+        Assert.assertSame(bindings.get(3), bindings.get(0));
+
+        ExpressionUtils.runScan(() -> bindings.add(ExpressionUtils.getBindings(owner, project)));
+        Assert.assertNotSame(bindings.get(4), bindings.get(0));
+    }
 }
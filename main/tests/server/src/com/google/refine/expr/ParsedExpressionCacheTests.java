@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.expr;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.RefineTest;
+import com.google.refine.grel.TieredExpression;
+
+public class ParsedExpressionCacheTests extends RefineTest {
+
+    static private class CountingParser implements LanguageSpecificParser {
+
+        int parses;
+
+        @Override
+        public Evaluable parse(String s) throws ParsingException {
+            parses++;
+            if (s.isEmpty()) {
+                throw new ParsingException("empty expression");
+            }
+            return bindings -> s;
+        }
+    }
+
+    @Test
+    public void testParseOncePerExpression() throws ParsingException {
+        ParsedExpressionCache cache = new ParsedExpressionCache(10);
+        CountingParser parser = new CountingParser();
+
+        Evaluable first = cache.get("test:a", "a", parser);
+        Assert.assertSame(cache.get("test:a", "a", parser), first);
+        Assert.assertNotSame(cache.get("test:b", "b", parser), first);
+        Assert.assertEquals(parser.parses, 2);
+
+        ParsedExpressionCache.Statistics statistics = cache.getStatistics();
+        Assert.assertEquals(statistics.size, 2);
+        Assert.assertEquals(statistics.hits, 1);
+        Assert.assertEquals(statistics.misses, 2);
+        Assert.assertEquals(statistics.parses, 2);
+    }
+
+    @Test
+    public void testParsingErrorsAreNotCached() {
+        ParsedExpressionCache cache = new ParsedExpressionCache(10);
+        CountingParser parser = new CountingParser();
+
+        Assert.assertThrows(ParsingException.class, () -> cache.get("test:", "", parser));
+        Assert.assertThrows(ParsingException.class, () -> cache.get("test:", "", parser));
+        Assert.assertEquals(parser.parses, 2);
+        Assert.assertEquals(cache.getStatistics().size, 0);
+    }
+
+    @Test
+    public void testBoundedSize() throws ParsingException {
+        ParsedExpressionCache cache = new ParsedExpressionCache(2);
+        CountingParser parser = new CountingParser();
+        for (int i = 0; i < 10; i++) {
+            cache.get("test:" + i, Integer.toString(i), parser);
+        }
+        Assert.assertTrue(cache.getStatistics().size <= 2);
+    }
+
+    @Test
+    public void testGRELExpressionsShareTheirCompiledForm() throws ParsingException {
+        Evaluable first = MetaParser.parse("grel:value.trim().length() + 1");
+        Evaluable second = MetaParser.parse("grel:value.trim().length() + 1");
+        Assert.assertTrue(first instanceof TieredExpression);
+        Assert.assertSame(second, first);
+    }
+
+    @Test
+    public void testCompileThresholdChangesApplyToCachedExpressions() throws ParsingException {
+        Evaluable first = MetaParser.parse("grel:value.trim().length() + 2");
+        ProjectManager.singleton.getPreferenceStore().put(TieredExpression.COMPILE_THRESHOLD_PREFERENCE, 0);
+        try {
+            Evaluable second = MetaParser.parse("grel:value.trim().length() + 2");
+            Assert.assertFalse(second instanceof TieredExpression);
+            Assert.assertSame(second, ((TieredExpression) first).getExpression());
+        } finally {
+            ProjectManager.singleton.getPreferenceStore().put(TieredExpression.COMPILE_THRESHOLD_PREFERENCE, null);
+        }
+    }
+}
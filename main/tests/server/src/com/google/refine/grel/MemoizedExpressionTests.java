@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.grel;
+
+import java.util.Properties;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.RefineTest;
+import com.google.refine.expr.EvalError;
+import com.google.refine.expr.Evaluable;
+import com.google.refine.expr.ExpressionUtils;
+import com.google.refine.expr.MetaParser;
+import com.google.refine.expr.ParsingException;
+import com.google.refine.model.Project;
+
+public class MemoizedExpressionTests extends RefineTest {
+
+    Properties bindings;
+
+    @BeforeMethod
+    public void setUp() {
+        bindings = ExpressionUtils.createBindings(new Project());
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        ProjectManager.singleton.getPreferenceStore().put(MemoizedExpression.MAX_ENTRIES_PREFERENCE, null);
+    }
+
+    @Test
+    public void testWrapValueExpressions() throws ParsingException {
+        Assert.assertTrue(MemoizedExpression.wrap(MetaParser.parse("grel:value.toUppercase()")) instanceof MemoizedExpression);
+        Assert.assertFalse(MemoizedExpression.wrap(MetaParser.parse("grel:value + rowIndex")) instanceof MemoizedExpression);
+        Assert.assertFalse(MemoizedExpression.wrap(MetaParser.parse("grel:now()")) instanceof MemoizedExpression);
+
+        ProjectManager.singleton.getPreferenceStore().put(MemoizedExpression.MAX_ENTRIES_PREFERENCE, 0);
+        Assert.assertFalse(MemoizedExpression.wrap(MetaParser.parse("grel:value.toUppercase()")) instanceof MemoizedExpression);
+    }
+
+    @Test
+    public void testEvaluateOncePerDistinctValue() {
+        CountingExpression counting = new CountingExpression();
+        MemoizedExpression memoized = new MemoizedExpression(counting, 10);
+
+        Object[] values = { "a", "b", "a", null, 1L, null, "b", 1L };
+        for (Object value : values) {
+            if (value == null) {
+                bindings.remove("value");
+            } else {
+                bindings.put("value", value);
+            }
+            Assert.assertEquals(memoized.evaluate(bindings), value == null ? null : value + "!");
+        }
+        Assert.assertEquals(counting.evaluations, 4);
+        Assert.assertEquals(memoized.getEvaluations(), 4);
+        Assert.assertEquals(memoized.getLookups(), values.length);
+    }
+
+    @Test
+    public void testBoundedMemo() {
+        CountingExpression counting = new CountingExpression();
+        MemoizedExpression memoized = new MemoizedExpression(counting, 1);
+
+        for (String value : new String[] { "a", "b", "a", "b" }) {
+            bindings.put("value", value);
+            Assert.assertEquals(memoized.evaluate(bindings), value + "!");
+        }
+        // only the first value is remembered
+        Assert.assertEquals(counting.evaluations, 3);
+    }
+
+    @Test
+    public void testMutableResultsAreNotShared() throws ParsingException {
+        MemoizedExpression memoized = new MemoizedExpression(MetaParser.parse("grel:value.split(',')"), 10);
+        bindings.put("value", "a,b");
+        Object first = memoized.evaluate(bindings);
+        Object second = memoized.evaluate(bindings);
+        Assert.assertNotSame(first, second);
+        Assert.assertEquals(memoized.getEvaluations(), 2);
+
+        memoized = new MemoizedExpression(MetaParser.parse("grel:value.toNumber()"), 10);
+        bindings.put("value", "x");
+        Assert.assertTrue(memoized.evaluate(bindings) instanceof EvalError);
+        Assert.assertTrue(memoized.evaluate(bindings) instanceof EvalError);
+        Assert.assertEquals(memoized.getEvaluations(), 1);
+    }
+
+    static private class CountingExpression implements Evaluable {
+
+        int evaluations;
+
+        @Override
+        public Object evaluate(Properties bindings) {
+            evaluations++;
+            Object value = bindings.get("value");
+            return value == null ? null : value + "!";
+        }
+    }
+}
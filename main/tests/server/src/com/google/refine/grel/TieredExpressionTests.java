@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.grel;
+
+import java.util.Properties;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.RefineTest;
+import com.google.refine.expr.Evaluable;
+import com.google.refine.expr.ExpressionUtils;
+import com.google.refine.expr.MetaParser;
+import com.google.refine.expr.ParsingException;
+import com.google.refine.model.Project;
+
+public class TieredExpressionTests extends RefineTest {
+
+    Properties bindings;
+
+    @BeforeMethod
+    public void setUp() {
+        bindings = ExpressionUtils.createBindings(new Project());
+        bindings.put("value", "abc");
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        ProjectManager.singleton.getPreferenceStore().put(TieredExpression.COMPILE_THRESHOLD_PREFERENCE, null);
+    }
+
+    @Test
+    public void testCompileAfterThreshold() throws ParsingException {
+        ProjectManager.singleton.getPreferenceStore().put(TieredExpression.COMPILE_THRESHOLD_PREFERENCE, 3);
+        Evaluable eval = MetaParser.parse("grel:value.toUppercase() + '!'");
+        Assert.assertTrue(eval instanceof TieredExpression);
+        TieredExpression tiered = (TieredExpression) eval;
+
+        for (int i = 0; i < 3; i++) {
+            Assert.assertFalse(tiered.isCompiled());
+            Assert.assertEquals(tiered.evaluate(bindings), "ABC!");
+        }
+        Assert.assertTrue(tiered.isCompiled());
+        Assert.assertEquals(tiered.evaluate(bindings), "ABC!");
+        Assert.assertEquals(tiered.toString(), tiered.getExpression().toString());
+    }
+
+    @Test
+    public void testForceInterpretation() throws ParsingException {
+        ProjectManager.singleton.getPreferenceStore().put(TieredExpression.COMPILE_THRESHOLD_PREFERENCE, 0);
+        Evaluable eval = MetaParser.parse("grel:value.toUppercase()");
+        Assert.assertFalse(eval instanceof TieredExpression);
+        Assert.assertEquals(eval.evaluate(bindings), "ABC");
+    }
+
+    @Test
+    public void testSimpleExpressionsAreNotWrapped() throws ParsingException {
+        Assert.assertFalse(MetaParser.parse("grel:value") instanceof TieredExpression);
+        Assert.assertFalse(MetaParser.parse("grel:'abc'") instanceof TieredExpression);
+    }
+}
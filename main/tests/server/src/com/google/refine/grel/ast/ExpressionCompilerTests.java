@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.grel.ast;
+
+import java.util.Arrays;
+import java.util.Properties;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.expr.Evaluable;
+import com.google.refine.expr.ExpressionUtils;
+import com.google.refine.expr.ParsingException;
+import com.google.refine.grel.Parser;
+import com.google.refine.model.Project;
+
+public class ExpressionCompilerTests extends RefineTest {
+
+    static private String[] EXPRESSIONS = {
+            "1 + 2",
+            "7 - 2 * 3",
+            "7 / 2",
+            "7.0 / 2",
+            "0 / 0",
+            "7 % 3",
+            "1 < 2.5",
+            "2 >= 2",
+            "'a' < 'b'",
+            "'a' + 1",
+            "1 + 'a'",
+            "'a' == 'a'",
+            "1 == 'a'",
+            "null == null",
+            "1 != 1.0",
+            "true == false",
+            "value + 1",
+            "value.trim().toLowercase()",
+            "value.length() > 3",
+            "value.foo",
+            "value.datePart()",
+            "if(value == ' Abc ', 'yes', 'no')",
+            "with(value, x, x.trim() + '!')",
+            "forEach([1, 2, 3], v, v * 2)",
+            "filter([1, 2, 3], v, v > 1).length()",
+            "toNumber('a')",
+            "[1, 2][5]",
+            "substring(value, 1, 3)",
+            "replace(value, 'b', 'c')",
+    };
+
+    Properties bindings;
+
+    @BeforeMethod
+    public void setUp() {
+        bindings = ExpressionUtils.createBindings(new Project());
+        bindings.put("value", " Abc ");
+    }
+
+    @Test
+    public void testCompiledExpressionsEvaluateLikeSyntaxTrees() throws ParsingException {
+        for (String expression : EXPRESSIONS) {
+            Evaluable tree = new Parser(expression).getExpression();
+            Evaluable compiled = ExpressionCompiler.compile(tree);
+
+            Object expected = tree.evaluate(bindings);
+            Object actual = compiled.evaluate(bindings);
+            Assert.assertEquals(normalize(actual), normalize(expected), expression);
+        }
+    }
+
+    @Test
+    public void testCompiledControlCall() throws ParsingException {
+        Evaluable tree = new Parser("if(value.length() > 3, 'long', 'short')").getExpression();
+        Evaluable compiled = ExpressionCompiler.compile(tree);
+
+        Assert.assertEquals(compiled.evaluate(bindings), "long");
+        Assert.assertNotSame(compiled, tree);
+    }
+
+    @Test
+    public void testLiteralsAndVariablesAreNotCompiled() throws ParsingException {
+        Evaluable literal = new Parser("'abc'").getExpression();
+        Evaluable variable = new Parser("value").getExpression();
+
+        Assert.assertSame(ExpressionCompiler.compile(literal), literal);
+        Assert.assertSame(ExpressionCompiler.compile(variable), variable);
+    }
+
+    private Object normalize(Object value) {
+        return value instanceof Object[] ? Arrays.deepToString((Object[]) value) : value;
+    }
+}
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.grel.ast;
+
+import java.util.Arrays;
+import java.util.Properties;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.expr.Evaluable;
+import com.google.refine.expr.ExpressionUtils;
+import com.google.refine.expr.ParsingException;
+import com.google.refine.grel.Parser;
+import com.google.refine.model.Project;
+
+public class ExpressionOptimizerTests extends RefineTest {
+
+    static private String[] EXPRESSIONS = {
+            "1 + 2 * 3",
+            "toNumber('3') + value.length()",
+            "'a' < 'b'",
+            "1 / 0 == 1",
+            "0 / 0",
+            "value.replace('b', 'c') + toUppercase('x')",
+            "match(value, '.*(b).*')",
+            "match(value, '(')",
+            "split('a,b', ',').length()",
+            "if(1 > 2, 'yes', value)",
+            "with('abc'.length(), x, x + value.length())",
+    };
+
+    Properties bindings;
+
+    @BeforeMethod
+    public void setUp() {
+        bindings = ExpressionUtils.createBindings(new Project());
+        bindings.put("value", "abc");
+    }
+
+    @Test
+    public void testOptimizedExpressionsEvaluateLikeSyntaxTrees() throws ParsingException {
+        for (String expression : EXPRESSIONS) {
+            Evaluable tree = new Parser(expression).getExpression();
+            Evaluable optimized = ExpressionOptimizer.optimize(tree);
+
+            Object expected;
+            try {
+                expected = tree.evaluate(bindings);
+            } catch (ArithmeticException e) {
+                Assert.assertThrows(ArithmeticException.class, () -> optimized.evaluate(bindings));
+                continue;
+            }
+            Assert.assertEquals(normalize(optimized.evaluate(bindings)), normalize(expected), expression);
+        }
+    }
+
+    @Test
+    public void testOperatorCallsApplyTheirOperator() {
+        Evaluable[] args = { new LiteralExpr(2L), new LiteralExpr(3.0) };
+        Assert.assertEquals(new OperatorCallExpr(args, "*").evaluate(bindings), 6.0);
+        Assert.assertEquals(new OperatorCallExpr(args, "<").evaluate(bindings), true);
+        Assert.assertSame(new OperatorCallExpr(args, "*").getOperator(), Operator.MULTIPLY);
+        Assert.assertNull(new OperatorCallExpr(args, "^").evaluate(bindings));
+        Evaluable[] single = { new LiteralExpr(null) };
+        Assert.assertEquals(new OperatorCallExpr(single, "==").evaluate(bindings), true);
+    }
+
+    @Test
+    public void testFoldConstants() throws ParsingException {
+        Evaluable optimized = ExpressionOptimizer.optimize(new Parser("1 + 2 * 3").getExpression());
+        Assert.assertTrue(optimized instanceof LiteralExpr);
+        Assert.assertEquals(optimized.evaluate(bindings), 7L);
+
+        optimized = ExpressionOptimizer.optimize(new Parser("toNumber('3') + value.length()").getExpression());
+        Assert.assertEquals(ExpressionOptimizer.describe(optimized),
+                "operator ADD\n"
+                        + "  literal 3 (Long)\n"
+                        + "  function Length\n"
+                        + "    variable value\n");
+    }
+
+    @Test
+    public void testKeepImpureAndMutableResults() throws ParsingException {
+        Evaluable optimized = ExpressionOptimizer.optimize(new Parser("random() < 2").getExpression());
+        Assert.assertTrue(ExpressionOptimizer.describe(optimized).contains("function RandomNumber"));
+
+        optimized = ExpressionOptimizer.optimize(new Parser("split('a,b', ',')").getExpression());
+        Assert.assertTrue(optimized instanceof FunctionCallExpr);
+    }
+
+    @Test
+    public void testCompileMatchPatterns() throws ParsingException {
+        Evaluable optimized = ExpressionOptimizer.optimize(new Parser("match(value, '(a).*')").getExpression());
+        Assert.assertEquals(ExpressionOptimizer.describe(optimized),
+                "function Match\n"
+                        + "  variable value\n"
+                        + "  literal (a).* (Pattern)\n");
+
+        // invalid patterns still fail when evaluated
+        optimized = ExpressionOptimizer.optimize(new Parser("match(value, '(')").getExpression());
+        Assert.assertTrue(ExpressionOptimizer.describe(optimized).contains("literal \"(\" (String)"));
+    }
+
+    @Test
+    public void testDependsOnlyOnValue() throws ParsingException {
+        String[] valueExpressions = {
+                "value.trim().toUppercase()",
+                "if(isBlank(value), 'none', value + PI)",
+                "forEach(value.split(','), v, v.trim()).join('|')",
+                "with(value.length(), n, n * 2)",
+        };
+        for (String expression : valueExpressions) {
+            Assert.assertTrue(ExpressionOptimizer.dependsOnlyOnValue(new Parser(expression).getExpression()), expression);
+        }
+
+        String[] rowExpressions = {
+                "cells['a'].value",
+                "value + rowIndex",
+                "random() + value.length()",
+                "if(value == 'a', row, 'b')",
+                "forEach(value.split(','), v, v) + v",
+        };
+        for (String expression : rowExpressions) {
+            Assert.assertFalse(ExpressionOptimizer.dependsOnlyOnValue(new Parser(expression).getExpression()), expression);
+        }
+    }
+
+    private Object normalize(Object value) {
+        return value instanceof Object[] ? Arrays.deepToString((Object[]) value) : value;
+    }
+}
@@ -35,6 +35,7 @@ package com.google.refine.history;
 
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -144,4 +145,32 @@ public class HistoryTests extends RefineTest {
         SUT.addEntry(secondEntry);
         TestUtils.isSerializedTo(SUT, targetJson);
     }
+
+    @Test
+    public void undoRedoRestoresNearestCheckpoint() throws Exception {
+        when(historyEntryManager.getCheckpointInterval()).thenReturn(2);
+
+        HistoryEntry[] entries = new HistoryEntry[6];
+        Change[] changes = new Change[6];
+        for (int i = 0; i < entries.length; i++) {
+            changes[i] = mock(Change.class);
+            entries[i] = HistoryEntry.load(proj, "{\"id\":" + (i + 1) + ",\"description\":\"entry " + i + "\"}");
+            entries[i].setChange(changes[i]);
+            SUT.addEntry(entries[i]);
+        }
+        verify(historyEntryManager, never()).saveCheckpoint(proj, entries[0]);
+        verify(historyEntryManager, times(1)).saveCheckpoint(proj, entries[1]);
+        verify(historyEntryManager, times(1)).saveCheckpoint(proj, entries[5]);
+
+        when(historyEntryManager.hasCheckpoint(entries[1])).thenReturn(true);
+        SUT.undoRedo(entries[0].id);
+
+        verify(historyEntryManager, times(1)).restoreCheckpoint(proj, entries[1]);
+        verify(changes[1], times(1)).revert(proj);
+        for (int i = 2; i < entries.length; i++) {
+            verify(changes[i], never()).revert(proj);
+        }
+        Assert.assertEquals(SUT.getLastPastEntries(0).size(), 1);
+        Assert.assertEquals(SUT.getPrecedingEntryID(entries[2].id), entries[1].id);
+    }
 }
@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.io;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipFile;
+
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.expr.EvalError;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Project;
+import com.google.refine.model.Recon;
+import com.google.refine.model.Row;
+import com.google.refine.util.Pool;
+import com.google.refine.util.TestUtils;
+
+public class ColumnarRowFormatTests extends RefineTest {
+
+    @Test
+    public void testRoundTripValueTypes() throws IOException {
+        Recon recon = Recon.makeWikidataRecon(1234L);
+        OffsetDateTime date = OffsetDateTime.parse("2018-03-04T08:09:10+02:00");
+        Project project = createProject(new String[] { "a", "b", "c" },
+                new Serializable[][] {
+                        { "foo", 12L, 3.5 },
+                        { null, true, date },
+                        { "bar", new EvalError("boom"), "foo" },
+                        { "", Integer.valueOf(7), null },
+                });
+        project.rows.get(2).setCell(0, new Cell("bar", recon));
+        project.rows.get(1).flagged = true;
+        project.rows.get(3).starred = true;
+
+        Pool pool = new Pool();
+        List<Row> rows = roundTrip(project.rows, pool);
+
+        assertEquals(rows.size(), 4);
+        assertEquals(rows.get(0).getCellValue(0), "foo");
+        assertEquals(rows.get(0).getCellValue(1), 12L);
+        assertEquals(rows.get(0).getCellValue(2), 3.5);
+        assertNull(rows.get(1).getCell(0));
+        assertEquals(rows.get(1).getCellValue(1), true);
+        assertEquals(rows.get(1).getCellValue(2), date);
+        assertEquals(rows.get(2).getCellValue(0), "bar");
+        assertSame(rows.get(2).getCell(0).recon, recon);
+        assertEquals(rows.get(2).getCellValue(1), new EvalError("boom"));
+        assertEquals(rows.get(3).getCellValue(0), "");
+        assertEquals(rows.get(3).getCellValue(1), 7);
+        assertEquals(rows.get(3).cells.size(), 3);
+        assertTrue(rows.get(1).flagged);
+        assertFalse(rows.get(1).starred);
+        assertTrue(rows.get(3).starred);
+    }
+
+    @Test
+    public void testRaggedRows() throws IOException {
+        Row shortRow = new Row(1);
+        shortRow.setCell(0, new Cell("x", null));
+        Row longRow = new Row(3);
+        longRow.setCell(2, new Cell(null, null));
+
+        List<Row> rows = roundTrip(List.of(shortRow, longRow), new Pool());
+
+        assertEquals(rows.get(0).cells.size(), 1);
+        assertEquals(rows.get(1).cells.size(), 3);
+        assertNull(rows.get(1).getCell(0));
+        assertNotNull(rows.get(1).getCell(2));
+        assertNull(rows.get(1).getCellValue(2));
+    }
+
+    @Test
+    public void testLegacyProjectIsUpgradedOnSave() throws IOException {
+        Project project = createProject(new String[] { "a", "b" },
+                new Serializable[][] {
+                        { "x", 1L },
+                        { "y", 2.5 },
+                });
+        File dir = TestUtils.createTempDirectory("openrefine-columnar-test");
+        File legacy = new File(dir, "legacy.zip");
+        ProjectUtilities.saveToFile(project, legacy, ProjectUtilities.FORMAT_JSON);
+        try (ZipFile zip = new ZipFile(legacy)) {
+            assertNull(zip.getEntry(ColumnarRowFormat.ENTRY_NAME));
+        }
+
+        Project loaded = ProjectUtilities.loadFromFile(legacy, project.id);
+        File upgraded = new File(dir, "upgraded.zip");
+        ProjectUtilities.saveToFile(loaded, upgraded);
+        try (ZipFile zip = new ZipFile(upgraded)) {
+            assertNotNull(zip.getEntry(ColumnarRowFormat.ENTRY_NAME));
+        }
+
+        Project reloaded = ProjectUtilities.loadFromFile(upgraded, project.id);
+        assertEquals(reloaded.rows.size(), 2);
+        assertEquals(reloaded.rows.get(1).getCellValue(0), "y");
+        assertEquals(reloaded.rows.get(1).getCellValue(1), 2.5);
+        assertEquals(reloaded.columnModel.columns.size(), 2);
+        assertEquals(reloaded.columnModel.getMaxCellIndex(), 1);
+    }
+
+    @Test
+    public void testRowGroupsKeepTheirOrder() throws IOException {
+        List<Row> rows = new ArrayList<>();
+        for (int i = 0; i < ColumnarRowFormat.ROW_GROUP_SIZE * 2 + 5; i++) {
+            Row row = new Row(1);
+            row.setCell(0, new Cell((long) i, null));
+            rows.add(row);
+        }
+
+        List<Row> loaded = roundTrip(rows, new Pool());
+
+        assertEquals(loaded.size(), rows.size());
+        for (int i = 0; i < loaded.size(); i++) {
+            assertEquals(loaded.get(i).getCellValue(0), (long) i);
+        }
+    }
+
+    @Test
+    public void testLegacyRowsKeepTheirOrder() throws IOException {
+        Serializable[][] grid = new Serializable[5000][];
+        for (int i = 0; i < grid.length; i++) {
+            grid[i] = new Serializable[] { "r" + i };
+        }
+        Project project = createProject(new String[] { "a" }, grid);
+        File legacy = new File(TestUtils.createTempDirectory("openrefine-columnar-test"), "legacy.zip");
+        ProjectUtilities.saveToFile(project, legacy, ProjectUtilities.FORMAT_JSON);
+
+        Project loaded = ProjectUtilities.loadFromFile(legacy, project.id);
+
+        assertEquals(loaded.rows.size(), grid.length);
+        for (int i = 0; i < grid.length; i++) {
+            assertEquals(loaded.rows.get(i).getCellValue(0), "r" + i);
+        }
+    }
+
+    @Test
+    public void testReconsAcrossRowGroups() throws IOException {
+        Recon first = Recon.makeWikidataRecon(1L);
+        Recon second = Recon.makeWikidataRecon(2L);
+        List<Row> rows = new ArrayList<>();
+        for (int i = 0; i < ColumnarRowFormat.ROW_GROUP_SIZE + 2; i++) {
+            Row row = new Row(1);
+            row.setCell(0, new Cell("v", i < ColumnarRowFormat.ROW_GROUP_SIZE ? first : second));
+            rows.add(row);
+        }
+        Pool pool = new Pool();
+        List<Row> loaded = roundTrip(rows, pool);
+
+        assertEquals(loaded.get(0).getCell(0).recon.id, first.id);
+        assertEquals(loaded.get(rows.size() - 1).getCell(0).recon.id, second.id);
+    }
+
+    private List<Row> roundTrip(List<Row> rows, Pool pool) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ColumnarRowFormat.save(rows, out, pool);
+        return ColumnarRowFormat.load(new ByteArrayInputStream(out.toByteArray()), pool);
+    }
+}
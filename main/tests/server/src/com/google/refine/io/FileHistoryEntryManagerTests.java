@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.io;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.RefineTest;
+import com.google.refine.history.HistoryEntry;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+import com.google.refine.model.changes.CellChange;
+import com.google.refine.util.TestUtils;
+
+public class FileHistoryEntryManagerTests extends RefineTest {
+
+    FileHistoryEntryManager historyEntryManager;
+
+    @BeforeMethod
+    public void setUpWorkspace() throws IOException {
+        ProjectManager.singleton = new FileProjectManager(TestUtils.createTempDirectory("openrefine-history-test"));
+        historyEntryManager = new FileHistoryEntryManager();
+    }
+
+    @Test
+    public void testCheckpointIsRestoredIntoTheRowStore() throws Exception {
+        Project project = createProject(new String[] { "a" },
+                new Serializable[][] {
+                        { "x" },
+                        { "y" },
+                });
+        HistoryEntry entry = applyCellChange(project, 0, "changed");
+        historyEntryManager.writeCheckpoint(project, entry);
+        assertTrue(historyEntryManager.hasCheckpoint(entry));
+
+        List<Row> rows = project.rows;
+        synchronized (project) {
+            project.rows.get(1).setCell(0, new Cell("later", null));
+            project.rows.add(new Row(1));
+        }
+        historyEntryManager.restoreCheckpoint(project, entry);
+
+        assertSame(project.rows, rows);
+        assertEquals(project.rows.size(), 2);
+        assertEquals(project.rows.get(0).getCellValue(0), "changed");
+        assertEquals(project.rows.get(1).getCellValue(0), "y");
+        assertEquals(project.columnModel.columns.get(0).getName(), "a");
+    }
+
+    @Test
+    public void testCorruptCheckpointLeavesTheProjectUnchanged() throws Exception {
+        Project project = createProject(new String[] { "a" },
+                new Serializable[][] {
+                        { "x" },
+                        { "y" },
+                });
+        HistoryEntry entry = applyCellChange(project, 0, "changed");
+        historyEntryManager.writeCheckpoint(project, entry);
+        truncateRows(historyEntryManager.getCheckpointFile(entry));
+
+        synchronized (project) {
+            project.rows.get(1).setCell(0, new Cell("later", null));
+            project.rows.add(new Row(1));
+        }
+        try {
+            historyEntryManager.restoreCheckpoint(project, entry);
+            fail("the corrupt checkpoint should not be restored");
+        } catch (Exception e) {
+            // expected
+        }
+
+        assertEquals(project.rows.size(), 3);
+        assertEquals(project.rows.get(0).getCellValue(0), "changed");
+        assertEquals(project.rows.get(1).getCellValue(0), "later");
+        assertEquals(project.columnModel.columns.get(0).getName(), "a");
+    }
+
+    @Test
+    public void testCheckpointOfPastEntryIsSkipped() throws Exception {
+        Project project = createProject(new String[] { "a" },
+                new Serializable[][] {
+                        { "x" },
+                });
+        HistoryEntry first = applyCellChange(project, 0, "first");
+        applyCellChange(project, 0, "second");
+
+        historyEntryManager.writeCheckpoint(project, first);
+
+        assertFalse(historyEntryManager.hasCheckpoint(first));
+    }
+
+    // rewrites the checkpoint with only the first half of its rows
+    private void truncateRows(File checkpoint) throws IOException {
+        File copy = new File(checkpoint.getPath() + ".tmp");
+        try (ZipFile zipFile = new ZipFile(checkpoint);
+                ZipOutputStream out = new ZipOutputStream(new FileOutputStream(copy))) {
+            for (ZipEntry zipEntry : Collections.list(zipFile.entries())) {
+                byte[] data = zipFile.getInputStream(zipEntry).readAllBytes();
+                if (zipEntry.getName().equals(ColumnarRowFormat.ENTRY_NAME)) {
+                    data = Arrays.copyOf(data, data.length / 2);
+                }
+                out.putNextEntry(new ZipEntry(zipEntry.getName()));
+                out.write(data);
+                out.closeEntry();
+            }
+        }
+        Files.move(copy.toPath(), checkpoint.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private HistoryEntry applyCellChange(Project project, int rowIndex, String value) {
+        Cell oldCell = project.rows.get(rowIndex).getCell(0);
+        HistoryEntry entry = new HistoryEntry(HistoryEntry.allocateID(), project, "edit", null,
+                new CellChange(rowIndex, 0, oldCell, new Cell(value, null)));
+        project.history.addEntry(entry);
+        return entry;
+    }
+}
@@ -29,18 +29,33 @@ package com.google.refine.io;
 
 import static org.mockito.Mockito.mock;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertThrows;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
 import org.apache.commons.io.FileUtils;
 import org.apache.jena.atlas.json.JSON;
 import org.apache.jena.atlas.json.JsonObject;
@@ -167,6 +182,73 @@ public class FileProjectManagerTests {
         assertEquals(manager.getProjectID("B"), idB);
     }
 
+    /**
+     * Projects listed in an up-to-date workspace index are registered without reading their metadata file, which is
+     * only loaded when first accessed. Metadata files modified since the index was written are read at start-up.
+     */
+    @Test
+    public void workspaceIndexDefersMetadataLoading() throws Exception {
+        FileProjectManager manager = new FileProjectManager(workspaceDir);
+        ProjectMetadata metaA = new ProjectMetadata();
+        metaA.setName("A");
+        metaA.setTags(new String[] { "tagA" });
+        manager.registerProject(new Project(), metaA);
+        manager.saveWorkspace();
+        long idA = manager.getProjectID("A");
+        assertTrue(new File(workspaceDir, WorkspaceIndex.FILE_NAME).exists());
+
+        // Rename the project behind the index's back, keeping the modification time
+        File metaFile = new File(manager.getProjectDir(idA), ProjectMetadata.DEFAULT_FILE_NAME);
+        long lastModified = metaFile.lastModified();
+        ProjectMetadata onDisk = ProjectMetadataUtilities.loadFromFile(metaFile);
+        onDisk.setName("renamed");
+        ProjectMetadataUtilities.saveToFile(onDisk, metaFile);
+        metaFile.setLastModified(lastModified);
+
+        manager = new FileProjectManager(workspaceDir);
+        assertEquals(manager.getProjectID("A"), idA);
+        assertEquals(manager.getAllProjectTags().get("tagA"), Integer.valueOf(1));
+        assertEquals(manager.getProjectMetadata(idA).getName(), "renamed");
+
+        // A metadata file modified since the index was written is read eagerly
+        metaFile.setLastModified(lastModified - 10000);
+        manager = new FileProjectManager(workspaceDir);
+        assertEquals(manager.getProjectID("renamed"), idA);
+        assertThrows(GetProjectIDException.class, () -> new FileProjectManager(workspaceDir).getProjectID("A"));
+    }
+
+    @Test
+    public void projectListIsServedFromWorkspaceIndex() throws Exception {
+        FileProjectManager manager = new FileProjectManager(workspaceDir);
+        ProjectMetadata metaA = new ProjectMetadata();
+        metaA.setName("A");
+        metaA.setTags(new String[] { "tagA" });
+        metaA.setRowCount(42);
+        manager.registerProject(new Project(), metaA);
+        manager.saveWorkspace();
+        long idA = manager.getProjectID("A");
+
+        // Rename the project behind the index's back, keeping the modification time
+        File metaFile = new File(manager.getProjectDir(idA), ProjectMetadata.DEFAULT_FILE_NAME);
+        long lastModified = metaFile.lastModified();
+        ProjectMetadata onDisk = ProjectMetadataUtilities.loadFromFile(metaFile);
+        onDisk.setName("renamed");
+        ProjectMetadataUtilities.saveToFile(onDisk, metaFile);
+        metaFile.setLastModified(lastModified);
+
+        manager = new FileProjectManager(workspaceDir);
+        Object listed = manager.getProjectListing().get(idA);
+        assertTrue(listed instanceof JsonNode, "listed without reading the metadata file");
+        assertEquals(((JsonNode) listed).get("name").asText(), "A");
+        assertEquals(((JsonNode) listed).get("rowCount").asInt(), 42);
+        assertEquals(((JsonNode) listed).get("tags").get(0).asText(), "tagA");
+        assertFalse(((JsonNode) listed).has("password"));
+
+        // once loaded, the metadata itself is listed
+        assertEquals(manager.getProjectMetadata(idA).getName(), "renamed");
+        assertSame(manager.getProjectListing().get(idA), manager.getProjectMetadata(idA));
+    }
+
     @Test
     public void testUntarZipSlip() throws IOException {
         FileProjectManager manager = new FileProjectManagerStub(workspaceDir);
@@ -179,4 +261,65 @@ public class FileProjectManagerTests {
             tempDir.delete();
         }
     }
+
+    @Test
+    public void testExportImportRoundTrip() throws IOException {
+        FileProjectManager manager = new FileProjectManagerStub(workspaceDir);
+        File projectDir = manager.getProjectDir(5555L);
+        File historyDir = new File(projectDir, FileHistoryEntryManager.HISTORY_DIR);
+        historyDir.mkdirs();
+        Files.write(new File(projectDir, "data.zip").toPath(), "rows".getBytes(StandardCharsets.UTF_8));
+        Files.write(new File(historyDir, "1.change.zip").toPath(), "change".getBytes(StandardCharsets.UTF_8));
+        Files.write(new File(historyDir, "1" + FileHistoryEntryManager.CHECKPOINT_SUFFIX).toPath(), new byte[10]);
+        // a project file whose name earlier builds used for the list of checksums
+        Files.write(new File(projectDir, "checksums.crc32").toPath(), "own".getBytes(StandardCharsets.UTF_8));
+
+        byte[] archive = export(manager, 5555L);
+        manager.importProject(6666L, new ByteArrayInputStream(archive), false);
+
+        File importedDir = manager.getProjectDir(6666L);
+        assertEquals(Files.readString(new File(importedDir, "data.zip").toPath()), "rows");
+        assertEquals(Files.readString(new File(importedDir, "history/1.change.zip").toPath()), "change");
+        assertEquals(Files.readString(new File(importedDir, "checksums.crc32").toPath()), "own");
+        assertFalse(new File(importedDir, "history/1" + FileHistoryEntryManager.CHECKPOINT_SUFFIX).exists());
+        assertEquals(new TreeSet<>(Arrays.asList(importedDir.list())),
+                new TreeSet<>(Arrays.asList("checksums.crc32", "data.zip", "history")));
+
+        // importers unaware of the checksums only see a directory entry for the project itself
+        List<String> files = new ArrayList<>();
+        try (TarArchiveInputStream tin = new TarArchiveInputStream(new ByteArrayInputStream(archive))) {
+            TarArchiveEntry entry;
+            while ((entry = tin.getNextTarEntry()) != null) {
+                if (!entry.isDirectory()) {
+                    files.add(entry.getName());
+                } else {
+                    assertEquals(entry.getName(), FileProjectManager.CHECKSUMS_ENTRY_NAME);
+                }
+            }
+        }
+        Collections.sort(files);
+        assertEquals(files, Arrays.asList("checksums.crc32", "data.zip", "history/1.change.zip"));
+    }
+
+    @Test
+    public void testImportDetectsCorruption() throws IOException {
+        FileProjectManager manager = new FileProjectManagerStub(workspaceDir);
+        File projectDir = manager.getProjectDir(5555L);
+        projectDir.mkdirs();
+        Files.write(new File(projectDir, "data.zip").toPath(), "rows".getBytes(StandardCharsets.UTF_8));
+
+        byte[] archive = export(manager, 5555L);
+        String content = new String(archive, StandardCharsets.ISO_8859_1);
+        archive[content.indexOf("rows")] = 'R';
+
+        assertThrows(IOException.class, () -> manager.importProject(6666L, new ByteArrayInputStream(archive), false));
+    }
+
+    private static byte[] export(FileProjectManager manager, long projectId) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (TarArchiveOutputStream tos = new TarArchiveOutputStream(out)) {
+            manager.exportProject(projectId, tos);
+        }
+        return out.toByteArray();
+    }
 }
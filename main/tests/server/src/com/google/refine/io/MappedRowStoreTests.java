@@ -0,0 +1,244 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.io;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.testng.annotations.Test;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.RefineTest;
+import com.google.refine.expr.EvalError;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Project;
+import com.google.refine.model.Recon;
+import com.google.refine.model.Row;
+import com.google.refine.util.TestUtils;
+
+public class MappedRowStoreTests extends RefineTest {
+
+    @Test
+    public void testValuesAreStored() throws IOException {
+        Recon recon = Recon.makeWikidataRecon(1234L);
+        OffsetDateTime date = OffsetDateTime.parse("2018-03-04T08:09:10+02:00");
+        try (MappedRowStore store = new MappedRowStore(1)) {
+            store.add(row(new Cell("foo", recon), null, new Cell(12L, null)));
+            store.add(row(new Cell(3.5, null), new Cell(date, null), new Cell(new EvalError("boom"), null)));
+            store.get(0).flagged = true;
+            store.get(1);
+
+            assertEquals(store.size(), 2);
+            Row first = store.get(0);
+            assertTrue(first.flagged);
+            assertEquals(first.getCellValue(0), "foo");
+            assertSame(first.getCell(0).recon, recon);
+            assertNull(first.getCell(1));
+            assertEquals(first.getCellValue(2), 12L);
+            Row second = store.get(1);
+            assertEquals(second.getCellValue(0), 3.5);
+            assertEquals(second.getCellValue(1), date);
+            assertEquals(second.getCellValue(2), new EvalError("boom"));
+        }
+    }
+
+    @Test
+    public void testModifiedRowsAreWrittenBackOnEviction() throws IOException {
+        try (MappedRowStore store = new MappedRowStore(2)) {
+            for (int i = 0; i < 10; i++) {
+                store.add(row(new Cell("v" + i, null)));
+            }
+            for (int i = 0; i < 10; i++) {
+                store.get(i).setCell(0, new Cell("w" + i, null));
+            }
+            for (int i = 0; i < 10; i++) {
+                assertEquals(store.get(i).getCellValue(0), "w" + i);
+            }
+
+            Row cached = store.get(9);
+            assertSame(store.get(9), cached);
+        }
+    }
+
+    @Test
+    public void testRowsModifiedAfterEvictionAreWrittenBack() throws IOException {
+        try (MappedRowStore store = new MappedRowStore(1)) {
+            store.add(row(new Cell("x", null)));
+            store.add(row(new Cell("y", null)));
+            Row held = store.get(0);
+            // another reader evicts the row before it is modified
+            store.get(1);
+            held.setCell(0, new Cell("changed", null));
+
+            assertSame(store.get(0), held);
+            store.get(1);
+            assertEquals(store.get(0).getCellValue(0), "changed");
+
+            // once its record has been replaced, the row no longer affects the store
+            store.set(0, row(new Cell("replaced", null)));
+            store.get(1);
+            held.setCell(0, new Cell("stale", null));
+            assertEquals(store.get(0).getCellValue(0), "replaced");
+        }
+    }
+
+    @Test
+    public void testStructuralChanges() throws IOException {
+        try (MappedRowStore store = new MappedRowStore(3)) {
+            for (int i = 0; i < 5; i++) {
+                store.add(row(new Cell(i, null)));
+            }
+            store.get(1).setCell(0, new Cell(10, null));
+            store.add(0, row(new Cell(-1, null)));
+            store.remove(3);
+            store.set(1, row(new Cell(100, null)));
+
+            assertEquals(store.size(), 5);
+            assertEquals(store.get(0).getCellValue(0), -1);
+            assertEquals(store.get(1).getCellValue(0), 100);
+            assertEquals(store.get(2).getCellValue(0), 10);
+            assertEquals(store.get(3).getCellValue(0), 3);
+            assertEquals(store.get(4).getCellValue(0), 4);
+
+            store.clear();
+            assertEquals(store.size(), 0);
+            store.add(row(new Cell("again", null)));
+            assertEquals(store.get(0).getCellValue(0), "again");
+        }
+    }
+
+    @Test
+    public void testSupersededRecordsAreCompacted() throws IOException {
+        try (MappedRowStore store = new MappedRowStore(1, 256)) {
+            for (int i = 0; i < 20; i++) {
+                store.add(row(new Cell("row " + i, null)));
+            }
+            for (int round = 0; round < 20; round++) {
+                for (int i = 0; i < 20; i++) {
+                    store.set(i, row(new Cell("row " + i + " round " + round, null)));
+                }
+            }
+            for (int i = 0; i < 20; i++) {
+                assertEquals(store.get(i).getCellValue(0), "row " + i + " round 19");
+            }
+        }
+    }
+
+    @Test
+    public void testReconTableIsRebuiltWhenCompacting() throws IOException {
+        try (MappedRowStore store = new MappedRowStore(1, 256)) {
+            for (int i = 0; i < 20; i++) {
+                store.add(row(new Cell("row " + i, Recon.makeWikidataRecon(i))));
+            }
+            for (int round = 0; round < 20; round++) {
+                for (int i = 0; i < 20; i++) {
+                    store.set(i, row(new Cell("row " + i, Recon.makeWikidataRecon(round))));
+                }
+            }
+            assertTrue(store.getReconCount() < 20 * 21, "superseded recons should have been dropped");
+            for (int i = 0; i < 20; i++) {
+                assertEquals(store.get(i).getCell(0).recon.judgmentHistoryEntry, 19L);
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentReads() throws Exception {
+        try (MappedRowStore store = new MappedRowStore(64)) {
+            for (int i = 0; i < 5000; i++) {
+                store.add(row(new Cell("v" + i, null)));
+            }
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            try {
+                List<Future<Boolean>> scans = new ArrayList<>();
+                for (int t = 0; t < 4; t++) {
+                    int offset = t;
+                    scans.add(executor.submit(() -> {
+                        for (int i = 0; i < store.size(); i++) {
+                            int index = (i * 7 + offset) % store.size();
+                            if (!("v" + index).equals(store.get(index).getCellValue(0))) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }));
+                }
+                for (Future<Boolean> scan : scans) {
+                    assertTrue(scan.get());
+                }
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+
+    @Test
+    public void testLargeProjectsAreLoadedIntoStore() throws IOException {
+        Project project = createProject(new String[] { "a", "b" },
+                new Serializable[][] {
+                        { "x", 1L },
+                        { "y", 2L },
+                        { "z", 3L },
+                });
+        File file = new File(TestUtils.createTempDirectory("openrefine-mapped-test"), ProjectUtilities.DATA_ZIP);
+        ProjectUtilities.saveToFile(project, file);
+
+        ProjectManager.singleton.getPreferenceStore().put(ProjectUtilities.MAPPED_ROW_STORE_THRESHOLD_PREFERENCE, 2);
+        ProjectManager.singleton.getPreferenceStore().put(ProjectUtilities.MAPPED_ROW_STORE_CACHE_SIZE_PREFERENCE, 1);
+        Project loaded = ProjectUtilities.loadFromFile(file, project.id);
+        try {
+            assertTrue(loaded.rows instanceof MappedRowStore);
+            assertEquals(loaded.rows.size(), 3);
+            assertEquals(loaded.rows.get(2).getCellValue(0), "z");
+            assertEquals(loaded.rows.get(1).getCellValue(1), 2L);
+            assertEquals(loaded.columnModel.getMaxCellIndex(), 1);
+        } finally {
+            ((MappedRowStore) loaded.rows).close();
+        }
+    }
+
+    private Row row(Cell... cells) {
+        Row row = new Row(cells.length);
+        for (Cell cell : cells) {
+            row.cells.add(cell);
+        }
+        return row;
+    }
+}
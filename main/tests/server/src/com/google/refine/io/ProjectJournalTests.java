@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.io;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.RefineTest;
+import com.google.refine.history.HistoryEntry;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Project;
+import com.google.refine.model.changes.CellChange;
+import com.google.refine.util.TestUtils;
+
+public class ProjectJournalTests extends RefineTest {
+
+    File workspace;
+    FileProjectManager manager;
+
+    @BeforeMethod
+    public void setUpWorkspace() throws IOException {
+        workspace = TestUtils.createTempDirectory("openrefine-journal-test");
+        manager = new FileProjectManager(workspace);
+        ProjectManager.singleton = manager;
+    }
+
+    @Test
+    public void testStepsAreJournaledAndReplayed() throws IOException {
+        Project project = createProject(new String[] { "a" },
+                new Serializable[][] {
+                        { "x" },
+                        { "y" },
+                });
+        File dir = manager.getProjectDir(project.id);
+        ProjectUtilities.save(project);
+        File data = new File(dir, ProjectUtilities.DATA_ZIP);
+        long token = ProjectUtilities.readSnapshotToken(data);
+        assertTrue(token != 0);
+        assertFalse(new File(dir, ProjectJournal.JOURNAL_FILE).exists());
+
+        HistoryEntry first = edit(project, 0, "x", "x2");
+        edit(project, 1, "y", "y2");
+        project.history.undoRedo(first.id);
+        ProjectUtilities.save(project);
+
+        assertTrue(new File(dir, ProjectJournal.JOURNAL_FILE).exists());
+        assertEquals(ProjectUtilities.readSnapshotToken(data), token, "the snapshot should not have been rewritten");
+
+        Project loaded = ProjectUtilities.load(dir, project.id);
+        assertEquals(loaded.rows.get(0).getCellValue(0), "x2");
+        assertEquals(loaded.rows.get(1).getCellValue(0), "y");
+        assertEquals(loaded.history.getLastPastEntries(0).size(), 1);
+        assertEquals(loaded.history.getLastPastEntries(0).get(0).id, first.id);
+
+        ProjectUtilities.saveFully(project);
+        assertFalse(new File(dir, ProjectJournal.JOURNAL_FILE).exists());
+        assertTrue(project.history.getUnsavedSteps().isEmpty());
+    }
+
+    @Test
+    public void testStaleJournalIsIgnored() throws IOException {
+        Project project = createProject(new String[] { "a" },
+                new Serializable[][] {
+                        { "x" },
+                });
+        File dir = manager.getProjectDir(project.id);
+        ProjectUtilities.save(project);
+        edit(project, 0, "x", "x2");
+        ProjectJournal.append(dir, 42L, project.history.getUnsavedSteps());
+
+        Project loaded = ProjectUtilities.load(dir, project.id);
+        assertEquals(loaded.rows.get(0).getCellValue(0), "x");
+    }
+
+    private HistoryEntry edit(Project project, int row, String oldValue, String newValue) {
+        CellChange change = new CellChange(row, 0, new Cell(oldValue, null), new Cell(newValue, null));
+        HistoryEntry entry = new HistoryEntry(HistoryEntry.allocateID(), project, "Edit cell", null, change);
+        project.history.addEntry(entry);
+        return entry;
+    }
+}
@@ -0,0 +1,193 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.io;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.time.Instant;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.RefineTest;
+import com.google.refine.history.HistoryEntry;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+import com.google.refine.model.changes.CellChange;
+import com.google.refine.util.TestUtils;
+
+public class ProjectSnapshotTests extends RefineTest {
+
+    FileProjectManager manager;
+
+    @BeforeMethod
+    public void setUpWorkspace() throws IOException {
+        manager = new FileProjectManager(TestUtils.createTempDirectory("openrefine-snapshot-test"));
+        ProjectManager.singleton = manager;
+    }
+
+    @Test
+    public void testSnapshotIsNotAffectedByLaterChanges() throws IOException {
+        Project project = createProject(new String[] { "a" },
+                new Serializable[][] {
+                        { "x" },
+                        { "y" },
+                });
+        ProjectSnapshot snapshot = ProjectSnapshot.capture(project);
+        Row first = project.rows.get(0);
+
+        // changes modify rows with the project locked
+        synchronized (project) {
+            first.setCell(0, new Cell("changed", null));
+            project.rows.get(1).setFlagged(true);
+            project.rows.remove(1);
+        }
+
+        try {
+            assertEquals(snapshot.projectId, project.id);
+            assertEquals(snapshot.rows.size(), 2);
+            assertEquals(snapshot.rows.get(0).getCellValue(0), "x");
+            assertFalse(snapshot.rows.get(1).flagged);
+            assertTrue(new String(snapshot.header, "UTF-8").contains("columnModel="));
+            assertEquals(project.rows.get(0).getCellValue(0), "changed");
+            assertSame(project.rows.get(0), first);
+        } finally {
+            snapshot.close();
+        }
+    }
+
+    @Test
+    public void testRowsAreOnlyCopiedWhenModifiedBeforeBeingWritten() throws IOException {
+        Project project = createProject(new String[] { "a" },
+                new Serializable[][] {
+                        { "x" },
+                        { "y" },
+                });
+        ProjectSnapshot snapshot = ProjectSnapshot.capture(project);
+        try {
+            Row first = project.rows.get(0);
+            assertSame(snapshot.rows.get(0), first);
+            assertSame(snapshot.rows.get(1), project.rows.get(1));
+
+            // the group being written is released when the snapshot is closed
+            Thread change = new Thread(() -> {
+                synchronized (project) {
+                    first.setCell(0, new Cell("changed", null));
+                }
+            });
+            change.start();
+            snapshot.close();
+            change.join(10000);
+            assertEquals(first.getCellValue(0), "changed");
+        } catch (InterruptedException e) {
+            throw new IOException(e);
+        } finally {
+            snapshot.close();
+        }
+    }
+
+    @Test
+    public void testMappedRowsAreReadFromTheirRecords() throws IOException {
+        Project project = createProject(new String[] { "a" },
+                new Serializable[][] {
+                        { "x" },
+                        { "y" },
+                });
+        File file = new File(TestUtils.createTempDirectory("openrefine-snapshot-test"), ProjectUtilities.DATA_ZIP);
+        ProjectUtilities.saveToFile(project, file);
+        ProjectManager.singleton.getPreferenceStore().put(ProjectUtilities.MAPPED_ROW_STORE_THRESHOLD_PREFERENCE, 1);
+        Project mapped = ProjectUtilities.loadFromFile(file, project.id);
+        ProjectManager.singleton.getPreferenceStore().put(ProjectUtilities.MAPPED_ROW_STORE_THRESHOLD_PREFERENCE, null);
+        try {
+            assertTrue(mapped.rows instanceof MappedRowStore);
+            ProjectSnapshot snapshot = ProjectSnapshot.capture(mapped);
+            synchronized (mapped) {
+                mapped.rows.get(0).setCell(0, new Cell("changed", null));
+                mapped.rows.clear();
+            }
+            try {
+                assertEquals(snapshot.rows.size(), 2);
+                assertEquals(snapshot.rows.get(0).getCellValue(0), "x");
+                assertEquals(snapshot.rows.get(1).getCellValue(0), "y");
+            } finally {
+                snapshot.close();
+            }
+        } finally {
+            ((MappedRowStore) mapped.rows).close();
+        }
+    }
+
+    @Test
+    public void testSaveWhileHoldingProjectLock() throws IOException {
+        Project project = createProject(new String[] { "a" },
+                new Serializable[][] {
+                        { "x" },
+                });
+        Instant before = project.getLastSave();
+        synchronized (project) {
+            ProjectUtilities.saveFully(project);
+        }
+
+        assertFalse(project.getLastSave().isBefore(before));
+        File dir = manager.getProjectDir(project.id);
+        Project loaded = ProjectUtilities.load(dir, project.id);
+        assertEquals(loaded.rows.get(0).getCellValue(0), "x");
+    }
+
+    @Test
+    public void testUndoWhileSaving() throws IOException, InterruptedException {
+        Project project = createProject(new String[] { "a" },
+                new Serializable[][] {
+                        { "x" },
+                        { "y" },
+                });
+        CellChange change = new CellChange(0, 0, new Cell("x", null), new Cell("changed", null));
+        project.history.addEntry(new HistoryEntry(HistoryEntry.allocateID(), project, "Edit cell", null, change));
+
+        ProjectSnapshot snapshot = ProjectSnapshot.capture(project);
+        try {
+            // undoing reverts the change with the project locked, so the snapshot keeps a copy of the row
+            Thread undo = new Thread(() -> project.history.undoRedo(0));
+            undo.start();
+            undo.join(10000);
+            assertEquals(project.rows.get(0).getCellValue(0), "x");
+            assertEquals(snapshot.rows.get(0).getCellValue(0), "changed");
+            assertEquals(snapshot.rows.get(1).getCellValue(0), "y");
+        } finally {
+            snapshot.close();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.model;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.Serializable;
+
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.model.changes.CellChange;
+import com.google.refine.model.changes.MassCellChange;
+
+public class CellValueDictionaryTests extends RefineTest {
+
+    @Test
+    public void testEqualStringsShareOneInstance() {
+        CellValueDictionary dictionary = new CellValueDictionary(true, 0.5);
+        String first = new String("active");
+        String second = new String("active");
+
+        assertSame(dictionary.intern(0, first), first);
+        assertSame(dictionary.intern(0, second), first);
+        assertSame(dictionary.intern(1, second), second, "columns have separate dictionaries");
+        assertEquals(dictionary.intern(0, 12L), 12L);
+        assertEquals(dictionary.getDistinctCount(0), 1);
+        assertTrue(dictionary.getSavedBytes(0) > 0);
+
+        Cell cell = new Cell(new String("active"), null);
+        Cell interned = dictionary.intern(0, cell);
+        assertNotSame(interned, cell);
+        assertSame(interned.value, first);
+        assertSame(dictionary.intern(0, interned), interned);
+    }
+
+    @Test
+    public void testHighCardinalityColumnsAreDisabled() {
+        CellValueDictionary dictionary = new CellValueDictionary(true, 0.5);
+        for (int i = 0; i < CellValueDictionary.MIN_SAMPLE; i++) {
+            dictionary.intern(0, "value " + i);
+            dictionary.intern(1, "value " + (i % 10));
+        }
+
+        assertFalse(dictionary.isEnabled(0));
+        assertEquals(dictionary.getDistinctCount(0), 0);
+        String value = new String("value 1");
+        assertSame(dictionary.intern(0, value), value);
+        assertTrue(dictionary.isEnabled(1));
+        assertEquals(dictionary.getDistinctCount(1), 10);
+
+        dictionary.disable(1);
+        assertFalse(dictionary.isEnabled(1));
+    }
+
+    @Test
+    public void testChangesInternNewCells() {
+        Project project = createProject(new String[] { "status" },
+                new Serializable[][] {
+                        { "open" },
+                        { "closed" },
+                });
+        Serializable existing = project.valueDictionary.intern(0, new String("closed"));
+
+        new CellChange(0, 0, project.rows.get(0).getCell(0), new Cell(new String("closed"), null)).apply(project);
+
+        assertSame(project.rows.get(0).getCellValue(0), existing);
+    }
+
+    @Test
+    public void testChangesShareTheirInternedCellsWithTheRows() {
+        Project project = createProject(new String[] { "status" },
+                new Serializable[][] {
+                        { "open" },
+                        { "closed" },
+                });
+        project.valueDictionary.intern(0, new String("closed"));
+        CellChange cellChange = new CellChange(0, 0, project.rows.get(0).getCell(0), new Cell(new String("closed"), null));
+        MassCellChange massChange = new MassCellChange(
+                new CellChange(1, 0, project.rows.get(1).getCell(0), new Cell(new String("closed"), null)), "status", false);
+
+        cellChange.apply(project);
+        massChange.apply(project);
+        Cell first = project.rows.get(0).getCell(0);
+        Cell second = project.rows.get(1).getCell(0);
+        assertSame(cellChange.newCell, first);
+
+        cellChange.revert(project);
+        massChange.revert(project);
+        cellChange.apply(project);
+        massChange.apply(project);
+
+        assertSame(project.rows.get(0).getCell(0), first, "redoing does not create new cells");
+        assertSame(project.rows.get(1).getCell(0), second);
+    }
+
+    @Test
+    public void testDictionariesOfRemovedColumnsAreReleased() {
+        Project project = createProject(new String[] { "status", "owner" },
+                new Serializable[][] {
+                        { "open", "me" },
+                });
+        project.valueDictionary.intern(0, "open");
+        project.valueDictionary.intern(1, "me");
+
+        project.columnModel.columns.remove(1);
+        project.update();
+
+        assertEquals(project.valueDictionary.getDistinctCount(0), 1);
+        assertEquals(project.valueDictionary.getDistinctCount(1), 0);
+    }
+}
@@ -28,7 +28,9 @@
 package com.google.refine.model;
 
 import java.io.Serializable;
+import java.util.BitSet;
 
+import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import com.google.refine.RefineTest;
@@ -46,4 +48,58 @@ public class RecordModelTests extends RefineTest {
                 });
         TestUtils.isSerializedTo(proj.recordModel, "{\"hasRecords\":true}");
     }
+
+    @Test
+    public void testRecordIndices() {
+        Project proj = createProject(
+                new String[] { "key", "val" },
+                new Serializable[][] {
+                        { "a", "1" },
+                        { null, "2" },
+                        { null, "3" },
+                        { "b", "4" },
+                        { "c", "5" },
+                        { null, "6" }
+                });
+        RecordModel model = proj.recordModel;
+
+        Assert.assertEquals(model.getRecordCount(), 3);
+        Assert.assertEquals(model.getRecordStart(1), 3);
+        Assert.assertEquals(model.getRecordEnd(1), 4);
+        Record record = model.getRecord(2);
+        Assert.assertEquals(record.fromRowIndex, 4);
+        Assert.assertEquals(record.toRowIndex, 6);
+        Assert.assertEquals(record.recordIndex, 2);
+        Assert.assertNull(model.getRecord(3));
+        Assert.assertEquals(model.getRecordOfRow(2).recordIndex, 0);
+        Assert.assertEquals(model.getRecordIndexOfRow(5), 2);
+        Assert.assertEquals(model.getRecordIndexOfRow(6), -1);
+
+        Assert.assertEquals(model.getRowDependency(3).recordIndex, 1);
+        Assert.assertEquals(model.getRowDependency(2).recordIndex, -1);
+        Assert.assertEquals(model.getRowDependency(2).cellDependencies[1].rowIndex, 0);
+        Assert.assertEquals(model.getRowDependency(2).contextRows.get(0).intValue(), 0);
+    }
+
+    @Test
+    public void testMatchingRecords() {
+        Project proj = createProject(
+                new String[] { "key", "val" },
+                new Serializable[][] {
+                        { "a", "1" },
+                        { null, "2" },
+                        { "b", "3" },
+                        { "c", "4" },
+                        { null, "5" }
+                });
+        BitSet rows = new BitSet();
+        rows.set(0);
+        rows.set(1);
+        rows.set(4);
+
+        BitSet any = proj.recordModel.getMatchingRecords(rows, false);
+        Assert.assertEquals(any.toString(), "{0, 2}");
+        BitSet all = proj.recordModel.getMatchingRecords(rows, true);
+        Assert.assertEquals(all.toString(), "{0}");
+    }
 }
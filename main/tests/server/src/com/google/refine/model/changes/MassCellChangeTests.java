@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.model.changes;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Serializable;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.history.BinaryChange;
+import com.google.refine.history.Change;
+import com.google.refine.history.History;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Project;
+import com.google.refine.model.Recon;
+import com.google.refine.util.Pool;
+
+public class MassCellChangeTests extends RefineTest {
+
+    @Test
+    public void testBinaryRoundTrip() throws Exception {
+        Project project = createProject(new String[] { "a", "b" },
+                new Serializable[][] {
+                        { "foo", 1L },
+                        { "bar", 2L },
+                        { null, 3L },
+                });
+        Recon recon = Recon.makeWikidataRecon(1234L);
+        MassCellChange change = new MassCellChange(List.of(
+                new CellChange(2, 0, null, new Cell("baz", recon)),
+                new CellChange(0, 0, project.rows.get(0).getCell(0), new Cell("FOO", null)),
+                new CellChange(1, 1, project.rows.get(1).getCell(1), null)),
+                null, false);
+
+        Change loaded = roundTrip(change);
+        loaded.apply(project);
+
+        assertEquals(project.rows.get(0).getCellValue(0), "FOO");
+        assertEquals(project.rows.get(2).getCellValue(0), "baz");
+        assertSame(project.rows.get(2).getCell(0).recon, recon);
+        assertNull(project.rows.get(1).getCell(1));
+
+        loaded.revert(project);
+
+        assertEquals(project.rows.get(0).getCellValue(0), "foo");
+        assertNull(project.rows.get(2).getCell(0));
+        assertEquals(project.rows.get(1).getCellValue(1), 2L);
+    }
+
+    @Test
+    public void testCommonColumn() throws Exception {
+        Project project = createProject(new String[] { "a" },
+                new Serializable[][] {
+                        { "x" },
+                        { "y" },
+                });
+        MassCellChange change = new MassCellChange(List.of(
+                new CellChange(1, 0, project.rows.get(1).getCell(0), new Cell("Y", null)),
+                new CellChange(0, 0, project.rows.get(0).getCell(0), new Cell("X", null))),
+                "a", false);
+        assertEquals(change.getCellChangeCount(), 2);
+
+        MassCellChange loaded = (MassCellChange) roundTrip(change);
+        loaded.apply(project);
+
+        assertEquals(loaded.getCellChangeCount(), 2);
+        assertEquals(loaded._commonColumnName, "a");
+        assertEquals(project.rows.get(0).getCellValue(0), "X");
+        assertEquals(project.rows.get(1).getCellValue(0), "Y");
+    }
+
+    private static Change roundTrip(BinaryChange change) throws Exception {
+        Pool pool = new Pool();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        History.writeOneBinaryChange(out, change, pool);
+        return History.readOneBinaryChange(new ByteArrayInputStream(out.toByteArray()), pool);
+    }
+}
@@ -27,6 +27,7 @@
 
 package com.google.refine.preference;
 
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
@@ -70,4 +71,22 @@ public class PreferenceStoreTests {
         assertFalse(prefStore.isDirty());
     }
 
+    @Test
+    public void testTypedGetters() {
+        PreferenceStore prefs = new PreferenceStore();
+        prefs.put("number", 12);
+        prefs.put("string", "9000000000");
+        prefs.put("ratio", "0.25");
+        prefs.put("garbage", "lots");
+        prefs.put("disabled", "false");
+
+        assertEquals(prefs.getInt("number", 1), 12);
+        assertEquals(prefs.getLong("string", 1L), 9000000000L);
+        assertEquals(prefs.getDouble("ratio", 1.0), 0.25);
+        assertEquals(prefs.getInt("garbage", 7), 7);
+        assertEquals(prefs.getLong("missing", 7L), 7L);
+        assertFalse(prefs.getBoolean("disabled", true));
+        assertTrue(prefs.getBoolean("number", false));
+        assertTrue(prefs.getBoolean("missing", true));
+    }
 }
@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.sorting;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.testng.annotations.Test;
+
+public class IndexSorterTests {
+
+    @Test
+    public void sortSmallArray() {
+        int[] values = { 4, 1, 3, 1, 0 };
+        int[] order = IndexSorter.sortRange(values.length, (i1, i2) -> Integer.compare(values[i1], values[i2]));
+        assertEquals(order, new int[] { 4, 1, 3, 2, 0 });
+    }
+
+    @Test
+    public void sortIsStableOnLargeArrays() {
+        int count = 5 * IndexSorter.PARALLEL_THRESHOLD + 17;
+        int[] values = new int[count];
+        Random random = new Random(42);
+        for (int i = 0; i < count; i++) {
+            values[i] = random.nextInt(100);
+        }
+
+        int[] order = IndexSorter.sortRange(count, (i1, i2) -> Integer.compare(values[i1], values[i2]));
+
+        assertEquals(order.length, count);
+        boolean[] seen = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            seen[order[i]] = true;
+            if (i > 0) {
+                int previous = order[i - 1];
+                assertTrue(values[previous] < values[order[i]]
+                        || (values[previous] == values[order[i]] && previous < order[i]));
+            }
+        }
+        for (boolean s : seen) {
+            assertTrue(s);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.sorting;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.BitSet;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.model.Project;
+
+public class SortedViewTests extends RefineTest {
+
+    Project project;
+    SortingConfig config;
+    BitSet all;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        SortedView.clear();
+        project = createProject(new String[] { "n" },
+                new Serializable[][] {
+                        { 5 }, { 3 }, { null }, { 8 }, { 3 }, { 1 }, { 9 }, { 2 }, { 7 }, { 4 }
+                });
+        config = SortingConfig.reconstruct("{\"criteria\":[{\"column\":\"n\",\"valueType\":\"number\","
+                + "\"reverse\":false,\"blankPosition\":2,\"errorPosition\":1}]}");
+        all = new BitSet();
+        all.set(0, project.rows.size());
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        SortedView.clear();
+    }
+
+    @Test
+    public void firstPageUsesHeapThenBuildsOrder() {
+        assertEquals(SortedView.getPage(project, config, false, all, 0, 3), new int[] { 5, 7, 1 });
+        assertFalse(SortedView.isCached(project, config, false));
+
+        assertEquals(SortedView.getPage(project, config, false, all, 3, 3), new int[] { 4, 9, 0 });
+        assertTrue(SortedView.isCached(project, config, false));
+        // ties are kept in row order and blanks come last
+        assertEquals(SortedView.getPage(project, config, false, all, 0, 10),
+                new int[] { 5, 7, 1, 4, 9, 0, 8, 3, 6, 2 });
+    }
+
+    @Test
+    public void pagesOfFilteredRows() {
+        BitSet matches = new BitSet();
+        matches.set(0);
+        matches.set(2);
+        matches.set(3);
+        matches.set(6);
+        SortedView.getPage(project, config, false, all, 0, 1);
+        assertEquals(SortedView.getPage(project, config, false, matches, 1, 2), new int[] { 3, 6 });
+        assertEquals(SortedView.getPage(project, config, false, matches, 3, 5), new int[] { 2 });
+        assertEquals(SortedView.getPage(project, config, false, matches, 4, 5), new int[0]);
+    }
+
+    @Test
+    public void cacheFlushedForProject() {
+        SortedView.getPage(project, config, false, all, 0, 10);
+        assertTrue(SortedView.isCached(project, config, false));
+        SortedView.flush(project.id);
+        assertFalse(SortedView.isCached(project, config, false));
+    }
+}